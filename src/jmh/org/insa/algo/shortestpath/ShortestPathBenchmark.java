@@ -0,0 +1,89 @@
+package org.insa.algo.shortestpath;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.benchmark.BenchmarkGraphs;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of single queries of shortest path algorithms on synthetic grids
+ * (see {@link BenchmarkGraphs#grid(int, int, long)}). Each invocation runs the
+ * next query of a fixed, seeded set of queries.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShortestPathBenchmark {
+
+    // Number of queries of the set.
+    private static final int NB_QUERIES = 64;
+
+    @Param({ "Dijkstra", "A*", "Bellman-Ford" })
+    public String algorithm;
+
+    // Side of the grid.
+    @Param({ "100", "300" })
+    public int side;
+
+    // Index of the inspector in ArcInspectorFactory.getAllFilters() (0: length,
+    // 2: time).
+    @Param({ "0", "2" })
+    public int inspector;
+
+    private Function<ShortestPathData, ShortestPathAlgorithm> factory;
+    private ShortestPathData[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Graph graph = BenchmarkGraphs.grid(side, side, 1);
+        ArcInspector arcInspector = ArcInspectorFactory.getAllFilters().get(inspector);
+        queries = new ShortestPathData[NB_QUERIES];
+        Node[][] pairs = BenchmarkGraphs.queries(graph, NB_QUERIES, 2);
+        for (int i = 0; i < NB_QUERIES; ++i) {
+            queries[i] = new ShortestPathData(graph, pairs[i][0], pairs[i][1], arcInspector);
+        }
+        switch (algorithm) {
+        case "Dijkstra":
+            factory = DijkstraAlgorithm::new;
+            break;
+        case "A*":
+            factory = AStarAlgorithm::new;
+            break;
+        case "Bellman-Ford":
+            factory = BellmanFordAlgorithm::new;
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public ShortestPathSolution query() {
+        ShortestPathData data = queries[next];
+        next = (next + 1) % NB_QUERIES;
+        return factory.apply(data).run();
+    }
+
+}
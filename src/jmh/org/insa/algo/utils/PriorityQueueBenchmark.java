@@ -0,0 +1,112 @@
+package org.insa.algo.utils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the priority queues of this package on seeded random keys.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriorityQueueBenchmark {
+
+    @Param({ "BinaryHeap", "BinarySearchTree", "DaryHeap" })
+    public String queue;
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    // Keys inserted by the benchmarks (boxed once for all).
+    private Integer[] keys;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        keys = new Integer[size];
+        for (int i = 0; i < size; ++i) {
+            keys[i] = random.nextInt();
+        }
+    }
+
+    /**
+     * @return A new empty queue of the benchmarked type.
+     */
+    private PriorityQueue<Integer> newQueue() {
+        switch (queue) {
+        case "BinaryHeap":
+            return new BinaryHeap<>();
+        case "BinarySearchTree":
+            return new BinarySearchTree<>();
+        case "DaryHeap":
+            return new DaryHeap<>();
+        default:
+            throw new IllegalArgumentException("Unknown queue: " + queue);
+        }
+    }
+
+    /**
+     * Insert all the keys, then remove them by increasing order.
+     */
+    @Benchmark
+    public void insertThenDeleteAll(Blackhole blackhole) {
+        PriorityQueue<Integer> queue = newQueue();
+        for (Integer key: keys) {
+            queue.insert(key);
+        }
+        while (!queue.isEmpty()) {
+            blackhole.consume(queue.deleteMin());
+        }
+    }
+
+    /**
+     * Interleave insertions and removals as a Dijkstra search does: the queue
+     * grows to about half of the keys, then is emptied.
+     */
+    @Benchmark
+    public void interleaved(Blackhole blackhole) {
+        PriorityQueue<Integer> queue = newQueue();
+        for (int i = 0; i < keys.length; ++i) {
+            queue.insert(keys[i]);
+            if (i % 2 == 1) {
+                blackhole.consume(queue.deleteMin());
+            }
+        }
+        while (!queue.isEmpty()) {
+            blackhole.consume(queue.deleteMin());
+        }
+    }
+
+    /**
+     * Remove a quarter of the keys from a full queue, by value.
+     */
+    @Benchmark
+    public void remove(Blackhole blackhole) {
+        PriorityQueue<Integer> queue = newQueue();
+        for (Integer key: keys) {
+            queue.insert(key);
+        }
+        for (int i = 0; i < keys.length; i += 4) {
+            queue.remove(keys[i]);
+        }
+        blackhole.consume(queue.size());
+    }
+
+}
@@ -0,0 +1,159 @@
+package org.insa.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.GraphStatistics.BoundingBox;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.insa.graph.io.BinaryGraphWriter;
+
+/**
+ * Synthetic graphs used by the benchmarks, generated in code from a seed so
+ * that benchmarks run anywhere and always on the same graphs.
+ *
+ * Benchmarks are run with JMH, e.g. by building the classes of
+ * <code>src/jmh</code> with the JMH annotation processor and running
+ * <code>org.openjdk.jmh.Main</code>.
+ *
+ */
+public final class BenchmarkGraphs {
+
+    // Spacing of the grid, in degrees, and maximum offset of nodes from the grid.
+    private static final float SPACING = 0.002f, JITTER = 0.0006f;
+
+    // One row (and column) out of MAIN_ROAD_PERIOD is a main road.
+    private static final int MAIN_ROAD_PERIOD = 8;
+
+    private BenchmarkGraphs() {
+    }
+
+    /**
+     * Create a road-like grid graph: nodes are placed on a jittered grid and
+     * linked to their horizontal and vertical neighbours by residential roads,
+     * with faster main roads on regularly spaced rows and columns. About one road
+     * out of ten is one-way, and one road out of three has intermediate points.
+     * Lengths are the distances between nodes, extended by up to 30%.
+     * 
+     * @param width Number of columns of the grid.
+     * @param height Number of rows of the grid.
+     * @param seed Seed of the random generator.
+     * 
+     * @return A new grid graph.
+     */
+    public static Graph grid(int width, int height, long seed) {
+        Random random = new Random(seed);
+        AccessRestrictions access = new AccessRestrictions();
+        RoadInformation residential = new RoadInformation(RoadType.RESIDENTIAL, access, false,
+                50, "");
+        RoadInformation residentialOneWay = new RoadInformation(RoadType.RESIDENTIAL, access,
+                true, 50, "");
+        RoadInformation primary = new RoadInformation(RoadType.PRIMARY, access, false, 90, "");
+
+        Node[] nodes = new Node[width * height];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = new Node(i,
+                    new Point(1 + (i % width) * SPACING + (random.nextFloat() - 0.5f) * JITTER,
+                            43 + (i / width) * SPACING
+                                    + (random.nextFloat() - 0.5f) * JITTER));
+        }
+
+        float maxLength = 0;
+        int nbOneWay = 0, nbTwoWays = 0;
+        for (int i = 0; i < nodes.length; ++i) {
+            final int x = i % width, y = i / width;
+            for (int j: new int[] { x + 1 < width ? i + 1 : -1, y + 1 < height ? i + width : -1 }) {
+                if (j < 0) {
+                    continue;
+                }
+                final boolean main = j == i + 1 ? y % MAIN_ROAD_PERIOD == 0
+                        : x % MAIN_ROAD_PERIOD == 0;
+                RoadInformation info = main ? primary
+                        : random.nextInt(10) == 0 ? residentialOneWay : residential;
+                Node origin = nodes[i], destination = nodes[j];
+                if (info.isOneWay() && random.nextBoolean()) {
+                    origin = nodes[j];
+                    destination = nodes[i];
+                }
+
+                // Geometry, including the points of the origin and the destination.
+                Point from = origin.getPoint(), to = destination.getPoint();
+                List<Point> points = new ArrayList<>();
+                points.add(from);
+                if (random.nextInt(3) == 0) {
+                    points.add(new Point(
+                            (from.getLongitude() + to.getLongitude()) / 2
+                                    + (random.nextFloat() - 0.5f) * JITTER,
+                            (from.getLatitude() + to.getLatitude()) / 2
+                                    + (random.nextFloat() - 0.5f) * JITTER));
+                }
+                points.add(to);
+
+                float length = (float) (Point.distance(from, to) * (1 + 0.3 * random.nextDouble()));
+                Node.linkNodes(origin, destination, length, info, points);
+                maxLength = Math.max(maxLength, length);
+                if (info.isOneWay()) {
+                    ++nbOneWay;
+                }
+                else {
+                    ++nbTwoWays;
+                }
+            }
+        }
+        BoundingBox box = new BoundingBox(new Point(1 - SPACING, 43 + height * SPACING),
+                new Point(1 + width * SPACING, 43 - SPACING));
+        return new Graph(String.format("grid-%dx%d-%d", width, height, seed), "", Arrays.asList(nodes),
+                new GraphStatistics(box, nbOneWay, nbTwoWays, 90, maxLength));
+    }
+
+    /**
+     * Encode the given graph in the binary format read by
+     * {@link org.insa.graph.io.BinaryGraphReader}.
+     * 
+     * @param graph Graph to encode.
+     * 
+     * @return The encoded graph.
+     * 
+     * @throws IOException if the graph cannot be encoded.
+     */
+    public static byte[] toMapgr(Graph graph) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new BinaryGraphWriter(new DataOutputStream(bytes)).writeGraph(graph);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Draw random pairs of distinct nodes.
+     * 
+     * @param graph Graph whose nodes should be drawn.
+     * @param count Number of pairs to draw.
+     * @param seed Seed of the random generator.
+     * 
+     * @return Array of pairs, each pair being an array containing an origin and a
+     *         destination.
+     */
+    public static Node[][] queries(Graph graph, int count, long seed) {
+        Random random = new Random(seed);
+        Node[][] queries = new Node[count][];
+        for (int i = 0; i < count; ++i) {
+            int origin = random.nextInt(graph.size()), destination;
+            do {
+                destination = random.nextInt(graph.size());
+            }
+            while (destination == origin);
+            queries[i] = new Node[] { graph.get(origin), graph.get(destination) };
+        }
+        return queries;
+    }
+
+}
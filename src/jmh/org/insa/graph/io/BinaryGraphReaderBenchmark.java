@@ -0,0 +1,65 @@
+package org.insa.graph.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.insa.benchmark.BenchmarkGraphs;
+import org.insa.graph.CompactGraph;
+import org.insa.graph.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link BinaryGraphReader} on synthetic grids encoded in memory,
+ * so that only parsing and graph construction are measured.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryGraphReaderBenchmark {
+
+    // Side of the grid.
+    @Param({ "100", "500" })
+    public int side;
+
+    // Encoded graph.
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        bytes = BenchmarkGraphs.toMapgr(BenchmarkGraphs.grid(side, side, 1));
+    }
+
+    /**
+     * @return A new reader of the encoded graph.
+     */
+    private BinaryGraphReader newReader() {
+        return new BinaryGraphReader(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    @Benchmark
+    public Graph read() throws IOException {
+        return newReader().read();
+    }
+
+    @Benchmark
+    public CompactGraph readCompact() throws IOException {
+        return newReader().readCompact();
+    }
+
+}
@@ -64,18 +64,31 @@ public abstract class AbstractAlgorithm<Observer> {
     /**
      * Run the algorithm and return the solution.
      * 
-     * This methods internally time the call to doRun() and update the result of the
-     * call with the computed solving time.
+     * This method internally times the calls to doPrecheck() and doRun() and
+     * updates the result of the call with the computed solving time.
      * 
      * @return The solution found by the algorithm (may not be a feasible solution).
      */
     public AbstractSolution run() {
         Instant start = Instant.now();
-        AbstractSolution solution = this.doRun();
+        AbstractSolution solution = this.doPrecheck();
+        if (solution == null) {
+            solution = this.doRun();
+        }
         solution.setSolvingTime(Duration.between(start, Instant.now()));
         return solution;
     }
 
+    /**
+     * Method called before doRun(), that may answer without running the algorithm
+     * (e.g. if the input is trivially infeasible).
+     * 
+     * @return The solution, or null if doRun() should be called.
+     */
+    protected AbstractSolution doPrecheck() {
+        return null;
+    }
+
     /**
      * Abstract method that should be implemented by child class.
      * 
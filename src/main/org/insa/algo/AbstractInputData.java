@@ -45,6 +45,23 @@ public abstract class AbstractInputData {
         return graph;
     }
 
+    /**
+     * @return Arc inspector associated with this input.
+     */
+    public ArcInspector getArcInspector() {
+        return arcInspector;
+    }
+
+    /**
+     * @return Arc inspector associated with this input, compiled for the graph of
+     *         this input.
+     *
+     * @see CompiledProfile#forData(AbstractInputData)
+     */
+    public CompiledProfile getCompiledProfile() {
+        return CompiledProfile.forData(this);
+    }
+
     /**
      * Retrieve the cost associated with the given arc according to the underlying
      * arc inspector.
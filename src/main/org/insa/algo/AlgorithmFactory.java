@@ -7,10 +7,20 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
+import org.insa.algo.distancematrix.DistanceMatrixAlgorithm;
+import org.insa.algo.shortestpath.ALTAlgorithm;
 import org.insa.algo.shortestpath.AStarAlgorithm;
 import org.insa.algo.shortestpath.BellmanFordAlgorithm;
+import org.insa.algo.shortestpath.BidirectionalAStarAlgorithm;
+import org.insa.algo.shortestpath.BidirectionalDijkstraAlgorithm;
+import org.insa.algo.shortestpath.ContractionHierarchyAlgorithm;
+import org.insa.algo.shortestpath.CustomizableRoutePlanningAlgorithm;
 import org.insa.algo.shortestpath.DijkstraAlgorithm;
+import org.insa.algo.shortestpath.PrimitiveDijkstraAlgorithm;
 import org.insa.algo.shortestpath.ShortestPathAlgorithm;
+import org.insa.algo.singlesource.DeltaSteppingAlgorithm;
+import org.insa.algo.singlesource.SingleSourceAlgorithm;
+import org.insa.algo.weakconnectivity.UnionFindWeaklyConnectedComponentsAlgorithm;
 import org.insa.algo.weakconnectivity.WeaklyConnectedComponentsAlgorithm;
 
 /**
@@ -27,11 +37,32 @@ public class AlgorithmFactory {
         // Register weakly-connected components algorithm:
         registerAlgorithm(WeaklyConnectedComponentsAlgorithm.class, "WCC basic",
                 WeaklyConnectedComponentsAlgorithm.class);
+        registerAlgorithm(WeaklyConnectedComponentsAlgorithm.class, "WCC union-find",
+                UnionFindWeaklyConnectedComponentsAlgorithm.class);
 
         // Register shortest path algorithm:
         registerAlgorithm(ShortestPathAlgorithm.class, "Bellman-Ford", BellmanFordAlgorithm.class);
         registerAlgorithm(ShortestPathAlgorithm.class, "Dijkstra", DijkstraAlgorithm.class);
         registerAlgorithm(ShortestPathAlgorithm.class, "A*", AStarAlgorithm.class);
+        registerAlgorithm(ShortestPathAlgorithm.class, "Dijkstra (primitive)",
+                PrimitiveDijkstraAlgorithm.class);
+        registerAlgorithm(ShortestPathAlgorithm.class, "Bidirectional Dijkstra",
+                BidirectionalDijkstraAlgorithm.class);
+        registerAlgorithm(ShortestPathAlgorithm.class, "Bidirectional A*",
+                BidirectionalAStarAlgorithm.class);
+        registerAlgorithm(ShortestPathAlgorithm.class, "A* (landmarks)", ALTAlgorithm.class);
+        registerAlgorithm(ShortestPathAlgorithm.class, "Contraction hierarchies",
+                ContractionHierarchyAlgorithm.class);
+        registerAlgorithm(ShortestPathAlgorithm.class, "Customizable route planning",
+                CustomizableRoutePlanningAlgorithm.class);
+
+        // Register distance matrix algorithm:
+        registerAlgorithm(DistanceMatrixAlgorithm.class, "Dijkstra (one-to-many)",
+                DistanceMatrixAlgorithm.class);
+
+        // Register single-source shortest paths algorithm:
+        registerAlgorithm(SingleSourceAlgorithm.class, "Delta-stepping",
+                DeltaSteppingAlgorithm.class);
 
         // Register your algorithms here:
         // registerAlgorithm(CarPoolingAlgorithm.class, "My Awesome Algorithm",
@@ -56,6 +87,20 @@ public class AlgorithmFactory {
         ALGORITHMS.get(baseAlgorithm).put(name, algoClass);
     }
 
+    /**
+     * Unregister the algorithm registered with the given name as a child class of
+     * the given base algorithm, if any.
+     * 
+     * @param baseAlgorithm Base algorithm class the algorithm was registered for.
+     * @param name Name of the registered algorithm class.
+     */
+    public static void unregisterAlgorithm(Class<? extends AbstractAlgorithm<?>> baseAlgorithm,
+            String name) {
+        if (ALGORITHMS.containsKey(baseAlgorithm)) {
+            ALGORITHMS.get(baseAlgorithm).remove(name);
+        }
+    }
+
     /**
      * Create an instance of the given algorithm class using the given input data.
      * Assuming algorithm correspond to a class "Algorithm", this function returns
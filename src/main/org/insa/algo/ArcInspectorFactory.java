@@ -12,6 +12,11 @@ import org.insa.graph.GraphStatistics;
 
 public class ArcInspectorFactory {
 
+    // Restrictions of roads that are open to the public (built once, since the
+    // inspectors below are called for every relaxed arc).
+    private static final EnumSet<AccessRestriction> ALLOWED_RESTRICTIONS = EnumSet
+            .complementOf(EnumSet.of(AccessRestriction.FORBIDDEN, AccessRestriction.PRIVATE));
+
     /**
      * @return List of all arc filters in this factory.
      */
@@ -53,8 +58,7 @@ public class ArcInspectorFactory {
             @Override
             public boolean isAllowed(Arc arc) {
                 return arc.getRoadInformation().getAccessRestrictions()
-                        .isAllowedForAny(AccessMode.MOTORCAR, EnumSet.complementOf(EnumSet
-                                .of(AccessRestriction.FORBIDDEN, AccessRestriction.PRIVATE)));
+                        .isAllowedForAny(AccessMode.MOTORCAR, ALLOWED_RESTRICTIONS);
             }
 
             @Override
@@ -111,8 +115,7 @@ public class ArcInspectorFactory {
             @Override
             public boolean isAllowed(Arc arc) {
                 return arc.getRoadInformation().getAccessRestrictions()
-                        .isAllowedForAny(AccessMode.MOTORCAR, EnumSet.complementOf(EnumSet
-                                .of(AccessRestriction.FORBIDDEN, AccessRestriction.PRIVATE)));
+                        .isAllowedForAny(AccessMode.MOTORCAR, ALLOWED_RESTRICTIONS);
             }
 
             @Override
@@ -142,8 +145,7 @@ public class ArcInspectorFactory {
             @Override
             public boolean isAllowed(Arc arc) {
                 return arc.getRoadInformation().getAccessRestrictions()
-                        .isAllowedForAny(AccessMode.FOOT, EnumSet.complementOf(EnumSet
-                                .of(AccessRestriction.FORBIDDEN, AccessRestriction.PRIVATE)));
+                        .isAllowedForAny(AccessMode.FOOT, ALLOWED_RESTRICTIONS);
             }
 
             @Override
@@ -0,0 +1,130 @@
+package org.insa.algo;
+
+import java.lang.ref.WeakReference;
+
+import org.insa.algo.utils.ProfileCache;
+import org.insa.graph.Arc;
+import org.insa.graph.ArcNumbering;
+import org.insa.graph.Graph;
+
+/**
+ * Arc inspector evaluated once for all the arcs of a graph.
+ *
+ * The cost of each arc and whether it is allowed are stored in arrays indexed
+ * by arc ID (see {@link ArcNumbering}), so that algorithms can check and
+ * evaluate an arc with two array reads instead of calling the inspector, which
+ * may have to look up access restrictions or compute a travel time. Allowed
+ * flags are stored in a bitset.
+ *
+ * Compiled profiles are cached per graph and inspector (see
+ * {@link #forData(AbstractInputData)}), the inspector must thus always give the
+ * same results for a given arc. A cached profile costs a few bytes per arc of
+ * the graph, and is kept as long as both the graph and the inspector are in
+ * use, so inspectors should be reused between queries.
+ *
+ */
+public class CompiledProfile {
+
+    // Profiles already compiled.
+    private static final ProfileCache<CompiledProfile> CACHE = new ProfileCache<>();
+
+    /**
+     * Retrieve the compiled profile for the graph and the inspector of the given
+     * data, compiling it on first use.
+     *
+     * @param data Input data.
+     *
+     * @return Compiled profile for the given data.
+     */
+    public static CompiledProfile forData(AbstractInputData data) {
+        return forGraph(data.getGraph(), data.getArcInspector());
+    }
+
+    /**
+     * Retrieve the compiled profile for the given graph and inspector, compiling
+     * it on first use.
+     *
+     * @param graph Graph whose arcs should be evaluated.
+     * @param inspector Inspector to compile.
+     *
+     * @return Compiled profile for the given graph and inspector.
+     */
+    public static CompiledProfile forGraph(Graph graph, ArcInspector inspector) {
+        return CACHE.computeIfAbsent(graph, inspector, CompiledProfile::new);
+    }
+
+    // Numbering of the arcs.
+    private final ArcNumbering numbering;
+
+    // Inspector of this profile (weakly referenced, so that the profile is
+    // released from the cache with its inspector).
+    private final WeakReference<ArcInspector> inspector;
+
+    // Cost of each arc.
+    private final double[] costs;
+
+    // Allowed flag of each arc (arc i is bit i % 64 of allowed[i / 64]).
+    private final long[] allowed;
+
+    /**
+     * Compile the given inspector for the given graph.
+     *
+     * @param graph Graph whose arcs should be evaluated.
+     * @param inspector Inspector to compile.
+     */
+    public CompiledProfile(Graph graph, ArcInspector inspector) {
+        this.numbering = ArcNumbering.forGraph(graph);
+        this.inspector = new WeakReference<>(inspector);
+
+        final int nbArcs = this.numbering.getArcCount();
+        this.costs = new double[nbArcs];
+        this.allowed = new long[(nbArcs + 63) >>> 6];
+        for (int id = 0; id < nbArcs; ++id) {
+            Arc arc = this.numbering.getArc(id);
+            if (inspector.isAllowed(arc)) {
+                this.allowed[id >>> 6] |= 1L << id;
+                this.costs[id] = inspector.getCost(arc);
+            }
+            else {
+                this.costs[id] = Double.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    /**
+     * @return Numbering of the arcs of this profile.
+     */
+    public ArcNumbering getArcNumbering() {
+        return numbering;
+    }
+
+    /**
+     * @return Inspector of this profile, or null if it is no longer in use.
+     */
+    public ArcInspector getArcInspector() {
+        return inspector.get();
+    }
+
+    /**
+     * @param arc ID of an arc.
+     *
+     * @return true if the given arc is allowed.
+     *
+     * @see ArcInspector#isAllowed(Arc)
+     */
+    public boolean isAllowed(int arc) {
+        return (this.allowed[arc >>> 6] & (1L << arc)) != 0;
+    }
+
+    /**
+     * @param arc ID of an arc.
+     *
+     * @return Cost of the given arc, or infinity if it is not allowed.
+     *
+     * @see ArcInspector#getCost(Arc)
+     */
+    public double getCost(int arc) {
+        return this.costs[arc];
+    }
+
+}
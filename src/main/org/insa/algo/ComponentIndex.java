@@ -0,0 +1,129 @@
+package org.insa.algo;
+
+import java.util.BitSet;
+
+import org.insa.algo.utils.ProfileCache;
+import org.insa.graph.ArcNumbering;
+import org.insa.graph.Graph;
+import org.insa.graph.StronglyConnectedComponents;
+
+/**
+ * Strongly connected components of a graph for an arc inspector (only allowed
+ * arcs are followed), used to detect unreachable destinations without
+ * searching the graph.
+ *
+ * Components are numbered in reverse topological order (see
+ * {@link StronglyConnectedComponents}), so a node can only reach nodes of its
+ * own component or of components with a lower number. Components that no
+ * allowed arc leaves (sinks, e.g. dead ends behind a one-way road) or enters
+ * (sources) are also recorded. This does not detect all unreachable pairs, but
+ * catches the usual ones in road networks: origins or destinations outside the
+ * main component.
+ *
+ * Indexes are cached per graph and inspector (see
+ * {@link #forData(AbstractInputData)}).
+ *
+ */
+public class ComponentIndex {
+
+    // Indexes already computed.
+    private static final ProfileCache<ComponentIndex> CACHE = new ProfileCache<>();
+
+    /**
+     * Retrieve the index for the graph and the inspector of the given data,
+     * computing it on first use.
+     *
+     * @param data Input data.
+     *
+     * @return Index for the given data.
+     */
+    public static ComponentIndex forData(AbstractInputData data) {
+        return forGraph(data.getGraph(), data.getArcInspector());
+    }
+
+    /**
+     * Retrieve the index for the given graph and inspector, computing it on first
+     * use.
+     *
+     * @param graph Graph to index.
+     * @param inspector Inspector giving the allowed arcs.
+     *
+     * @return Index for the given graph and inspector.
+     */
+    public static ComponentIndex forGraph(Graph graph, ArcInspector inspector) {
+        return CACHE.computeIfAbsent(graph, inspector, ComponentIndex::new);
+    }
+
+    // Components of the graph.
+    private final StronglyConnectedComponents components;
+
+    // Components without allowed arcs to or from another component.
+    private final BitSet sinks, sources;
+
+    /**
+     * Compute the components of the given graph for the given inspector.
+     *
+     * @param graph Graph to index.
+     * @param inspector Inspector giving the allowed arcs.
+     */
+    public ComponentIndex(Graph graph, ArcInspector inspector) {
+        final CompiledProfile profile = CompiledProfile.forGraph(graph, inspector);
+        final ArcNumbering numbering = profile.getArcNumbering();
+        this.components = new StronglyConnectedComponents(graph, profile::isAllowed);
+
+        final int nbComponents = this.components.getComponentCount();
+        this.sinks = new BitSet(nbComponents);
+        this.sources = new BitSet(nbComponents);
+        this.sinks.set(0, nbComponents);
+        this.sources.set(0, nbComponents);
+        for (int arc = 0; arc < numbering.getArcCount(); ++arc) {
+            if (!profile.isAllowed(arc)) {
+                continue;
+            }
+            final int origin = this.components.getComponent(numbering.getOrigin(arc)),
+                    destination = this.components.getComponent(numbering.getDestination(arc));
+            if (origin != destination) {
+                this.sinks.clear(origin);
+                this.sources.clear(destination);
+            }
+        }
+    }
+
+    /**
+     * @return Number of components.
+     */
+    public int getComponentCount() {
+        return components.getComponentCount();
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Component of the given node.
+     */
+    public int getComponent(int node) {
+        return components.getComponent(node);
+    }
+
+    /**
+     * @param component A component.
+     *
+     * @return Number of nodes of the given component.
+     */
+    public int getComponentSize(int component) {
+        return components.getComponentSize(component);
+    }
+
+    /**
+     * @param origin ID of the origin.
+     * @param destination ID of the destination.
+     *
+     * @return true if the destination can certainly not be reached from the
+     *         origin, false if it can or may be reached.
+     */
+    public boolean isUnreachable(int origin, int destination) {
+        final int from = components.getComponent(origin), to = components.getComponent(destination);
+        return from != to && (from < to || sinks.get(from) || sources.get(to));
+    }
+
+}
@@ -0,0 +1,217 @@
+package org.insa.algo.distancematrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.insa.algo.AbstractAlgorithm;
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.algo.shortestpath.DijkstraSearch;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.Path;
+
+/**
+ * Many-to-many shortest path costs, computed with one-to-many Dijkstra searches.
+ *
+ * A search is run from each source, and stops as soon as all the targets have
+ * been settled. If there are fewer targets than sources, backward searches are
+ * run from each target instead, so that the number of searches is the minimum
+ * of the number of sources and targets.
+ *
+ * Searches are independent and are spread over a pool of threads (see
+ * {@link #setThreadCount(int)}). Each thread reuses its own search state (see
+ * {@link DijkstraSearch#forGraph(Graph)}), so the arrays indexed by node are
+ * only allocated once per thread instead of once per pair of nodes.
+ *
+ */
+public class DistanceMatrixAlgorithm extends AbstractAlgorithm<DistanceMatrixObserver> {
+
+    // Number of threads used to run searches.
+    private int threadCount;
+
+    /**
+     * @param data Input data for this algorithm.
+     */
+    public DistanceMatrixAlgorithm(DistanceMatrixData data) {
+        super(data);
+        this.threadCount = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Set the number of threads used to run searches. With a single thread,
+     * searches are run in the calling thread.
+     * 
+     * @param threadCount Number of threads (at least 1), defaults to the number of
+     *        available processors.
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * @return Number of threads used to run searches.
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    @Override
+    public DistanceMatrixSolution run() {
+        return (DistanceMatrixSolution) super.run();
+    }
+
+    @Override
+    public DistanceMatrixData getInputData() {
+        return (DistanceMatrixData) super.getInputData();
+    }
+
+    /**
+     * Notify all observers that the search from the given node is complete.
+     * 
+     * @param node Node from which the search started.
+     * @param settledCount Number of nodes settled by the search.
+     */
+    protected void notifySearchCompleted(Node node, int settledCount) {
+        for (DistanceMatrixObserver obs: getObservers()) {
+            obs.notifySearchCompleted(node, settledCount);
+        }
+    }
+
+    @Override
+    protected DistanceMatrixSolution doRun() {
+        final DistanceMatrixData data = getInputData();
+        final Graph graph = data.getGraph();
+        final List<Node> sources = data.getSources(), targets = data.getTargets();
+
+        final double[][] costs = new double[sources.size()][targets.size()];
+        final Path[][] paths = data.isComputePaths() ? new Path[sources.size()][targets.size()]
+                : null;
+
+        // Search from the smallest side, towards the other one.
+        final boolean backward = targets.size() < sources.size();
+        final List<Node> starts = backward ? targets : sources;
+        final List<Node> ends = backward ? sources : targets;
+
+        // Flag and count the distinct ends, to stop searches once all are settled.
+        final boolean[] isEnd = new boolean[graph.size()];
+        int nbEnds = 0;
+        for (Node end: ends) {
+            if (!isEnd[end.getId()]) {
+                isEnd[end.getId()] = true;
+                nbEnds += 1;
+            }
+        }
+        final int nbDistinctEnds = nbEnds;
+
+        List<Callable<Void>> tasks = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); ++i) {
+            final int start = i;
+            tasks.add(() -> {
+                DijkstraSearch search = backward ? DijkstraSearch.backwardForGraph(graph)
+                        : DijkstraSearch.forGraph(graph);
+                search.start(data);
+                search.addSource(starts.get(start).getId(), 0);
+                for (int remaining = nbDistinctEnds; remaining > 0 && !search.isFinished();) {
+                    if (isEnd[search.settleNext()]) {
+                        remaining -= 1;
+                    }
+                }
+                for (int j = 0; j < ends.size(); ++j) {
+                    final int end = ends.get(j).getId();
+                    final int source = backward ? j : start, target = backward ? start : j;
+                    if (search.isSettled(end)) {
+                        costs[source][target] = search.getCost(end);
+                        if (paths != null) {
+                            paths[source][target] = search.buildPath(end);
+                        }
+                    }
+                    else {
+                        costs[source][target] = Double.POSITIVE_INFINITY;
+                    }
+                }
+                synchronized (this) {
+                    notifySearchCompleted(starts.get(start), search.getSettledCount());
+                }
+                return null;
+            });
+        }
+
+        try {
+            runAll(tasks);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new DistanceMatrixSolution(data, Status.UNKNOWN);
+        }
+
+        return new DistanceMatrixSolution(data, Status.OPTIMAL, costs, paths);
+    }
+
+    /**
+     * Run the given tasks on a pool of at most {@link #getThreadCount()} threads,
+     * or in the calling thread if a single thread is used, and wait for all of
+     * them to complete.
+     * 
+     * @param tasks Tasks to run.
+     * 
+     * @throws InterruptedException if the calling thread is interrupted while
+     *         waiting for the tasks.
+     */
+    private void runAll(List<Callable<Void>> tasks) throws InterruptedException {
+        final int nbThreads = Math.min(threadCount, tasks.size());
+        if (nbThreads <= 1) {
+            for (Callable<Void> task: tasks) {
+                call(task);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            for (Future<Void> future: executor.invokeAll(tasks)) {
+                try {
+                    future.get();
+                }
+                catch (ExecutionException e) {
+                    rethrow(e.getCause());
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Call the given task in the calling thread.
+     */
+    private static void call(Callable<Void> task) {
+        try {
+            task.call();
+        }
+        catch (Exception e) {
+            rethrow(e);
+        }
+    }
+
+    /**
+     * Rethrow the given exception, thrown by a task, as an unchecked exception.
+     */
+    private static void rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.insa.algo.distancematrix;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.insa.algo.AbstractInputData;
+import org.insa.algo.ArcInspector;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+
+public class DistanceMatrixData extends AbstractInputData {
+
+    // Sources (rows) and targets (columns) of the matrix.
+    private final List<Node> sources, targets;
+
+    // true if paths should be computed along with costs.
+    private final boolean computePaths;
+
+    /**
+     * Construct a new instance of DistanceMatrixData with the given parameters.
+     * 
+     * @param graph Graph in which the paths should be looked for.
+     * @param sources Sources of the paths (rows of the matrix).
+     * @param targets Targets of the paths (columns of the matrix).
+     * @param arcInspector Filter for arcs (used to allow only a specific set of
+     *        arcs in the graph to be used).
+     * @param computePaths true if paths should be computed along with costs.
+     */
+    public DistanceMatrixData(Graph graph, List<Node> sources, List<Node> targets,
+            ArcInspector arcInspector, boolean computePaths) {
+        super(graph, arcInspector);
+        this.sources = Collections.unmodifiableList(sources);
+        this.targets = Collections.unmodifiableList(targets);
+        this.computePaths = computePaths;
+    }
+
+    /**
+     * Construct a new instance of DistanceMatrixData that only requires costs.
+     * 
+     * @param graph Graph in which the paths should be looked for.
+     * @param sources Sources of the paths (rows of the matrix).
+     * @param targets Targets of the paths (columns of the matrix).
+     * @param arcInspector Filter for arcs (used to allow only a specific set of
+     *        arcs in the graph to be used).
+     */
+    public DistanceMatrixData(Graph graph, List<Node> sources, List<Node> targets,
+            ArcInspector arcInspector) {
+        this(graph, sources, targets, arcInspector, false);
+    }
+
+    /**
+     * @return Sources of the paths (rows of the matrix).
+     */
+    public List<Node> getSources() {
+        return sources;
+    }
+
+    /**
+     * @return Targets of the paths (columns of the matrix).
+     */
+    public List<Node> getTargets() {
+        return targets;
+    }
+
+    /**
+     * @return true if paths should be computed along with costs.
+     */
+    public boolean isComputePaths() {
+        return computePaths;
+    }
+
+    @Override
+    public String toString() {
+        return "Distance matrix from " + sources.size() + " sources to " + targets.size()
+                + " targets [" + this.arcInspector.toString().toLowerCase() + "]";
+    }
+
+}
@@ -0,0 +1,19 @@
+package org.insa.algo.distancematrix;
+
+import org.insa.graph.Node;
+
+public interface DistanceMatrixObserver {
+
+    /**
+     * Notify the observer that the search from the given node is complete, i.e.
+     * that the corresponding row (or column) of the matrix has been computed.
+     * 
+     * This may be called concurrently from the worker threads of the algorithm.
+     * 
+     * @param node Node from which the search started (a source, or a target for a
+     *        backward search).
+     * @param settledCount Number of nodes settled by the search.
+     */
+    public void notifySearchCompleted(Node node, int settledCount);
+
+}
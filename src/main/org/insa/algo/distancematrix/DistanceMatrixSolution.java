@@ -0,0 +1,104 @@
+package org.insa.algo.distancematrix;
+
+import org.insa.algo.AbstractInputData.Mode;
+import org.insa.algo.AbstractSolution;
+import org.insa.graph.Path;
+
+public class DistanceMatrixSolution extends AbstractSolution {
+
+    // Cost of the shortest path from each source (row) to each target (column),
+    // infinity if there is none.
+    private double[][] costs;
+
+    // Shortest paths (same layout as costs, null if paths were not requested).
+    private Path[][] paths;
+
+    /**
+     * Create a new distance matrix solution for the given input and status,
+     * without costs.
+     * 
+     * @param data Original input data for this solution.
+     * @param status Status of the solution (UNKNOWN / INFEASIBLE).
+     */
+    protected DistanceMatrixSolution(DistanceMatrixData data, Status status) {
+        super(data, status);
+    }
+
+    /**
+     * Create a new distance matrix solution.
+     * 
+     * @param data Original input data for this solution.
+     * @param status Status of the solution (FEASIBLE / OPTIMAL).
+     * @param costs Costs of the shortest paths, indexed by source then target.
+     * @param paths Shortest paths, indexed by source then target, or null.
+     */
+    protected DistanceMatrixSolution(DistanceMatrixData data, Status status, double[][] costs,
+            Path[][] paths) {
+        super(data, status);
+        this.costs = costs;
+        this.paths = paths;
+    }
+
+    @Override
+    public DistanceMatrixData getInputData() {
+        return (DistanceMatrixData) super.getInputData();
+    }
+
+    /**
+     * @return Costs of the shortest paths, indexed by source then target (dense
+     *         matrix, infinity for unreachable targets), or null if the solution is
+     *         not feasible.
+     */
+    public double[][] getCosts() {
+        return costs;
+    }
+
+    /**
+     * @param source Index of a source in the input data.
+     * @param target Index of a target in the input data.
+     * 
+     * @return Cost of the shortest path from the given source to the given target,
+     *         or infinity if there is none.
+     */
+    public double getCost(int source, int target) {
+        return costs[source][target];
+    }
+
+    /**
+     * @param source Index of a source in the input data.
+     * @param target Index of a target in the input data.
+     * 
+     * @return Shortest path from the given source to the given target, or null if
+     *         there is none or if paths were not requested.
+     * 
+     * @see DistanceMatrixData#isComputePaths()
+     */
+    public Path getPath(int source, int target) {
+        return paths == null ? null : paths[source][target];
+    }
+
+    @Override
+    public String toString() {
+        String info = null;
+        if (!isFeasible()) {
+            info = "No distance matrix found";
+        }
+        else {
+            int nUnreachable = 0;
+            for (double[] row: costs) {
+                for (double cost: row) {
+                    if (Double.isInfinite(cost)) {
+                        nUnreachable += 1;
+                    }
+                }
+            }
+            info = String.format("Found a %dx%d %s matrix (%d unreachable targets)",
+                    getInputData().getSources().size(), getInputData().getTargets().size(),
+                    getInputData().getMode() == Mode.LENGTH ? "distance" : "travel time",
+                    nUnreachable);
+        }
+        info += " in " + getSolvingTime().getSeconds() + " seconds.";
+        return info;
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.insa.algo.distancematrix;
+
+import java.io.PrintStream;
+
+import org.insa.graph.Node;
+
+public class DistanceMatrixTextObserver implements DistanceMatrixObserver {
+
+    private final PrintStream stream;
+
+    public DistanceMatrixTextObserver(PrintStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public void notifySearchCompleted(Node node, int settledCount) {
+        stream.println("Search from node " + node.getId() + " completed (" + settledCount
+                + " nodes settled).");
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.insa.algo.shortestpath;
+
+import org.insa.algo.AbstractSolution.Status;
+
+/**
+ * Implementation of the A* algorithm guided by landmark lower bounds (ALT), see
+ * {@link LandmarkIndex}.
+ *
+ * The landmark index of the graph and inspector is retrieved using
+ * {@link LandmarkIndex#forData(org.insa.algo.AbstractInputData)}, so the first
+ * query for a given map and inspector may have to compute it.
+ *
+ */
+public class ALTAlgorithm extends ShortestPathAlgorithm {
+
+    public ALTAlgorithm(ShortestPathData data) {
+        super(data);
+    }
+
+    @Override
+    protected ShortestPathSolution doRun() {
+        ShortestPathData data = getInputData();
+
+        if (data.getOrigin().equals(data.getDestination())) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+
+        final int destination = data.getDestination().getId();
+        LandmarkIndex index = LandmarkIndex.forData(data);
+
+        DijkstraSearch search = DijkstraSearch.forGraph(data.getGraph());
+        search.start(data, getObservers());
+        search.setPotential(index.createPotential(destination));
+        search.addSource(data.getOrigin().getId(), 0);
+
+        notifyOriginProcessed(data.getOrigin());
+
+        int node;
+        do {
+            node = search.settleNext();
+        }
+        while (node != -1 && node != destination);
+
+        if (!search.isSettled(destination)) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+
+        notifyDestinationReached(data.getDestination());
+
+        return new ShortestPathSolution(data, Status.OPTIMAL, search.buildPath(destination));
+    }
+
+}
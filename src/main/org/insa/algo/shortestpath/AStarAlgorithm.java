@@ -4,8 +4,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 
 import org.insa.algo.AbstractSolution.Status;
-import org.insa.algo.utils.BinaryHeap;
+import org.insa.algo.CompiledProfile;
+import org.insa.algo.utils.DaryHeap;
 import org.insa.graph.Arc;
+import org.insa.graph.ArcNumbering;
 import org.insa.graph.Graph;
 import org.insa.graph.Label;
 import org.insa.graph.LabelStar;
@@ -28,32 +30,45 @@ public class AStarAlgorithm extends DijkstraAlgorithm {
         ShortestPathSolution solution = null;
         Path chemin;
         ArrayList<Arc> arcs = new ArrayList<Arc>();
+        
+        if (data.getOrigin().equals(data.getDestination())) {
+        	solution = new ShortestPathSolution(data, Status.INFEASIBLE);
+        	return solution;
+        }
 
         final int nbNodes = graph.size();
         
 		LabelStar[] labels = new LabelStar[nbNodes];
-		BinaryHeap<Label> tas = new BinaryHeap<Label>();
+		DaryHeap<Label> tas = new DaryHeap<Label>(DaryHeap.DEFAULT_ARITY, nbNodes, Label::getIdNode);
 		
+		// Estimation du cout restant, convertie une seule fois pour la requete
+		GreatCircleHeuristic heuristic = new GreatCircleHeuristic(data);
+		Point destination = data.getDestination().getPoint();
+
 		// Initialisation des labels des noeuds
 		int i;
 		for (Node n : graph) {
 			i = n.getId();
 			if (n.equals(data.getOrigin())) {
-				labels[i] = new LabelStar(data.getOrigin().getId(), data);
+				labels[i] = new LabelStar(data.getOrigin().getId(), 0);
 				labels[i].setCost(0);
 				labels[i].setFather(null);
 				labels[i].setMark(true);
 				tas.insert(labels[i]);
 			}
 			else {
-				labels[i] = new LabelStar(n.getId(), data);
-				labels[i].setCostVol(Point.distance(n.getPoint(),data.getDestination().getPoint()));
+				// L'estimation n'est calculee que lorsque le noeud est atteint
+				labels[i] = new LabelStar(n.getId(), 0);
 				labels[i].setCost(Float.POSITIVE_INFINITY);
 				
 			}
 			
 		}
 		
+		// Costs and allowed arcs, indexed by arc ID
+		CompiledProfile profile = data.getCompiledProfile();
+		ArcNumbering numbering = profile.getArcNumbering();
+
 		notifyOriginProcessed(data.getOrigin());
 		
 		while (!tas.isEmpty() && !labels[data.getDestination().getId()].isMark()) {
@@ -61,19 +76,24 @@ public class AStarAlgorithm extends DijkstraAlgorithm {
 			labels[l.getIdNode()].setMark(true);
 			Node n = graph.get(l.getIdNode());
 			notifyNodeMarked(n);
-			for (Arc a : n) {
-				if (!data.isAllowed(a)) {
+			for (int id = numbering.getFirstArc(n.getId()); id < numbering.getEndArc(n.getId()); ++id) {
+				if (!profile.isAllowed(id)) {
 					continue;
 				}
+				Arc a = numbering.getArc(id);
 				Node successor = a.getDestination();
 				notifyNodeReached(successor);
 				if (labels[successor.getId()].isMark() == false) {
 					// double cout = Math.min(labels[successor.getId()].getCost(), labels[n.getId()].getCost() + data.getCost(a));
-					if (labels[successor.getId()].getCost() > labels[n.getId()].getCost() + data.getCost(a)) {
-						if (labels[successor.getId()].getCost() != Float.POSITIVE_INFINITY)
-							tas.remove(labels[successor.getId()]);
-						labels[successor.getId()].setCost(labels[n.getId()].getCost() + data.getCost(a));
-						tas.insert(labels[successor.getId()]);
+					if (labels[successor.getId()].getCost() > labels[n.getId()].getCost() + profile.getCost(id)) {
+						boolean inHeap = labels[successor.getId()].getCost() != Float.POSITIVE_INFINITY;
+						labels[successor.getId()].setCost(labels[n.getId()].getCost() + profile.getCost(id));
+						if (inHeap)
+							tas.decreaseKey(labels[successor.getId()]);
+						else {
+							labels[successor.getId()].setCostVol(heuristic.getEstimate(successor.getPoint(), destination));
+							tas.insert(labels[successor.getId()]);
+						}
 						labels[successor.getId()].setFather(n);
 						labels[successor.getId()].setArcLeast(a);
 					}	
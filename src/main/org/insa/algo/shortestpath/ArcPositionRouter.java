@@ -0,0 +1,243 @@
+package org.insa.algo.shortestpath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.CompiledProfile;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.Path;
+import org.insa.graph.Point;
+import org.insa.graph.spatial.ArcPosition;
+import org.insa.graph.spatial.ArcSegmentIndex;
+
+/**
+ * Shortest paths between positions in the middle of arcs, e.g. between the
+ * projections of two points on their closest arc (see {@link ArcSegmentIndex}).
+ *
+ * The cost of a part of an arc is the cost of the arc multiplied by the
+ * fraction of the arc it covers. A route starting at fraction f of arc (u, v)
+ * starts with a cost of (1 - f) * cost(u, v) at v, and a route ending at
+ * fraction g of arc (x, y) ends with a cost of g * cost(x, y) from x. For
+ * two-way roads, both directions of the road are considered at each end, so the
+ * search has up to two sources and two targets.
+ *
+ */
+public class ArcPositionRouter {
+
+    /**
+     * Route between two positions.
+     */
+    public static class Route {
+
+        // Cost of the route.
+        private final double cost;
+
+        // Origin and destination, in the direction of travel, and arcs of the route.
+        private final ArcPosition origin, destination;
+        private final List<Arc> arcs;
+
+        private Route(double cost, ArcPosition origin, ArcPosition destination, List<Arc> arcs) {
+            this.cost = cost;
+            this.origin = origin;
+            this.destination = destination;
+            this.arcs = Collections.unmodifiableList(arcs);
+        }
+
+        /**
+         * @return Cost of this route, including the parts of the first and last
+         *         arcs.
+         */
+        public double getCost() {
+            return cost;
+        }
+
+        /**
+         * @return Origin of this route, on the first arc of the route.
+         */
+        public ArcPosition getOrigin() {
+            return origin;
+        }
+
+        /**
+         * @return Destination of this route, on the last arc of the route.
+         */
+        public ArcPosition getDestination() {
+            return destination;
+        }
+
+        /**
+         * @return Arcs of this route, the first and last ones being only partly
+         *         travelled (they may be the same arc).
+         */
+        public List<Arc> getArcs() {
+            return arcs;
+        }
+
+        /**
+         * @param graph Graph of the arcs of this route.
+         * 
+         * @return Path made of the (full) arcs of this route.
+         */
+        public Path getPath(Graph graph) {
+            return new Path(graph, new ArrayList<>(arcs));
+        }
+
+    }
+
+    // Graph and inspector of the routes.
+    private final Graph graph;
+    private final ArcInspector inspector;
+
+    /**
+     * Create a new router for the given graph and inspector.
+     * 
+     * @param graph Graph to search.
+     * @param inspector Inspector used to filter arcs and compute their costs.
+     */
+    public ArcPositionRouter(Graph graph, ArcInspector inspector) {
+        this.graph = graph;
+        this.inspector = inspector;
+    }
+
+    /**
+     * @return Graph of this router.
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return Inspector of this router.
+     */
+    public ArcInspector getArcInspector() {
+        return inspector;
+    }
+
+    /**
+     * Find the shortest route between the projections of the given points on
+     * their closest allowed arc.
+     * 
+     * @param from Origin point.
+     * @param to Destination point.
+     * 
+     * @return Shortest route between the given points, or null if there is none.
+     */
+    public Route route(Point from, Point to) {
+        ArcSegmentIndex index = ArcSegmentIndex.forGraph(graph);
+        ArcPosition origin = index.findNearest(from, this::isAllowed);
+        ArcPosition destination = index.findNearest(to, this::isAllowed);
+        if (origin == null || destination == null) {
+            return null;
+        }
+        return route(origin, destination);
+    }
+
+    /**
+     * @return true if the given arc or its reverse arc is allowed.
+     */
+    private boolean isAllowed(Arc arc) {
+        if (inspector.isAllowed(arc)) {
+            return true;
+        }
+        Arc reverse = ArcPosition.getReverseArc(arc);
+        return reverse != null && inspector.isAllowed(reverse);
+    }
+
+    /**
+     * Find the shortest route between the given positions. For two-way roads,
+     * positions are considered in both directions.
+     * 
+     * @param origin Origin position.
+     * @param destination Destination position.
+     * 
+     * @return Shortest route between the given positions, or null if there is
+     *         none.
+     */
+    public Route route(ArcPosition origin, ArcPosition destination) {
+        ArcPosition[] origins = directions(origin);
+        ArcPosition[] destinations = directions(destination);
+
+        // Routes along a single arc.
+        double bestCost = Double.POSITIVE_INFINITY;
+        ArcPosition bestOrigin = null, bestDestination = null;
+        for (ArcPosition o: origins) {
+            for (ArcPosition d: destinations) {
+                if (o.getArc() == d.getArc() && d.getFraction() >= o.getFraction()) {
+                    double cost = (d.getFraction() - o.getFraction())
+                            * inspector.getCost(o.getArc());
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestOrigin = o;
+                        bestDestination = d;
+                    }
+                }
+            }
+        }
+
+        // Search from the ends of the origin arcs, until the next node cannot improve
+        // the best route.
+        DijkstraSearch search = DijkstraSearch.forGraph(graph);
+        search.start(CompiledProfile.forGraph(graph, inspector), Collections.emptyList());
+        for (ArcPosition o: origins) {
+            search.addSource(o.getArc().getDestination().getId(),
+                    (1 - o.getFraction()) * inspector.getCost(o.getArc()));
+        }
+        int meeting = -1;
+        while (!search.isFinished() && search.getNextCost() < bestCost) {
+            final int node = search.settleNext();
+            for (ArcPosition d: destinations) {
+                if (d.getArc().getOrigin().getId() == node) {
+                    double cost = search.getCost(node)
+                            + d.getFraction() * inspector.getCost(d.getArc());
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestDestination = d;
+                        meeting = node;
+                    }
+                }
+            }
+        }
+        if (bestDestination == null) {
+            return null;
+        }
+
+        List<Arc> arcs = new ArrayList<>();
+        if (meeting >= 0) {
+            // Retrieve the origin whose arc leads to the source of the route.
+            List<Arc> between = search.getArcs(meeting);
+            final int source = between.isEmpty() ? meeting
+                    : between.get(0).getOrigin().getId();
+            bestOrigin = null;
+            for (ArcPosition o: origins) {
+                if (o.getArc().getDestination().getId() == source
+                        && (bestOrigin == null || o.getFraction() > bestOrigin.getFraction())) {
+                    bestOrigin = o;
+                }
+            }
+            arcs.add(bestOrigin.getArc());
+            arcs.addAll(between);
+        }
+        arcs.add(bestDestination.getArc());
+        return new Route(bestCost, bestOrigin, bestDestination, arcs);
+    }
+
+    /**
+     * @return The given position and its reverse position, restricted to allowed
+     *         arcs.
+     */
+    private ArcPosition[] directions(ArcPosition position) {
+        List<ArcPosition> positions = new ArrayList<>(2);
+        if (inspector.isAllowed(position.getArc())) {
+            positions.add(position);
+        }
+        ArcPosition reverse = position.reverse();
+        if (reverse != null && inspector.isAllowed(reverse.getArc())) {
+            positions.add(reverse);
+        }
+        return positions.toArray(new ArcPosition[positions.size()]);
+    }
+
+}
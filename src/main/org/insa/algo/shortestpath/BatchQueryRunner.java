@@ -0,0 +1,255 @@
+package org.insa.algo.shortestpath;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs batches of shortest path queries on a pool of worker threads.
+ *
+ * Queries are read lazily from a stream of {@link ShortestPathData}, run by a
+ * fixed pool of threads, and their solutions are streamed back in the order of
+ * the queries. At most {@link #PENDING_QUERIES_PER_THREAD} queries per thread
+ * are submitted ahead of the solution being consumed, so arbitrarily long
+ * streams can be replayed with bounded memory.
+ *
+ * The worker threads are kept for the lifetime of the runner, so that
+ * algorithms based on per-thread search states (see
+ * {@link DijkstraSearch#forGraph(org.insa.graph.Graph)}) reuse them across
+ * queries. The runner must be closed to release its threads.
+ *
+ * The latency and the number of settled nodes (counted by a
+ * {@link ShortestPathCountingObserver}) of each query are recorded, see
+ * {@link #getStatistics()}.
+ *
+ */
+public class BatchQueryRunner implements AutoCloseable {
+
+    /**
+     * Maximum number of queries per thread that are submitted but whose solution
+     * has not been consumed yet.
+     */
+    public static final int PENDING_QUERIES_PER_THREAD = 4;
+
+    // Number of runners created, used to name threads.
+    private static final AtomicInteger RUNNER_COUNT = new AtomicInteger();
+
+    // Factory creating the algorithm for each query.
+    private final Function<ShortestPathData, ? extends ShortestPathAlgorithm> factory;
+
+    // Number of threads and pool of threads.
+    private final int threadCount;
+    private final ExecutorService executor;
+
+    // Latency (in nanoseconds) and number of settled nodes of recorded queries.
+    private long[] latencies, settledCounts;
+    private int queryCount;
+
+    // Start of the first recorded query and end of the last one (nanoseconds).
+    private long firstStart, lastEnd;
+
+    /**
+     * Create a new runner with the given number of threads.
+     * 
+     * @param factory Factory creating the algorithm for a query, e.g.
+     *        <code>DijkstraAlgorithm::new</code>.
+     * @param threadCount Number of worker threads (at least 1).
+     */
+    public BatchQueryRunner(Function<ShortestPathData, ? extends ShortestPathAlgorithm> factory,
+            int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threadCount);
+        }
+        this.factory = factory;
+        this.threadCount = threadCount;
+        final int runner = RUNNER_COUNT.incrementAndGet();
+        final AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threadCount, (task) -> {
+            Thread thread = new Thread(task,
+                    "batch-query-" + runner + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        resetStatistics();
+    }
+
+    /**
+     * Create a new runner with one thread per available processor.
+     * 
+     * @param factory Factory creating the algorithm for a query.
+     */
+    public BatchQueryRunner(Function<ShortestPathData, ? extends ShortestPathAlgorithm> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return Number of worker threads of this runner.
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Run the given queries. Queries are consumed and run as the returned stream is
+     * consumed. If a query throws an exception, the exception is rethrown when its
+     * solution is retrieved from the returned stream. Closing the returned stream
+     * cancels the pending queries and closes the given stream.
+     * 
+     * @param queries Queries to run.
+     * 
+     * @return Stream of the solutions of the given queries, in the same order.
+     */
+    public Stream<ShortestPathSolution> run(Stream<ShortestPathData> queries) {
+        OrderedSolutions solutions = new OrderedSolutions(queries.iterator());
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(solutions,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(solutions::cancel).onClose(queries::close);
+    }
+
+    /**
+     * Run a single query in the current thread and record its statistics.
+     */
+    private ShortestPathSolution runQuery(ShortestPathData data) {
+        ShortestPathAlgorithm algorithm = factory.apply(data);
+        ShortestPathCountingObserver counter = new ShortestPathCountingObserver();
+        algorithm.addObserver(counter);
+        final long start = System.nanoTime();
+        ShortestPathSolution solution = algorithm.run();
+        record(start, System.nanoTime(), counter.getMarkedCount());
+        return solution;
+    }
+
+    /**
+     * Record the statistics of a query.
+     */
+    private synchronized void record(long start, long end, int settledCount) {
+        if (queryCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, 2 * queryCount);
+            settledCounts = Arrays.copyOf(settledCounts, 2 * queryCount);
+        }
+        latencies[queryCount] = end - start;
+        settledCounts[queryCount] = settledCount;
+        if (queryCount == 0 || start < firstStart) {
+            firstStart = start;
+        }
+        if (queryCount == 0 || end > lastEnd) {
+            lastEnd = end;
+        }
+        queryCount += 1;
+    }
+
+    /**
+     * @return Statistics of the queries run since this runner was created or since
+     *         the last call to {@link #resetStatistics()}.
+     */
+    public synchronized BatchQueryStatistics getStatistics() {
+        return new BatchQueryStatistics(Arrays.copyOf(latencies, queryCount),
+                Arrays.copyOf(settledCounts, queryCount),
+                Duration.ofNanos(queryCount == 0 ? 0 : lastEnd - firstStart));
+    }
+
+    /**
+     * Forget the statistics of the queries run so far.
+     */
+    public synchronized void resetStatistics() {
+        latencies = new long[16];
+        settledCounts = new long[16];
+        queryCount = 0;
+    }
+
+    /**
+     * Stop the worker threads of this runner. Queries that are still running are
+     * interrupted.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Iterator over the solutions of queries, that keeps a bounded number of
+     * queries submitted ahead.
+     */
+    private class OrderedSolutions implements Iterator<ShortestPathSolution> {
+
+        // Queries not submitted yet.
+        private final Iterator<ShortestPathData> queries;
+
+        // Submitted queries, in order.
+        private final ArrayDeque<Future<ShortestPathSolution>> pending;
+
+        OrderedSolutions(Iterator<ShortestPathData> queries) {
+            this.queries = queries;
+            this.pending = new ArrayDeque<>();
+        }
+
+        /**
+         * Submit queries until the maximum number of pending queries is reached.
+         */
+        private void submit() {
+            while (pending.size() < threadCount * PENDING_QUERIES_PER_THREAD
+                    && queries.hasNext()) {
+                final ShortestPathData data = queries.next();
+                pending.add(executor.submit(() -> runQuery(data)));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            submit();
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public ShortestPathSolution next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Future<ShortestPathSolution> future = pending.poll();
+            try {
+                return future.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new IllegalStateException("Interrupted while waiting for a query.", e);
+            }
+            catch (ExecutionException e) {
+                cancel();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+
+        /**
+         * Cancel the pending queries.
+         */
+        void cancel() {
+            for (Future<ShortestPathSolution> future: pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.insa.algo.shortestpath;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Statistics of the queries run by a {@link BatchQueryRunner}: number of
+ * queries, throughput, latency and number of settled nodes.
+ *
+ * Percentiles use the nearest-rank method, e.g. the 95th percentile of the
+ * latency is the smallest latency greater than or equal to the latency of 95%
+ * of the queries.
+ *
+ */
+public class BatchQueryStatistics {
+
+    // Latency (in nanoseconds) and number of settled nodes of each query, sorted.
+    private final long[] latencies;
+    private final long[] settledCounts;
+
+    // Elapsed time between the start of the first query and the end of the last
+    // one.
+    private final Duration elapsedTime;
+
+    /**
+     * Create statistics from the given measures, indexed by query (arrays are
+     * sorted in place).
+     * 
+     * @param latencies Latency of each query, in nanoseconds.
+     * @param settledCounts Number of nodes settled by each query.
+     * @param elapsedTime Elapsed time between the start of the first query and the
+     *        end of the last one.
+     */
+    public BatchQueryStatistics(long[] latencies, long[] settledCounts, Duration elapsedTime) {
+        Arrays.sort(latencies);
+        Arrays.sort(settledCounts);
+        this.latencies = latencies;
+        this.settledCounts = settledCounts;
+        this.elapsedTime = elapsedTime;
+    }
+
+    /**
+     * @return Number of queries.
+     */
+    public int getQueryCount() {
+        return latencies.length;
+    }
+
+    /**
+     * @return Elapsed time between the start of the first query and the end of the
+     *         last one.
+     */
+    public Duration getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * @return Number of queries per second, or 0 if there was no query.
+     */
+    public double getThroughput() {
+        final long nanos = elapsedTime.toNanos();
+        return nanos == 0 ? 0 : latencies.length * 1e9 / nanos;
+    }
+
+    /**
+     * @param percentile Percentile, between 0 and 100.
+     * 
+     * @return The given percentile of the latency of the queries, or zero if there
+     *         was no query.
+     */
+    public Duration getLatency(double percentile) {
+        return Duration.ofNanos(percentile(latencies, percentile));
+    }
+
+    /**
+     * @return Median latency of the queries.
+     */
+    public Duration getMedianLatency() {
+        return getLatency(50);
+    }
+
+    /**
+     * @return Total number of nodes settled by the queries.
+     */
+    public long getTotalSettledCount() {
+        long total = 0;
+        for (long count: settledCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return Average number of nodes settled by a query, or 0 if there was no
+     *         query.
+     */
+    public double getAverageSettledCount() {
+        return settledCounts.length == 0 ? 0
+                : getTotalSettledCount() / (double) settledCounts.length;
+    }
+
+    /**
+     * @param percentile Percentile, between 0 and 100.
+     * 
+     * @return The given percentile of the number of nodes settled by the queries,
+     *         or 0 if there was no query.
+     */
+    public long getSettledCount(double percentile) {
+        return percentile(settledCounts, percentile);
+    }
+
+    /**
+     * @return Value at the given percentile in the given sorted array.
+     */
+    private static long percentile(long[] values, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+        if (values.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * values.length);
+        return values[Math.max(0, rank - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d queries in %.3f seconds (%.1f queries/s), latency p50 %.3f ms, "
+                        + "p95 %.3f ms, p99 %.3f ms, %.1f settled nodes per query (p99 %d)",
+                getQueryCount(), elapsedTime.toNanos() / 1e9, getThroughput(),
+                getLatency(50).toNanos() / 1e6, getLatency(95).toNanos() / 1e6,
+                getLatency(99).toNanos() / 1e6, getAverageSettledCount(), getSettledCount(99));
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.insa.algo.shortestpath;
+
+import java.util.function.IntToDoubleFunction;
+
+import org.insa.graph.Graph;
+import org.insa.graph.Point;
+
+/**
+ * Bidirectional implementation of the A* algorithm.
+ *
+ * Both searches are guided by the average of the forward and backward
+ * great-circle estimates (see {@link GreatCircleHeuristic}): the forward
+ * potential of a node v is (h(v, destination) - h(origin, v)) / 2 and the
+ * backward potential is its opposite, so that both potentials are feasible and
+ * the stopping rule of {@link BidirectionalDijkstraAlgorithm} remains correct.
+ *
+ */
+public class BidirectionalAStarAlgorithm extends BidirectionalDijkstraAlgorithm {
+
+    public BidirectionalAStarAlgorithm(ShortestPathData data) {
+        super(data);
+    }
+
+    @Override
+    protected IntToDoubleFunction createPotential(ShortestPathData data) {
+        final GreatCircleHeuristic heuristic = new GreatCircleHeuristic(data);
+        final Graph graph = data.getGraph();
+        final Point origin = data.getOrigin().getPoint();
+        final Point destination = data.getDestination().getPoint();
+        return (node) -> {
+            Point point = graph.get(node).getPoint();
+            return (heuristic.getEstimate(point, destination)
+                    - heuristic.getEstimate(origin, point)) / 2;
+        };
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.insa.algo.shortestpath;
+
+import java.util.ArrayList;
+import java.util.function.IntToDoubleFunction;
+
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.Path;
+
+/**
+ * Bidirectional implementation of Dijkstra's algorithm.
+ *
+ * A forward search from the origin and a backward search from the destination
+ * (following incoming arcs, see {@link org.insa.graph.ArcNumbering}) are run
+ * alternately. Each time an arc links the two searches, the best path found so
+ * far is updated. The algorithm stops as soon as the sum of the smallest keys of
+ * the two searches is not lower than the cost of the best path found so far.
+ *
+ */
+public class BidirectionalDijkstraAlgorithm extends ShortestPathAlgorithm {
+
+    public BidirectionalDijkstraAlgorithm(ShortestPathData data) {
+        super(data);
+    }
+
+    /**
+     * Create the potential of the forward search, the backward search uses the
+     * opposite potential. The potential must be feasible for both searches.
+     *
+     * @param data Input data of the algorithm.
+     *
+     * @return Potential of the forward search, or null to run plain Dijkstra
+     *         searches.
+     */
+    protected IntToDoubleFunction createPotential(ShortestPathData data) {
+        return null;
+    }
+
+    @Override
+    protected ShortestPathSolution doRun() {
+        ShortestPathData data = getInputData();
+        Graph graph = data.getGraph();
+
+        if (data.getOrigin().equals(data.getDestination())) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+
+        DijkstraSearch forward = DijkstraSearch.forGraph(graph);
+        DijkstraSearch backward = DijkstraSearch.backwardForGraph(graph);
+        forward.start(data, getObservers());
+        backward.start(data, getObservers());
+
+        final IntToDoubleFunction potential = createPotential(data);
+        if (potential != null) {
+            forward.setPotential(potential);
+            backward.setPotential((node) -> -potential.applyAsDouble(node));
+        }
+
+        forward.addSource(data.getOrigin().getId(), 0);
+        backward.addSource(data.getDestination().getId(), 0);
+
+        notifyOriginProcessed(data.getOrigin());
+
+        while (true) {
+            double best = Math.min(forward.getMeetingCost(), backward.getMeetingCost());
+            double forwardKey = forward.getNextKey(), backwardKey = backward.getNextKey();
+            if (forwardKey + backwardKey >= best) {
+                break;
+            }
+            if (forwardKey <= backwardKey) {
+                forward.settleNext(backward);
+            }
+            else {
+                backward.settleNext(forward);
+            }
+        }
+
+        Arc meetingArc = forward.getMeetingCost() <= backward.getMeetingCost()
+                ? forward.getMeetingArc() : backward.getMeetingArc();
+        if (meetingArc == null) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+
+        notifyDestinationReached(data.getDestination());
+
+        ArrayList<Arc> arcs = new ArrayList<>(forward.getArcs(meetingArc.getOrigin().getId()));
+        arcs.add(meetingArc);
+        arcs.addAll(backward.getArcs(meetingArc.getDestination().getId()));
+
+        return new ShortestPathSolution(data, Status.OPTIMAL, new Path(graph, arcs));
+    }
+
+}
@@ -0,0 +1,495 @@
+package org.insa.algo.shortestpath;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.insa.algo.AbstractInputData;
+import org.insa.algo.ArcInspector;
+import org.insa.algo.utils.ProfileCache;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.io.BadFormatException;
+import org.insa.graph.io.BinaryReader;
+import org.insa.graph.io.MapFiles;
+import org.insa.graph.io.MapMismatchException;
+
+/**
+ * Contraction hierarchy of a graph for a given arc inspector (profile).
+ *
+ * Each node has a rank (its position in the contraction order). The hierarchy
+ * contains the allowed arcs of the graph and the shortcuts added during the
+ * contraction, called edges. A shortcut replaces two consecutive edges (its
+ * children) and has the sum of their costs. A shortest path query only
+ * follows upward edges, i.e. edges towards higher ranked nodes, from the
+ * origin, and downward edges backward from the destination.
+ *
+ * Hierarchies are built by {@link ContractionHierarchyBuilder}.
+ *
+ */
+public class ContractionHierarchy {
+
+    // Version and magic number of hierarchy files.
+    protected static final int VERSION = 1;
+    protected static final int MAGIC_NUMBER = 0x0C4A1E9B;
+
+    // Length of the map id field (in bytes)
+    private static final int MAP_ID_FIELD_LENGTH = 32;
+
+    // Extension of hierarchy files.
+    private static final String FILE_EXTENSION = "ch";
+
+    // Hierarchies already loaded or built.
+    private static final ProfileCache<ContractionHierarchy> CACHE = new ProfileCache<>();
+
+    /**
+     * Retrieve the hierarchy for the graph and the inspector of the given data.
+     *
+     * If the hierarchy is not in memory yet, it is read from the default file next
+     * to the map file of the graph (see {@link MapFiles}), or built and saved to
+     * this file if it does not exist.
+     *
+     * @param data Input data.
+     *
+     * @return Contraction hierarchy for the given data.
+     */
+    public static ContractionHierarchy forData(AbstractInputData data) {
+        return CACHE.computeIfAbsent(data.getGraph(), data.getArcInspector(),
+                (graph, inspector) -> {
+                    File mapFile = MapFiles.get(graph);
+                    if (mapFile == null) {
+                        return new ContractionHierarchyBuilder(graph, inspector).build();
+                    }
+                    return loadOrBuild(getDefaultFile(mapFile, inspector), graph, inspector);
+                });
+    }
+
+    /**
+     * Set the hierarchy used by {@link #forData(AbstractInputData)} for the given
+     * graph and inspector.
+     *
+     * @param graph Graph of the hierarchy.
+     * @param inspector Inspector of the hierarchy.
+     * @param hierarchy Hierarchy to use.
+     */
+    public static void register(Graph graph, ArcInspector inspector,
+            ContractionHierarchy hierarchy) {
+        CACHE.put(graph, inspector, hierarchy);
+    }
+
+    /**
+     * @param mapFile Map file.
+     * @param inspector Inspector of the hierarchy.
+     *
+     * @return Default hierarchy file for the given map and inspector.
+     */
+    public static File getDefaultFile(File mapFile, ArcInspector inspector) {
+        return MapFiles.getSibling(mapFile, String.format("%08x.%s",
+                ProfileCache.getProfile(inspector).hashCode(), FILE_EXTENSION));
+    }
+
+    /**
+     * Read the hierarchy from the given file if possible, otherwise build it and
+     * try to save it to the file. A file that cannot be read or written is
+     * reported by {@link #getFileException()} on the returned hierarchy.
+     *
+     * @param file Hierarchy file.
+     * @param graph Graph of the hierarchy.
+     * @param inspector Inspector of the hierarchy.
+     *
+     * @return Contraction hierarchy for the given graph and inspector.
+     */
+    public static ContractionHierarchy loadOrBuild(File file, Graph graph,
+            ArcInspector inspector) {
+        IOException readException = null;
+        if (file.exists()) {
+            try {
+                return read(file, graph, inspector);
+            }
+            catch (IOException exception) {
+                // Invalid or outdated file, build the hierarchy again.
+                readException = exception;
+            }
+        }
+        ContractionHierarchy hierarchy = new ContractionHierarchyBuilder(graph, inspector)
+                .build();
+        hierarchy.fileException = readException;
+        try {
+            hierarchy.write(
+                    new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))));
+        }
+        catch (IOException exception) {
+            // The hierarchy cannot be saved, it will be built again next time.
+            if (readException != null) {
+                exception.addSuppressed(readException);
+            }
+            hierarchy.fileException = exception;
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Read a hierarchy from the given file.
+     *
+     * @param file File to read from.
+     * @param graph Graph of the hierarchy.
+     * @param inspector Inspector of the hierarchy.
+     *
+     * @return Hierarchy read.
+     *
+     * @throws MapMismatchException if the hierarchy was built for another map.
+     * @throws IOException if the file cannot be read, or if the hierarchy was
+     *         built for another inspector.
+     */
+    public static ContractionHierarchy read(File file, Graph graph, ArcInspector inspector)
+            throws IOException {
+        try (DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            return new HierarchyReader(dis).read(graph, ProfileCache.getProfile(inspector));
+        }
+    }
+
+    /**
+     * Reader for hierarchy files.
+     */
+    private static class HierarchyReader extends BinaryReader {
+
+        HierarchyReader(DataInputStream dis) {
+            super(MAGIC_NUMBER, VERSION, dis);
+        }
+
+        ContractionHierarchy read(Graph graph, String profile) throws IOException {
+            checkMagicNumberOrThrow(dis.readInt());
+            checkVersionOrThrow(dis.readInt());
+
+            byte[] byteId = new byte[MAP_ID_FIELD_LENGTH];
+            dis.readFully(byteId);
+            String mapId = new String(byteId, "UTF-8").trim();
+            if (!mapId.equals(graph.getMapId())) {
+                throw new MapMismatchException(mapId, graph.getMapId());
+            }
+            String actualProfile = dis.readUTF();
+            if (!actualProfile.equals(profile)) {
+                throw new IOException("Hierarchy built for another profile: " + actualProfile);
+            }
+
+            final int nbNodes = dis.readInt();
+            if (nbNodes != graph.size()) {
+                throw new BadFormatException();
+            }
+            int[] ranks = new int[nbNodes];
+            for (int node = 0; node < nbNodes; ++node) {
+                ranks[node] = dis.readInt();
+            }
+
+            final int nbEdges = dis.readInt();
+            int[] origins = new int[nbEdges], destinations = new int[nbEdges];
+            double[] costs = new double[nbEdges];
+            int[] children = new int[2 * nbEdges];
+            for (int edge = 0; edge < nbEdges; ++edge) {
+                origins[edge] = dis.readInt();
+                destinations[edge] = dis.readInt();
+                costs[edge] = dis.readDouble();
+                children[2 * edge] = dis.readInt();
+                children[2 * edge + 1] = dis.readInt();
+            }
+            return new ContractionHierarchy(mapId, profile, ranks, origins, destinations, costs,
+                    children);
+        }
+    }
+
+    // Map ID and profile of this hierarchy.
+    private final String mapId, profile;
+
+    // Rank of each node.
+    private final int[] ranks;
+
+    // Origin, destination and cost of each edge.
+    private final int[] origins, destinations;
+    private final double[] costs;
+
+    // Children of each edge (edge e has children 2e and 2e + 1). For shortcuts,
+    // these are the IDs of the two edges replaced by the shortcut. For arcs of the
+    // graph, the first child is -1 and the second one is the index of the arc in
+    // the successors of its origin.
+    private final int[] children;
+
+    // Upward edges of each node (edges towards a higher ranked node).
+    private final int[] firstUpEdges, upEdges;
+
+    // Downward edges of each node, by destination (edges from a higher ranked
+    // node).
+    private final int[] firstDownEdges, downEdges;
+
+    // Exception raised when reading or writing the file of this hierarchy in
+    // loadOrBuild(), or null.
+    private IOException fileException;
+
+    /**
+     * Create a new hierarchy. Arrays are not copied and must not be modified
+     * afterwards.
+     *
+     * @param mapId ID of the map of the hierarchy.
+     * @param profile Profile of the hierarchy.
+     * @param ranks Rank of each node.
+     * @param origins Origin of each edge.
+     * @param destinations Destination of each edge.
+     * @param costs Cost of each edge.
+     * @param children Children of each edge (see {@link #getEdgeChildren(int)}).
+     */
+    ContractionHierarchy(String mapId, String profile, int[] ranks, int[] origins,
+            int[] destinations, double[] costs, int[] children) {
+        this.mapId = mapId;
+        this.profile = profile;
+        this.ranks = ranks;
+        this.origins = origins;
+        this.destinations = destinations;
+        this.costs = costs;
+        this.children = children;
+
+        final int nbNodes = ranks.length;
+        this.firstUpEdges = new int[nbNodes + 1];
+        this.firstDownEdges = new int[nbNodes + 1];
+        int nbUp = 0, nbDown = 0;
+        for (int edge = 0; edge < origins.length; ++edge) {
+            if (ranks[destinations[edge]] > ranks[origins[edge]]) {
+                this.firstUpEdges[origins[edge] + 1] += 1;
+                nbUp += 1;
+            }
+            else {
+                this.firstDownEdges[destinations[edge] + 1] += 1;
+                nbDown += 1;
+            }
+        }
+        for (int node = 0; node < nbNodes; ++node) {
+            this.firstUpEdges[node + 1] += this.firstUpEdges[node];
+            this.firstDownEdges[node + 1] += this.firstDownEdges[node];
+        }
+        this.upEdges = new int[nbUp];
+        this.downEdges = new int[nbDown];
+        int[] nextUp = Arrays.copyOf(this.firstUpEdges, nbNodes);
+        int[] nextDown = Arrays.copyOf(this.firstDownEdges, nbNodes);
+        for (int edge = 0; edge < origins.length; ++edge) {
+            if (ranks[destinations[edge]] > ranks[origins[edge]]) {
+                this.upEdges[nextUp[origins[edge]]++] = edge;
+            }
+            else {
+                this.downEdges[nextDown[destinations[edge]]++] = edge;
+            }
+        }
+    }
+
+    /**
+     * @return Number of nodes of this hierarchy.
+     */
+    public int size() {
+        return ranks.length;
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Rank of the given node.
+     */
+    public int getRank(int node) {
+        return ranks[node];
+    }
+
+    /**
+     * @return Exception raised by
+     *         {@link #loadOrBuild(File, Graph, ArcInspector)} when it could not
+     *         read (the hierarchy was built again) or write the file of this
+     *         hierarchy, or null if there was none.
+     */
+    public IOException getFileException() {
+        return fileException;
+    }
+
+    /**
+     * @return Number of edges (arcs and shortcuts) of this hierarchy.
+     */
+    public int getEdgeCount() {
+        return origins.length;
+    }
+
+    /**
+     * @return Number of shortcuts of this hierarchy.
+     */
+    public int getShortcutCount() {
+        int count = 0;
+        for (int edge = 0; edge < origins.length; ++edge) {
+            if (isShortcut(edge)) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param edge ID of an edge.
+     *
+     * @return Origin of the given edge.
+     */
+    public int getEdgeOrigin(int edge) {
+        return origins[edge];
+    }
+
+    /**
+     * @param edge ID of an edge.
+     *
+     * @return Destination of the given edge.
+     */
+    public int getEdgeDestination(int edge) {
+        return destinations[edge];
+    }
+
+    /**
+     * @param edge ID of an edge.
+     *
+     * @return Cost of the given edge.
+     */
+    public double getEdgeCost(int edge) {
+        return costs[edge];
+    }
+
+    /**
+     * @param edge ID of an edge.
+     *
+     * @return true if the given edge is a shortcut.
+     */
+    public boolean isShortcut(int edge) {
+        return children[2 * edge] >= 0;
+    }
+
+    /**
+     * @param edge ID of an edge.
+     *
+     * @return The two children of the given edge: IDs of the edges replaced for a
+     *         shortcut, or -1 and the index of the arc in the successors of its
+     *         origin for an arc of the graph.
+     */
+    public int[] getEdgeChildren(int edge) {
+        return new int[] { children[2 * edge], children[2 * edge + 1] };
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Index of the first upward edge of the given node.
+     */
+    public int getFirstUpEdge(int node) {
+        return firstUpEdges[node];
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Index following the last upward edge of the given node.
+     */
+    public int getEndUpEdge(int node) {
+        return firstUpEdges[node + 1];
+    }
+
+    /**
+     * @param index Index of an upward edge.
+     *
+     * @return ID of the upward edge at the given index.
+     */
+    public int getUpEdge(int index) {
+        return upEdges[index];
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Index of the first downward edge whose destination is the given
+     *         node.
+     */
+    public int getFirstDownEdge(int node) {
+        return firstDownEdges[node];
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Index following the last downward edge whose destination is the
+     *         given node.
+     */
+    public int getEndDownEdge(int node) {
+        return firstDownEdges[node + 1];
+    }
+
+    /**
+     * @param index Index of a downward edge.
+     *
+     * @return ID of the downward edge at the given index.
+     */
+    public int getDownEdge(int index) {
+        return downEdges[index];
+    }
+
+    /**
+     * Unpack the given edge into arcs of the given graph, and add them to the given
+     * list.
+     *
+     * @param graph Graph of this hierarchy.
+     * @param edge ID of the edge to unpack.
+     * @param arcs List to which arcs should be added, in travel order.
+     */
+    public void unpack(Graph graph, int edge, List<Arc> arcs) {
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        stack.push(edge);
+        while (!stack.isEmpty()) {
+            int current = stack.pop();
+            if (isShortcut(current)) {
+                stack.push(children[2 * current + 1]);
+                stack.push(children[2 * current]);
+            }
+            else {
+                Iterator<Arc> successors = graph.get(origins[current]).iterator();
+                for (int i = 0; i < children[2 * current + 1]; ++i) {
+                    successors.next();
+                }
+                arcs.add(successors.next());
+            }
+        }
+    }
+
+    /**
+     * Write this hierarchy to the given stream, and close it.
+     *
+     * @param dos Stream to write to.
+     *
+     * @throws IOException if an error occurs while writing.
+     */
+    public void write(DataOutputStream dos) throws IOException {
+        dos.writeInt(MAGIC_NUMBER);
+        dos.writeInt(VERSION);
+        dos.write(Arrays.copyOf(mapId.getBytes("UTF-8"), MAP_ID_FIELD_LENGTH));
+        dos.writeUTF(profile);
+        dos.writeInt(ranks.length);
+        for (int rank: ranks) {
+            dos.writeInt(rank);
+        }
+        dos.writeInt(origins.length);
+        for (int edge = 0; edge < origins.length; ++edge) {
+            dos.writeInt(origins[edge]);
+            dos.writeInt(destinations[edge]);
+            dos.writeDouble(costs[edge]);
+            dos.writeInt(children[2 * edge]);
+            dos.writeInt(children[2 * edge + 1]);
+        }
+        dos.flush();
+        dos.close();
+    }
+
+}
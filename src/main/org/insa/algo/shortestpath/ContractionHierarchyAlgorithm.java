@@ -0,0 +1,213 @@
+package org.insa.algo.shortestpath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.algo.utils.IndexedDoubleHeap;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.Path;
+
+/**
+ * Shortest path query on a {@link ContractionHierarchy}.
+ *
+ * A forward search from the origin only follows upward edges, and a backward
+ * search from the destination only follows downward edges backward, so both
+ * searches only visit nodes ranked higher than their source. Each time an edge
+ * reaches a node already reached by the opposite search, the best path found
+ * so far is updated. A search stops as soon as its smallest key is not lower
+ * than the cost of the best path found so far. The path is then rebuilt from
+ * both search trees and its shortcuts are unpacked.
+ *
+ * The hierarchy is retrieved with {@link ContractionHierarchy#forData}, and is
+ * thus built (or read) the first time the algorithm is run for a graph and an
+ * inspector.
+ *
+ */
+public class ContractionHierarchyAlgorithm extends ShortestPathAlgorithm {
+
+    /**
+     * Search state on a hierarchy, reused across queries (see DijkstraSearch).
+     */
+    private static class Search {
+
+        // Hierarchy associated with this search.
+        final ContractionHierarchy hierarchy;
+
+        // Priority queue of reached but not settled nodes.
+        final IndexedDoubleHeap heap;
+
+        // Cost and parent edge of each node (only valid if the node is reached).
+        final double[] costs;
+        final int[] parentEdges;
+
+        // Version stamps for reached nodes, and current version.
+        final int[] reached;
+        int version;
+
+        Search(ContractionHierarchy hierarchy) {
+            this.hierarchy = hierarchy;
+            this.heap = new IndexedDoubleHeap(hierarchy.size());
+            this.costs = new double[hierarchy.size()];
+            this.parentEdges = new int[hierarchy.size()];
+            this.reached = new int[hierarchy.size()];
+            this.version = 0;
+        }
+
+        void start(int source) {
+            ++version;
+            heap.clear();
+            reached[source] = version;
+            costs[source] = 0;
+            parentEdges[source] = -1;
+            heap.insert(source, 0);
+        }
+
+        boolean isReached(int node) {
+            return reached[node] == version;
+        }
+
+        double getNextKey() {
+            return heap.isEmpty() ? Double.POSITIVE_INFINITY : heap.findMinKey();
+        }
+    }
+
+    // Search states owned by each thread (forward and backward).
+    private static final ThreadLocal<Search[]> THREAD_SEARCHES = new ThreadLocal<>();
+
+    /**
+     * Retrieve the forward and backward search states owned by the current thread
+     * for the given hierarchy.
+     */
+    private static Search[] getSearches(ContractionHierarchy hierarchy) {
+        Search[] searches = THREAD_SEARCHES.get();
+        if (searches == null || searches[0].hierarchy != hierarchy) {
+            searches = new Search[] { new Search(hierarchy), new Search(hierarchy) };
+            THREAD_SEARCHES.set(searches);
+        }
+        return searches;
+    }
+
+    // Best path found so far: cost and meeting node.
+    private double bestCost;
+    private int meetingNode;
+
+    public ContractionHierarchyAlgorithm(ShortestPathData data) {
+        super(data);
+    }
+
+    @Override
+    protected ShortestPathSolution doRun() {
+        ShortestPathData data = getInputData();
+        Graph graph = data.getGraph();
+
+        if (data.getOrigin().equals(data.getDestination())) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+
+        ContractionHierarchy hierarchy = ContractionHierarchy.forData(data);
+        Search[] searches = getSearches(hierarchy);
+        Search forward = searches[0], backward = searches[1];
+
+        forward.start(data.getOrigin().getId());
+        backward.start(data.getDestination().getId());
+        bestCost = Double.POSITIVE_INFINITY;
+        meetingNode = -1;
+
+        notifyOriginProcessed(data.getOrigin());
+
+        while (true) {
+            double forwardKey = forward.getNextKey(), backwardKey = backward.getNextKey();
+            boolean forwardDone = forwardKey >= bestCost, backwardDone = backwardKey >= bestCost;
+            if (forwardDone && backwardDone) {
+                break;
+            }
+            if (!forwardDone && (backwardDone || forwardKey <= backwardKey)) {
+                settleNext(graph, forward, backward, false);
+            }
+            else {
+                settleNext(graph, backward, forward, true);
+            }
+        }
+
+        if (meetingNode < 0) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+
+        notifyDestinationReached(data.getDestination());
+
+        // Edges from the origin to the meeting node, then to the destination.
+        ArrayList<Integer> edges = new ArrayList<>();
+        for (int node = meetingNode; forward.parentEdges[node] >= 0;) {
+            edges.add(forward.parentEdges[node]);
+            node = hierarchy.getEdgeOrigin(forward.parentEdges[node]);
+        }
+        Collections.reverse(edges);
+        for (int node = meetingNode; backward.parentEdges[node] >= 0;) {
+            edges.add(backward.parentEdges[node]);
+            node = hierarchy.getEdgeDestination(backward.parentEdges[node]);
+        }
+
+        ArrayList<Arc> arcs = new ArrayList<>();
+        for (int edge: edges) {
+            hierarchy.unpack(graph, edge, arcs);
+        }
+
+        return new ShortestPathSolution(data, Status.OPTIMAL, new Path(graph, arcs));
+    }
+
+    /**
+     * Settle the next node of the given search, relax its upward (forward search)
+     * or downward (backward search) edges and update the best path found so far.
+     */
+    private void settleNext(Graph graph, Search search, Search opposite, boolean backward) {
+        final ContractionHierarchy hierarchy = search.hierarchy;
+        final double cost = search.heap.findMinKey();
+        final int node = search.heap.deleteMin();
+        notifyNodeMarked(graph.get(node));
+
+        if (opposite.isReached(node)) {
+            updateBest(node, cost + opposite.costs[node]);
+        }
+
+        final int first = backward ? hierarchy.getFirstDownEdge(node)
+                : hierarchy.getFirstUpEdge(node);
+        final int end = backward ? hierarchy.getEndDownEdge(node) : hierarchy.getEndUpEdge(node);
+        for (int index = first; index < end; ++index) {
+            final int edge = backward ? hierarchy.getDownEdge(index) : hierarchy.getUpEdge(index);
+            final int next = backward ? hierarchy.getEdgeOrigin(edge)
+                    : hierarchy.getEdgeDestination(edge);
+            final double newCost = cost + hierarchy.getEdgeCost(edge);
+            if (!search.isReached(next)) {
+                search.reached[next] = search.version;
+                search.costs[next] = newCost;
+                search.parentEdges[next] = edge;
+                search.heap.insert(next, newCost);
+                notifyNodeReached(graph.get(next));
+            }
+            else if (newCost < search.costs[next] && search.heap.contains(next)) {
+                search.costs[next] = newCost;
+                search.parentEdges[next] = edge;
+                search.heap.decreaseKey(next, newCost);
+            }
+            else {
+                continue;
+            }
+            if (opposite.isReached(next)) {
+                updateBest(next, newCost + opposite.costs[next]);
+            }
+        }
+    }
+
+    /**
+     * Update the best path found so far if the given one is better.
+     */
+    private void updateBest(int node, double cost) {
+        if (cost < bestCost) {
+            bestCost = cost;
+            meetingNode = node;
+        }
+    }
+
+}
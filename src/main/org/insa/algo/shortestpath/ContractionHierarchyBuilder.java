@@ -0,0 +1,410 @@
+package org.insa.algo.shortestpath;
+
+import java.util.Arrays;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.CompiledProfile;
+import org.insa.algo.utils.IndexedDoubleHeap;
+import org.insa.algo.utils.ProfileCache;
+import org.insa.graph.ArcNumbering;
+import org.insa.graph.Graph;
+
+/**
+ * Builder of {@link ContractionHierarchy}.
+ *
+ * Nodes are contracted one by one, by increasing priority. Contracting a node v
+ * removes it from the remaining graph: for each pair of remaining edges (u, v)
+ * and (v, w), a shortcut (u, w) is added unless a witness search finds a path
+ * from u to w avoiding v that is not longer. The priority of a node combines
+ * its edge difference (number of shortcuts that its contraction would add minus
+ * number of edges removed), its number of contracted neighbors and its level
+ * (depth in the hierarchy), and is updated lazily.
+ *
+ * Witness searches are limited to a fixed number of settled nodes. When the
+ * limit is reached, the shortcut is added, which is always correct but may add
+ * unnecessary shortcuts.
+ *
+ */
+public class ContractionHierarchyBuilder {
+
+    /**
+     * Default maximum number of nodes settled by a witness search.
+     */
+    public static final int DEFAULT_WITNESS_SETTLED_LIMIT = 1000;
+
+    // Weight of the edge difference in the priority of nodes.
+    private static final int EDGE_DIFFERENCE_WEIGHT = 2;
+
+    // Graph and inspector.
+    private final Graph graph;
+    private final ArcInspector inspector;
+
+    // Maximum number of nodes settled by a witness search.
+    private int witnessSettledLimit = DEFAULT_WITNESS_SETTLED_LIMIT;
+
+    // Edges: origin, destination, cost and children (see ContractionHierarchy).
+    private int nbEdges;
+    private int[] origins, destinations, children;
+    private double[] costs;
+
+    // Incoming and outgoing edges of each node. Edges from or to a contracted
+    // node are removed from the lists of its neighbors once it is contracted.
+    private int[][] inEdges, outEdges;
+    private int[] nbInEdges, nbOutEdges;
+
+    // Contraction state of each node.
+    private boolean[] contracted;
+    private int[] nbContractedNeighbors, lastContractedNeighbors;
+
+    // Level of each node: 0 for original nodes, otherwise 1 + the highest level
+    // of the contracted neighbors.
+    private int[] levels;
+
+    // Witness search state, reset lazily using version stamps.
+    private IndexedDoubleHeap witnessHeap;
+    private double[] witnessCosts;
+    private int[] witnessVersions;
+    private int witnessVersion;
+
+    // Targets of the current witness search, marked using version stamps.
+    private int[] targetVersions;
+    private int targetVersion;
+
+    /**
+     * Create a new builder for the given graph and inspector.
+     *
+     * @param graph Graph to build the hierarchy for.
+     * @param inspector Inspector to use (allowed arcs and costs).
+     */
+    public ContractionHierarchyBuilder(Graph graph, ArcInspector inspector) {
+        this.graph = graph;
+        this.inspector = inspector;
+    }
+
+    /**
+     * Set the maximum number of nodes settled by a witness search. Lower values
+     * speed up the construction but may add more shortcuts.
+     *
+     * @param witnessSettledLimit Maximum number of nodes settled by a witness
+     *        search.
+     *
+     * @return This builder.
+     */
+    public ContractionHierarchyBuilder setWitnessSettledLimit(int witnessSettledLimit) {
+        this.witnessSettledLimit = witnessSettledLimit;
+        return this;
+    }
+
+    /**
+     * Build the hierarchy.
+     *
+     * @return Contraction hierarchy of the graph for the inspector.
+     */
+    public ContractionHierarchy build() {
+        final int nbNodes = graph.size();
+
+        nbEdges = 0;
+        origins = new int[nbNodes];
+        destinations = new int[nbNodes];
+        children = new int[2 * nbNodes];
+        costs = new double[nbNodes];
+        inEdges = new int[nbNodes][];
+        outEdges = new int[nbNodes][];
+        nbInEdges = new int[nbNodes];
+        nbOutEdges = new int[nbNodes];
+        contracted = new boolean[nbNodes];
+        nbContractedNeighbors = new int[nbNodes];
+        lastContractedNeighbors = new int[nbNodes];
+        Arrays.fill(lastContractedNeighbors, -1);
+        levels = new int[nbNodes];
+
+        witnessHeap = new IndexedDoubleHeap(nbNodes);
+        witnessCosts = new double[nbNodes];
+        witnessVersions = new int[nbNodes];
+        witnessVersion = 0;
+        targetVersions = new int[nbNodes];
+        targetVersion = 0;
+
+        addArcs();
+
+        // Initial priorities.
+        IndexedDoubleHeap queue = new IndexedDoubleHeap(nbNodes);
+        for (int node = 0; node < nbNodes; ++node) {
+            queue.insert(node, getPriority(node));
+        }
+
+        // Contract nodes by increasing priority, updating the priority of the next
+        // node until it remains the smallest one.
+        int[] ranks = new int[nbNodes];
+        int rank = 0;
+        while (!queue.isEmpty()) {
+            int node = queue.findMin();
+            double priority = getPriority(node);
+            queue.updateKey(node, priority);
+            if (queue.findMin() != node) {
+                continue;
+            }
+            queue.deleteMin();
+
+            contract(node, false);
+            contracted[node] = true;
+            ranks[node] = rank++;
+
+            // Remove the edges of the contracted node from its neighbors and update
+            // their priorities (once per neighbor).
+            for (int i = 0; i < nbInEdges[node]; ++i) {
+                updateNeighbor(queue, origins[inEdges[node][i]], node);
+            }
+            for (int i = 0; i < nbOutEdges[node]; ++i) {
+                updateNeighbor(queue, destinations[outEdges[node][i]], node);
+            }
+        }
+
+        ContractionHierarchy hierarchy = new ContractionHierarchy(graph.getMapId(),
+                ProfileCache.getProfile(inspector), ranks, Arrays.copyOf(origins, nbEdges),
+                Arrays.copyOf(destinations, nbEdges), Arrays.copyOf(costs, nbEdges),
+                Arrays.copyOf(children, 2 * nbEdges));
+
+        // Release the working state.
+        origins = destinations = children = null;
+        costs = null;
+        inEdges = outEdges = null;
+        witnessHeap = null;
+        witnessCosts = null;
+        witnessVersions = null;
+        targetVersions = null;
+
+        return hierarchy;
+    }
+
+    /**
+     * Add an edge for the cheapest allowed arc between each pair of distinct
+     * nodes.
+     */
+    private void addArcs() {
+        final CompiledProfile profile = CompiledProfile.forGraph(graph, inspector);
+        final ArcNumbering numbering = profile.getArcNumbering();
+        final int nbNodes = graph.size();
+        int[] edgeTo = new int[nbNodes];
+        int[] edgeToOrigin = new int[nbNodes];
+        Arrays.fill(edgeToOrigin, -1);
+        for (int origin = 0; origin < nbNodes; ++origin) {
+            final int first = numbering.getFirstArc(origin);
+            for (int arc = first; arc < numbering.getEndArc(origin); ++arc) {
+                int destination = numbering.getDestination(arc);
+                if (destination == origin || !profile.isAllowed(arc)) {
+                    continue;
+                }
+                double cost = profile.getCost(arc);
+                if (edgeToOrigin[destination] != origin) {
+                    edgeToOrigin[destination] = origin;
+                    edgeTo[destination] = addEdge(origin, destination, cost, -1, arc - first);
+                }
+                else if (cost < costs[edgeTo[destination]]) {
+                    costs[edgeTo[destination]] = cost;
+                    children[2 * edgeTo[destination] + 1] = arc - first;
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a new edge.
+     *
+     * @return ID of the new edge.
+     */
+    private int addEdge(int origin, int destination, double cost, int child1, int child2) {
+        if (nbEdges == origins.length) {
+            int capacity = 2 * nbEdges + 1;
+            origins = Arrays.copyOf(origins, capacity);
+            destinations = Arrays.copyOf(destinations, capacity);
+            costs = Arrays.copyOf(costs, capacity);
+            children = Arrays.copyOf(children, 2 * capacity);
+        }
+        int edge = nbEdges++;
+        origins[edge] = origin;
+        destinations[edge] = destination;
+        costs[edge] = cost;
+        children[2 * edge] = child1;
+        children[2 * edge + 1] = child2;
+
+        if (outEdges[origin] == null || nbOutEdges[origin] == outEdges[origin].length) {
+            outEdges[origin] = outEdges[origin] == null ? new int[4]
+                    : Arrays.copyOf(outEdges[origin], 2 * nbOutEdges[origin]);
+        }
+        outEdges[origin][nbOutEdges[origin]++] = edge;
+        if (inEdges[destination] == null
+                || nbInEdges[destination] == inEdges[destination].length) {
+            inEdges[destination] = inEdges[destination] == null ? new int[4]
+                    : Arrays.copyOf(inEdges[destination], 2 * nbInEdges[destination]);
+        }
+        inEdges[destination][nbInEdges[destination]++] = edge;
+        return edge;
+    }
+
+    /**
+     * Update a neighbor of a node that has just been contracted, unless it has
+     * already been updated for this node.
+     */
+    private void updateNeighbor(IndexedDoubleHeap queue, int neighbor, int node) {
+        if (contracted[neighbor] || lastContractedNeighbors[neighbor] == node) {
+            return;
+        }
+        lastContractedNeighbors[neighbor] = node;
+        nbContractedNeighbors[neighbor] += 1;
+        levels[neighbor] = Math.max(levels[neighbor], levels[node] + 1);
+        nbInEdges[neighbor] = removeContractedEdges(inEdges[neighbor], nbInEdges[neighbor],
+                origins);
+        nbOutEdges[neighbor] = removeContractedEdges(outEdges[neighbor],
+                nbOutEdges[neighbor], destinations);
+        queue.updateKey(neighbor, getPriority(neighbor));
+    }
+
+    /**
+     * Remove the edges whose end (origin or destination) is contracted from the
+     * given list.
+     *
+     * @return New number of edges in the list.
+     */
+    private int removeContractedEdges(int[] edges, int nbEdges, int[] ends) {
+        int count = 0;
+        for (int i = 0; i < nbEdges; ++i) {
+            if (!contracted[ends[edges[i]]]) {
+                edges[count++] = edges[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Current priority of the given node.
+     */
+    private double getPriority(int node) {
+        int removed = 0;
+        for (int i = 0; i < nbInEdges[node]; ++i) {
+            if (!contracted[origins[inEdges[node][i]]]) {
+                ++removed;
+            }
+        }
+        for (int i = 0; i < nbOutEdges[node]; ++i) {
+            if (!contracted[destinations[outEdges[node][i]]]) {
+                ++removed;
+            }
+        }
+        return EDGE_DIFFERENCE_WEIGHT * (contract(node, true) - removed)
+                + nbContractedNeighbors[node] + levels[node];
+    }
+
+    /**
+     * Contract the given node, or only count the shortcuts that its contraction
+     * would add.
+     *
+     * @param node Node to contract.
+     * @param simulate true to only count shortcuts.
+     *
+     * @return Number of shortcuts (that would be) added.
+     */
+    private int contract(int node, boolean simulate) {
+        int nbShortcuts = 0;
+        for (int i = 0; i < nbInEdges[node]; ++i) {
+            final int inEdge = inEdges[node][i];
+            final int origin = origins[inEdge];
+            if (contracted[origin]) {
+                continue;
+            }
+
+            // Cost of the most expensive path through node, to bound the search.
+            // The witness search stops when all targets are settled.
+            double maxCost = -1;
+            int nbTargets = 0;
+            ++targetVersion;
+            for (int j = 0; j < nbOutEdges[node]; ++j) {
+                final int outEdge = outEdges[node][j];
+                final int destination = destinations[outEdge];
+                if (!contracted[destination] && destination != origin) {
+                    maxCost = Math.max(maxCost, costs[inEdge] + costs[outEdge]);
+                    if (targetVersions[destination] != targetVersion) {
+                        targetVersions[destination] = targetVersion;
+                        ++nbTargets;
+                    }
+                }
+            }
+            if (nbTargets == 0) {
+                continue;
+            }
+
+            runWitnessSearch(origin, node, maxCost, nbTargets);
+
+            for (int j = 0; j < nbOutEdges[node]; ++j) {
+                final int outEdge = outEdges[node][j];
+                final int destination = destinations[outEdge];
+                if (contracted[destination] || destination == origin) {
+                    continue;
+                }
+                double cost = costs[inEdge] + costs[outEdge];
+                if (getWitnessCost(destination) <= cost) {
+                    continue;
+                }
+                ++nbShortcuts;
+                if (!simulate) {
+                    addEdge(origin, destination, cost, inEdge, outEdge);
+                }
+            }
+        }
+        return nbShortcuts;
+    }
+
+    /**
+     * Run a Dijkstra search from the given origin in the remaining graph, avoiding
+     * the given node, settling nodes whose cost is at most maxCost until the
+     * given number of targets are settled.
+     */
+    private void runWitnessSearch(int origin, int avoid, double maxCost, int nbTargets) {
+        ++witnessVersion;
+        witnessHeap.clear();
+        witnessVersions[origin] = witnessVersion;
+        witnessCosts[origin] = 0;
+        witnessHeap.insert(origin, 0);
+
+        int nbSettled = 0;
+        while (!witnessHeap.isEmpty() && nbSettled < witnessSettledLimit) {
+            double cost = witnessHeap.findMinKey();
+            if (cost > maxCost) {
+                break;
+            }
+            int node = witnessHeap.deleteMin();
+            ++nbSettled;
+            if (targetVersions[node] == targetVersion && --nbTargets == 0) {
+                break;
+            }
+            for (int i = 0; i < nbOutEdges[node]; ++i) {
+                final int edge = outEdges[node][i];
+                final int destination = destinations[edge];
+                if (destination == avoid || contracted[destination]) {
+                    continue;
+                }
+                double newCost = cost + costs[edge];
+                if (witnessVersions[destination] != witnessVersion) {
+                    witnessVersions[destination] = witnessVersion;
+                    witnessCosts[destination] = newCost;
+                    witnessHeap.insert(destination, newCost);
+                }
+                else if (newCost < witnessCosts[destination]
+                        && witnessHeap.contains(destination)) {
+                    witnessCosts[destination] = newCost;
+                    witnessHeap.decreaseKey(destination, newCost);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Cost of the best path found by the last witness search to the given
+     *         node, or infinity if none was found.
+     */
+    private double getWitnessCost(int node) {
+        return witnessVersions[node] == witnessVersion ? witnessCosts[node]
+                : Double.POSITIVE_INFINITY;
+    }
+
+}
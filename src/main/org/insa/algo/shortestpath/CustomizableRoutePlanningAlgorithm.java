@@ -0,0 +1,84 @@
+package org.insa.algo.shortestpath;
+
+import java.util.ArrayList;
+
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.MultiLevelPartition;
+import org.insa.graph.Path;
+
+/**
+ * Shortest path query using customizable route planning (CRP).
+ *
+ * The query is a Dijkstra search on the overlay (see {@link OverlayGraph} and
+ * {@link OverlaySearch}) where each node is searched at the highest level at
+ * which its cell contains neither the origin nor the destination: nodes close
+ * to the origin or the destination are searched on the graph itself, while
+ * farther nodes are searched through the clique edges of larger and larger
+ * cells. The clique edges of the resulting path are then unpacked recursively
+ * into arcs of the graph.
+ *
+ * The overlay is built once per graph, and customized the first time the
+ * algorithm is run for an inspector (see {@link OverlayCustomization}).
+ *
+ */
+public class CustomizableRoutePlanningAlgorithm extends ShortestPathAlgorithm {
+
+    public CustomizableRoutePlanningAlgorithm(ShortestPathData data) {
+        super(data);
+    }
+
+    @Override
+    protected ShortestPathSolution doRun() {
+        ShortestPathData data = getInputData();
+        Graph graph = data.getGraph();
+
+        if (data.getOrigin().equals(data.getDestination())) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+
+        final OverlayCustomization customization = OverlayCustomization.forData(data);
+        final MultiLevelPartition partition = customization.getOverlay().getPartition();
+        final int origin = data.getOrigin().getId();
+        final int destination = data.getDestination().getId();
+
+        // Cells of the origin and the destination at each level.
+        final int nbLevels = partition.getLevelCount();
+        final int[] originCells = new int[nbLevels + 1], destinationCells = new int[nbLevels + 1];
+        for (int level = 1; level <= nbLevels; ++level) {
+            originCells[level] = partition.getCell(level, origin);
+            destinationCells[level] = partition.getCell(level, destination);
+        }
+
+        OverlaySearch search = OverlaySearch.forOverlay(graph, customization.getOverlay());
+        search.start(customization, (node) -> {
+            for (int level = nbLevels; level > 0; --level) {
+                int cell = partition.getCell(level, node);
+                if (cell != originCells[level] && cell != destinationCells[level]) {
+                    return level;
+                }
+            }
+            return 0;
+        }, 0, 0, getObservers());
+        search.addSource(origin, 0);
+
+        notifyOriginProcessed(data.getOrigin());
+
+        while (!search.isSettled(destination) && !search.isFinished()) {
+            search.settleNext();
+        }
+
+        if (!search.isSettled(destination)) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+
+        notifyDestinationReached(data.getDestination());
+
+        ArrayList<Arc> arcs = new ArrayList<>();
+        search.unpackPath(destination, arcs);
+
+        return new ShortestPathSolution(data, Status.OPTIMAL, new Path(graph, arcs));
+    }
+
+}
@@ -6,8 +6,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 
 import org.insa.algo.AbstractSolution.Status;
-import org.insa.algo.utils.BinaryHeap;
+import org.insa.algo.CompiledProfile;
+import org.insa.algo.utils.DaryHeap;
 import org.insa.graph.Arc;
+import org.insa.graph.ArcNumbering;
 import org.insa.graph.Graph;
 import org.insa.graph.Label;
 import org.insa.graph.Node;
@@ -36,7 +38,7 @@ public class DijkstraAlgorithm extends ShortestPathAlgorithm {
         final int nbNodes = graph.size();
         
 		Label[] labels = new Label[nbNodes];
-		BinaryHeap<Label> tas = new BinaryHeap<Label>();
+		DaryHeap<Label> tas = new DaryHeap<Label>(DaryHeap.DEFAULT_ARITY, nbNodes, Label::getIdNode);
 		
 		// Initialisation des labels des noeuds
 		int i;
@@ -56,6 +58,10 @@ public class DijkstraAlgorithm extends ShortestPathAlgorithm {
 			
 		}
 		
+		// Costs and allowed arcs, indexed by arc ID
+		CompiledProfile profile = data.getCompiledProfile();
+		ArcNumbering numbering = profile.getArcNumbering();
+
 		notifyOriginProcessed(data.getOrigin());
 		
 		while (!tas.isEmpty() && !labels[data.getDestination().getId()].isMark()) {
@@ -63,19 +69,22 @@ public class DijkstraAlgorithm extends ShortestPathAlgorithm {
 			labels[l.getIdNode()].setMark(true);
 			Node n = graph.get(l.getIdNode());
 			notifyNodeMarked(n);
-			for (Arc a : n) {
-				if (!data.isAllowed(a)) {
+			for (int id = numbering.getFirstArc(n.getId()); id < numbering.getEndArc(n.getId()); ++id) {
+				if (!profile.isAllowed(id)) {
 					continue;
 				}
+				Arc a = numbering.getArc(id);
 				Node successor = a.getDestination();
 				notifyNodeReached(successor);
 				if (labels[successor.getId()].isMark() == false) {
 					// double cout = Math.min(labels[successor.getId()].getCost(), labels[n.getId()].getCost() + data.getCost(a));
-					if (labels[successor.getId()].getCost() > labels[n.getId()].getCost() + data.getCost(a)) {
-						if (labels[successor.getId()].getCost() != Float.POSITIVE_INFINITY)
-							tas.remove(labels[successor.getId()]);
-						labels[successor.getId()].setCost(labels[n.getId()].getCost() + data.getCost(a));
-						tas.insert(labels[successor.getId()]);
+					if (labels[successor.getId()].getCost() > labels[n.getId()].getCost() + profile.getCost(id)) {
+						boolean inHeap = labels[successor.getId()].getCost() != Float.POSITIVE_INFINITY;
+						labels[successor.getId()].setCost(labels[n.getId()].getCost() + profile.getCost(id));
+						if (inHeap)
+							tas.decreaseKey(labels[successor.getId()]);
+						else
+							tas.insert(labels[successor.getId()]);
 						labels[successor.getId()].setFather(n);
 						labels[successor.getId()].setArcLeast(a);
 					}	
@@ -0,0 +1,466 @@
+package org.insa.algo.shortestpath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+import org.insa.algo.AbstractInputData;
+import org.insa.algo.CompiledProfile;
+import org.insa.algo.utils.IndexedDoubleHeap;
+import org.insa.graph.Arc;
+import org.insa.graph.ArcNumbering;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.Path;
+
+/**
+ * Reusable, label-free Dijkstra search state for a given graph.
+ *
+ * Costs, parent arcs and reached / settled flags are kept in arrays indexed by
+ * node ID that are allocated once and reused across searches. Instead of
+ * clearing these arrays between searches, each search gets a new version
+ * number, and a node is only considered reached (resp. settled) if its stamp
+ * matches the current version. A search thus only touches the nodes it visits.
+ *
+ * Instances are not thread-safe, use {@link #forGraph(Graph)} to retrieve an
+ * instance owned by the current thread.
+ *
+ */
+public class DijkstraSearch {
+
+    // Search states owned by each thread (see forGraph and backwardForGraph).
+    private static final ThreadLocal<DijkstraSearch> THREAD_SEARCH = new ThreadLocal<>();
+    private static final ThreadLocal<DijkstraSearch> THREAD_BACKWARD_SEARCH = new ThreadLocal<>();
+
+    /**
+     * Retrieve the search state owned by the current thread for the given graph,
+     * creating it if the current thread has no state for this graph yet.
+     *
+     * @param graph Graph to search.
+     *
+     * @return A search state for the given graph, owned by the current thread.
+     */
+    public static DijkstraSearch forGraph(Graph graph) {
+        DijkstraSearch search = THREAD_SEARCH.get();
+        if (search == null || search.graph != graph) {
+            search = new DijkstraSearch(graph);
+            THREAD_SEARCH.set(search);
+        }
+        return search;
+    }
+
+    /**
+     * Retrieve the backward search state owned by the current thread for the
+     * given graph, creating it if the current thread has no state for this graph
+     * yet.
+     *
+     * @param graph Graph to search.
+     *
+     * @return A backward search state for the given graph, owned by the current
+     *         thread.
+     *
+     * @see #forGraph(Graph)
+     */
+    public static DijkstraSearch backwardForGraph(Graph graph) {
+        DijkstraSearch search = THREAD_BACKWARD_SEARCH.get();
+        if (search == null || search.graph != graph) {
+            search = new DijkstraSearch(graph, true);
+            THREAD_BACKWARD_SEARCH.set(search);
+        }
+        return search;
+    }
+
+    // Graph associated with this search.
+    private final Graph graph;
+
+    // Numbering of the arcs of the graph.
+    private final ArcNumbering numbering;
+
+    // true for a backward search (following incoming arcs).
+    private final boolean backward;
+
+    // Priority queue of reached but not settled nodes.
+    private final IndexedDoubleHeap heap;
+
+    // Cost and parent arc ID (-1 for sources) of each node (only valid if the
+    // node is reached).
+    private final double[] costs;
+    private final int[] parentArcs;
+
+    // Version stamps for reached and settled nodes.
+    private final int[] reached, settled;
+
+    // Current version.
+    private int version;
+
+    // Compiled inspector of the current search.
+    private CompiledProfile profile;
+
+    // Observers of the current search.
+    private List<ShortestPathObserver> observers;
+
+    // Potential of the current search, or null.
+    private IntToDoubleFunction potential;
+
+    // Number of nodes settled during the current search.
+    private int settledCount;
+
+    // Best path found through an arc towards the opposite search.
+    private double meetingCost;
+    private int meetingArc;
+
+    /**
+     * Create a new forward search state for the given graph.
+     *
+     * @param graph Graph to search.
+     */
+    public DijkstraSearch(Graph graph) {
+        this(graph, false);
+    }
+
+    /**
+     * Create a new search state for the given graph.
+     *
+     * @param graph Graph to search.
+     * @param backward true to create a backward search, i.e. a search that follows
+     *        arcs from their destination to their origin.
+     */
+    public DijkstraSearch(Graph graph, boolean backward) {
+        final int nbNodes = graph.size();
+        this.graph = graph;
+        this.numbering = ArcNumbering.forGraph(graph);
+        this.backward = backward;
+        this.heap = new IndexedDoubleHeap(nbNodes);
+        this.costs = new double[nbNodes];
+        this.parentArcs = new int[nbNodes];
+        this.reached = new int[nbNodes];
+        this.settled = new int[nbNodes];
+        this.version = 0;
+        this.observers = Collections.emptyList();
+    }
+
+    /**
+     * @return Graph associated with this search.
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return true if this is a backward search.
+     */
+    public boolean isBackward() {
+        return backward;
+    }
+
+    /**
+     * Start a new search, forgetting about the previous one (including its
+     * potential). Sources must be added using {@link #addSource(int, double)}
+     * before settling nodes.
+     *
+     * @param data Input data used to filter arcs and compute their costs.
+     * @param observers Observers to notify when nodes are reached or settled.
+     */
+    public void start(AbstractInputData data, List<ShortestPathObserver> observers) {
+        start(data.getCompiledProfile(), observers);
+    }
+
+    /**
+     * Start a new search using the given compiled inspector, for searches that
+     * are not bound to input data (e.g. searches starting in the middle of an
+     * arc).
+     *
+     * @param profile Compiled inspector used to filter arcs and compute their
+     *        costs.
+     * @param observers Observers to notify when nodes are reached or settled.
+     *
+     * @see #start(AbstractInputData, List)
+     */
+    public void start(CompiledProfile profile, List<ShortestPathObserver> observers) {
+        this.profile = profile;
+        this.observers = observers;
+        this.potential = null;
+        this.heap.clear();
+        this.settledCount = 0;
+        this.meetingCost = Double.POSITIVE_INFINITY;
+        this.meetingArc = -1;
+        if (++this.version == Integer.MAX_VALUE) {
+            // Stamps wrapped around, start again from a clean state.
+            Arrays.fill(this.reached, 0);
+            Arrays.fill(this.settled, 0);
+            this.version = 1;
+        }
+    }
+
+    /**
+     * Start a new search, without observers.
+     *
+     * @param data Input data used to filter arcs and compute their costs.
+     *
+     * @see #start(AbstractInputData, List)
+     */
+    public void start(AbstractInputData data) {
+        start(data, Collections.emptyList());
+    }
+
+    /**
+     * Set the potential of the current search. Nodes are then settled by
+     * increasing cost plus potential, as in A*. The potential must be feasible,
+     * i.e. for any allowed arc (u, v) followed by the search, cost(u, v) -
+     * potential(u) + potential(v) must not be negative, otherwise settled costs
+     * may not be optimal.
+     *
+     * This must be called before adding sources.
+     *
+     * @param potential Potential of each node (by ID), or null for no potential.
+     */
+    public void setPotential(IntToDoubleFunction potential) {
+        this.potential = potential;
+    }
+
+    /**
+     * Add a source to the current search, with the given initial cost.
+     *
+     * @param node ID of the source node.
+     * @param cost Initial cost of the source node.
+     */
+    public void addSource(int node, double cost) {
+        update(node, cost, -1);
+    }
+
+    /**
+     * @param node ID of the node.
+     *
+     * @return true if the given node has been reached by the current search.
+     */
+    public boolean isReached(int node) {
+        return this.reached[node] == this.version;
+    }
+
+    /**
+     * @param node ID of the node.
+     *
+     * @return true if the given node has been settled by the current search, i.e.
+     *         its cost is final.
+     */
+    public boolean isSettled(int node) {
+        return this.settled[node] == this.version;
+    }
+
+    /**
+     * @param node ID of the node.
+     *
+     * @return Current cost of the given node, or positive infinity if the node has
+     *         not been reached.
+     */
+    public double getCost(int node) {
+        return isReached(node) ? this.costs[node] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param node ID of the node.
+     *
+     * @return Arc used to reach the given node, or null if the node is a source or
+     *         has not been reached.
+     */
+    public Arc getParentArc(int node) {
+        return isReached(node) && this.parentArcs[node] >= 0
+                ? this.numbering.getArc(this.parentArcs[node]) : null;
+    }
+
+    /**
+     * @return Number of nodes settled by the current search.
+     */
+    public int getSettledCount() {
+        return this.settledCount;
+    }
+
+    /**
+     * @return true if there are no more nodes to settle.
+     */
+    public boolean isFinished() {
+        return this.heap.isEmpty();
+    }
+
+    /**
+     * @return Key (cost plus potential) of the next node to be settled, or
+     *         positive infinity if there are no more nodes to settle.
+     */
+    public double getNextKey() {
+        return this.heap.isEmpty() ? Double.POSITIVE_INFINITY : this.heap.findMinKey();
+    }
+
+    /**
+     * @return Cost of the next node to be settled, or positive infinity if there
+     *         are no more nodes to settle.
+     */
+    public double getNextCost() {
+        return this.heap.isEmpty() ? Double.POSITIVE_INFINITY : this.costs[this.heap.findMin()];
+    }
+
+    /**
+     * @return Cost of the best path found so far between the sources of this search
+     *         and the sources of the opposite search, see
+     *         {@link #settleNext(DijkstraSearch)}.
+     */
+    public double getMeetingCost() {
+        return this.meetingCost;
+    }
+
+    /**
+     * @return Arc of the best path found so far (see {@link #getMeetingCost()})
+     *         that links a node reached by this search and a node reached by the
+     *         opposite search, or null if no such path has been found.
+     */
+    public Arc getMeetingArc() {
+        return this.meetingArc >= 0 ? this.numbering.getArc(this.meetingArc) : null;
+    }
+
+    /**
+     * Settle the next node (the reached node with the smallest cost) and relax its
+     * outgoing arcs (incoming arcs for a backward search).
+     *
+     * @return ID of the settled node, or -1 if there are no more nodes to settle.
+     */
+    public int settleNext() {
+        return settleNext(null);
+    }
+
+    /**
+     * Settle the next node, as {@link #settleNext()}, and, for each relaxed arc
+     * whose other end has been reached by the given opposite search, update the
+     * best path found between the two searches (see {@link #getMeetingCost()}).
+     *
+     * @param opposite Search running in the opposite direction, or null.
+     *
+     * @return ID of the settled node, or -1 if there are no more nodes to settle.
+     */
+    public int settleNext(DijkstraSearch opposite) {
+        if (this.heap.isEmpty()) {
+            return -1;
+        }
+        final int nodeId = this.heap.deleteMin();
+        this.settled[nodeId] = this.version;
+        this.settledCount += 1;
+
+        final Node node = this.graph.get(nodeId);
+        final double cost = this.costs[nodeId];
+        for (ShortestPathObserver observer: this.observers) {
+            observer.notifyNodeMarked(node);
+        }
+
+        if (!this.backward) {
+            final int end = this.numbering.getEndArc(nodeId);
+            for (int arc = this.numbering.getFirstArc(nodeId); arc < end; ++arc) {
+                relax(cost, arc, this.numbering.getDestination(arc), opposite);
+            }
+        }
+        else {
+            final int end = this.numbering.getEndIncomingArc(nodeId);
+            for (int i = this.numbering.getFirstIncomingArc(nodeId); i < end; ++i) {
+                int arc = this.numbering.getIncomingArc(i);
+                relax(cost, arc, this.numbering.getOrigin(arc), opposite);
+            }
+        }
+        return nodeId;
+    }
+
+    /**
+     * Relax the given arc, followed from a settled node with the given cost to the
+     * given node.
+     */
+    private void relax(double cost, int arc, int next, DijkstraSearch opposite) {
+        if (!this.profile.isAllowed(arc)) {
+            return;
+        }
+        final double nextCost = cost + this.profile.getCost(arc);
+        if (this.settled[next] != this.version) {
+            update(next, nextCost, arc);
+        }
+        if (opposite != null && opposite.isReached(next)) {
+            double meeting = nextCost + opposite.costs[next];
+            if (meeting < this.meetingCost) {
+                this.meetingCost = meeting;
+                this.meetingArc = arc;
+            }
+        }
+    }
+
+    /**
+     * Update the cost of the given node if the given cost is better.
+     */
+    private void update(int node, double cost, int parentArc) {
+        if (this.reached[node] != this.version) {
+            this.reached[node] = this.version;
+            this.costs[node] = cost;
+            this.parentArcs[node] = parentArc;
+            this.heap.insert(node, key(node, cost));
+            for (ShortestPathObserver observer: this.observers) {
+                observer.notifyNodeReached(this.graph.get(node));
+            }
+        }
+        else if (cost < this.costs[node]) {
+            this.costs[node] = cost;
+            this.parentArcs[node] = parentArc;
+            this.heap.decreaseKey(node, key(node, cost));
+        }
+    }
+
+    /**
+     * @return Key of the given node in the heap for the given cost.
+     */
+    private double key(int node, double cost) {
+        return this.potential == null ? cost : cost + this.potential.applyAsDouble(node);
+    }
+
+    /**
+     * Retrieve the arcs between the sources of the current search and the given
+     * node, following parent arcs. For a forward search, arcs go from a source to
+     * the given node, for a backward search, arcs go from the given node to a
+     * source (in both cases, in the order they should be travelled).
+     *
+     * @param node ID of a reached node.
+     *
+     * @return List of arcs between the given node and a source (empty if the node
+     *         is a source).
+     */
+    public List<Arc> getArcs(int node) {
+        ArrayList<Arc> arcs = new ArrayList<>();
+        if (!this.backward) {
+            for (Arc arc = getParentArc(node); arc != null; arc = getParentArc(
+                    arc.getOrigin().getId())) {
+                arcs.add(arc);
+            }
+            Collections.reverse(arcs);
+        }
+        else {
+            for (Arc arc = getParentArc(node); arc != null; arc = getParentArc(
+                    arc.getDestination().getId())) {
+                arcs.add(arc);
+            }
+        }
+        return arcs;
+    }
+
+    /**
+     * Build the path between the sources of the current search and the given node,
+     * following parent arcs.
+     *
+     * @param node ID of a reached node.
+     *
+     * @return Path between the given node and a source (may be a single-node path
+     *         if the node is a source).
+     *
+     * @see #getArcs(int)
+     */
+    public Path buildPath(int node) {
+        List<Arc> arcs = getArcs(node);
+        if (arcs.isEmpty()) {
+            return new Path(this.graph, this.graph.get(node));
+        }
+        return new Path(this.graph, arcs);
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.insa.algo.shortestpath;
+
+import org.insa.algo.AbstractInputData;
+import org.insa.algo.AbstractInputData.Mode;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.Point;
+
+/**
+ * Lower bound of the cost between two points based on the great-circle
+ * distance between them.
+ *
+ * In LENGTH mode, the bound is the distance itself. In TIME mode, it is the
+ * time required to travel the distance at the highest speed allowed, i.e. the
+ * maximum speed of the input data or of the graph (whichever is lower). If no
+ * maximum speed is known in TIME mode, the bound is always 0.
+ *
+ */
+public class GreatCircleHeuristic {
+
+    // Factor to convert a distance (in meters) to a cost.
+    private final double factor;
+
+    /**
+     * Create a new heuristic for the given input data.
+     *
+     * @param data Input data (mode, maximum speed and graph).
+     */
+    public GreatCircleHeuristic(AbstractInputData data) {
+        if (data.getMode() == Mode.LENGTH) {
+            this.factor = 1;
+        }
+        else {
+            int maxSpeed = data.getMaximumSpeed();
+            GraphStatistics stats = data.getGraph().getGraphInformation();
+            if (stats != null && stats.getMaximumSpeed() != GraphStatistics.NO_MAXIMUM_SPEED
+                    && (maxSpeed == GraphStatistics.NO_MAXIMUM_SPEED
+                            || stats.getMaximumSpeed() < maxSpeed)) {
+                maxSpeed = stats.getMaximumSpeed();
+            }
+            this.factor = maxSpeed > 0 ? 3600.0 / (maxSpeed * 1000.0) : 0;
+        }
+    }
+
+    /**
+     * @param from Point to start from.
+     * @param to Point to go to.
+     *
+     * @return A lower bound of the cost from the first point to the second one.
+     */
+    public double getEstimate(Point from, Point to) {
+        if (this.factor == 0) {
+            return 0;
+        }
+        double distance = Point.distance(from, to);
+
+        // Rounding errors can make the distance between close points undefined.
+        return Double.isNaN(distance) ? 0 : distance * this.factor;
+    }
+
+}
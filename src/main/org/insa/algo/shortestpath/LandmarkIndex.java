@@ -0,0 +1,517 @@
+package org.insa.algo.shortestpath;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+
+import org.insa.algo.AbstractInputData;
+import org.insa.algo.ArcInspector;
+import org.insa.algo.utils.ProfileCache;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.io.BinaryReader;
+import org.insa.graph.io.BadFormatException;
+import org.insa.graph.io.MapFiles;
+import org.insa.graph.io.MapMismatchException;
+
+/**
+ * Landmark distances used to compute lower bounds for the ALT algorithm (A*,
+ * Landmarks, Triangle inequality).
+ *
+ * For each landmark L, the cost from L to every node and from every node to L
+ * is computed for a given arc inspector (profile). By the triangle inequality,
+ * for any nodes v and t, cost(v, t) &ge; cost(L, t) - cost(L, v) and cost(v, t)
+ * &ge; cost(v, L) - cost(t, L). The bound used is the maximum of these values
+ * over all landmarks. Terms involving a node that cannot reach (or cannot be
+ * reached from) a landmark are ignored.
+ *
+ */
+public class LandmarkIndex {
+
+    /**
+     * Strategy used to select landmarks.
+     *
+     */
+    public enum Selection {
+
+        // Each landmark is the node farthest from the landmarks already selected.
+        FARTHEST,
+
+        // Each landmark is a leaf of a shortest path tree from a random root, in the
+        // subtree with the worst bounds from the landmarks already selected.
+        AVOID
+    }
+
+    /**
+     * Default number of landmarks.
+     */
+    public static final int DEFAULT_LANDMARK_COUNT = 8;
+
+    // Version and magic number of landmark files.
+    protected static final int VERSION = 1;
+    protected static final int MAGIC_NUMBER = 0x1A4D0A17;
+
+    // Length of the map id field (in bytes)
+    private static final int MAP_ID_FIELD_LENGTH = 32;
+
+    // Extension of landmark files.
+    private static final String FILE_EXTENSION = "landmarks";
+
+    // Indices already loaded or computed.
+    private static final ProfileCache<LandmarkIndex> CACHE = new ProfileCache<>();
+
+    /**
+     * Retrieve the landmark index for the graph and the inspector of the given
+     * data.
+     *
+     * If the index is not in memory yet, it is read from the default file next to
+     * the map file of the graph (see {@link MapFiles}), or computed with the
+     * default parameters and saved to this file if it does not exist.
+     *
+     * @param data Input data.
+     *
+     * @return Landmark index for the given data.
+     */
+    public static LandmarkIndex forData(AbstractInputData data) {
+        return CACHE.computeIfAbsent(data.getGraph(), data.getArcInspector(),
+                (graph, inspector) -> {
+                    File mapFile = MapFiles.get(graph);
+                    if (mapFile == null) {
+                        return compute(graph, inspector, DEFAULT_LANDMARK_COUNT,
+                                Selection.FARTHEST);
+                    }
+                    return loadOrCompute(getDefaultFile(mapFile, inspector), graph, inspector,
+                            DEFAULT_LANDMARK_COUNT, Selection.FARTHEST);
+                });
+    }
+
+    /**
+     * Set the landmark index used by {@link #forData(AbstractInputData)} for the
+     * given graph and inspector.
+     *
+     * @param graph Graph of the index.
+     * @param inspector Inspector of the index.
+     * @param index Index to use.
+     */
+    public static void register(Graph graph, ArcInspector inspector, LandmarkIndex index) {
+        CACHE.put(graph, inspector, index);
+    }
+
+    /**
+     * @param mapFile Map file.
+     * @param inspector Inspector of the index.
+     *
+     * @return Default landmark file for the given map and inspector.
+     */
+    public static File getDefaultFile(File mapFile, ArcInspector inspector) {
+        return MapFiles.getSibling(mapFile,
+                String.format("%08x.%s", ProfileCache.getProfile(inspector).hashCode(),
+                        FILE_EXTENSION));
+    }
+
+    /**
+     * Read the index from the given file if possible, otherwise compute it and try
+     * to save it to the file. A file that cannot be read or written is reported by
+     * {@link #getFileException()} on the returned index.
+     *
+     * @param file Landmark file.
+     * @param graph Graph of the index.
+     * @param inspector Inspector of the index.
+     * @param nbLandmarks Number of landmarks, if the index has to be computed.
+     * @param selection Landmark selection, if the index has to be computed.
+     *
+     * @return Landmark index for the given graph and inspector.
+     */
+    public static LandmarkIndex loadOrCompute(File file, Graph graph, ArcInspector inspector,
+            int nbLandmarks, Selection selection) {
+        IOException readException = null;
+        if (file.exists()) {
+            try {
+                return read(file, graph, inspector);
+            }
+            catch (IOException exception) {
+                // Invalid or outdated file, compute the index again.
+                readException = exception;
+            }
+        }
+        LandmarkIndex index = compute(graph, inspector, nbLandmarks, selection);
+        index.fileException = readException;
+        try {
+            index.write(new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(file))));
+        }
+        catch (IOException exception) {
+            // The index cannot be saved, it will be computed again next time.
+            if (readException != null) {
+                exception.addSuppressed(readException);
+            }
+            index.fileException = exception;
+        }
+        return index;
+    }
+
+    /**
+     * Compute a new landmark index.
+     *
+     * @param graph Graph of the index.
+     * @param inspector Inspector of the index.
+     * @param nbLandmarks Number of landmarks to select.
+     * @param selection Landmark selection strategy.
+     *
+     * @return Landmark index for the given graph and inspector.
+     */
+    public static LandmarkIndex compute(Graph graph, ArcInspector inspector, int nbLandmarks,
+            Selection selection) {
+        final int nbNodes = graph.size();
+        nbLandmarks = Math.min(nbLandmarks, nbNodes);
+
+        AbstractInputData data = new AbstractInputData(graph, inspector) {
+        };
+        DijkstraSearch forward = new DijkstraSearch(graph);
+        DijkstraSearch backward = new DijkstraSearch(graph, true);
+
+        LandmarkIndex index = new LandmarkIndex(graph.getMapId(),
+                ProfileCache.getProfile(inspector), nbNodes, new int[nbLandmarks]);
+        Random random = new Random(nbNodes);
+        for (int k = 0; k < nbLandmarks; ++k) {
+            int landmark = -1;
+            if (selection == Selection.AVOID) {
+                landmark = index.selectAvoid(graph, data, forward, k, random);
+            }
+            if (landmark < 0) {
+                landmark = index.selectFarthest(graph, data, forward, k, random);
+            }
+            index.landmarks[k] = landmark;
+            index.computeDistances(k, data, forward, backward);
+        }
+        return index;
+    }
+
+    /**
+     * Read a landmark index from the given file.
+     *
+     * @param file File to read from.
+     * @param graph Graph of the index.
+     * @param inspector Inspector of the index.
+     *
+     * @return Landmark index read.
+     *
+     * @throws MapMismatchException if the index was computed for another map.
+     * @throws IOException if the file cannot be read, or if the index was computed
+     *         for another inspector.
+     */
+    public static LandmarkIndex read(File file, Graph graph, ArcInspector inspector)
+            throws IOException {
+        try (DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            return new IndexReader(dis).read(graph, ProfileCache.getProfile(inspector));
+        }
+    }
+
+    /**
+     * Reader for landmark files.
+     */
+    private static class IndexReader extends BinaryReader {
+
+        IndexReader(DataInputStream dis) {
+            super(MAGIC_NUMBER, VERSION, dis);
+        }
+
+        LandmarkIndex read(Graph graph, String profile) throws IOException {
+            checkMagicNumberOrThrow(dis.readInt());
+            checkVersionOrThrow(dis.readInt());
+
+            byte[] byteId = new byte[MAP_ID_FIELD_LENGTH];
+            dis.readFully(byteId);
+            String mapId = new String(byteId, "UTF-8").trim();
+            if (!mapId.equals(graph.getMapId())) {
+                throw new MapMismatchException(mapId, graph.getMapId());
+            }
+            String actualProfile = dis.readUTF();
+            if (!actualProfile.equals(profile)) {
+                throw new IOException("Landmarks computed for another profile: " + actualProfile);
+            }
+
+            final int nbNodes = dis.readInt();
+            if (nbNodes != graph.size()) {
+                throw new BadFormatException();
+            }
+            int[] landmarks = new int[dis.readInt()];
+            for (int k = 0; k < landmarks.length; ++k) {
+                landmarks[k] = dis.readInt();
+            }
+            LandmarkIndex index = new LandmarkIndex(mapId, profile, nbNodes, landmarks);
+            for (int i = 0; i < index.fromLandmarks.length; ++i) {
+                index.fromLandmarks[i] = dis.readDouble();
+            }
+            for (int i = 0; i < index.toLandmarks.length; ++i) {
+                index.toLandmarks[i] = dis.readDouble();
+            }
+            return index;
+        }
+    }
+
+    // Map ID and profile of this index.
+    private final String mapId, profile;
+
+    // Landmarks.
+    private final int[] landmarks;
+
+    // Cost from each landmark to each node, and from each node to each landmark
+    // (cost of node v and landmark k at v * landmarks.length + k).
+    private final double[] fromLandmarks, toLandmarks;
+
+    // Exception raised when reading or writing the file of this index in
+    // loadOrCompute(), or null.
+    private IOException fileException;
+
+    /**
+     * Create a new index with unknown distances.
+     */
+    private LandmarkIndex(String mapId, String profile, int nbNodes, int[] landmarks) {
+        this.mapId = mapId;
+        this.profile = profile;
+        this.landmarks = landmarks;
+        this.fromLandmarks = new double[nbNodes * landmarks.length];
+        this.toLandmarks = new double[nbNodes * landmarks.length];
+    }
+
+    /**
+     * @return Exception raised by
+     *         {@link #loadOrCompute(File, Graph, ArcInspector, int, Selection)}
+     *         when it could not read (the index was computed again) or write the
+     *         file of this index, or null if there was none.
+     */
+    public IOException getFileException() {
+        return fileException;
+    }
+
+    /**
+     * @return Number of landmarks of this index.
+     */
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * @param k Index of a landmark.
+     *
+     * @return ID of the k-th landmark.
+     */
+    public int getLandmark(int k) {
+        return landmarks[k];
+    }
+
+    /**
+     * Compute a lower bound of the cost between the two given nodes.
+     *
+     * @param node ID of the first node.
+     * @param target ID of the second node.
+     *
+     * @return Lower bound of the cost from node to target.
+     */
+    public double getLowerBound(int node, int target) {
+        final int nbLandmarks = landmarks.length;
+        double bound = 0;
+        for (int k = 0, v = node * nbLandmarks, t = target * nbLandmarks; k < nbLandmarks; ++k) {
+            bound = Math.max(bound, bound(fromLandmarks[t + k], fromLandmarks[v + k]));
+            bound = Math.max(bound, bound(toLandmarks[v + k], toLandmarks[t + k]));
+        }
+        return bound;
+    }
+
+    /**
+     * Create the potential of a search towards the given target, i.e. a function
+     * returning {@link #getLowerBound(int, int)} for each node.
+     *
+     * @param target ID of the target.
+     *
+     * @return Feasible potential for a forward search towards the given target.
+     */
+    public IntToDoubleFunction createPotential(int target) {
+        final int nbLandmarks = landmarks.length;
+        final double[] fromTarget = Arrays.copyOfRange(fromLandmarks, target * nbLandmarks,
+                (target + 1) * nbLandmarks);
+        final double[] toTarget = Arrays.copyOfRange(toLandmarks, target * nbLandmarks,
+                (target + 1) * nbLandmarks);
+        return (node) -> {
+            double bound = 0;
+            for (int k = 0, v = node * nbLandmarks; k < nbLandmarks; ++k) {
+                bound = Math.max(bound, bound(fromTarget[k], fromLandmarks[v + k]));
+                bound = Math.max(bound, bound(toLandmarks[v + k], toTarget[k]));
+            }
+            return bound;
+        };
+    }
+
+    /**
+     * @return a - b, or 0 if a or b is infinite.
+     */
+    private static double bound(double a, double b) {
+        return a == Double.POSITIVE_INFINITY || b == Double.POSITIVE_INFINITY ? 0 : a - b;
+    }
+
+    /**
+     * Write this index to the given stream, and close it.
+     *
+     * @param dos Stream to write to.
+     *
+     * @throws IOException if an error occurs while writing.
+     */
+    public void write(DataOutputStream dos) throws IOException {
+        dos.writeInt(MAGIC_NUMBER);
+        dos.writeInt(VERSION);
+        dos.write(Arrays.copyOf(mapId.getBytes("UTF-8"), MAP_ID_FIELD_LENGTH));
+        dos.writeUTF(profile);
+        dos.writeInt(fromLandmarks.length / Math.max(1, landmarks.length));
+        dos.writeInt(landmarks.length);
+        for (int landmark: landmarks) {
+            dos.writeInt(landmark);
+        }
+        for (double cost: fromLandmarks) {
+            dos.writeDouble(cost);
+        }
+        for (double cost: toLandmarks) {
+            dos.writeDouble(cost);
+        }
+        dos.flush();
+        dos.close();
+    }
+
+    /**
+     * Compute the costs from and to the k-th landmark.
+     */
+    private void computeDistances(int k, AbstractInputData data, DijkstraSearch forward,
+            DijkstraSearch backward) {
+        final int nbLandmarks = landmarks.length;
+        forward.start(data);
+        forward.addSource(landmarks[k], 0);
+        while (forward.settleNext() != -1) {
+        }
+        backward.start(data);
+        backward.addSource(landmarks[k], 0);
+        while (backward.settleNext() != -1) {
+        }
+        for (int v = 0, i = k; i < fromLandmarks.length; ++v, i += nbLandmarks) {
+            fromLandmarks[i] = forward.getCost(v);
+            toLandmarks[i] = backward.getCost(v);
+        }
+    }
+
+    /**
+     * @return A random node with at least one successor (or any node).
+     */
+    private static int randomNode(Graph graph, Random random) {
+        for (int attempt = 0; attempt < 100; ++attempt) {
+            Node node = graph.get(random.nextInt(graph.size()));
+            if (node.hasSuccessors()) {
+                return node.getId();
+            }
+        }
+        return random.nextInt(graph.size());
+    }
+
+    /**
+     * Select the node farthest from the k landmarks already selected (from a
+     * random node if there are none).
+     */
+    private int selectFarthest(Graph graph, AbstractInputData data, DijkstraSearch forward,
+            int k, Random random) {
+        final int nbNodes = graph.size();
+        final int nbLandmarks = landmarks.length;
+        double[] minCosts = new double[nbNodes];
+        if (k == 0) {
+            forward.start(data);
+            forward.addSource(randomNode(graph, random), 0);
+            while (forward.settleNext() != -1) {
+            }
+            for (int v = 0; v < nbNodes; ++v) {
+                minCosts[v] = forward.getCost(v);
+            }
+        }
+        else {
+            Arrays.fill(minCosts, Double.POSITIVE_INFINITY);
+            for (int v = 0; v < nbNodes; ++v) {
+                for (int j = 0; j < k; ++j) {
+                    minCosts[v] = Math.min(minCosts[v], fromLandmarks[v * nbLandmarks + j]);
+                }
+            }
+        }
+        int farthest = -1;
+        for (int v = 0; v < nbNodes; ++v) {
+            if (minCosts[v] != Double.POSITIVE_INFINITY
+                    && (farthest < 0 || minCosts[v] > minCosts[farthest])) {
+                farthest = v;
+            }
+        }
+        return farthest < 0 ? randomNode(graph, random) : farthest;
+    }
+
+    /**
+     * Select a landmark using the avoid strategy, or return -1 if no suitable
+     * landmark is found.
+     */
+    private int selectAvoid(Graph graph, AbstractInputData data, DijkstraSearch forward, int k,
+            Random random) {
+        final int nbNodes = graph.size();
+        final int root = randomNode(graph, random);
+
+        // Shortest path tree from the root.
+        List<Integer> order = new ArrayList<>();
+        forward.start(data);
+        forward.addSource(root, 0);
+        for (int v = forward.settleNext(); v != -1; v = forward.settleNext()) {
+            order.add(v);
+        }
+
+        // Size of each subtree: sum of the differences between the cost from the root
+        // and its lower bound, 0 if the subtree contains a landmark.
+        double[] sizes = new double[nbNodes];
+        boolean[] hasLandmark = new boolean[nbNodes];
+        for (int j = 0; j < k; ++j) {
+            hasLandmark[landmarks[j]] = true;
+        }
+        for (int i = order.size() - 1; i >= 0; --i) {
+            int v = order.get(i);
+            sizes[v] += forward.getCost(v) - (k == 0 ? 0 : getLowerBound(root, v));
+            Arc parent = forward.getParentArc(v);
+            if (parent != null) {
+                int u = parent.getOrigin().getId();
+                hasLandmark[u] |= hasLandmark[v];
+                sizes[u] += sizes[v];
+            }
+        }
+
+        // Follow the child with the largest size from the root to a leaf.
+        int node = root;
+        if (hasLandmark[node]) {
+            return -1;
+        }
+        while (true) {
+            int next = -1;
+            for (Arc arc: graph.get(node)) {
+                int child = arc.getDestination().getId();
+                if (forward.getParentArc(child) == arc && !hasLandmark[child]
+                        && (next < 0 || sizes[child] > sizes[next])) {
+                    next = child;
+                }
+            }
+            if (next < 0) {
+                return node;
+            }
+            node = next;
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package org.insa.algo.shortestpath;
+
+import java.util.Collections;
+import java.util.stream.IntStream;
+
+import org.insa.algo.AbstractInputData;
+import org.insa.algo.ArcInspector;
+import org.insa.algo.CompiledProfile;
+import org.insa.algo.utils.ProfileCache;
+import org.insa.graph.Graph;
+
+/**
+ * Costs of the clique edges of an {@link OverlayGraph} for a given arc
+ * inspector (profile).
+ *
+ * Levels are customized from the lowest one to the highest one. For each cell
+ * of a level, a search restricted to the cell is run from each of its entries,
+ * on the arcs of the graph for level 1, or on the overlay of the level below
+ * otherwise (see {@link OverlaySearch}). Cells of a same level are independent
+ * and are customized in parallel.
+ *
+ * Since the overlay does not depend on the inspector, switching to another
+ * inspector (or changing the costs of arcs) only requires a new customization.
+ *
+ */
+public class OverlayCustomization {
+
+    // Customizations already computed.
+    private static final ProfileCache<OverlayCustomization> CACHE = new ProfileCache<>();
+
+    /**
+     * Retrieve the customization of the overlay of the graph of the given data for
+     * its inspector, computing it if it is not in memory yet.
+     *
+     * @param data Input data.
+     *
+     * @return Customization for the given data.
+     */
+    public static OverlayCustomization forData(AbstractInputData data) {
+        return CACHE.computeIfAbsent(data.getGraph(), data.getArcInspector(),
+                (graph, inspector) -> new OverlayCustomization(graph,
+                        OverlayGraph.forGraph(graph), inspector));
+    }
+
+    /**
+     * Set the customization used by {@link #forData(AbstractInputData)} for the
+     * given graph and inspector.
+     *
+     * @param graph Graph of the customization.
+     * @param inspector Inspector of the customization.
+     * @param customization Customization to use.
+     */
+    public static void register(Graph graph, ArcInspector inspector,
+            OverlayCustomization customization) {
+        CACHE.put(graph, inspector, customization);
+    }
+
+    // Overlay and compiled inspector (which references the inspector weakly, so
+    // that the customization is released from the cache with its inspector). The
+    // graph is not referenced, so that the customization does not keep it out of
+    // the cache.
+    private final OverlayGraph overlay;
+    private final CompiledProfile profile;
+
+    // Clique costs of each level (index 0 is level 1).
+    private final double[][] cliqueCosts;
+
+    /**
+     * Customize the given overlay for the given inspector.
+     *
+     * @param graph Graph of the overlay.
+     * @param overlay Overlay to customize.
+     * @param inspector Inspector to use (allowed arcs and costs).
+     */
+    public OverlayCustomization(Graph graph, OverlayGraph overlay, ArcInspector inspector) {
+        this.overlay = overlay;
+        this.profile = CompiledProfile.forGraph(graph, inspector);
+        this.cliqueCosts = new double[overlay.getLevelCount()][];
+        for (int level = 1; level <= overlay.getLevelCount(); ++level) {
+            final int currentLevel = level;
+            this.cliqueCosts[level - 1] = new double[overlay.getCliqueSize(level)];
+            IntStream.range(0, overlay.getPartition().getCellCount(level)).parallel()
+                    .forEach((cell) -> customize(graph, currentLevel, cell));
+        }
+    }
+
+    /**
+     * Compute the clique costs of the given cell.
+     */
+    private void customize(Graph graph, int level, int cell) {
+        OverlaySearch search = OverlaySearch.forOverlay(graph, overlay);
+        for (int entry = 0; entry < overlay.getEntryCount(level, cell); ++entry) {
+            search.start(this, (node) -> level - 1, level, cell, Collections.emptyList());
+            search.addSource(overlay.getEntry(level, cell, entry), 0);
+            while (!search.isFinished()) {
+                search.settleNext();
+            }
+            for (int exit = 0; exit < overlay.getExitCount(level, cell); ++exit) {
+                int node = overlay.getExit(level, cell, exit);
+                cliqueCosts[level - 1][overlay.getCliqueIndex(level, cell, entry,
+                        exit)] = search.isReached(node) ? search.getCost(node)
+                                : Double.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    /**
+     * @return Overlay of this customization.
+     */
+    public OverlayGraph getOverlay() {
+        return overlay;
+    }
+
+    /**
+     * @return Inspector of this customization, or null if it is no longer in use.
+     */
+    public ArcInspector getArcInspector() {
+        return profile.getArcInspector();
+    }
+
+    /**
+     * @return Inspector of this customization, compiled for the graph of the
+     *         overlay.
+     */
+    public CompiledProfile getCompiledProfile() {
+        return profile;
+    }
+
+    /**
+     * @param level Level, between 1 and the number of levels of the overlay.
+     * @param cell Cell of the given level.
+     * @param entry Index of an entry of the cell.
+     * @param exit Index of an exit of the cell.
+     *
+     * @return Cost of the shortest path inside the cell from the given entry to
+     *         the given exit, or infinity if there is none.
+     */
+    public double getCliqueCost(int level, int cell, int entry, int exit) {
+        return cliqueCosts[level - 1][overlay.getCliqueIndex(level, cell, entry, exit)];
+    }
+
+}
@@ -0,0 +1,237 @@
+package org.insa.algo.shortestpath;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.MultiLevelPartition;
+import org.insa.graph.Node;
+
+/**
+ * Metric-independent overlay of a graph for customizable route planning (see
+ * {@link CustomizableRoutePlanningAlgorithm}).
+ *
+ * For each level of a {@link MultiLevelPartition}, the entries of a cell are
+ * the nodes of the cell that are the destination of an arc coming from another
+ * cell, and its exits are the nodes of the cell that are the origin of an arc
+ * going to another cell. Each cell has a clique made of one edge from each of
+ * its entries to each of its exits, whose costs are computed for a given arc
+ * inspector by {@link OverlayCustomization}. All arcs of the graph are taken
+ * into account, whatever the inspector, so the overlay only has to be built
+ * once per graph.
+ *
+ */
+public class OverlayGraph {
+
+    // Overlays already built, released with their graph.
+    private static final Map<Graph, OverlayGraph> CACHE = new WeakHashMap<>();
+
+    /**
+     * Retrieve the overlay of the given graph for its default partition (see
+     * {@link MultiLevelPartition#forGraph(Graph)}), building it on first use.
+     *
+     * @param graph Graph for which the overlay should be retrieved.
+     *
+     * @return Overlay of the given graph.
+     */
+    public static OverlayGraph forGraph(Graph graph) {
+        synchronized (CACHE) {
+            return CACHE.computeIfAbsent(graph,
+                    (g) -> new OverlayGraph(g, MultiLevelPartition.forGraph(g)));
+        }
+    }
+
+    // Partition (the graph itself is not referenced, so that the overlay does not
+    // keep it out of the cache).
+    private final MultiLevelPartition partition;
+
+    // For each level (index 0 is level 1), index of the first entry (resp. exit)
+    // of each cell, and entries (resp. exits).
+    private final int[][] firstEntries, entries;
+    private final int[][] firstExits, exits;
+
+    // For each level, index of each node in the entries (resp. exits) of its
+    // cell, or -1.
+    private final int[][] entryIndices, exitIndices;
+
+    // For each level, index of the first clique cost of each cell.
+    private final int[][] firstCliqueCosts;
+
+    /**
+     * Build the overlay of the given graph.
+     *
+     * @param graph Graph of the overlay.
+     * @param partition Partition of the graph.
+     */
+    public OverlayGraph(Graph graph, MultiLevelPartition partition) {
+        this.partition = partition;
+
+        final int nbNodes = graph.size();
+        final int nbLevels = partition.getLevelCount();
+
+        // Highest level at which each node is an entry (resp. an exit).
+        int[] entryLevels = new int[nbNodes], exitLevels = new int[nbNodes];
+        for (Node node: graph) {
+            for (Arc arc: node) {
+                int origin = node.getId(), destination = arc.getDestination().getId();
+                int level = 0;
+                while (level < nbLevels && partition.getCell(level + 1, origin) != partition
+                        .getCell(level + 1, destination)) {
+                    ++level;
+                }
+                exitLevels[origin] = Math.max(exitLevels[origin], level);
+                entryLevels[destination] = Math.max(entryLevels[destination], level);
+            }
+        }
+
+        this.firstEntries = new int[nbLevels][];
+        this.entries = new int[nbLevels][];
+        this.firstExits = new int[nbLevels][];
+        this.exits = new int[nbLevels][];
+        this.entryIndices = new int[nbLevels][];
+        this.exitIndices = new int[nbLevels][];
+        this.firstCliqueCosts = new int[nbLevels][];
+        for (int level = 1; level <= nbLevels; ++level) {
+            final int nbCells = partition.getCellCount(level);
+            int[] firstEntries = new int[nbCells + 1], firstExits = new int[nbCells + 1];
+            int[] entries = new int[nbNodes], exits = new int[nbNodes];
+            int[] entryIndices = new int[nbNodes], exitIndices = new int[nbNodes];
+            int[] firstCliqueCosts = new int[nbCells + 1];
+            Arrays.fill(entryIndices, -1);
+            Arrays.fill(exitIndices, -1);
+            int nbEntries = 0, nbExits = 0;
+            for (int cell = 0; cell < nbCells; ++cell) {
+                firstEntries[cell] = nbEntries;
+                firstExits[cell] = nbExits;
+                for (int i = partition.getFirstNode(level, cell); i < partition.getEndNode(level,
+                        cell); ++i) {
+                    int node = partition.getNode(i);
+                    if (entryLevels[node] >= level) {
+                        entryIndices[node] = nbEntries - firstEntries[cell];
+                        entries[nbEntries++] = node;
+                    }
+                    if (exitLevels[node] >= level) {
+                        exitIndices[node] = nbExits - firstExits[cell];
+                        exits[nbExits++] = node;
+                    }
+                }
+                firstCliqueCosts[cell + 1] = firstCliqueCosts[cell]
+                        + (nbEntries - firstEntries[cell]) * (nbExits - firstExits[cell]);
+            }
+            firstEntries[nbCells] = nbEntries;
+            firstExits[nbCells] = nbExits;
+
+            this.firstEntries[level - 1] = firstEntries;
+            this.entries[level - 1] = Arrays.copyOf(entries, nbEntries);
+            this.firstExits[level - 1] = firstExits;
+            this.exits[level - 1] = Arrays.copyOf(exits, nbExits);
+            this.entryIndices[level - 1] = entryIndices;
+            this.exitIndices[level - 1] = exitIndices;
+            this.firstCliqueCosts[level - 1] = firstCliqueCosts;
+        }
+    }
+
+    /**
+     * @return Partition of this overlay.
+     */
+    public MultiLevelPartition getPartition() {
+        return partition;
+    }
+
+    /**
+     * @return Number of levels of this overlay.
+     */
+    public int getLevelCount() {
+        return partition.getLevelCount();
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     * @param cell Cell of the given level.
+     *
+     * @return Number of entries of the given cell.
+     */
+    public int getEntryCount(int level, int cell) {
+        return firstEntries[level - 1][cell + 1] - firstEntries[level - 1][cell];
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     * @param cell Cell of the given level.
+     * @param index Index of an entry of the cell.
+     *
+     * @return ID of the entry node at the given index.
+     */
+    public int getEntry(int level, int cell, int index) {
+        return entries[level - 1][firstEntries[level - 1][cell] + index];
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     * @param cell Cell of the given level.
+     *
+     * @return Number of exits of the given cell.
+     */
+    public int getExitCount(int level, int cell) {
+        return firstExits[level - 1][cell + 1] - firstExits[level - 1][cell];
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     * @param cell Cell of the given level.
+     * @param index Index of an exit of the cell.
+     *
+     * @return ID of the exit node at the given index.
+     */
+    public int getExit(int level, int cell, int index) {
+        return exits[level - 1][firstExits[level - 1][cell] + index];
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     * @param node ID of a node.
+     *
+     * @return Index of the given node in the entries of its cell, or -1 if it is
+     *         not an entry.
+     */
+    public int getEntryIndex(int level, int node) {
+        return entryIndices[level - 1][node];
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     * @param node ID of a node.
+     *
+     * @return Index of the given node in the exits of its cell, or -1 if it is not
+     *         an exit.
+     */
+    public int getExitIndex(int level, int node) {
+        return exitIndices[level - 1][node];
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     *
+     * @return Number of clique edges of the given level.
+     */
+    public int getCliqueSize(int level) {
+        int[] first = firstCliqueCosts[level - 1];
+        return first[first.length - 1];
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     * @param cell Cell of the given level.
+     * @param entry Index of an entry of the cell.
+     * @param exit Index of an exit of the cell.
+     *
+     * @return Index of the clique edge from the given entry to the given exit
+     *         among the clique edges of the level.
+     */
+    public int getCliqueIndex(int level, int cell, int entry, int exit) {
+        return firstCliqueCosts[level - 1][cell] + entry * getExitCount(level, cell) + exit;
+    }
+
+}
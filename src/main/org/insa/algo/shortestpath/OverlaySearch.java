@@ -0,0 +1,286 @@
+package org.insa.algo.shortestpath;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import org.insa.algo.CompiledProfile;
+import org.insa.algo.utils.IndexedDoubleHeap;
+import org.insa.graph.Arc;
+import org.insa.graph.ArcNumbering;
+import org.insa.graph.Graph;
+import org.insa.graph.MultiLevelPartition;
+import org.insa.graph.Node;
+
+/**
+ * Reusable Dijkstra search on an {@link OverlayGraph}, shared by the
+ * customization and the queries of customizable route planning.
+ *
+ * Each node is searched at a given level. At level 0, all the outgoing arcs of
+ * the node are followed. At a higher level l, the clique edges of the cell of
+ * level l of the node are followed if the node is an entry of this cell, and
+ * only the outgoing arcs that leave this cell are followed. A search can also
+ * be restricted to the nodes of a given cell.
+ *
+ * As {@link DijkstraSearch}, instances reuse their arrays across searches using
+ * version stamps and are not thread-safe, use
+ * {@link #forOverlay(Graph, OverlayGraph)} to retrieve an instance owned by the
+ * current thread.
+ *
+ */
+class OverlaySearch {
+
+    // Search states owned by each thread.
+    private static final ThreadLocal<OverlaySearch> THREAD_SEARCH = new ThreadLocal<>();
+
+    /**
+     * Retrieve the search state owned by the current thread for the given overlay.
+     *
+     * @param graph Graph of the overlay.
+     * @param overlay Overlay to search.
+     *
+     * @return A search state for the given overlay, owned by the current thread.
+     */
+    static OverlaySearch forOverlay(Graph graph, OverlayGraph overlay) {
+        OverlaySearch search = THREAD_SEARCH.get();
+        if (search == null || search.overlay != overlay) {
+            search = new OverlaySearch(graph, overlay);
+            THREAD_SEARCH.set(search);
+        }
+        return search;
+    }
+
+    // Overlay, partition, nodes of the graph by ID (the graph itself is not
+    // referenced, so that the state of a thread does not keep it out of the
+    // caches) and arc numbering.
+    private final OverlayGraph overlay;
+    private final MultiLevelPartition partition;
+    private final Node[] graphNodes;
+    private final ArcNumbering numbering;
+
+    // Priority queue of reached but not settled nodes.
+    private final IndexedDoubleHeap heap;
+
+    // Cost, parent node, parent arc (null for a clique edge) and level of the
+    // parent edge of each node (only valid if the node is reached).
+    private final double[] costs;
+    private final int[] parentNodes;
+    private final Arc[] parentArcs;
+    private final int[] parentLevels;
+
+    // Version stamps for reached nodes, and current version.
+    private final int[] reached;
+    private int version;
+
+    // Customization, levels and restriction of the current search.
+    private OverlayCustomization customization;
+    private CompiledProfile profile;
+    private IntUnaryOperator levels;
+    private int restrictionLevel, restrictionCell;
+
+    // Observers of the current search.
+    private List<ShortestPathObserver> observers;
+
+    private OverlaySearch(Graph graph, OverlayGraph overlay) {
+        final int nbNodes = graph.size();
+        this.overlay = overlay;
+        this.partition = overlay.getPartition();
+        this.graphNodes = new Node[nbNodes];
+        for (Node node: graph) {
+            this.graphNodes[node.getId()] = node;
+        }
+        this.numbering = ArcNumbering.forGraph(graph);
+        this.heap = new IndexedDoubleHeap(nbNodes);
+        this.costs = new double[nbNodes];
+        this.parentNodes = new int[nbNodes];
+        this.parentArcs = new Arc[nbNodes];
+        this.parentLevels = new int[nbNodes];
+        this.reached = new int[nbNodes];
+        this.version = 0;
+        this.observers = Collections.emptyList();
+    }
+
+    /**
+     * Start a new search.
+     *
+     * @param customization Customization providing arc and clique costs.
+     * @param levels Level at which each node is searched.
+     * @param restrictionLevel Level of the cell the search is restricted to, or 0
+     *        to search the whole graph.
+     * @param restrictionCell Cell the search is restricted to.
+     * @param observers Observers to notify of reached and settled nodes.
+     */
+    void start(OverlayCustomization customization, IntUnaryOperator levels,
+            int restrictionLevel, int restrictionCell, List<ShortestPathObserver> observers) {
+        ++this.version;
+        this.heap.clear();
+        this.customization = customization;
+        this.profile = customization.getCompiledProfile();
+        this.levels = levels;
+        this.restrictionLevel = restrictionLevel;
+        this.restrictionCell = restrictionCell;
+        this.observers = observers;
+    }
+
+    /**
+     * Add a source to the current search.
+     *
+     * @param node ID of the source.
+     * @param cost Initial cost of the source.
+     */
+    void addSource(int node, double cost) {
+        reached[node] = version;
+        costs[node] = cost;
+        parentNodes[node] = -1;
+        parentArcs[node] = null;
+        heap.insert(node, cost);
+    }
+
+    /**
+     * @return true if there is no node left to settle.
+     */
+    boolean isFinished() {
+        return heap.isEmpty();
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return true if the given node has been reached by the current search.
+     */
+    boolean isReached(int node) {
+        return reached[node] == version;
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return true if the given node has been settled by the current search.
+     */
+    boolean isSettled(int node) {
+        return isReached(node) && !heap.contains(node);
+    }
+
+    /**
+     * @param node ID of a reached node.
+     *
+     * @return Cost of the given node.
+     */
+    double getCost(int node) {
+        return costs[node];
+    }
+
+    /**
+     * Settle the next node and relax its edges.
+     *
+     * @return ID of the settled node.
+     */
+    int settleNext() {
+        final double cost = heap.findMinKey();
+        final int node = heap.deleteMin();
+        Node current = graphNodes[node];
+        for (ShortestPathObserver observer: observers) {
+            observer.notifyNodeMarked(current);
+        }
+
+        final int level = levels.applyAsInt(node);
+        final int cell = level > 0 ? partition.getCell(level, node) : -1;
+
+        // Clique edges from an entry of the cell.
+        final int entry = level > 0 ? overlay.getEntryIndex(level, node) : -1;
+        if (entry >= 0) {
+            for (int exit = 0; exit < overlay.getExitCount(level, cell); ++exit) {
+                final int next = overlay.getExit(level, cell, exit);
+                if (next != node) {
+                    relax(node, next, cost + customization.getCliqueCost(level, cell, entry, exit),
+                            null, level);
+                }
+            }
+        }
+
+        // Arcs, leaving the cell if the node is not searched at level 0.
+        final int end = numbering.getEndArc(node);
+        for (int arc = numbering.getFirstArc(node); arc < end; ++arc) {
+            final int next = numbering.getDestination(arc);
+            if (level > 0 && partition.getCell(level, next) == cell) {
+                continue;
+            }
+            if (profile.isAllowed(arc)) {
+                relax(node, next, cost + profile.getCost(arc), numbering.getArc(arc), 0);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Update the cost of the given node if the given edge improves it.
+     */
+    private void relax(int node, int next, double cost, Arc arc, int level) {
+        if (cost == Double.POSITIVE_INFINITY || (restrictionLevel > 0
+                && partition.getCell(restrictionLevel, next) != restrictionCell)) {
+            return;
+        }
+        if (!isReached(next)) {
+            reached[next] = version;
+            heap.insert(next, cost);
+            for (ShortestPathObserver observer: observers) {
+                observer.notifyNodeReached(graphNodes[next]);
+            }
+        }
+        else if (cost < costs[next] && heap.contains(next)) {
+            heap.decreaseKey(next, cost);
+        }
+        else {
+            return;
+        }
+        costs[next] = cost;
+        parentNodes[next] = node;
+        parentArcs[next] = arc;
+        parentLevels[next] = level;
+    }
+
+    /**
+     * Add the arcs of the path from the sources of the current search to the given
+     * node to the given list, unpacking clique edges. The state of the current
+     * search is lost.
+     *
+     * @param node ID of a reached node.
+     * @param arcs List to which arcs should be added, in travel order.
+     */
+    void unpackPath(int node, List<Arc> arcs) {
+        // Retrieve the edges of the path first, since unpacking clique edges runs
+        // new searches.
+        int nbEdges = 0;
+        for (int current = node; parentNodes[current] >= 0; current = parentNodes[current]) {
+            ++nbEdges;
+        }
+        int[] origins = new int[nbEdges], destinations = new int[nbEdges];
+        int[] edgeLevels = new int[nbEdges];
+        Arc[] edgeArcs = new Arc[nbEdges];
+        for (int current = node, i = nbEdges - 1; i >= 0; current = parentNodes[current], --i) {
+            origins[i] = parentNodes[current];
+            destinations[i] = current;
+            edgeArcs[i] = parentArcs[current];
+            edgeLevels[i] = parentLevels[current];
+        }
+
+        final OverlayCustomization customization = this.customization;
+        for (int i = 0; i < nbEdges; ++i) {
+            if (edgeArcs[i] != null) {
+                arcs.add(edgeArcs[i]);
+            }
+            else {
+                // Search the shortest path inside the cell, one level below.
+                final int level = edgeLevels[i];
+                start(customization, (n) -> level - 1, level,
+                        partition.getCell(level, origins[i]), Collections.emptyList());
+                addSource(origins[i], 0);
+                while (!isSettled(destinations[i])) {
+                    settleNext();
+                }
+                unpackPath(destinations[i], arcs);
+            }
+        }
+    }
+
+}
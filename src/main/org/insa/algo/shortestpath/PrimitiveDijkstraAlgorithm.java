@@ -0,0 +1,50 @@
+package org.insa.algo.shortestpath;
+
+import org.insa.algo.AbstractSolution.Status;
+
+/**
+ * Implementation of Dijkstra's algorithm that does not allocate any label.
+ *
+ * The search state is a {@link DijkstraSearch} owned by the current thread and
+ * reused from one query to the next, so a query only touches the nodes it
+ * actually visits instead of initializing a label for each node of the graph.
+ *
+ */
+public class PrimitiveDijkstraAlgorithm extends ShortestPathAlgorithm {
+
+    public PrimitiveDijkstraAlgorithm(ShortestPathData data) {
+        super(data);
+    }
+
+    @Override
+    protected ShortestPathSolution doRun() {
+        ShortestPathData data = getInputData();
+
+        if (data.getOrigin().equals(data.getDestination())) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+
+        final int destination = data.getDestination().getId();
+
+        DijkstraSearch search = DijkstraSearch.forGraph(data.getGraph());
+        search.start(data, getObservers());
+        search.addSource(data.getOrigin().getId(), 0);
+
+        notifyOriginProcessed(data.getOrigin());
+
+        int node;
+        do {
+            node = search.settleNext();
+        }
+        while (node != -1 && node != destination);
+
+        if (!search.isSettled(destination)) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+
+        notifyDestinationReached(data.getDestination());
+
+        return new ShortestPathSolution(data, Status.OPTIMAL, search.buildPath(destination));
+    }
+
+}
@@ -0,0 +1,361 @@
+package org.insa.algo.shortestpath;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.algo.ArcInspector;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.Path;
+
+/**
+ * Bounded cache of shortest paths of a graph, keyed by origin, destination and
+ * arc inspector (compared by identity).
+ *
+ * Since any subpath of a shortest path is a shortest path, a cached path from
+ * <code>o</code> to <code>d</code> also answers the queries from any node of
+ * the path to <code>d</code>: these suffixes are indexed by (node, destination,
+ * inspector) when a path is added to the cache.
+ *
+ * Paths are evicted in least recently used order when the cache holds more
+ * than a maximum number of paths, or when its estimated memory usage exceeds a
+ * maximum (see {@link #getMemoryUsage()}). Only optimal solutions are cached.
+ *
+ * All methods are thread-safe. Algorithms are run outside of the lock of the
+ * cache, so the same path may be computed concurrently by several threads.
+ *
+ */
+public class RouteCache {
+
+    /**
+     * Estimated memory (in bytes) used by a cached path, not counting its arcs.
+     */
+    public static final long PATH_MEMORY = 128;
+
+    /**
+     * Estimated memory (in bytes) used by each arc of a cached path, including its
+     * entry in the suffix index.
+     */
+    public static final long ARC_MEMORY = 88;
+
+    /**
+     * Key of a path: origin, destination and inspector.
+     */
+    private static final class RouteKey {
+
+        private final int origin, destination;
+        private final ArcInspector inspector;
+
+        RouteKey(int origin, int destination, ArcInspector inspector) {
+            this.origin = origin;
+            this.destination = destination;
+            this.inspector = inspector;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof RouteKey)) {
+                return false;
+            }
+            RouteKey key = (RouteKey) other;
+            return origin == key.origin && destination == key.destination
+                    && inspector == key.inspector;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * origin + destination) * 31 + System.identityHashCode(inspector);
+        }
+
+    }
+
+    /**
+     * Cached path.
+     */
+    private static final class Route {
+
+        private final RouteKey key;
+        private final Arc[] arcs;
+
+        Route(RouteKey key, Arc[] arcs) {
+            this.key = key;
+            this.arcs = arcs;
+        }
+
+        long getMemory() {
+            return PATH_MEMORY + ARC_MEMORY * arcs.length;
+        }
+
+    }
+
+    /**
+     * Suffix of a cached path, starting at its arc with the given index.
+     */
+    private static final class Suffix {
+
+        private final Route route;
+        private final int index;
+
+        Suffix(Route route, int index) {
+            this.route = route;
+            this.index = index;
+        }
+
+    }
+
+    // Graph of the cached paths.
+    private final Graph graph;
+
+    // Maximum number of paths and maximum memory usage.
+    private final int maximumSize;
+    private final long maximumMemory;
+
+    // Cached paths, in least recently used order.
+    private final LinkedHashMap<RouteKey, Route> routes;
+
+    // Suffixes of cached paths, by (first node, destination, inspector).
+    private final Map<RouteKey, Suffix> suffixes;
+
+    // Estimated memory usage.
+    private long memory;
+
+    // Counters.
+    private long hitCount, suffixHitCount, missCount, evictionCount;
+
+    /**
+     * Create a new empty cache for the given graph.
+     * 
+     * @param graph Graph of the cached paths.
+     * @param maximumSize Maximum number of cached paths.
+     * @param maximumMemory Maximum estimated memory usage, in bytes.
+     */
+    public RouteCache(Graph graph, int maximumSize, long maximumMemory) {
+        if (maximumSize < 0 || maximumMemory < 0) {
+            throw new IllegalArgumentException("Invalid cache bounds.");
+        }
+        this.graph = graph;
+        this.maximumSize = maximumSize;
+        this.maximumMemory = maximumMemory;
+        this.routes = new LinkedHashMap<>(16, 0.75f, true);
+        this.suffixes = new HashMap<>();
+    }
+
+    /**
+     * Create a new empty cache for the given graph, without memory bound.
+     * 
+     * @param graph Graph of the cached paths.
+     * @param maximumSize Maximum number of cached paths.
+     */
+    public RouteCache(Graph graph, int maximumSize) {
+        this(graph, maximumSize, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return Graph of the cached paths.
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Retrieve the solution of the given query from the cache, either from a path
+     * with the same origin and destination, or from the suffix of a path to the
+     * same destination that goes through the origin.
+     * 
+     * @param data Query.
+     * 
+     * @return Optimal solution of the given query, or null if it is not in the
+     *         cache.
+     */
+    public ShortestPathSolution get(ShortestPathData data) {
+        checkGraph(data);
+        final int origin = data.getOrigin().getId();
+        final RouteKey key = new RouteKey(origin, data.getDestination().getId(),
+                data.getArcInspector());
+        Arc[] arcs;
+        int index;
+        synchronized (this) {
+            Route route = routes.get(key);
+            if (route != null) {
+                hitCount += 1;
+                arcs = route.arcs;
+                index = 0;
+            }
+            else {
+                Suffix suffix = suffixes.get(key);
+                if (suffix == null) {
+                    missCount += 1;
+                    return null;
+                }
+                // Refresh the path the suffix belongs to.
+                routes.get(suffix.route.key);
+                suffixHitCount += 1;
+                arcs = suffix.route.arcs;
+                index = suffix.index;
+            }
+        }
+        return new ShortestPathSolution(data, Status.OPTIMAL,
+                new Path(graph, Arrays.asList(Arrays.copyOfRange(arcs, index, arcs.length))));
+    }
+
+    /**
+     * Add the given solution to the cache, if it is optimal and its path is not
+     * empty, evicting least recently used paths if needed.
+     * 
+     * @param solution Solution to add.
+     */
+    public void put(ShortestPathSolution solution) {
+        ShortestPathData data = solution.getInputData();
+        checkGraph(data);
+        if (solution.getStatus() != Status.OPTIMAL || solution.getPath() == null
+                || solution.getPath().getArcs().isEmpty()) {
+            return;
+        }
+        final List<Arc> path = solution.getPath().getArcs();
+        final ArcInspector inspector = data.getArcInspector();
+        final int destination = data.getDestination().getId();
+        final Route route = new Route(
+                new RouteKey(data.getOrigin().getId(), destination, inspector),
+                path.toArray(new Arc[path.size()]));
+        if (route.getMemory() > maximumMemory || maximumSize == 0) {
+            return;
+        }
+
+        synchronized (this) {
+            Route previous = routes.put(route.key, route);
+            if (previous != null) {
+                remove(previous);
+            }
+            memory += route.getMemory();
+
+            // Index the suffixes of the path, keeping the existing ones.
+            for (int i = 0; i < route.arcs.length; ++i) {
+                suffixes.putIfAbsent(new RouteKey(route.arcs[i].getOrigin().getId(), destination,
+                        inspector), new Suffix(route, i));
+            }
+
+            // Evict least recently used paths.
+            Iterator<Route> iterator = routes.values().iterator();
+            while (routes.size() > maximumSize || memory > maximumMemory) {
+                Route eldest = iterator.next();
+                iterator.remove();
+                remove(eldest);
+                evictionCount += 1;
+            }
+        }
+    }
+
+    /**
+     * Solve the given query using the cache, or using the algorithm created by the
+     * given factory if it is not in the cache (the solution is then added to the
+     * cache).
+     * 
+     * @param data Query.
+     * @param factory Factory creating the algorithm used on cache misses, e.g.
+     *        <code>DijkstraAlgorithm::new</code>.
+     * 
+     * @return Solution of the given query.
+     */
+    public ShortestPathSolution solve(ShortestPathData data,
+            Function<ShortestPathData, ? extends ShortestPathAlgorithm> factory) {
+        ShortestPathSolution solution = get(data);
+        if (solution == null) {
+            solution = factory.apply(data).run();
+            put(solution);
+        }
+        return solution;
+    }
+
+    /**
+     * Forget the suffixes and the memory usage of the given path, which has been
+     * removed from the map of paths.
+     */
+    private void remove(Route route) {
+        memory -= route.getMemory();
+        for (int i = 0; i < route.arcs.length; ++i) {
+            RouteKey key = new RouteKey(route.arcs[i].getOrigin().getId(),
+                    route.key.destination, route.key.inspector);
+            Suffix suffix = suffixes.get(key);
+            if (suffix != null && suffix.route == route) {
+                suffixes.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Check that the given data uses the graph of this cache.
+     */
+    private void checkGraph(ShortestPathData data) {
+        if (data.getGraph() != graph) {
+            throw new IllegalArgumentException("Query on a graph different from the cache.");
+        }
+    }
+
+    /**
+     * Remove all the paths from the cache. Counters are not reset.
+     */
+    public synchronized void clear() {
+        routes.clear();
+        suffixes.clear();
+        memory = 0;
+    }
+
+    /**
+     * @return Number of cached paths.
+     */
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    /**
+     * @return Estimated memory usage of the cached paths, in bytes (see
+     *         {@link #PATH_MEMORY} and {@link #ARC_MEMORY}).
+     */
+    public synchronized long getMemoryUsage() {
+        return memory;
+    }
+
+    /**
+     * @return Number of queries answered by a path with the same origin and
+     *         destination.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return Number of queries answered by the suffix of a longer path.
+     */
+    public synchronized long getSuffixHitCount() {
+        return suffixHitCount;
+    }
+
+    /**
+     * @return Number of queries not found in the cache.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return Number of paths evicted to respect the bounds of the cache.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "%d paths (%.1f kB), %d hits, %d suffix hits, %d misses, %d evictions",
+                routes.size(), memory / 1024.0, hitCount, suffixHitCount, missCount,
+                evictionCount);
+    }
+
+}
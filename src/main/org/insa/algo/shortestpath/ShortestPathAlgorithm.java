@@ -1,19 +1,57 @@
 package org.insa.algo.shortestpath;
 
 import org.insa.algo.AbstractAlgorithm;
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.algo.ComponentIndex;
 import org.insa.graph.Node;
 
 public abstract class ShortestPathAlgorithm extends AbstractAlgorithm<ShortestPathObserver> {
 
+    // true if queries detected as unreachable are answered without running the
+    // algorithm.
+    private boolean unreachablePruning = true;
+
     protected ShortestPathAlgorithm(ShortestPathData data) {
         super(data);
     }
 
+    /**
+     * @return true if queries whose destination is detected as unreachable (see
+     *         {@link ComponentIndex}) are answered without running the algorithm.
+     */
+    public boolean isUnreachablePruning() {
+        return unreachablePruning;
+    }
+
+    /**
+     * @param unreachablePruning true to answer queries whose destination is
+     *        detected as unreachable without running the algorithm (default), false
+     *        to always run the algorithm.
+     */
+    public void setUnreachablePruning(boolean unreachablePruning) {
+        this.unreachablePruning = unreachablePruning;
+    }
+
     @Override
     public ShortestPathSolution run() {
         return (ShortestPathSolution) super.run();
     }
 
+    /**
+     * Answer the query as infeasible if the origin and the destination are in
+     * strongly connected components that cannot be linked (see
+     * {@link ComponentIndex}).
+     */
+    @Override
+    protected ShortestPathSolution doPrecheck() {
+        ShortestPathData data = getInputData();
+        if (unreachablePruning && ComponentIndex.forData(data)
+                .isUnreachable(data.getOrigin().getId(), data.getDestination().getId())) {
+            return new ShortestPathSolution(data, Status.INFEASIBLE);
+        }
+        return null;
+    }
+
     @Override
     protected abstract ShortestPathSolution doRun();
 
@@ -0,0 +1,48 @@
+package org.insa.algo.shortestpath;
+
+import org.insa.graph.Node;
+
+/**
+ * Observer that only counts the nodes reached and marked (settled) by a
+ * shortest path algorithm, e.g. to measure the effort of a query without the
+ * cost of printing or drawing nodes.
+ *
+ */
+public class ShortestPathCountingObserver implements ShortestPathObserver {
+
+    // Number of nodes reached and marked.
+    private int reachedCount, markedCount;
+
+    @Override
+    public void notifyOriginProcessed(Node node) {
+    }
+
+    @Override
+    public void notifyNodeReached(Node node) {
+        reachedCount += 1;
+    }
+
+    @Override
+    public void notifyNodeMarked(Node node) {
+        markedCount += 1;
+    }
+
+    @Override
+    public void notifyDestinationReached(Node node) {
+    }
+
+    /**
+     * @return Number of nodes reached so far.
+     */
+    public int getReachedCount() {
+        return reachedCount;
+    }
+
+    /**
+     * @return Number of nodes marked (settled) so far.
+     */
+    public int getMarkedCount() {
+        return markedCount;
+    }
+
+}
@@ -0,0 +1,586 @@
+package org.insa.algo.singlesource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.algo.CompiledProfile;
+import org.insa.graph.ArcNumbering;
+
+/**
+ * Parallel single-source shortest paths with the delta-stepping algorithm
+ * (Meyer and Sanders).
+ *
+ * Reached nodes are kept in buckets of width delta (see
+ * {@link #setBucketWidth(double)}): node v is in bucket floor(cost(v) / delta).
+ * Buckets are processed in increasing order. The nodes of the current bucket
+ * are settled by relaxing their light arcs (cost at most delta) until the
+ * bucket stays empty, and their heavy arcs are then relaxed once, since they
+ * can only lead to later buckets. A small width gives Dijkstra's order with
+ * little parallelism, a large one gives a parallel Bellman-Ford algorithm that
+ * may relax arcs many times.
+ *
+ * Since reached nodes are at most one arc away from the current bucket, only a
+ * window of buckets is in use at any time, stored in a cyclic array whose size
+ * depends on the maximum cost of an arc and the width (with a bounded size, a
+ * slot may contain the nodes of several buckets).
+ *
+ * Nodes are split between a fixed number of workers (see
+ * {@link #setThreadCount(int)}). Each phase runs in two steps separated by a
+ * barrier: workers first relax the arcs of their own nodes, writing requests
+ * for the owners of the destinations, then apply the requests received for
+ * their nodes. The cost and predecessor of a node are thus only written by its
+ * owner, without locks or atomic operations.
+ *
+ */
+public class DeltaSteppingAlgorithm extends SingleSourceAlgorithm {
+
+    /**
+     * Default bucket width, as a multiple of the average cost of the allowed arcs
+     * of the graph.
+     */
+    public static final double DEFAULT_WIDTH_FACTOR = 8;
+
+    // Last bucket, containing all the nodes whose cost is too high for the bucket
+    // width (all arcs are light in this bucket).
+    private static final long LAST_BUCKET = Long.MAX_VALUE;
+
+    // Maximum number of slots of the cyclic bucket array of a worker.
+    private static final int MAX_SLOT_COUNT = 1 << 14;
+
+    // Number of consecutive nodes given to the same worker.
+    private static final int NODE_BLOCK_SHIFT = 6;
+
+    // Bucket width, or 0 to use the default one.
+    private double bucketWidth;
+
+    // Number of threads.
+    private int threadCount;
+
+    /**
+     * @param data Input data for this algorithm.
+     */
+    public DeltaSteppingAlgorithm(SingleSourceData data) {
+        super(data);
+        this.bucketWidth = 0;
+        this.threadCount = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Set the width of the buckets, i.e. the maximum cost of light arcs.
+     *
+     * @param bucketWidth Width of the buckets (strictly positive, may be
+     *        infinite), or 0 to use {@link #DEFAULT_WIDTH_FACTOR} times the average
+     *        cost of the allowed arcs (default).
+     */
+    public void setBucketWidth(double bucketWidth) {
+        if (!(bucketWidth >= 0)) {
+            throw new IllegalArgumentException("Invalid bucket width: " + bucketWidth);
+        }
+        this.bucketWidth = bucketWidth;
+    }
+
+    /**
+     * @return Width of the buckets, or 0 if the default width is used.
+     */
+    public double getBucketWidth() {
+        return bucketWidth;
+    }
+
+    /**
+     * Set the number of threads used to relax arcs. With a single thread, the
+     * algorithm runs in the calling thread.
+     *
+     * @param threadCount Number of threads (at least 1), defaults to the number of
+     *        available processors.
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * @return Number of threads used to relax arcs.
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * @param profile Compiled inspector.
+     *
+     * @return Default bucket width for the given inspector.
+     */
+    private static double getDefaultBucketWidth(CompiledProfile profile) {
+        double total = 0;
+        int count = 0;
+        for (int arc = 0; arc < profile.getArcNumbering().getArcCount(); ++arc) {
+            if (profile.isAllowed(arc)) {
+                total += profile.getCost(arc);
+                count += 1;
+            }
+        }
+        return total > 0 ? DEFAULT_WIDTH_FACTOR * total / count : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param profile Compiled inspector.
+     * @param delta Bucket width.
+     *
+     * @return Number of slots of the cyclic bucket arrays: a power of 2, large
+     *         enough for the buckets of all the nodes reached but not settled to be
+     *         in different slots (i.e. greater than the maximum cost of an arc
+     *         divided by the width), but not larger than {@link #MAX_SLOT_COUNT}.
+     */
+    private static int getSlotCount(CompiledProfile profile, double delta) {
+        double maxCost = 0;
+        for (int arc = 0; arc < profile.getArcNumbering().getArcCount(); ++arc) {
+            if (profile.isAllowed(arc)) {
+                maxCost = Math.max(maxCost, profile.getCost(arc));
+            }
+        }
+        final double span = Math.ceil(maxCost / delta) + 2;
+        int nbSlots = 1;
+        while (nbSlots < MAX_SLOT_COUNT && nbSlots < span) {
+            nbSlots <<= 1;
+        }
+        return nbSlots;
+    }
+
+    /**
+     * Growable list of integers.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+
+    }
+
+    /**
+     * Relaxation requests sent by a worker to another one.
+     */
+    private static final class Requests {
+
+        private int[] nodes = new int[16], arcs = new int[16];
+        private double[] costs = new double[16];
+        private int size = 0;
+
+        void add(int node, double cost, int arc) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                arcs = Arrays.copyOf(arcs, 2 * size);
+                costs = Arrays.copyOf(costs, 2 * size);
+            }
+            nodes[size] = node;
+            costs[size] = cost;
+            arcs[size] = arc;
+            size += 1;
+        }
+
+    }
+
+    /**
+     * State of a run of the algorithm: costs, predecessors and workers.
+     */
+    private static final class Search {
+
+        // Arcs and their costs.
+        private final ArcNumbering numbering;
+        private final CompiledProfile profile;
+
+        // Bucket width.
+        private final double delta;
+
+        // Cost and predecessor arc of each node.
+        private final double[] costs;
+        private final int[] predecessors;
+
+        // Number of slots of the cyclic bucket arrays (a power of 2).
+        private final int nbSlots;
+
+        // Last light phase in which each node has been relaxed, and round (number
+        // of processed buckets) in which each node has been settled.
+        private final int[] relaxedPhases, settledRounds;
+
+        // Workers.
+        private final Worker[] workers;
+
+        Search(int nbNodes, CompiledProfile profile, double delta, int nbWorkers) {
+            this.numbering = profile.getArcNumbering();
+            this.profile = profile;
+            this.delta = delta;
+            this.nbSlots = getSlotCount(profile, delta);
+            this.costs = new double[nbNodes];
+            this.predecessors = new int[nbNodes];
+            this.relaxedPhases = new int[nbNodes];
+            this.settledRounds = new int[nbNodes];
+            Arrays.fill(this.costs, Double.POSITIVE_INFINITY);
+            Arrays.fill(this.predecessors, -1);
+            this.workers = new Worker[nbWorkers];
+            for (int i = 0; i < nbWorkers; ++i) {
+                this.workers[i] = new Worker();
+            }
+        }
+
+        /**
+         * @return Index of the worker owning the given node.
+         */
+        int getOwner(int node) {
+            return (node >>> NODE_BLOCK_SHIFT) % workers.length;
+        }
+
+        /**
+         * @return Bucket of the given cost.
+         */
+        long getBucket(double cost) {
+            final double bucket = cost / delta;
+            return bucket < LAST_BUCKET ? (long) bucket : LAST_BUCKET;
+        }
+
+        /**
+         * State owned by a worker.
+         */
+        final class Worker {
+
+            // Cyclic array of buckets of the nodes of this worker: slot i contains
+            // the nodes of buckets congruent to i, and lowest of these buckets
+            // (LAST_BUCKET if the slot is empty).
+            private final IntList[] slots = new IntList[nbSlots];
+            private final long[] slotBuckets = new long[nbSlots];
+
+            // Nodes of the last bucket.
+            private final IntList lastBucket = new IntList();
+
+            // Nodes of the current bucket to relax in the current phase, and nodes
+            // settled in the current bucket.
+            private final IntList frontier = new IntList(), settled = new IntList();
+
+            // Requests to each worker.
+            private final Requests[] requests = new Requests[workers.length];
+
+            Worker() {
+                for (int i = 0; i < requests.length; ++i) {
+                    requests[i] = new Requests();
+                }
+                for (int i = 0; i < nbSlots; ++i) {
+                    slots[i] = new IntList();
+                }
+                Arrays.fill(slotBuckets, LAST_BUCKET);
+            }
+
+            /**
+             * Add the given node to the bucket of its current cost.
+             */
+            void addToBucket(int node) {
+                final long bucket = getBucket(costs[node]);
+                if (bucket == LAST_BUCKET) {
+                    lastBucket.add(node);
+                    return;
+                }
+                final int slot = (int) bucket & (nbSlots - 1);
+                slots[slot].add(node);
+                slotBuckets[slot] = Math.min(slotBuckets[slot], bucket);
+            }
+
+            /**
+             * @return Lowest non-empty bucket from the given one, or -1.
+             */
+            long getNextBucket(long bucket) {
+                // Buckets of slots are not lower than the given bucket. A slot
+                // containing the bucket at its distance from the given one contains
+                // the lowest bucket, otherwise the lowest bucket of all the slots is
+                // the next one.
+                long next = LAST_BUCKET;
+                for (int i = 0; i < nbSlots; ++i) {
+                    final long slotBucket = slotBuckets[(int) (bucket + i) & (nbSlots - 1)];
+                    if (slotBucket == bucket + i) {
+                        return slotBucket;
+                    }
+                    next = Math.min(next, slotBucket);
+                }
+                return next < LAST_BUCKET || lastBucket.size > 0 ? next : -1;
+            }
+
+            /**
+             * Move the nodes of the given bucket to the frontier, and relax their light
+             * arcs.
+             *
+             * @return Number of nodes relaxed.
+             */
+            int relaxLight(long bucket, int round, int phase) {
+                frontier.size = 0;
+                if (bucket == LAST_BUCKET) {
+                    collect(lastBucket, bucket, round, phase);
+                    lastBucket.size = 0;
+                }
+                else {
+                    final int slot = (int) bucket & (nbSlots - 1);
+                    if (slotBuckets[slot] == bucket) {
+                        // Keep the nodes of later buckets in the slot.
+                        final IntList nodes = slots[slot];
+                        final int size = nodes.size;
+                        nodes.size = 0;
+                        slotBuckets[slot] = LAST_BUCKET;
+                        for (int i = 0; i < size; ++i) {
+                            final int node = nodes.values[i];
+                            final long nodeBucket = getBucket(costs[node]);
+                            if (nodeBucket == bucket) {
+                                collect(node, round, phase);
+                            }
+                            else if (nodeBucket > bucket
+                                    && ((int) nodeBucket & (nbSlots - 1)) == slot) {
+                                nodes.values[nodes.size++] = node;
+                                slotBuckets[slot] = Math.min(slotBuckets[slot], nodeBucket);
+                            }
+                        }
+                    }
+                }
+                relax(frontier, true, bucket == LAST_BUCKET);
+                return frontier.size;
+            }
+
+            /**
+             * Add the given nodes to the frontier.
+             */
+            private void collect(IntList nodes, long bucket, int round, int phase) {
+                for (int i = 0; i < nodes.size; ++i) {
+                    if (getBucket(costs[nodes.values[i]]) == bucket) {
+                        collect(nodes.values[i], round, phase);
+                    }
+                }
+            }
+
+            /**
+             * Add the given node to the frontier, unless it is already there.
+             */
+            private void collect(int node, int round, int phase) {
+                if (relaxedPhases[node] != phase) {
+                    relaxedPhases[node] = phase;
+                    frontier.add(node);
+                    if (settledRounds[node] != round) {
+                        settledRounds[node] = round;
+                        settled.add(node);
+                    }
+                }
+            }
+
+            /**
+             * Relax the heavy arcs of the nodes settled in the current bucket.
+             *
+             * @return Number of nodes settled in the current bucket.
+             */
+            int relaxHeavy() {
+                relax(settled, false, false);
+                final int nbSettled = settled.size;
+                settled.size = 0;
+                return nbSettled;
+            }
+
+            /**
+             * Relax the light or heavy arcs of the given nodes, sending requests to
+             * the owners of their destinations.
+             */
+            private void relax(IntList nodes, boolean light, boolean all) {
+                for (int i = 0; i < nodes.size; ++i) {
+                    final int node = nodes.values[i];
+                    final double cost = costs[node];
+                    final int end = numbering.getEndArc(node);
+                    for (int arc = numbering.getFirstArc(node); arc < end; ++arc) {
+                        if (!profile.isAllowed(arc)) {
+                            continue;
+                        }
+                        final double arcCost = profile.getCost(arc);
+                        if (!all && (arcCost <= delta) != light) {
+                            continue;
+                        }
+                        final double next = cost + arcCost;
+                        final int destination = numbering.getDestination(arc);
+                        if (next < costs[destination]) {
+                            requests[getOwner(destination)].add(destination, next, arc);
+                        }
+                    }
+                }
+            }
+
+            /**
+             * Apply the requests sent to this worker by all the workers.
+             */
+            void applyRequests(int index) {
+                for (Worker worker: workers) {
+                    final Requests received = worker.requests[index];
+                    for (int i = 0; i < received.size; ++i) {
+                        final int node = received.nodes[i];
+                        if (received.costs[i] < costs[node]) {
+                            costs[node] = received.costs[i];
+                            predecessors[node] = received.arcs[i];
+                            addToBucket(node);
+                        }
+                    }
+                    received.size = 0;
+                }
+            }
+
+        }
+
+        /**
+         * @return Lowest non-empty bucket from the given one, or -1.
+         */
+        long getNextBucket(long bucket) {
+            long next = -1;
+            for (Worker worker: workers) {
+                final long workerNext = worker.getNextBucket(bucket);
+                if (workerNext >= 0 && (next < 0 || workerNext < next)) {
+                    next = workerNext;
+                }
+            }
+            return next;
+        }
+
+    }
+
+    /**
+     * Task run by each worker during a phase.
+     */
+    private interface WorkerTask {
+
+        /**
+         * @param worker Worker running the task.
+         * @param index Index of the worker.
+         * 
+         * @return Count returned by the worker, summed over all workers.
+         */
+        int run(Search.Worker worker, int index);
+
+    }
+
+    @Override
+    protected SingleSourceSolution doRun() {
+        final SingleSourceData data = getInputData();
+        final int nbNodes = data.getGraph().size();
+        final CompiledProfile profile = data.getCompiledProfile();
+        final double delta = bucketWidth > 0 ? bucketWidth : getDefaultBucketWidth(profile);
+
+        // At most one worker per block of nodes.
+        final int nbWorkers = Math.min(threadCount, (nbNodes >>> NODE_BLOCK_SHIFT) + 1);
+        final Search search = new Search(nbNodes, profile, delta, nbWorkers);
+        final int source = data.getSource().getId();
+        search.costs[source] = 0;
+        search.workers[search.getOwner(source)].addToBucket(source);
+
+        ExecutorService executor = nbWorkers > 1 ? Executors.newFixedThreadPool(nbWorkers)
+                : null;
+        try {
+            int nbSettled = 0, round = 0, phase = 0;
+            for (long bucket = search.getNextBucket(0); bucket >= 0; bucket = search
+                    .getNextBucket(bucket + 1)) {
+                final long current = bucket;
+                final int currentRound = ++round;
+
+                // Relax light arcs until the bucket stays empty.
+                while (true) {
+                    final int currentPhase = ++phase;
+                    if (runAll(executor, search,
+                            (worker, index) -> worker.relaxLight(current, currentRound,
+                            currentPhase)) == 0) {
+                        break;
+                    }
+                    runAll(executor, search, (worker, index) -> {
+                        worker.applyRequests(index);
+                        return 0;
+                    });
+                }
+
+                // Relax heavy arcs once.
+                nbSettled += runAll(executor, search, (worker, index) -> worker.relaxHeavy());
+                runAll(executor, search, (worker, index) -> {
+                    worker.applyRequests(index);
+                    return 0;
+                });
+
+                notifyNodesSettled(bucket == LAST_BUCKET ? Double.POSITIVE_INFINITY
+                        : (bucket + 1) * delta, nbSettled);
+                if (bucket == LAST_BUCKET) {
+                    break;
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new SingleSourceSolution(data, Status.UNKNOWN);
+        }
+        finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        return new SingleSourceSolution(data, Status.OPTIMAL, search.costs,
+                search.predecessors);
+    }
+
+    /**
+     * Run the given task on all the workers of the given search, on the given
+     * executor or in the calling thread if there is none, and wait for all of them
+     * to complete.
+     * 
+     * @return Sum of the counts returned by the workers.
+     * 
+     * @throws InterruptedException if the calling thread is interrupted while
+     *         waiting for the workers.
+     */
+    private static int runAll(ExecutorService executor, Search search, WorkerTask task)
+            throws InterruptedException {
+        final Search.Worker[] workers = search.workers;
+        int total = 0;
+        if (executor == null) {
+            for (int i = 0; i < workers.length; ++i) {
+                total += task.run(workers[i], i);
+            }
+            return total;
+        }
+        List<Callable<Integer>> tasks = new ArrayList<>(workers.length);
+        for (int i = 0; i < workers.length; ++i) {
+            final int index = i;
+            tasks.add(() -> task.run(workers[index], index));
+        }
+        for (Future<Integer> future: executor.invokeAll(tasks)) {
+            try {
+                total += future.get();
+            }
+            catch (ExecutionException e) {
+                rethrow(e.getCause());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Rethrow the given exception, thrown by a worker, as an unchecked exception.
+     */
+    private static void rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+}
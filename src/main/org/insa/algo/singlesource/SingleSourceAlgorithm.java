@@ -0,0 +1,37 @@
+package org.insa.algo.singlesource;
+
+import org.insa.algo.AbstractAlgorithm;
+
+public abstract class SingleSourceAlgorithm extends AbstractAlgorithm<SingleSourceObserver> {
+
+    protected SingleSourceAlgorithm(SingleSourceData data) {
+        super(data);
+    }
+
+    @Override
+    public SingleSourceSolution run() {
+        return (SingleSourceSolution) super.run();
+    }
+
+    @Override
+    protected abstract SingleSourceSolution doRun();
+
+    @Override
+    public SingleSourceData getInputData() {
+        return (SingleSourceData) super.getInputData();
+    }
+
+    /**
+     * Notify all observers that the costs of all the nodes below the given cost
+     * are final.
+     * 
+     * @param cost Cost below which all the nodes are settled.
+     * @param settledCount Number of nodes settled so far.
+     */
+    public void notifyNodesSettled(double cost, int settledCount) {
+        for (SingleSourceObserver obs: getObservers()) {
+            obs.notifyNodesSettled(cost, settledCount);
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.insa.algo.singlesource;
+
+import org.insa.algo.AbstractInputData;
+import org.insa.algo.ArcInspector;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+
+public class SingleSourceData extends AbstractInputData {
+
+    // Source of the paths.
+    private final Node source;
+
+    /**
+     * Construct a new instance of SingleSourceData with the given parameters.
+     * 
+     * @param graph Graph in which the paths should be looked for.
+     * @param source Source of the paths.
+     * @param arcInspector Filter for arcs (used to allow only a specific set of
+     *        arcs in the graph to be used).
+     */
+    public SingleSourceData(Graph graph, Node source, ArcInspector arcInspector) {
+        super(graph, arcInspector);
+        this.source = source;
+    }
+
+    /**
+     * @return Source of the paths.
+     */
+    public Node getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return "Shortest-paths from #" + source.getId() + " to all nodes ["
+                + this.arcInspector.toString().toLowerCase() + "]";
+    }
+
+}
@@ -0,0 +1,14 @@
+package org.insa.algo.singlesource;
+
+public interface SingleSourceObserver {
+
+    /**
+     * Notify the observer that the costs of all the nodes below the given cost are
+     * final.
+     * 
+     * @param cost Cost below which all the nodes are settled.
+     * @param settledCount Number of nodes settled so far.
+     */
+    public void notifyNodesSettled(double cost, int settledCount);
+
+}
@@ -0,0 +1,139 @@
+package org.insa.algo.singlesource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.insa.algo.AbstractInputData.Mode;
+import org.insa.algo.AbstractSolution;
+import org.insa.graph.Arc;
+import org.insa.graph.ArcNumbering;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.Path;
+
+public class SingleSourceSolution extends AbstractSolution {
+
+    // Cost of the shortest path from the source to each node, infinity if there
+    // is none.
+    private double[] costs;
+
+    // ID of the last arc of the shortest path to each node (see ArcNumbering), -1
+    // for the source and unreachable nodes.
+    private int[] predecessors;
+
+    /**
+     * Create a new single-source solution for the given input and status, without
+     * costs.
+     * 
+     * @param data Original input data for this solution.
+     * @param status Status of the solution (UNKNOWN / INFEASIBLE).
+     */
+    protected SingleSourceSolution(SingleSourceData data, Status status) {
+        super(data, status);
+    }
+
+    /**
+     * Create a new single-source solution.
+     * 
+     * @param data Original input data for this solution.
+     * @param status Status of the solution (FEASIBLE / OPTIMAL).
+     * @param costs Costs of the shortest paths, indexed by node ID.
+     * @param predecessors IDs of the last arcs of the shortest paths, indexed by
+     *        node ID.
+     */
+    protected SingleSourceSolution(SingleSourceData data, Status status, double[] costs,
+            int[] predecessors) {
+        super(data, status);
+        this.costs = costs;
+        this.predecessors = predecessors;
+    }
+
+    @Override
+    public SingleSourceData getInputData() {
+        return (SingleSourceData) super.getInputData();
+    }
+
+    /**
+     * @return Costs of the shortest paths, indexed by node ID (infinity for
+     *         unreachable nodes), or null if the solution is not feasible.
+     */
+    public double[] getCosts() {
+        return costs;
+    }
+
+    /**
+     * @return IDs (see {@link ArcNumbering}) of the last arcs of the shortest
+     *         paths, indexed by node ID (-1 for the source and unreachable nodes),
+     *         or null if the solution is not feasible.
+     */
+    public int[] getPredecessorArcs() {
+        return predecessors;
+    }
+
+    /**
+     * @param node A node of the graph.
+     * 
+     * @return Cost of the shortest path from the source to the given node, or
+     *         infinity if there is none.
+     */
+    public double getCost(Node node) {
+        return costs[node.getId()];
+    }
+
+    /**
+     * @param node A node of the graph.
+     * 
+     * @return Last arc of the shortest path from the source to the given node, or
+     *         null if the node is the source or is unreachable.
+     */
+    public Arc getPredecessorArc(Node node) {
+        final int arc = predecessors[node.getId()];
+        return arc < 0 ? null : ArcNumbering.forGraph(getInputData().getGraph()).getArc(arc);
+    }
+
+    /**
+     * @param node A node of the graph.
+     * 
+     * @return Shortest path from the source to the given node, or null if there
+     *         is none.
+     */
+    public Path getPath(Node node) {
+        final Graph graph = getInputData().getGraph();
+        if (Double.isInfinite(costs[node.getId()])) {
+            return null;
+        }
+        if (node.equals(getInputData().getSource())) {
+            return new Path(graph, node);
+        }
+        ArrayList<Arc> arcs = new ArrayList<>();
+        for (Arc arc = getPredecessorArc(node); arc != null; arc = getPredecessorArc(
+                arc.getOrigin())) {
+            arcs.add(arc);
+        }
+        Collections.reverse(arcs);
+        return new Path(graph, arcs);
+    }
+
+    @Override
+    public String toString() {
+        String info = null;
+        if (!isFeasible()) {
+            info = "No shortest paths found";
+        }
+        else {
+            int nReached = 0;
+            for (double cost: costs) {
+                if (!Double.isInfinite(cost)) {
+                    nReached += 1;
+                }
+            }
+            info = String.format("Found the %s to %d of %d nodes",
+                    getInputData().getMode() == Mode.LENGTH ? "shortest paths"
+                            : "fastest paths",
+                    nReached, costs.length);
+        }
+        info += " in " + getSolvingTime().getSeconds() + " seconds.";
+        return info;
+    }
+
+}
@@ -0,0 +1,18 @@
+package org.insa.algo.singlesource;
+
+import java.io.PrintStream;
+
+public class SingleSourceTextObserver implements SingleSourceObserver {
+
+    private final PrintStream stream;
+
+    public SingleSourceTextObserver(PrintStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public void notifyNodesSettled(double cost, int settledCount) {
+        stream.println(settledCount + " nodes settled with a cost lower than " + cost + ".");
+    }
+
+}
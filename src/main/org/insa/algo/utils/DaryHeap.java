@@ -0,0 +1,329 @@
+package org.insa.algo.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Implements an indexed d-ary heap. Contrary to {@link BinaryHeap}, this heap
+ * keeps track of the position of each of its elements, so that
+ * {@link #remove(Comparable)} and {@link #decreaseKey(Comparable)} run in
+ * <i>O(log n)</i> instead of <i>O(n)</i>.
+ *
+ * Positions are stored either in a hash map (default), or in a plain array
+ * when an indexer is given to the constructor. The indexer must map each
+ * element to a unique integer in [0, capacity[ - e.g., the ID of the node
+ * corresponding to a label.
+ *
+ * Elements are ordered with their compareTo method, but are matched (e.g. by
+ * {@link #remove(Comparable)}) through the indexer, or through their equals and
+ * hashCode methods when there is no indexer.
+ *
+ */
+public class DaryHeap<E extends Comparable<E>> implements PriorityQueue<E> {
+
+    /**
+     * Default arity of the heap.
+     */
+    public static final int DEFAULT_ARITY = 4;
+
+    // Arity of the heap (number of children of each node).
+    private final int arity;
+
+    // The heap array.
+    private final ArrayList<E> array;
+
+    // Function used to retrieve the index of an element (may be null).
+    private final ToIntFunction<? super E> indexer;
+
+    // Position of the elements, when an indexer is available, -1 if not present.
+    private final int[] positions;
+
+    // Position of the elements, when no indexer is available.
+    private final HashMap<E, Integer> positionMap;
+
+    /**
+     * Construct a new empty heap with the default arity.
+     */
+    public DaryHeap() {
+        this(DEFAULT_ARITY);
+    }
+
+    /**
+     * Construct a new empty heap with the given arity.
+     *
+     * @param arity Number of children of each node of the heap (e.g., 2, 4 or 8).
+     *
+     * @throws IllegalArgumentException if arity is lower than 2.
+     */
+    public DaryHeap(int arity) {
+        this(arity, null, 0);
+    }
+
+    /**
+     * Construct a new empty heap with the given arity, using the given indexer to
+     * store positions of elements.
+     *
+     * @param arity Number of children of each node of the heap (e.g., 2, 4 or 8).
+     * @param capacity Maximum index returned by the indexer (exclusive).
+     * @param indexer Function returning a unique index in [0, capacity[ for each
+     *        element.
+     *
+     * @throws IllegalArgumentException if arity is lower than 2.
+     */
+    public DaryHeap(int arity, int capacity, ToIntFunction<? super E> indexer) {
+        this(arity, indexer, capacity);
+    }
+
+    /**
+     * Construct a copy of the given heap.
+     *
+     * @param heap Heap to copy.
+     */
+    public DaryHeap(DaryHeap<E> heap) {
+        this.arity = heap.arity;
+        this.array = new ArrayList<E>(heap.array);
+        this.indexer = heap.indexer;
+        this.positions = heap.positions == null ? null
+                : Arrays.copyOf(heap.positions, heap.positions.length);
+        this.positionMap = heap.positionMap == null ? null
+                : new HashMap<E, Integer>(heap.positionMap);
+    }
+
+    private DaryHeap(int arity, ToIntFunction<? super E> indexer, int capacity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity of a heap must be at least 2.");
+        }
+        this.arity = arity;
+        this.array = new ArrayList<E>();
+        this.indexer = indexer;
+        if (indexer != null) {
+            this.positions = new int[capacity];
+            Arrays.fill(this.positions, -1);
+            this.positionMap = null;
+        }
+        else {
+            this.positions = null;
+            this.positionMap = new HashMap<E, Integer>();
+        }
+    }
+
+    /**
+     * @return Arity of this heap.
+     */
+    public int getArity() {
+        return this.arity;
+    }
+
+    /**
+     * @return Position of the given element in the heap array, or -1 if the
+     *         element is not in the heap.
+     */
+    private int positionOf(E x) {
+        if (this.positions != null) {
+            int index = this.indexer.applyAsInt(x);
+            if (index < 0 || index >= this.positions.length) {
+                return -1;
+            }
+            int position = this.positions[index];
+            return position >= 0 && this.array.get(position).equals(x) ? position : -1;
+        }
+        Integer position = this.positionMap.get(x);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Set an element at the given index and update its position.
+     *
+     * @param index Index at which the element should be set.
+     * @param value Element to set.
+     */
+    private void arraySet(int index, E value) {
+        if (index == this.array.size()) {
+            this.array.add(value);
+        }
+        else {
+            this.array.set(index, value);
+        }
+        if (this.positions != null) {
+            this.positions[this.indexer.applyAsInt(value)] = index;
+        }
+        else {
+            this.positionMap.put(value, index);
+        }
+    }
+
+    /**
+     * Forget the position of the given element.
+     *
+     * @param value Element removed from the heap.
+     */
+    private void clearPosition(E value) {
+        if (this.positions != null) {
+            this.positions[this.indexer.applyAsInt(value)] = -1;
+        }
+        else {
+            this.positionMap.remove(value);
+        }
+    }
+
+    /**
+     * @return Index of the parent of the given index.
+     */
+    private int indexParent(int index) {
+        return (index - 1) / this.arity;
+    }
+
+    /**
+     * @return Index of the first child of the given index.
+     */
+    private int indexFirstChild(int index) {
+        return index * this.arity + 1;
+    }
+
+    /**
+     * Internal method to percolate up in the heap.
+     *
+     * @param index Index at which the percolate begins.
+     */
+    private void percolateUp(int index) {
+        E x = this.array.get(index);
+
+        while (index > 0) {
+            int parent = indexParent(index);
+            E parentValue = this.array.get(parent);
+            if (x.compareTo(parentValue) >= 0) {
+                break;
+            }
+            this.arraySet(index, parentValue);
+            index = parent;
+        }
+
+        this.arraySet(index, x);
+    }
+
+    /**
+     * Internal method to percolate down in the heap.
+     *
+     * @param index Index at which the percolate begins.
+     */
+    private void percolateDown(int index) {
+        final int size = this.array.size();
+        E x = this.array.get(index);
+
+        int child = indexFirstChild(index);
+        while (child < size) {
+            // Find the smallest child.
+            int minChild = child;
+            int lastChild = Math.min(child + this.arity, size);
+            for (int i = child + 1; i < lastChild; ++i) {
+                if (this.array.get(i).compareTo(this.array.get(minChild)) < 0) {
+                    minChild = i;
+                }
+            }
+
+            E minValue = this.array.get(minChild);
+            if (minValue.compareTo(x) >= 0) {
+                break;
+            }
+            this.arraySet(index, minValue);
+            index = minChild;
+            child = indexFirstChild(index);
+        }
+
+        this.arraySet(index, x);
+    }
+
+    /**
+     * Remove the element at the given position in the heap array.
+     *
+     * @param index Position of the element to remove.
+     */
+    private void removeAt(int index) {
+        E removed = this.array.get(index);
+        E lastItem = this.array.remove(this.array.size() - 1);
+        clearPosition(removed);
+        if (index < this.array.size()) {
+            this.arraySet(index, lastItem);
+            this.percolateDown(index);
+            this.percolateUp(index);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.array.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return this.array.size();
+    }
+
+    /**
+     * Check if the given element is in this heap.
+     *
+     * <p>
+     * <b>Complexity:</b> <i>O(1)</i>
+     * </p>
+     *
+     * @param x Element to look for.
+     *
+     * @return true if the given element is in this heap.
+     */
+    public boolean contains(E x) {
+        return positionOf(x) >= 0;
+    }
+
+    @Override
+    public void insert(E x) {
+        int index = this.array.size();
+        this.arraySet(index, x);
+        this.percolateUp(index);
+    }
+
+    @Override
+    public void remove(E x) throws ElementNotFoundException {
+        int index = positionOf(x);
+        if (index < 0) {
+            throw new ElementNotFoundException(x);
+        }
+        removeAt(index);
+    }
+
+    /**
+     * Restore the heap property after the key of the given element has been
+     * decreased.
+     *
+     * <p>
+     * <b>Complexity:</b> <i>O(log n)</i>
+     * </p>
+     *
+     * @param x Element whose key has been decreased.
+     *
+     * @throws ElementNotFoundException if the element is not in this heap.
+     */
+    public void decreaseKey(E x) throws ElementNotFoundException {
+        int index = positionOf(x);
+        if (index < 0) {
+            throw new ElementNotFoundException(x);
+        }
+        this.percolateUp(index);
+    }
+
+    @Override
+    public E findMin() throws EmptyPriorityQueueException {
+        if (isEmpty())
+            throw new EmptyPriorityQueueException();
+        return this.array.get(0);
+    }
+
+    @Override
+    public E deleteMin() throws EmptyPriorityQueueException {
+        E minItem = findMin();
+        removeAt(0);
+        return minItem;
+    }
+
+}
@@ -0,0 +1,263 @@
+package org.insa.algo.utils;
+
+/**
+ * Implements an indexed d-ary min-heap of integer items (e.g., node IDs) keyed
+ * by double values, without any boxing.
+ *
+ * Items must be in [0, capacity[. The position of each item is stored in an
+ * array that is never reset: an entry is only trusted if the heap slot it
+ * points to actually holds the item, so {@link #clear()} runs in <i>O(1)</i>
+ * and the heap can be reused across searches without touching all items.
+ *
+ */
+public class IndexedDoubleHeap {
+
+    // Arity of the heap.
+    private final int arity;
+
+    // Items and keys, stored in heap order.
+    private final int[] items;
+    private final double[] keys;
+
+    // Position of each item in the heap (only valid if items[pos] == item).
+    private final int[] positions;
+
+    // Number of items in the heap.
+    private int currentSize;
+
+    /**
+     * Construct a new empty heap for items in [0, capacity[, with the default
+     * arity.
+     *
+     * @param capacity Maximum item value (exclusive).
+     */
+    public IndexedDoubleHeap(int capacity) {
+        this(capacity, DaryHeap.DEFAULT_ARITY);
+    }
+
+    /**
+     * Construct a new empty heap for items in [0, capacity[.
+     *
+     * @param capacity Maximum item value (exclusive).
+     * @param arity Number of children of each node of the heap.
+     *
+     * @throws IllegalArgumentException if arity is lower than 2.
+     */
+    public IndexedDoubleHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity of a heap must be at least 2.");
+        }
+        this.arity = arity;
+        this.items = new int[capacity];
+        this.keys = new double[capacity];
+        this.positions = new int[capacity];
+        this.currentSize = 0;
+    }
+
+    /**
+     * @return Maximum item value (exclusive) of this heap.
+     */
+    public int capacity() {
+        return this.items.length;
+    }
+
+    /**
+     * @return true if the heap is empty.
+     */
+    public boolean isEmpty() {
+        return this.currentSize == 0;
+    }
+
+    /**
+     * @return Number of items in the heap.
+     */
+    public int size() {
+        return this.currentSize;
+    }
+
+    /**
+     * Remove all the items from this heap.
+     *
+     * <p>
+     * <b>Complexity:</b> <i>O(1)</i>
+     * </p>
+     */
+    public void clear() {
+        this.currentSize = 0;
+    }
+
+    /**
+     * @param item Item to look for.
+     *
+     * @return true if the given item is in this heap.
+     */
+    public boolean contains(int item) {
+        int position = this.positions[item];
+        return position < this.currentSize && this.items[position] == item;
+    }
+
+    /**
+     * @param item Item in the heap.
+     *
+     * @return Current key of the given item.
+     *
+     * @throws ElementNotFoundException if the item is not in the heap.
+     */
+    public double getKey(int item) throws ElementNotFoundException {
+        if (!contains(item)) {
+            throw new ElementNotFoundException(item);
+        }
+        return this.keys[this.positions[item]];
+    }
+
+    /**
+     * Insert the given item with the given key. The item must not already be in
+     * the heap.
+     *
+     * @param item Item to insert.
+     * @param key Key of the item.
+     */
+    public void insert(int item, double key) {
+        int index = this.currentSize++;
+        this.percolateUp(index, item, key);
+    }
+
+    /**
+     * Decrease the key of the given item.
+     *
+     * @param item Item whose key should be decreased.
+     * @param key New key of the item (must not be greater than the current one).
+     *
+     * @throws ElementNotFoundException if the item is not in the heap.
+     */
+    public void decreaseKey(int item, double key) throws ElementNotFoundException {
+        if (!contains(item)) {
+            throw new ElementNotFoundException(item);
+        }
+        this.percolateUp(this.positions[item], item, key);
+    }
+
+    /**
+     * Change the key of the given item, which may be greater or lower than the
+     * current one.
+     *
+     * @param item Item whose key should be changed.
+     * @param key New key of the item.
+     *
+     * @throws ElementNotFoundException if the item is not in the heap.
+     */
+    public void updateKey(int item, double key) throws ElementNotFoundException {
+        if (!contains(item)) {
+            throw new ElementNotFoundException(item);
+        }
+        int position = this.positions[item];
+        if (key < this.keys[position]) {
+            this.percolateUp(position, item, key);
+        }
+        else {
+            this.percolateDown(position, item, key);
+        }
+    }
+
+    /**
+     * Insert the given item, or decrease its key if it is already in the heap.
+     *
+     * @param item Item to insert or update.
+     * @param key New key of the item.
+     */
+    public void insertOrDecreaseKey(int item, double key) {
+        if (contains(item)) {
+            this.percolateUp(this.positions[item], item, key);
+        }
+        else {
+            this.insert(item, key);
+        }
+    }
+
+    /**
+     * @return The item with the smallest key.
+     *
+     * @throws EmptyPriorityQueueException if this heap is empty.
+     */
+    public int findMin() throws EmptyPriorityQueueException {
+        if (isEmpty()) {
+            throw new EmptyPriorityQueueException();
+        }
+        return this.items[0];
+    }
+
+    /**
+     * @return The smallest key in the heap.
+     *
+     * @throws EmptyPriorityQueueException if this heap is empty.
+     */
+    public double findMinKey() throws EmptyPriorityQueueException {
+        if (isEmpty()) {
+            throw new EmptyPriorityQueueException();
+        }
+        return this.keys[0];
+    }
+
+    /**
+     * Remove and return the item with the smallest key.
+     *
+     * @return The item with the smallest key.
+     *
+     * @throws EmptyPriorityQueueException if this heap is empty.
+     */
+    public int deleteMin() throws EmptyPriorityQueueException {
+        int minItem = findMin();
+        int last = --this.currentSize;
+        if (last > 0) {
+            this.percolateDown(0, this.items[last], this.keys[last]);
+        }
+        // Invalidate the position of the removed item.
+        this.positions[minItem] = this.items.length;
+        return minItem;
+    }
+
+    /**
+     * Put the given item/key at the given index, moving it up as needed.
+     */
+    private void percolateUp(int index, int item, double key) {
+        while (index > 0) {
+            int parent = (index - 1) / this.arity;
+            if (key >= this.keys[parent]) {
+                break;
+            }
+            this.set(index, this.items[parent], this.keys[parent]);
+            index = parent;
+        }
+        this.set(index, item, key);
+    }
+
+    /**
+     * Put the given item/key at the given index, moving it down as needed.
+     */
+    private void percolateDown(int index, int item, double key) {
+        int child = index * this.arity + 1;
+        while (child < this.currentSize) {
+            int minChild = child;
+            int lastChild = Math.min(child + this.arity, this.currentSize);
+            for (int i = child + 1; i < lastChild; ++i) {
+                if (this.keys[i] < this.keys[minChild]) {
+                    minChild = i;
+                }
+            }
+            if (this.keys[minChild] >= key) {
+                break;
+            }
+            this.set(index, this.items[minChild], this.keys[minChild]);
+            index = minChild;
+            child = index * this.arity + 1;
+        }
+        this.set(index, item, key);
+    }
+
+    private void set(int index, int item, double key) {
+        this.items[index] = item;
+        this.keys[index] = key;
+        this.positions[item] = index;
+    }
+
+}
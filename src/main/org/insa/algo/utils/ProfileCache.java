@@ -0,0 +1,184 @@
+package org.insa.algo.utils;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.BiFunction;
+
+import org.insa.algo.ArcInspector;
+import org.insa.graph.Graph;
+
+/**
+ * Cache of values (typically preprocessing results) computed for a graph and an
+ * arc inspector (a profile).
+ *
+ * Graphs and inspectors are weakly referenced, so values are released with
+ * their graph or when their inspector is no longer used (e.g. inspectors
+ * created for a single query). Inspectors are compared by identity. Values
+ * must thus not hold a strong reference to their inspector, otherwise they are
+ * only released with their graph.
+ *
+ * @param <T> Type of the cached values.
+ */
+public class ProfileCache<T> {
+
+    /**
+     * @param inspector An arc inspector.
+     *
+     * @return Description of the given inspector, used to identify files
+     *         computed for this inspector.
+     */
+    public static String getProfile(ArcInspector inspector) {
+        return inspector.getMode() + "/" + inspector.toString();
+    }
+
+    /**
+     * Weak reference to an inspector, compared by identity, used as a key of the
+     * values of a graph.
+     *
+     */
+    private static class InspectorKey extends WeakReference<ArcInspector> {
+
+        // Identity hash code of the inspector.
+        private final int hash;
+
+        // Values containing this key (null for keys only used for lookups).
+        private final Map<InspectorKey, ?> owner;
+
+        InspectorKey(ArcInspector inspector, Map<InspectorKey, ?> owner,
+                ReferenceQueue<ArcInspector> queue) {
+            super(inspector, queue);
+            this.hash = System.identityHashCode(inspector);
+            this.owner = owner;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof InspectorKey)) {
+                return false;
+            }
+            ArcInspector inspector = get();
+            return inspector != null && inspector == ((InspectorKey) other).get();
+        }
+
+    }
+
+    // Values by graph, then by inspector.
+    private final Map<Graph, Map<InspectorKey, T>> values = new WeakHashMap<>();
+
+    // Locks of the values being computed, by graph, then by inspector.
+    private final Map<Graph, Map<ArcInspector, Object>> locks = new IdentityHashMap<>();
+
+    // Keys whose inspector has been released.
+    private final ReferenceQueue<ArcInspector> releasedKeys = new ReferenceQueue<>();
+
+    /**
+     * Remove the values whose inspector has been released.
+     */
+    private void expunge() {
+        for (Reference<? extends ArcInspector> key; (key = releasedKeys.poll()) != null;) {
+            ((InspectorKey) key).owner.remove(key);
+        }
+    }
+
+    /**
+     * @param graph Graph of the value.
+     * @param inspector Inspector of the value.
+     *
+     * @return Value for the given graph and inspector, or null.
+     */
+    public synchronized T get(Graph graph, ArcInspector inspector) {
+        expunge();
+        Map<InspectorKey, T> byInspector = values.get(graph);
+        return byInspector == null ? null
+                : byInspector.get(new InspectorKey(inspector, null, null));
+    }
+
+    /**
+     * Set the value for the given graph and inspector.
+     *
+     * @param graph Graph of the value.
+     * @param inspector Inspector of the value.
+     * @param value Value to set.
+     */
+    public synchronized void put(Graph graph, ArcInspector inspector, T value) {
+        expunge();
+        Map<InspectorKey, T> byInspector = values.computeIfAbsent(graph,
+                (g) -> new HashMap<>());
+        byInspector.put(new InspectorKey(inspector, byInspector, releasedKeys), value);
+    }
+
+    /**
+     * Retrieve the value for the given graph and inspector, computing it if
+     * needed. The value is computed outside of the lock of this cache, so values
+     * for other graphs or inspectors can be retrieved or computed meanwhile, but
+     * a value is never computed twice at the same time.
+     *
+     * @param graph Graph of the value.
+     * @param inspector Inspector of the value.
+     * @param function Function used to compute the value.
+     *
+     * @return Value for the given graph and inspector.
+     */
+    public T computeIfAbsent(Graph graph, ArcInspector inspector,
+            BiFunction<Graph, ArcInspector, T> function) {
+        Object lock;
+        synchronized (this) {
+            T value = get(graph, inspector);
+            if (value != null) {
+                return value;
+            }
+            lock = locks.computeIfAbsent(graph, (g) -> new IdentityHashMap<>())
+                    .computeIfAbsent(inspector, (i) -> new Object());
+        }
+        synchronized (lock) {
+            T value = get(graph, inspector);
+            if (value == null) {
+                try {
+                    value = function.apply(graph, inspector);
+                    put(graph, inspector, value);
+                }
+                finally {
+                    removeLock(graph, inspector);
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Remove the lock of the value for the given graph and inspector, once the
+     * value has been computed (or its computation failed).
+     */
+    private synchronized void removeLock(Graph graph, ArcInspector inspector) {
+        Map<ArcInspector, Object> byInspector = locks.get(graph);
+        if (byInspector != null) {
+            byInspector.remove(inspector);
+            if (byInspector.isEmpty()) {
+                locks.remove(graph);
+            }
+        }
+    }
+
+    /**
+     * Remove all the values associated with the given graph.
+     *
+     * @param graph Graph whose values should be removed.
+     */
+    public synchronized void clear(Graph graph) {
+        values.remove(graph);
+    }
+
+}
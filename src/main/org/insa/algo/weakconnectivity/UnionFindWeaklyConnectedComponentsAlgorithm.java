@@ -0,0 +1,130 @@
+package org.insa.algo.weakconnectivity;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.graph.ArcNumbering;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+
+/**
+ * Weakly connected components computed with a union-find structure on the arcs
+ * of the graph, instead of a search on an undirected copy of the graph.
+ *
+ * The parent of each node is stored in an array and always has a lower ID than
+ * the node itself (unions link the root with the highest ID to the other one),
+ * so the root of a component is its node with the lowest ID. Arcs are split in
+ * ranges processed in parallel: unions are made with a compare-and-set on the
+ * parent of a root, and finds halve the paths they follow.
+ *
+ * Components are found in the same order as {@link WeaklyConnectedComponentsAlgorithm}
+ * (by lowest node ID), nodes of a component are given by increasing ID.
+ *
+ */
+public class UnionFindWeaklyConnectedComponentsAlgorithm
+        extends WeaklyConnectedComponentsAlgorithm {
+
+    // Number of arcs processed by each parallel task.
+    private static final int ARCS_PER_TASK = 1 << 14;
+
+    /**
+     * @param data Input data for this algorithm.
+     */
+    public UnionFindWeaklyConnectedComponentsAlgorithm(WeaklyConnectedComponentsData data) {
+        super(data);
+    }
+
+    /**
+     * @return Root of the given node, halving the path to it.
+     */
+    private static int find(AtomicIntegerArray parents, int node) {
+        int parent = parents.get(node);
+        while (parent != node) {
+            final int grandParent = parents.get(parent);
+            parents.compareAndSet(node, parent, grandParent);
+            node = grandParent;
+            parent = parents.get(node);
+        }
+        return node;
+    }
+
+    /**
+     * Merge the components of the two given nodes.
+     */
+    private static void union(AtomicIntegerArray parents, int node1, int node2) {
+        while (true) {
+            int root1 = find(parents, node1), root2 = find(parents, node2);
+            if (root1 == root2) {
+                return;
+            }
+            if (root1 < root2) {
+                final int tmp = root1;
+                root1 = root2;
+                root2 = tmp;
+            }
+            // Fails if root1 is not a root anymore.
+            if (parents.compareAndSet(root1, root1, root2)) {
+                return;
+            }
+            node1 = root1;
+            node2 = root2;
+        }
+    }
+
+    @Override
+    protected WeaklyConnectedComponentsSolution doRun() {
+        Graph graph = getInputData().getGraph();
+        ArcNumbering numbering = ArcNumbering.forGraph(graph);
+        final int nbNodes = graph.size(), nbArcs = numbering.getArcCount();
+
+        AtomicIntegerArray parents = new AtomicIntegerArray(nbNodes);
+        for (int node = 0; node < nbNodes; ++node) {
+            parents.set(node, node);
+        }
+        IntStream.range(0, (nbArcs + ARCS_PER_TASK - 1) / ARCS_PER_TASK).parallel()
+                .forEach((task) -> {
+                    final int end = Math.min(nbArcs, (task + 1) * ARCS_PER_TASK);
+                    for (int arc = task * ARCS_PER_TASK; arc < end; ++arc) {
+                        union(parents, numbering.getOrigin(arc), numbering.getDestination(arc));
+                    }
+                });
+
+        // Component of each node (parents have lower IDs, so they are resolved
+        // first), and size of each component.
+        int[] componentOf = new int[nbNodes];
+        int nbComponents = 0;
+        int[] sizes = new int[nbNodes];
+        for (int node = 0; node < nbNodes; ++node) {
+            final int parent = parents.get(node);
+            if (parent == node) {
+                componentOf[node] = nbComponents++;
+            }
+            else {
+                componentOf[node] = componentOf[parent];
+            }
+            ++sizes[componentOf[node]];
+        }
+
+        ArrayList<ArrayList<Node>> components = new ArrayList<ArrayList<Node>>(nbComponents);
+        for (int c = 0; c < nbComponents; ++c) {
+            components.add(new ArrayList<Node>(sizes[c]));
+        }
+        for (Node node: graph) {
+            components.get(componentOf[node.getId()]).add(node);
+        }
+
+        // Notify observers.
+        for (ArrayList<Node> component: components) {
+            notifyStartComponent(component.get(0));
+            for (Node node: component) {
+                notifyNewNodeInComponent(node);
+            }
+            notifyEndComponent(component);
+        }
+
+        return new WeaklyConnectedComponentsSolution(getInputData(), Status.OPTIMAL, components);
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.insa.base;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.insa.graph.CompactGraph;
+import org.insa.graph.Graph;
+import org.insa.graph.io.BinaryGraphReader;
+import org.insa.graph.io.GraphSnapshotReader;
+import org.insa.graph.io.GraphSnapshotWriter;
+import org.insa.graph.io.MappedBinaryGraphReader;
+import org.insa.graph.io.MappedBinaryGraphReader.GeometryMode;
+
+/**
+ * Small command-line tool that loads a map with the available readers and
+ * reports, for each of them, the loading time and the heap used by the loaded
+ * graph.
+ *
+ * Usage: <code>GraphLoadingReport path/to/map.mapgr</code>
+ *
+ */
+public class GraphLoadingReport {
+
+    /**
+     * Interface for a way of loading a graph.
+     */
+    private interface Loader {
+        public Object load(String mapName) throws IOException;
+    }
+
+    /**
+     * @return Amount of heap currently in use (in bytes), after a few garbage
+     *         collections.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Load a graph using the given loader and print the loading time and the heap
+     * used by the loaded graph.
+     *
+     * @param name Name of the loader.
+     * @param mapName Map to load.
+     * @param loader Loader to use.
+     *
+     * @throws IOException if an error occurs while loading the graph.
+     */
+    private static void report(String name, String mapName, Loader loader) throws IOException {
+        long memoryBefore = usedMemory();
+        long start = System.nanoTime();
+        Object graph = loader.load(mapName);
+        long elapsed = System.nanoTime() - start;
+        long memoryAfter = usedMemory();
+        System.out.println(String.format("%-40s %10.1f ms %10.1f MB", name, elapsed / 1e6,
+                (memoryAfter - memoryBefore) / (1024.0 * 1024.0)));
+
+        // Keep the graph reachable until its memory usage has been measured.
+        graph.hashCode();
+    }
+
+    /**
+     * @param mapName Map to open.
+     *
+     * @return A new binary graph reader for the given map.
+     *
+     * @throws IOException if the map cannot be opened.
+     */
+    private static BinaryGraphReader openBinaryReader(String mapName) throws IOException {
+        return new BinaryGraphReader(
+                new DataInputStream(new BufferedInputStream(new FileInputStream(mapName))));
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length != 1) {
+            System.err.println("Usage: GraphLoadingReport path/to/map.mapgr");
+            System.exit(1);
+        }
+
+        String mapName = args[0];
+
+        System.out.println(String.format("%-40s %13s %13s", "Reader", "Time", "Heap"));
+
+        report("BinaryGraphReader (Graph)", mapName, (name) -> openBinaryReader(name).read());
+        report("BinaryGraphReader (Compact)", mapName,
+                (name) -> openBinaryReader(name).readCompact());
+        report("Graph + CompactGraph.fromGraph", mapName, (name) -> {
+            Graph graph = openBinaryReader(name).read();
+            return new Object[]{ graph, CompactGraph.fromGraph(graph) };
+        });
+        report("MappedBinaryGraphReader (Graph)", mapName,
+                (name) -> new MappedBinaryGraphReader(new File(name)).read());
+        report("MappedBinaryGraphReader (Graph, lazy)", mapName, (name) -> {
+            MappedBinaryGraphReader reader = new MappedBinaryGraphReader(new File(name));
+            reader.setGeometryMode(GeometryMode.LAZY);
+            return reader.read();
+        });
+        report("MappedBinaryGraphReader (Graph, skip)", mapName, (name) -> {
+            MappedBinaryGraphReader reader = new MappedBinaryGraphReader(new File(name));
+            reader.setGeometryMode(GeometryMode.SKIP);
+            return reader.read();
+        });
+        report("MappedBinaryGraphReader (Compact)", mapName,
+                (name) -> new MappedBinaryGraphReader(new File(name)).readCompact());
+
+        // Write a snapshot of the map to a temporary file and read it back.
+        File snapshot = File.createTempFile("graph", ".snapshot");
+        snapshot.deleteOnExit();
+        new GraphSnapshotWriter(new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(snapshot))))
+                        .writeGraph(openBinaryReader(mapName).readCompact());
+        report("GraphSnapshotReader (Compact)", snapshot.getPath(),
+                (name) -> new GraphSnapshotReader(new File(name)).read());
+    }
+
+}
@@ -0,0 +1,172 @@
+package org.insa.base;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.insa.algo.shortestpath.BatchQueryStatistics;
+import org.insa.graph.Graph;
+import org.insa.graph.io.BinaryGraphReader;
+
+/**
+ * Load generator for a {@link RoutingServer}: a fixed number of clients send
+ * route requests between random nodes as fast as possible, and the throughput,
+ * latency and number of settled nodes of the requests are reported.
+ *
+ * Usage: <code>RoutingLoadGenerator path/to/map.mapgr [maxClients] [requests]
+ * [profile] [algorithm]</code> - starts a server for the given map on an
+ * ephemeral port and runs the given number of requests with 1, 2, 4, ... up to
+ * maxClients concurrent clients.
+ *
+ */
+public class RoutingLoadGenerator {
+
+    // Base URL of the server (e.g. http://localhost:8080).
+    private final String baseUrl;
+
+    // Number of nodes of the graph of the server.
+    private final int nodeCount;
+
+    /**
+     * @param baseUrl Base URL of the server, without trailing slash.
+     * @param nodeCount Number of nodes of the graph of the server.
+     */
+    public RoutingLoadGenerator(String baseUrl, int nodeCount) {
+        this.baseUrl = baseUrl;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Send the given number of route requests between random nodes, using the
+     * given number of concurrent clients.
+     * 
+     * @param clients Number of concurrent clients.
+     * @param requests Total number of requests.
+     * @param profile Index of the profile of the requests.
+     * @param algorithm Name of the algorithm of the requests.
+     * @param seed Seed used to pick the nodes of the requests.
+     * 
+     * @return Statistics of the requests (latency measured by the clients).
+     * 
+     * @throws IOException if a request fails.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public BatchQueryStatistics run(int clients, int requests, int profile, String algorithm,
+            long seed) throws IOException, InterruptedException {
+        final long[] latencies = new long[requests];
+        final long[] settledCounts = new long[requests];
+        final AtomicInteger next = new AtomicInteger();
+        final String query = "&profile=" + profile + "&algorithm="
+                + URLEncoder.encode(algorithm, "UTF-8");
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<Void>> futures = new ArrayList<>();
+        final long start = System.nanoTime();
+        try {
+            for (int i = 0; i < clients; ++i) {
+                futures.add(executor.submit(() -> {
+                    for (int request = next.getAndIncrement(); request < requests; request = next
+                            .getAndIncrement()) {
+                        Random random = new Random(seed + request);
+                        URL url = new URL(baseUrl + "/route?from=" + random.nextInt(nodeCount)
+                                + "&to=" + random.nextInt(nodeCount) + query);
+                        final long requestStart = System.nanoTime();
+                        settledCounts[request] = get(url);
+                        latencies[request] = System.nanoTime() - requestStart;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future: futures) {
+                future.get();
+            }
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return new BatchQueryStatistics(latencies, settledCounts,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Send a GET request to the given URL and read the whole response.
+     * 
+     * @return Number of settled nodes reported by the server, or 0.
+     */
+    private static long get(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            if (connection.getResponseCode() != 200) {
+                throw new IOException(
+                        "Request " + url + " failed with code " + connection.getResponseCode());
+            }
+            byte[] buffer = new byte[8192];
+            try (InputStream stream = connection.getInputStream()) {
+                while (stream.read(buffer) >= 0) {
+                }
+            }
+            String settled = connection.getHeaderField(RoutingServer.SETTLED_NODES_HEADER);
+            return settled == null ? 0 : Long.parseLong(settled);
+        }
+        finally {
+            connection.disconnect();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length < 1 || args.length > 5) {
+            System.err.println("Usage: RoutingLoadGenerator path/to/map.mapgr [maxClients] "
+                    + "[requests] [profile] [algorithm]");
+            System.exit(1);
+        }
+
+        final int maxClients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        final int requests = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        final int profile = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        final String algorithm = args.length > 4 ? args[4] : RoutingServer.DEFAULT_ALGORITHM;
+
+        Graph graph = new BinaryGraphReader(
+                new DataInputStream(new BufferedInputStream(new FileInputStream(args[0]))))
+                        .read();
+
+        RoutingServer server = new RoutingServer(graph, 0);
+        server.start();
+        try {
+            RoutingLoadGenerator generator = new RoutingLoadGenerator(
+                    "http://localhost:" + server.getPort(), graph.size());
+
+            // Warm up the server (JIT, per-thread search states).
+            generator.run(maxClients, Math.min(requests, 100), profile, algorithm, 0);
+
+            for (int clients = 1; clients <= maxClients; clients *= 2) {
+                System.out.println(String.format("%3d clients: %s", clients,
+                        generator.run(clients, requests, profile, algorithm, clients)));
+            }
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+}
@@ -0,0 +1,447 @@
+package org.insa.base;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.insa.algo.AlgorithmFactory;
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.algo.shortestpath.ShortestPathAlgorithm;
+import org.insa.algo.shortestpath.ShortestPathCountingObserver;
+import org.insa.algo.shortestpath.ShortestPathData;
+import org.insa.algo.shortestpath.ShortestPathSolution;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.Path;
+import org.insa.graph.Point;
+import org.insa.graph.io.BinaryGraphReader;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Small HTTP routing service on top of the JDK HTTP server.
+ *
+ * The graph is loaded once and shared (read-only) by all requests. Each request
+ * is handled by its own virtual thread when the JVM provides them (Java 21 or
+ * later, looked up by reflection since the project targets Java 8), or by a
+ * cached pool of platform threads otherwise.
+ *
+ * Endpoints (all GET, JSON responses):
+ * <ul>
+ * <li><code>/route?from=&lt;id&gt;&amp;to=&lt;id&gt;&amp;profile=&lt;index&gt;&amp;algorithm=&lt;name&gt;</code>
+ * - shortest path between the given nodes, with its cost, node IDs and
+ * geometry. The profile is an index in
+ * {@link ArcInspectorFactory#getAllFilters()} (default 0), and the algorithm a
+ * shortest path algorithm registered in {@link AlgorithmFactory} (default
+ * {@link #DEFAULT_ALGORITHM}). The number of nodes settled by the query is
+ * returned in the {@link #SETTLED_NODES_HEADER} header.</li>
+ * <li><code>/profiles</code> - available profiles.</li>
+ * <li><code>/algorithms</code> - available algorithms.</li>
+ * </ul>
+ *
+ * Usage: <code>RoutingServer path/to/map.mapgr [port]</code>
+ *
+ */
+public class RoutingServer {
+
+    /**
+     * Algorithm used when a request does not specify one.
+     */
+    public static final String DEFAULT_ALGORITHM = "Dijkstra";
+
+    /**
+     * Response header containing the number of nodes settled by a route query.
+     */
+    public static final String SETTLED_NODES_HEADER = "X-Settled-Nodes";
+
+    /**
+     * Default port of the server.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    // Logger of failed requests.
+    private static final Logger LOGGER = Logger.getLogger(RoutingServer.class.getName());
+
+    /**
+     * Exception thrown for an invalid request, turned into a 400 response.
+     */
+    private static class BadRequestException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        public BadRequestException(String message) {
+            super(message);
+        }
+
+    }
+
+    // Graph and profiles.
+    private final Graph graph;
+    private final List<ArcInspector> profiles;
+
+    // Underlying HTTP server and executor.
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Create a new server for the given graph, listening on the given port. The
+     * server is not started.
+     * 
+     * @param graph Graph to route on.
+     * @param port Port to listen on, or 0 for an ephemeral port.
+     * 
+     * @throws IOException if the server cannot be created.
+     */
+    public RoutingServer(Graph graph, int port) throws IOException {
+        this.graph = graph;
+        this.profiles = ArcInspectorFactory.getAllFilters();
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = createExecutor();
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/route", (exchange) -> handle(exchange, this::route));
+        this.server.createContext("/profiles", (exchange) -> handle(exchange, this::profiles));
+        this.server.createContext("/algorithms",
+                (exchange) -> handle(exchange, this::algorithms));
+    }
+
+    /**
+     * @return An executor that runs each task in a new virtual thread if available,
+     *         or a cached pool of daemon threads otherwise.
+     */
+    static ExecutorService createExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool((task) -> {
+                Thread thread = new Thread(task, "routing-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Start the server.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop the server, waiting at most the given delay for the requests being
+     * handled.
+     * 
+     * @param delay Maximum delay, in seconds.
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return Port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Handler writing a JSON response for a request.
+     */
+    private interface JsonHandler {
+        public void handle(HttpExchange exchange, Map<String, String> parameters)
+                throws IOException, BadRequestException;
+    }
+
+    /**
+     * Handle the given exchange with the given handler, sending a 400 response
+     * (or 405 for a method other than GET) if the request is invalid, or a 500
+     * response if the handler fails. Failures of the handler are logged, since
+     * the response may already have started (and is then truncated).
+     */
+    private void handle(HttpExchange exchange, JsonHandler handler) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Only GET is supported.");
+                return;
+            }
+            Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            handler.handle(exchange, parameters);
+        }
+        catch (BadRequestException e) {
+            sendError(exchange, 400, e.getMessage());
+        }
+        catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to handle " + exchange.getRequestURI(), e);
+
+            // An error can only be sent if the response has not started yet.
+            if (exchange.getResponseCode() < 0) {
+                sendError(exchange, 500, e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Send an error response with the given code and message.
+     */
+    private static void sendError(HttpExchange exchange, int code, String message)
+            throws IOException {
+        byte[] body = ("{\"error\":" + quote(message) + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Start a chunked (streamed) 200 response and return a writer for its body.
+     */
+    private static Writer startResponse(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(200, 0);
+        return new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse the given raw query string.
+     */
+    private static Map<String, String> parseQuery(String query) throws BadRequestException {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        try {
+            for (String parameter: query.split("&")) {
+                int index = parameter.indexOf('=');
+                if (index < 0) {
+                    parameters.put(URLDecoder.decode(parameter, "UTF-8"), "");
+                }
+                else {
+                    parameters.put(URLDecoder.decode(parameter.substring(0, index), "UTF-8"),
+                            URLDecoder.decode(parameter.substring(index + 1), "UTF-8"));
+                }
+            }
+        }
+        catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            throw new BadRequestException("Malformed query string.");
+        }
+        return parameters;
+    }
+
+    /**
+     * @return Value of the given integer parameter, or the given default value if
+     *         the parameter is missing (or -1 if there is no default value).
+     */
+    private static int getInt(Map<String, String> parameters, String name, int defaultValue,
+            int bound) throws BadRequestException {
+        String value = parameters.get(name);
+        if (value == null) {
+            if (defaultValue < 0) {
+                throw new BadRequestException("Missing parameter: " + name + ".");
+            }
+            return defaultValue;
+        }
+        try {
+            int result = Integer.parseInt(value);
+            if (result < 0 || result >= bound) {
+                throw new BadRequestException("Parameter " + name + " out of range: " + value + ".");
+            }
+            return result;
+        }
+        catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid parameter " + name + ": " + value + ".");
+        }
+    }
+
+    /**
+     * Handle a route request.
+     */
+    @SuppressWarnings("unchecked")
+    private void route(HttpExchange exchange, Map<String, String> parameters)
+            throws IOException, BadRequestException {
+        final int from = getInt(parameters, "from", -1, graph.size());
+        final int to = getInt(parameters, "to", -1, graph.size());
+        final int profile = getInt(parameters, "profile", 0, profiles.size());
+        final String name = parameters.getOrDefault("algorithm", DEFAULT_ALGORITHM);
+        Class<? extends ShortestPathAlgorithm> algorithmClass = null;
+        if (AlgorithmFactory.getAlgorithmNames(ShortestPathAlgorithm.class).contains(name)) {
+            algorithmClass = (Class<? extends ShortestPathAlgorithm>) AlgorithmFactory
+                    .getAlgorithmClass(ShortestPathAlgorithm.class, name);
+        }
+        if (algorithmClass == null) {
+            throw new BadRequestException("Unknown algorithm: " + name + ".");
+        }
+
+        final ArcInspector inspector = profiles.get(profile);
+        final ShortestPathData data = new ShortestPathData(graph, graph.get(from), graph.get(to),
+                inspector);
+        ShortestPathSolution solution;
+        ShortestPathCountingObserver counter = new ShortestPathCountingObserver();
+        try {
+            ShortestPathAlgorithm algorithm = (ShortestPathAlgorithm) AlgorithmFactory
+                    .createAlgorithm(algorithmClass, data);
+            algorithm.addObserver(counter);
+            solution = algorithm.run();
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("Unable to run algorithm " + name + ".", e);
+        }
+
+        // A single-node path is found for identical nodes, even if the algorithm
+        // reports no path.
+        Path path = solution.getPath();
+        if (from == to) {
+            path = new Path(graph, graph.get(from));
+        }
+
+        exchange.getResponseHeaders().set(SETTLED_NODES_HEADER,
+                Integer.toString(counter.getMarkedCount()));
+        try (Writer writer = startResponse(exchange)) {
+            writer.write("{\"from\":" + from + ",\"to\":" + to + ",\"profile\":" + profile
+                    + ",\"algorithm\":" + quote(name) + ",\"status\":"
+                    + quote(path == null ? solution.getStatus().toString() : "OPTIMAL"));
+            if (path == null) {
+                writer.write("}");
+                return;
+            }
+            double cost = 0;
+            for (Arc arc: path.getArcs()) {
+                cost += inspector.getCost(arc);
+            }
+            writer.write(",\"cost\":" + cost + ",\"length\":" + path.getLength()
+                    + ",\"minimumTravelTime\":" + path.getMinimumTravelTime());
+
+            // Node IDs.
+            writer.write(",\"nodes\":[" + path.getOrigin().getId());
+            for (Arc arc: path.getArcs()) {
+                writer.write("," + arc.getDestination().getId());
+            }
+
+            // Geometry, as [longitude, latitude] pairs without consecutive
+            // duplicates.
+            writer.write("],\"geometry\":[");
+            Point last = path.getOrigin().getPoint();
+            writePoint(writer, last, true);
+            for (Arc arc: path.getArcs()) {
+                for (Point point: arc.getPoints()) {
+                    if (!samePoint(point, last)) {
+                        writePoint(writer, point, false);
+                        last = point;
+                    }
+                }
+                if (!samePoint(arc.getDestination().getPoint(), last)) {
+                    last = arc.getDestination().getPoint();
+                    writePoint(writer, last, false);
+                }
+            }
+            writer.write("]}");
+        }
+    }
+
+    /**
+     * Handle a profiles request.
+     */
+    private void profiles(HttpExchange exchange, Map<String, String> parameters)
+            throws IOException {
+        try (Writer writer = startResponse(exchange)) {
+            writer.write("[");
+            for (int i = 0; i < profiles.size(); ++i) {
+                writer.write((i > 0 ? "," : "") + "{\"profile\":" + i + ",\"name\":"
+                        + quote(profiles.get(i).toString()) + ",\"mode\":"
+                        + quote(profiles.get(i).getMode().toString()) + "}");
+            }
+            writer.write("]");
+        }
+    }
+
+    /**
+     * Handle an algorithms request.
+     */
+    private void algorithms(HttpExchange exchange, Map<String, String> parameters)
+            throws IOException {
+        try (Writer writer = startResponse(exchange)) {
+            writer.write("[");
+            boolean first = true;
+            for (String name: AlgorithmFactory.getAlgorithmNames(ShortestPathAlgorithm.class)) {
+                writer.write((first ? "" : ",") + quote(name));
+                first = false;
+            }
+            writer.write("]");
+        }
+    }
+
+    /**
+     * @return true if the given points have the same coordinates.
+     */
+    private static boolean samePoint(Point p1, Point p2) {
+        return p1.getLongitude() == p2.getLongitude() && p1.getLatitude() == p2.getLatitude();
+    }
+
+    /**
+     * Write the given point as a [longitude, latitude] pair.
+     */
+    private static void writePoint(Writer writer, Point point, boolean first) throws IOException {
+        writer.write((first ? "[" : ",[") + point.getLongitude() + "," + point.getLatitude() + "]");
+    }
+
+    /**
+     * @return The given string as a JSON string literal.
+     */
+    static String quote(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c: value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            }
+            else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: RoutingServer path/to/map.mapgr [port]");
+            System.exit(1);
+        }
+
+        Graph graph = new BinaryGraphReader(
+                new DataInputStream(new BufferedInputStream(new FileInputStream(args[0]))))
+                        .read();
+
+        RoutingServer server = new RoutingServer(graph,
+                args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT);
+        server.start();
+        System.out.println("Routing server for " + graph.getMapName() + " (" + graph.size()
+                + " nodes) listening on port " + server.getPort() + ".");
+    }
+
+}
@@ -0,0 +1,172 @@
+package org.insa.graph;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Numbering of the arcs of a graph, stored in flat arrays.
+ *
+ * The ID of an arc is its index in the outgoing arcs of all nodes, by
+ * increasing origin ID and in the order of the successors of each node (i.e.
+ * the same order as {@link CompactGraph}). The outgoing arcs of node
+ * <code>v</code> are the arcs whose ID is in [{@link #getFirstArc(int)
+ * getFirstArc(v)}, {@link #getEndArc(int) getEndArc(v)}[, and its incoming arcs
+ * are the arcs {@link #getIncomingArc(int) getIncomingArc(i)} for i in
+ * [{@link #getFirstIncomingArc(int) getFirstIncomingArc(v)},
+ * {@link #getEndIncomingArc(int) getEndIncomingArc(v)}[.
+ *
+ * The numbering does not depend on any arc inspector, so arrays indexed by arc
+ * ID can be used to store per-arc values (see
+ * {@link org.insa.algo.CompiledProfile}).
+ *
+ */
+public final class ArcNumbering {
+
+    // Numberings already built, released with their graph.
+    private static final Map<Graph, ArcNumbering> CACHE = new WeakHashMap<>();
+
+    /**
+     * Retrieve the numbering of the arcs of the given graph, building it on first
+     * use.
+     *
+     * @param graph Graph for which the numbering should be retrieved.
+     *
+     * @return Numbering of the arcs of the given graph.
+     */
+    public static ArcNumbering forGraph(Graph graph) {
+        synchronized (CACHE) {
+            return CACHE.computeIfAbsent(graph, ArcNumbering::new);
+        }
+    }
+
+    // ID of the first outgoing arc of each node (size: number of nodes + 1).
+    private final int[] firstArcs;
+
+    // Arcs, origin and destination of each arc.
+    private final Arc[] arcs;
+    private final int[] origins, destinations;
+
+    // Index of the first incoming arc of each node (size: number of nodes + 1),
+    // and IDs of incoming arcs.
+    private final int[] firstIncomingArcs, incomingArcs;
+
+    /**
+     * Build the numbering of the arcs of the given graph.
+     *
+     * @param graph Graph whose arcs should be numbered.
+     */
+    public ArcNumbering(Graph graph) {
+        final int nbNodes = graph.size();
+        this.firstArcs = new int[nbNodes + 1];
+        this.firstIncomingArcs = new int[nbNodes + 1];
+        for (Node node: graph) {
+            this.firstArcs[node.getId() + 1] = node.getNumberOfSuccessors();
+            for (Arc arc: node) {
+                this.firstIncomingArcs[arc.getDestination().getId() + 1] += 1;
+            }
+        }
+        for (int i = 0; i < nbNodes; ++i) {
+            this.firstArcs[i + 1] += this.firstArcs[i];
+            this.firstIncomingArcs[i + 1] += this.firstIncomingArcs[i];
+        }
+
+        final int nbArcs = this.firstArcs[nbNodes];
+        this.arcs = new Arc[nbArcs];
+        this.origins = new int[nbArcs];
+        this.destinations = new int[nbArcs];
+        this.incomingArcs = new int[nbArcs];
+        int[] nextIncoming = new int[nbNodes];
+        for (Node node: graph) {
+            int id = this.firstArcs[node.getId()];
+            for (Arc arc: node) {
+                int destination = arc.getDestination().getId();
+                this.arcs[id] = arc;
+                this.origins[id] = node.getId();
+                this.destinations[id] = destination;
+                this.incomingArcs[this.firstIncomingArcs[destination]
+                        + nextIncoming[destination]++] = id;
+                ++id;
+            }
+        }
+    }
+
+    /**
+     * @return Number of arcs.
+     */
+    public int getArcCount() {
+        return this.arcs.length;
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return ID of the first outgoing arc of the given node.
+     */
+    public int getFirstArc(int node) {
+        return this.firstArcs[node];
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return ID following the last outgoing arc of the given node.
+     */
+    public int getEndArc(int node) {
+        return this.firstArcs[node + 1];
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Index of the first incoming arc of the given node.
+     */
+    public int getFirstIncomingArc(int node) {
+        return this.firstIncomingArcs[node];
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Index following the last incoming arc of the given node.
+     */
+    public int getEndIncomingArc(int node) {
+        return this.firstIncomingArcs[node + 1];
+    }
+
+    /**
+     * @param index Index of an incoming arc.
+     *
+     * @return ID of the incoming arc at the given index.
+     */
+    public int getIncomingArc(int index) {
+        return this.incomingArcs[index];
+    }
+
+    /**
+     * @param id ID of an arc.
+     *
+     * @return Arc with the given ID.
+     */
+    public Arc getArc(int id) {
+        return this.arcs[id];
+    }
+
+    /**
+     * @param id ID of an arc.
+     *
+     * @return ID of the origin of the given arc.
+     */
+    public int getOrigin(int id) {
+        return this.origins[id];
+    }
+
+    /**
+     * @param id ID of an arc.
+     *
+     * @return ID of the destination of the given arc.
+     */
+    public int getDestination(int id) {
+        return this.destinations[id];
+    }
+
+}
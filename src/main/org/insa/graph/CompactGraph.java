@@ -0,0 +1,338 @@
+package org.insa.graph;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+/**
+ * Immutable compressed sparse row (CSR) representation of a graph.
+ *
+ * Contrary to {@link Graph}, this class does not hold any {@link Node} or
+ * {@link Arc} object: nodes are identified by their ID and arcs by their index
+ * in flat arrays. The outgoing arcs of node <code>i</code> are the arcs whose
+ * index is in [{@link #getFirstArc(int) getFirstArc(i)},
+ * {@link #getEndArc(int) getEndArc(i)}[, in the same order as the successors
+ * of the corresponding {@link Node} in the graph read from the same file.
+ *
+ * Arc geometry (segments) is not stored.
+ *
+ */
+public final class CompactGraph {
+
+    /**
+     * Build a compact representation of the given graph.
+     *
+     * @param graph Graph to convert.
+     *
+     * @return Compact graph equivalent to the given graph.
+     */
+    public static CompactGraph fromGraph(Graph graph) {
+        final int nbNodes = graph.size();
+
+        float[] longitudes = new float[nbNodes];
+        float[] latitudes = new float[nbNodes];
+        int[] firstArcs = new int[nbNodes + 1];
+
+        int nbArcs = 0;
+        for (Node node: graph) {
+            Point point = node.getPoint();
+            longitudes[node.getId()] = point == null ? Float.NaN : point.getLongitude();
+            latitudes[node.getId()] = point == null ? Float.NaN : point.getLatitude();
+            nbArcs += node.getNumberOfSuccessors();
+        }
+
+        int[] arcDestinations = new int[nbArcs];
+        float[] arcLengths = new float[nbArcs];
+        int[] arcRoadInformations = new int[nbArcs];
+
+        IdentityHashMap<RoadInformation, Integer> infoIndices = new IdentityHashMap<>();
+        int arc = 0;
+        for (int i = 0; i < nbNodes; ++i) {
+            firstArcs[i] = arc;
+            for (Arc a: graph.get(i)) {
+                Integer infoIndex = infoIndices.get(a.getRoadInformation());
+                if (infoIndex == null) {
+                    infoIndex = infoIndices.size();
+                    infoIndices.put(a.getRoadInformation(), infoIndex);
+                }
+                arcDestinations[arc] = a.getDestination().getId();
+                arcLengths[arc] = a.getLength();
+                arcRoadInformations[arc] = infoIndex;
+                ++arc;
+            }
+        }
+        firstArcs[nbNodes] = arc;
+
+        RoadInformation[] roadInformations = new RoadInformation[infoIndices.size()];
+        infoIndices.forEach((info, index) -> roadInformations[index] = info);
+
+        return new CompactGraph(graph.getMapId(), graph.getMapName(), longitudes, latitudes,
+                firstArcs, arcDestinations, arcLengths, arcRoadInformations, roadInformations,
+                graph.getGraphInformation());
+    }
+
+    // Map identifier and name.
+    private final String mapId, mapName;
+
+    // Position of the nodes.
+    private final float[] longitudes, latitudes;
+
+    // Index of the first outgoing arc of each node (size: number of nodes + 1).
+    private final int[] firstArcs;
+
+    // Destination, length (in meters) and road information index of each arc.
+    private final int[] arcDestinations;
+    private final float[] arcLengths;
+    private final int[] arcRoadInformations;
+
+    // Road informations, shared between arcs.
+    private final RoadInformation[] roadInformations;
+
+    // Graph information of this graph.
+    private final GraphStatistics graphStatistics;
+
+    /**
+     * Create a new compact graph from the given arrays. Arrays are not copied and
+     * must not be modified afterwards.
+     *
+     * @param mapId ID of the map corresponding to this graph.
+     * @param mapName Name of the map corresponding to this graph.
+     * @param longitudes Longitude of each node.
+     * @param latitudes Latitude of each node.
+     * @param firstArcs Index of the first outgoing arc of each node, followed by
+     *        the total number of arcs.
+     * @param arcDestinations Destination of each arc.
+     * @param arcLengths Length of each arc (in meters).
+     * @param arcRoadInformations Index (in roadInformations) of the road
+     *        information of each arc.
+     * @param roadInformations Road informations of the graph.
+     * @param graphStatistics Information for this graph.
+     */
+    public CompactGraph(String mapId, String mapName, float[] longitudes, float[] latitudes,
+            int[] firstArcs, int[] arcDestinations, float[] arcLengths, int[] arcRoadInformations,
+            RoadInformation[] roadInformations, GraphStatistics graphStatistics) {
+        this.mapId = mapId;
+        this.mapName = mapName;
+        this.longitudes = longitudes;
+        this.latitudes = latitudes;
+        this.firstArcs = firstArcs;
+        this.arcDestinations = arcDestinations;
+        this.arcLengths = arcLengths;
+        this.arcRoadInformations = arcRoadInformations;
+        this.roadInformations = roadInformations;
+        this.graphStatistics = graphStatistics;
+    }
+
+    /**
+     * @return ID of the map associated with this graph.
+     */
+    public String getMapId() {
+        return mapId;
+    }
+
+    /**
+     * @return Name of the map associated with this graph.
+     */
+    public String getMapName() {
+        return mapName;
+    }
+
+    /**
+     * @return The GraphStatistics instance associated with this graph.
+     */
+    public GraphStatistics getGraphInformation() {
+        return graphStatistics;
+    }
+
+    /**
+     * @return Number of nodes in this graph.
+     */
+    public int size() {
+        return this.longitudes.length;
+    }
+
+    /**
+     * @return Number of arcs in this graph.
+     */
+    public int getArcCount() {
+        return this.arcDestinations.length;
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Longitude of the given node (in degrees).
+     */
+    public float getLongitude(int node) {
+        return this.longitudes[node];
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Latitude of the given node (in degrees).
+     */
+    public float getLatitude(int node) {
+        return this.latitudes[node];
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Location of the given node (a new Point is created on each call).
+     */
+    public Point getPoint(int node) {
+        return new Point(this.longitudes[node], this.latitudes[node]);
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Index of the first outgoing arc of the given node.
+     */
+    public int getFirstArc(int node) {
+        return this.firstArcs[node];
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Index following the last outgoing arc of the given node.
+     */
+    public int getEndArc(int node) {
+        return this.firstArcs[node + 1];
+    }
+
+    /**
+     * @param node ID of a node.
+     *
+     * @return Number of outgoing arcs of the given node.
+     */
+    public int getNumberOfSuccessors(int node) {
+        return this.firstArcs[node + 1] - this.firstArcs[node];
+    }
+
+    /**
+     * Find the origin of an arc. Origins are not stored, so this requires a binary
+     * search.
+     *
+     * <p>
+     * <b>Complexity:</b> <i>O(log n)</i>
+     * </p>
+     *
+     * @param arc Index of an arc.
+     *
+     * @return ID of the origin of the given arc.
+     */
+    public int getArcOrigin(int arc) {
+        int index = Arrays.binarySearch(this.firstArcs, arc);
+        if (index < 0) {
+            return -index - 2;
+        }
+        // Skip nodes without successors.
+        while (this.firstArcs[index + 1] == arc) {
+            ++index;
+        }
+        return index;
+    }
+
+    /**
+     * @param arc Index of an arc.
+     *
+     * @return ID of the destination of the given arc.
+     */
+    public int getArcDestination(int arc) {
+        return this.arcDestinations[arc];
+    }
+
+    /**
+     * @param arc Index of an arc.
+     *
+     * @return Length of the given arc, in meters.
+     */
+    public float getArcLength(int arc) {
+        return this.arcLengths[arc];
+    }
+
+    /**
+     * @param arc Index of an arc.
+     *
+     * @return Index of the road information of the given arc.
+     *
+     * @see #getRoadInformation(int)
+     */
+    public int getArcRoadInformationIndex(int arc) {
+        return this.arcRoadInformations[arc];
+    }
+
+    /**
+     * @param arc Index of an arc.
+     *
+     * @return Road information of the given arc.
+     */
+    public RoadInformation getArcRoadInformation(int arc) {
+        return this.roadInformations[this.arcRoadInformations[arc]];
+    }
+
+    /**
+     * @param arc Index of an arc.
+     *
+     * @return Time (in seconds) required to travel the given arc at the maximum
+     *         speed allowed.
+     *
+     * @see Arc#getMinimumTravelTime()
+     */
+    public double getArcMinimumTravelTime(int arc) {
+        return this.arcLengths[arc] * 3600.0
+                / (getArcRoadInformation(arc).getMaximumSpeed() * 1000.0);
+    }
+
+    /**
+     * @return Number of distinct road informations in this graph.
+     */
+    public int getRoadInformationCount() {
+        return this.roadInformations.length;
+    }
+
+    /**
+     * @param index Index of a road information.
+     *
+     * @return Road information at the given index.
+     */
+    public RoadInformation getRoadInformation(int index) {
+        return this.roadInformations[index];
+    }
+
+    /**
+     * Retrieve the {@link Arc} object corresponding to the given arc in the given
+     * graph. The graph must be the one this compact graph has been built from, or
+     * a graph read from the same file.
+     *
+     * <p>
+     * <b>Complexity:</b> <i>O(log n + d)</i> where d is the degree of the origin.
+     * </p>
+     *
+     * @param graph Graph containing the arc.
+     * @param arc Index of the arc.
+     *
+     * @return Arc corresponding to the given index in the given graph.
+     */
+    public Arc getArc(Graph graph, int arc) {
+        int origin = getArcOrigin(arc);
+        Iterator<Arc> successors = graph.get(origin).iterator();
+        for (int i = this.firstArcs[origin]; i < arc; ++i) {
+            successors.next();
+        }
+        return successors.next();
+    }
+
+    /**
+     * @return Approximate number of bytes used by the arrays of this graph.
+     */
+    public long getMemoryUsage() {
+        return 4L * (this.longitudes.length + this.latitudes.length + this.firstArcs.length
+                + this.arcDestinations.length + this.arcLengths.length
+                + this.arcRoadInformations.length) + 8L * this.roadInformations.length;
+    }
+
+}
@@ -0,0 +1,229 @@
+package org.insa.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.insa.graph.GraphStatistics.BoundingBox;
+
+/**
+ * Extraction of the part of a graph inside a region (bounding box or polygon),
+ * e.g. to route inside a single city without loading a whole regional map.
+ *
+ * The extracted graph contains the nodes inside the region, renumbered from 0
+ * in the order of the parent graph, and the arcs between them. Road information
+ * and arc geometries are shared with the parent graph. Optionally, only the
+ * largest strongly connected component of the extracted part is kept, so that
+ * every node can reach every other one.
+ *
+ */
+public class GraphExtractor {
+
+    // Maximum length of the part of the parent map ID kept in the ID of an
+    // extracted graph, so that it fits in the 32 bytes of a binary graph file.
+    private static final int MAX_PARENT_ID_LENGTH = 22;
+
+    /**
+     * @param parentId Map ID of the parent graph.
+     * @param parentIds IDs in the parent graph of the extracted nodes.
+     * 
+     * @return Map ID of the graph made of the given nodes, different from the ID
+     *         of the parent graph and from the ID of other extracts (unless their
+     *         hash collides), so that files computed for the parent graph are not
+     *         used for the extracted graph.
+     */
+    static String getExtractMapId(String parentId, int[] parentIds) {
+        return (parentId.length() > MAX_PARENT_ID_LENGTH
+                ? parentId.substring(0, MAX_PARENT_ID_LENGTH)
+                : parentId) + String.format("/x%08x", Arrays.hashCode(parentIds));
+    }
+
+    // Graph to extract from.
+    private final Graph graph;
+
+    // true to keep only the largest strongly connected component.
+    private boolean largestComponentOnly = false;
+
+    /**
+     * Create a new extractor for the given graph.
+     * 
+     * @param graph Graph to extract from.
+     */
+    public GraphExtractor(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * @return Graph to extract from.
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return true if only the largest strongly connected component of the
+     *         extracted part is kept.
+     */
+    public boolean isLargestComponentOnly() {
+        return largestComponentOnly;
+    }
+
+    /**
+     * @param largestComponentOnly true to keep only the largest strongly
+     *        connected component of the extracted part (following all arcs).
+     */
+    public void setLargestComponentOnly(boolean largestComponentOnly) {
+        this.largestComponentOnly = largestComponentOnly;
+    }
+
+    /**
+     * Extract the part of the graph inside the given box.
+     * 
+     * @param box Box to extract.
+     * 
+     * @return The extracted subgraph.
+     */
+    public Subgraph extract(BoundingBox box) {
+        return extract((node) -> box.contains(node.getPoint()));
+    }
+
+    /**
+     * Extract the part of the graph inside the given polygon.
+     * 
+     * @param polygon Vertices of the polygon (the last one is linked to the first
+     *        one).
+     * 
+     * @return The extracted subgraph.
+     */
+    public Subgraph extract(List<Point> polygon) {
+        final int nbVertices = polygon.size();
+        final float[] longitudes = new float[nbVertices], latitudes = new float[nbVertices];
+        for (int i = 0; i < nbVertices; ++i) {
+            longitudes[i] = polygon.get(i).getLongitude();
+            latitudes[i] = polygon.get(i).getLatitude();
+        }
+        return extract((node) -> contains(longitudes, latitudes, node.getPoint()));
+    }
+
+    /**
+     * @return true if the given point is inside the given polygon (even-odd rule).
+     */
+    private static boolean contains(float[] longitudes, float[] latitudes, Point point) {
+        final double x = point.getLongitude(), y = point.getLatitude();
+        boolean inside = false;
+        for (int i = 0, j = longitudes.length - 1; i < longitudes.length; j = i++) {
+            if ((latitudes[i] > y) != (latitudes[j] > y) && x < longitudes[i]
+                    + (y - latitudes[i]) * (longitudes[j] - longitudes[i])
+                            / (latitudes[j] - latitudes[i])) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Extract the nodes accepted by the given filter.
+     * 
+     * @param filter Filter of the nodes to extract.
+     * 
+     * @return The extracted subgraph.
+     */
+    public Subgraph extract(Predicate<Node> filter) {
+        BitSet kept = new BitSet(graph.size());
+        for (Node node: graph) {
+            if (filter.test(node)) {
+                kept.set(node.getId());
+            }
+        }
+
+        if (largestComponentOnly) {
+            ArcNumbering numbering = ArcNumbering.forGraph(graph);
+            StronglyConnectedComponents components = new StronglyConnectedComponents(graph,
+                    (arc) -> kept.get(numbering.getOrigin(arc))
+                            && kept.get(numbering.getDestination(arc)));
+            final int largest = components.getLargestComponent();
+            for (int node = kept.nextSetBit(0); node >= 0; node = kept.nextSetBit(node + 1)) {
+                if (components.getComponent(node) != largest) {
+                    kept.clear(node);
+                }
+            }
+        }
+
+        return build(kept);
+    }
+
+    /**
+     * Build the subgraph made of the given nodes.
+     */
+    private Subgraph build(BitSet kept) {
+        // Nodes, and IDs in the parent graph and in the subgraph.
+        final int nbNodes = kept.cardinality();
+        final int[] parentIds = new int[nbNodes];
+        final int[] ids = new int[graph.size()];
+        final List<Node> nodes = new ArrayList<>(nbNodes);
+        float minLongitude = Float.POSITIVE_INFINITY, minLatitude = Float.POSITIVE_INFINITY,
+                maxLongitude = Float.NEGATIVE_INFINITY, maxLatitude = Float.NEGATIVE_INFINITY;
+        for (int node = kept.nextSetBit(0), id = 0; node >= 0; node = kept.nextSetBit(node + 1), ++id) {
+            final Point point = graph.get(node).getPoint();
+            parentIds[id] = node;
+            ids[node] = id;
+            nodes.add(new Node(id, point));
+            minLongitude = Math.min(point.getLongitude(), minLongitude);
+            minLatitude = Math.min(point.getLatitude(), minLatitude);
+            maxLongitude = Math.max(point.getLongitude(), maxLongitude);
+            maxLatitude = Math.max(point.getLatitude(), maxLatitude);
+        }
+
+        // Roads between kept nodes. Two-way roads are linked once, from the end
+        // with the smallest ID (the order of IDs is kept, so is the direction of
+        // arcs), and two-way loops come in pairs of which only the first one is
+        // linked.
+        int nbOneWay = 0, nbTwoWays = 0, maxSpeed = 0;
+        float maxLength = 0;
+        for (int id = 0; id < nbNodes; ++id) {
+            final Node origin = nodes.get(id);
+            int loops = 0;
+            for (Arc arc: graph.get(parentIds[id])) {
+                final int destination = arc.getDestination().getId();
+                if (!kept.get(destination)) {
+                    continue;
+                }
+                final RoadInformation info = arc.getRoadInformation();
+                List<Point> points = arc.getPoints();
+                if (!info.isOneWay()) {
+                    if (destination == parentIds[id]) {
+                        if (loops++ % 2 != 0) {
+                            continue;
+                        }
+                        // Loops have their points reversed when linked.
+                        points = new ArrayList<>(points);
+                    }
+                    else if (destination < parentIds[id]) {
+                        continue;
+                    }
+                }
+                Node.linkNodes(origin, nodes.get(ids[destination]), arc.getLength(), info,
+                        points);
+                if (info.isOneWay()) {
+                    ++nbOneWay;
+                }
+                else {
+                    ++nbTwoWays;
+                }
+                maxSpeed = Math.max(maxSpeed, info.getMaximumSpeed());
+                maxLength = Math.max(maxLength, arc.getLength());
+            }
+        }
+
+        BoundingBox box = nbNodes == 0 ? null
+                : new BoundingBox(new Point(minLongitude, maxLatitude),
+                        new Point(maxLongitude, minLatitude));
+        Graph subgraph = new Graph(getExtractMapId(graph.getMapId(), parentIds),
+                graph.getMapName() + " (extract)", nodes,
+                new GraphStatistics(box, nbOneWay, nbTwoWays, maxSpeed, maxLength));
+        return new Subgraph(graph, subgraph, parentIds);
+    }
+
+}
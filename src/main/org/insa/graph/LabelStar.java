@@ -1,19 +1,14 @@
 package org.insa.graph;
 
-import org.insa.algo.AbstractInputData.Mode;
-import org.insa.algo.shortestpath.ShortestPathData;
-
 public class LabelStar extends Label implements Comparable<Label> {
 
+	// Estimated cost from the node to the destination, already converted to the
+	// unit of the cost (computed once per query, see GreatCircleHeuristic).
 	private double costVol;
-	private static ShortestPathData data;
 	
 	@Override
 	public double getTotalCost() {
-		if (this.data.getMode() == Mode.LENGTH)
-			return costVol + super.getCost();
-		else
-			return (costVol + super.getCost())/(data.getGraph().getGraphInformation().getMaximumSpeed()/3.6);
+		return super.getCost() + costVol;
 	}
 
 	public void setCostVol(double costVol) {
@@ -24,10 +19,9 @@ public class LabelStar extends Label implements Comparable<Label> {
 		return costVol;
 	}
 
-	public LabelStar(int id, ShortestPathData data) {
+	public LabelStar(int id, double costVol) {
 		super(id);
-		this.costVol = 0;
-		this.data = data;
+		this.costVol = costVol;
 	}
 
 }
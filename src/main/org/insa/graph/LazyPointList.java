@@ -0,0 +1,85 @@
+package org.insa.graph;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of points whose content is only computed when it is accessed,
+ * e.g. geometry of an arc that is decoded on demand from a file.
+ *
+ * Since these lists cannot be reversed in place, {@link #reverse()} is used by
+ * {@link Node#linkNodes(Node, Node, float, RoadInformation, List)} to obtain
+ * the reversed geometry of two-ways roads.
+ *
+ */
+public abstract class LazyPointList extends AbstractList<Point> implements RandomAccess {
+
+    // true if the points are iterated in reverse order.
+    private final boolean reversed;
+
+    /**
+     * Create a new lazy list.
+     *
+     * @param reversed true if this list contains the loaded points in reverse
+     *        order.
+     */
+    protected LazyPointList(boolean reversed) {
+        this.reversed = reversed;
+    }
+
+    /**
+     * @return true if this list contains the loaded points in reverse order.
+     */
+    public boolean isReversed() {
+        return reversed;
+    }
+
+    /**
+     * Load the points of this list, in the original (not reversed) order. This
+     * method is called on each access, so implementations are responsible for
+     * caching the result if needed.
+     *
+     * @return The points of this list.
+     */
+    protected abstract List<Point> load();
+
+    /**
+     * @return A new list containing the same points as this list in reverse
+     *         order.
+     */
+    public abstract LazyPointList reverse();
+
+    /**
+     * @return The points of this list, loaded once, in the order of this list.
+     */
+    private List<Point> points() {
+        List<Point> points = load();
+        if (reversed) {
+            points = new ArrayList<>(points);
+            Collections.reverse(points);
+        }
+        return Collections.unmodifiableList(points);
+    }
+
+    @Override
+    public Point get(int index) {
+        List<Point> points = load();
+        return reversed ? points.get(points.size() - 1 - index) : points.get(index);
+    }
+
+    @Override
+    public Iterator<Point> iterator() {
+        return points().iterator();
+    }
+
+    @Override
+    public ListIterator<Point> listIterator(int index) {
+        return points().listIterator(index);
+    }
+
+}
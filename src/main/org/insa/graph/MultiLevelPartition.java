@@ -0,0 +1,214 @@
+package org.insa.graph;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Nested partition of the nodes of a graph into cells, on several levels.
+ *
+ * The partition only depends on the position of nodes, so it can be shared by
+ * all arc inspectors (metric-independent). Nodes are recursively split in two
+ * halves along the longest side (longitude or latitude) of their bounding box,
+ * until the halves contain at most a given number of nodes. The leaves of this
+ * bisection are the cells of level 1, and each cell of level l + 1 is the union
+ * of 2<sup>b</sup> consecutive cells of level l, where b is the number of
+ * bisection steps per level. The highest level has at least two cells, unless
+ * the graph is small enough to fit in a single cell.
+ *
+ * The nodes of each cell are contiguous in the order returned by
+ * {@link #getNode(int)}: the nodes of cell c at level l are the nodes at
+ * indices in [{@link #getFirstNode(int, int) getFirstNode(l, c)},
+ * {@link #getEndNode(int, int) getEndNode(l, c)}[.
+ *
+ */
+public final class MultiLevelPartition {
+
+    /**
+     * Default maximum number of nodes in a cell of level 1.
+     */
+    public static final int DEFAULT_MAXIMUM_CELL_SIZE = 128;
+
+    /**
+     * Default number of bisection steps between two consecutive levels, i.e.
+     * each cell is split in 2<sup>4</sup> = 16 cells on the level below.
+     */
+    public static final int DEFAULT_STEPS_PER_LEVEL = 4;
+
+    // Partitions already built with the default parameters, released with their
+    // graph.
+    private static final Map<Graph, MultiLevelPartition> CACHE = new WeakHashMap<>();
+
+    /**
+     * Retrieve the partition of the given graph with the default parameters,
+     * building it on first use.
+     *
+     * @param graph Graph for which the partition should be retrieved.
+     *
+     * @return Partition of the given graph.
+     */
+    public static MultiLevelPartition forGraph(Graph graph) {
+        synchronized (CACHE) {
+            return CACHE.computeIfAbsent(graph, (g) -> new MultiLevelPartition(g,
+                    DEFAULT_MAXIMUM_CELL_SIZE, DEFAULT_STEPS_PER_LEVEL));
+        }
+    }
+
+    // Nodes, in bisection order.
+    private final int[] nodes;
+
+    // Cell of level 1 of each node.
+    private final int[] leafCells;
+
+    // Number of bisection steps between two consecutive levels.
+    private final int stepsPerLevel;
+
+    // Number of levels.
+    private final int nbLevels;
+
+    // Index (in nodes) of the first node of each cell of level 1, the last entry
+    // is the number of nodes.
+    private final int[] firstNodes;
+
+    /**
+     * Build the partition of the given graph.
+     *
+     * @param graph Graph to partition.
+     * @param maximumCellSize Maximum number of nodes in a cell of level 1.
+     * @param stepsPerLevel Number of bisection steps between two consecutive
+     *        levels.
+     *
+     * @throws IllegalArgumentException if one of the parameters is not positive.
+     */
+    public MultiLevelPartition(Graph graph, int maximumCellSize, int stepsPerLevel) {
+        if (maximumCellSize < 1 || stepsPerLevel < 1) {
+            throw new IllegalArgumentException("Invalid partition parameters.");
+        }
+        final int nbNodes = graph.size();
+
+        // Number of bisection steps required to reach the maximum cell size.
+        int depth = 0;
+        while (((long) maximumCellSize << depth) < nbNodes) {
+            ++depth;
+        }
+        this.stepsPerLevel = stepsPerLevel;
+        this.nbLevels = Math.max(1, (depth + stepsPerLevel - 1) / stepsPerLevel);
+
+        Integer[] order = new Integer[nbNodes];
+        for (int i = 0; i < nbNodes; ++i) {
+            order[i] = i;
+        }
+        final int nbLeaves = 1 << depth;
+        this.firstNodes = new int[nbLeaves + 1];
+        bisect(graph, order, 0, nbNodes, depth, 0);
+        this.firstNodes[nbLeaves] = nbNodes;
+
+        this.nodes = new int[nbNodes];
+        this.leafCells = new int[nbNodes];
+        for (int leaf = 0; leaf < nbLeaves; ++leaf) {
+            for (int i = this.firstNodes[leaf]; i < this.firstNodes[leaf + 1]; ++i) {
+                this.nodes[i] = order[i];
+                this.leafCells[order[i]] = leaf;
+            }
+        }
+    }
+
+    /**
+     * Split the nodes in order[from, to[ in two halves, recursively, and record
+     * the index of the first node of each leaf.
+     */
+    private void bisect(Graph graph, Integer[] order, int from, int to, int depth, int leaf) {
+        if (depth == 0) {
+            this.firstNodes[leaf] = from;
+            return;
+        }
+        float minLon = Float.POSITIVE_INFINITY, maxLon = Float.NEGATIVE_INFINITY;
+        float minLat = Float.POSITIVE_INFINITY, maxLat = Float.NEGATIVE_INFINITY;
+        for (int i = from; i < to; ++i) {
+            Point point = graph.get(order[i]).getPoint();
+            minLon = Math.min(minLon, point.getLongitude());
+            maxLon = Math.max(maxLon, point.getLongitude());
+            minLat = Math.min(minLat, point.getLatitude());
+            maxLat = Math.max(maxLat, point.getLatitude());
+        }
+        Comparator<Integer> comparator = maxLon - minLon >= maxLat - minLat
+                ? Comparator.comparingDouble((node) -> graph.get(node).getPoint().getLongitude())
+                : Comparator.comparingDouble((node) -> graph.get(node).getPoint().getLatitude());
+        Arrays.sort(order, from, to, comparator);
+
+        int middle = (from + to) >>> 1;
+        bisect(graph, order, from, middle, depth - 1, leaf << 1);
+        bisect(graph, order, middle, to, depth - 1, (leaf << 1) | 1);
+    }
+
+    /**
+     * @return Number of levels of this partition.
+     */
+    public int getLevelCount() {
+        return nbLevels;
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     *
+     * @return Number of cells of the given level.
+     */
+    public int getCellCount(int level) {
+        return ((this.firstNodes.length - 2) >> shift(level)) + 1;
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     * @param node ID of a node.
+     *
+     * @return Cell of the given node at the given level.
+     */
+    public int getCell(int level, int node) {
+        return this.leafCells[node] >> shift(level);
+    }
+
+    /**
+     * @return Number of nodes of the partitioned graph.
+     */
+    public int size() {
+        return this.nodes.length;
+    }
+
+    /**
+     * @param index Index of a node in bisection order.
+     *
+     * @return ID of the node at the given index.
+     */
+    public int getNode(int index) {
+        return this.nodes[index];
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     * @param cell Cell of the given level.
+     *
+     * @return Index of the first node of the given cell.
+     */
+    public int getFirstNode(int level, int cell) {
+        return this.firstNodes[cell << shift(level)];
+    }
+
+    /**
+     * @param level Level, between 1 and {@link #getLevelCount()}.
+     * @param cell Cell of the given level.
+     *
+     * @return Index following the last node of the given cell.
+     */
+    public int getEndNode(int level, int cell) {
+        return this.firstNodes[Math.min((cell + 1) << shift(level), this.firstNodes.length - 1)];
+    }
+
+    /**
+     * @return Number of bisection steps between level 1 and the given level.
+     */
+    private int shift(int level) {
+        return (level - 1) * this.stepsPerLevel;
+    }
+
+}
@@ -3,6 +3,7 @@ package org.insa.graph;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * Class representing a Node in a {@link Graph}.
@@ -23,6 +24,9 @@ public final class Node implements Comparable<Node>, Iterable<Arc> {
      * (origin to destination) and added to origin. Otherwise, a corresponding
      * backward arc is created and add to destination.
      * 
+     * The given points are reversed in place if needed, except for
+     * {@link LazyPointList} which are replaced by their reversed view.
+     * 
      * @param origin Origin of the arc.
      * @param destination Destination of the arc.
      * @param length Length of the arc.
@@ -32,7 +36,7 @@ public final class Node implements Comparable<Node>, Iterable<Arc> {
      * @return The newly created forward arc (origin to destination).
      */
     public static Arc linkNodes(Node origin, Node destination, float length,
-            RoadInformation roadInformation, ArrayList<Point> points) {
+            RoadInformation roadInformation, List<Point> points) {
         Arc arc = null;
         if (roadInformation.isOneWay()) {
             arc = new ArcForward(origin, destination, length, roadInformation, points);
@@ -45,7 +49,12 @@ public final class Node implements Comparable<Node>, Iterable<Arc> {
                 d2o = new ArcBackward(arc);
             }
             else {
-                Collections.reverse(points);
+                if (points instanceof LazyPointList) {
+                    points = ((LazyPointList) points).reverse();
+                }
+                else {
+                    Collections.reverse(points);
+                }
                 d2o = new ArcForward(destination, origin, length, roadInformation, points);
                 arc = new ArcBackward(d2o);
             }
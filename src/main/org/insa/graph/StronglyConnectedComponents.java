@@ -0,0 +1,173 @@
+package org.insa.graph;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Strongly connected components of a graph, computed with an iterative
+ * (non-recursive) version of Tarjan's algorithm, so that large graphs do not
+ * overflow the call stack.
+ *
+ * Only the arcs accepted by a filter (on arc IDs, see {@link ArcNumbering}) are
+ * followed. Components are numbered from 0 in the order Tarjan's algorithm
+ * completes them, i.e. in reverse topological order of the condensed graph: if
+ * an arc goes from component a to component b, then a &gt; b.
+ *
+ */
+public final class StronglyConnectedComponents {
+
+    // Number of components (the graph itself is not referenced, so that cached
+    // components do not keep it out of the caches).
+    private final int nbComponents;
+
+    // Component of each node and size of each component.
+    private final int[] components;
+    private final int[] sizes;
+
+    /**
+     * Compute the strongly connected components of the given graph, following all
+     * its arcs.
+     * 
+     * @param graph Graph whose components should be computed.
+     */
+    public StronglyConnectedComponents(Graph graph) {
+        this(graph, (arc) -> true);
+    }
+
+    /**
+     * Compute the strongly connected components of the given graph, following
+     * only the arcs accepted by the given filter.
+     * 
+     * @param graph Graph whose components should be computed.
+     * @param arcFilter Filter of the arcs to follow (by arc ID).
+     */
+    public StronglyConnectedComponents(Graph graph, IntPredicate arcFilter) {
+        final ArcNumbering numbering = ArcNumbering.forGraph(graph);
+        final int nbNodes = graph.size();
+        this.components = new int[nbNodes];
+
+        // Discovery index (0 for unvisited nodes) and lowest index reachable of each
+        // node, and stack of visited nodes not assigned to a component yet.
+        int[] indices = new int[nbNodes], lows = new int[nbNodes];
+        int[] stack = new int[nbNodes];
+        int stackSize = 0;
+        boolean[] onStack = new boolean[nbNodes];
+
+        // Explicit call stack: node and next arc to follow of each call.
+        int[] callNodes = new int[nbNodes], callArcs = new int[nbNodes];
+        int[] sizes = new int[16];
+
+        int nextIndex = 1, nbComponents = 0;
+        for (int root = 0; root < nbNodes; ++root) {
+            if (indices[root] != 0) {
+                continue;
+            }
+            int depth = 0;
+            callNodes[0] = root;
+            callArcs[0] = numbering.getFirstArc(root);
+            indices[root] = lows[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth >= 0) {
+                final int node = callNodes[depth];
+                final int end = numbering.getEndArc(node);
+
+                // Follow the next arcs until an unvisited node is found.
+                int arc = callArcs[depth];
+                int next = -1;
+                for (; arc < end; ++arc) {
+                    if (!arcFilter.test(arc)) {
+                        continue;
+                    }
+                    final int destination = numbering.getDestination(arc);
+                    if (indices[destination] == 0) {
+                        next = destination;
+                        ++arc;
+                        break;
+                    }
+                    if (onStack[destination]) {
+                        lows[node] = Math.min(lows[node], indices[destination]);
+                    }
+                }
+                callArcs[depth] = arc;
+
+                if (next >= 0) {
+                    // Visit the next node.
+                    ++depth;
+                    callNodes[depth] = next;
+                    callArcs[depth] = numbering.getFirstArc(next);
+                    indices[next] = lows[next] = nextIndex++;
+                    stack[stackSize++] = next;
+                    onStack[next] = true;
+                    continue;
+                }
+
+                // All arcs followed, pop the component if the node is its root.
+                if (lows[node] == indices[node]) {
+                    if (nbComponents == sizes.length) {
+                        sizes = Arrays.copyOf(sizes, 2 * nbComponents);
+                    }
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        components[member] = nbComponents;
+                        sizes[nbComponents] += 1;
+                    }
+                    while (member != node);
+                    ++nbComponents;
+                }
+
+                // Return to the parent call.
+                --depth;
+                if (depth >= 0) {
+                    final int parent = callNodes[depth];
+                    lows[parent] = Math.min(lows[parent], lows[node]);
+                }
+            }
+        }
+        this.nbComponents = nbComponents;
+        this.sizes = Arrays.copyOf(sizes, nbComponents);
+    }
+
+    /**
+     * @return Number of components.
+     */
+    public int getComponentCount() {
+        return nbComponents;
+    }
+
+    /**
+     * @param node ID of a node.
+     * 
+     * @return Component of the given node.
+     */
+    public int getComponent(int node) {
+        return components[node];
+    }
+
+    /**
+     * @param component A component.
+     * 
+     * @return Number of nodes of the given component.
+     */
+    public int getComponentSize(int component) {
+        return sizes[component];
+    }
+
+    /**
+     * @return Component with the most nodes (the first one in case of tie), or -1
+     *         if the graph is empty.
+     */
+    public int getLargestComponent() {
+        int largest = -1;
+        for (int component = 0; component < nbComponents; ++component) {
+            if (largest < 0 || sizes[component] > sizes[largest]) {
+                largest = component;
+            }
+        }
+        return largest;
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.insa.graph;
+
+import java.util.Arrays;
+
+/**
+ * Graph extracted from a parent graph (see {@link GraphExtractor}), with the
+ * mapping between its nodes and the nodes of the parent graph.
+ *
+ * Nodes of the subgraph keep the order of the parent graph: node i of the
+ * subgraph corresponds to the i-th kept node of the parent graph.
+ *
+ */
+public class Subgraph {
+
+    // Parent graph and extracted graph.
+    private final Graph parent;
+    private final Graph graph;
+
+    // ID in the parent graph of each node (increasing).
+    private final int[] parentIds;
+
+    /**
+     * Create a new subgraph.
+     * 
+     * @param parent Parent graph.
+     * @param graph Extracted graph.
+     * @param parentIds ID in the parent graph of each node of the extracted graph,
+     *        by increasing ID.
+     */
+    public Subgraph(Graph parent, Graph graph, int[] parentIds) {
+        this.parent = parent;
+        this.graph = graph;
+        this.parentIds = parentIds;
+    }
+
+    /**
+     * @return Parent graph.
+     */
+    public Graph getParent() {
+        return parent;
+    }
+
+    /**
+     * @return Extracted graph.
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return Number of nodes of the extracted graph.
+     */
+    public int size() {
+        return parentIds.length;
+    }
+
+    /**
+     * @param id ID of a node of the extracted graph.
+     * 
+     * @return ID of the corresponding node in the parent graph.
+     */
+    public int getParentId(int id) {
+        return parentIds[id];
+    }
+
+    /**
+     * @param node Node of the extracted graph.
+     * 
+     * @return Corresponding node of the parent graph.
+     */
+    public Node getParentNode(Node node) {
+        return parent.get(parentIds[node.getId()]);
+    }
+
+    /**
+     * @param parentId ID of a node of the parent graph.
+     * 
+     * @return ID of the corresponding node in the extracted graph, or -1 if the
+     *         node has not been extracted.
+     */
+    public int getId(int parentId) {
+        final int id = Arrays.binarySearch(parentIds, parentId);
+        return id >= 0 ? id : -1;
+    }
+
+    /**
+     * @param parentNode Node of the parent graph.
+     * 
+     * @return Corresponding node of the extracted graph, or null if the node has
+     *         not been extracted.
+     */
+    public Node getNode(Node parentNode) {
+        final int id = getId(parentNode.getId());
+        return id >= 0 ? graph.get(id) : null;
+    }
+
+    /**
+     * @return Copy of the IDs in the parent graph of the nodes of the extracted
+     *         graph (by ID in the extracted graph).
+     */
+    public int[] getParentIds() {
+        return parentIds.clone();
+    }
+
+}
@@ -0,0 +1,576 @@
+package org.insa.graph.generator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.AccessRestrictions.AccessMode;
+import org.insa.graph.AccessRestrictions.AccessRestriction;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.GraphStatistics.BoundingBox;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.insa.graph.io.BinaryGraphWriter;
+
+/**
+ * Deterministic generator of synthetic road networks, to test scaling, memory
+ * usage and load times without map files.
+ *
+ * Nodes are placed on a jittered square grid (about 100 meters between
+ * neighbours) and linked to their horizontal and vertical neighbours. Roads
+ * follow a hierarchy based on their row or column: one line out of 256 is a
+ * motorway, one out of 64 a primary road, one out of 16 a secondary road and
+ * one out of 4 a tertiary road. Other roads are residential, unclassified,
+ * service roads or living streets, and a fraction of them is removed (see
+ * {@link #setRemovalRatio(double)}), which gives dead ends and nodes of degree
+ * 2 and 3 as in real networks. Tertiary and minor roads may be one-way (see
+ * {@link #setOneWayRatio(double)}), and some roads have intermediate points
+ * (see {@link #setCurveRatio(double)}).
+ *
+ * Every property of a node or of a road is derived from the seed and the ID of
+ * the node, so the network can either be built in memory ({@link #generate()})
+ * or streamed to the binary format read by
+ * {@link org.insa.graph.io.BinaryGraphReader} ({@link #write(DataOutputStream)})
+ * without keeping anything in memory. Reading a written network gives the same
+ * graph as {@link #generate()}.
+ *
+ * Usage: <code>RoadNetworkGenerator nodeCount seed output.mapgr</code>
+ *
+ */
+public class RoadNetworkGenerator {
+
+    /**
+     * Maximum number of nodes of a network written in binary format (node IDs are
+     * stored on 24 bits).
+     */
+    public static final int MAX_WRITTEN_NODE_COUNT = 1 << 24;
+
+    // Magic number and length of the map ID of the binary format.
+    private static final int MAGIC_NUMBER = 0x208BC3B3;
+    private static final int MAP_ID_FIELD_LENGTH = 32;
+
+    // Origin of the grid and spacing between nodes (in degrees).
+    private static final double LONGITUDE = 1.0, LATITUDE = 43.0, SPACING = 0.001;
+
+    // Road types, with their speed. The first types are the main roads (see
+    // roadClass), the last ones the minor roads.
+    private static final RoadType[] TYPES = { RoadType.MOTORWAY, RoadType.PRIMARY,
+            RoadType.SECONDARY, RoadType.TERTIARY, RoadType.RESIDENTIAL, RoadType.UNCLASSIFIED,
+            RoadType.SERVICE, RoadType.LIVING_STREET };
+    private static final int[] SPEEDS = { 130, 90, 70, 50, 50, 50, 30, 20 };
+    private static final int TERTIARY = 3, MINOR = 4;
+
+    // Cumulative probabilities of the minor road types.
+    private static final double[] MINOR_TYPE_PROBABILITIES = { 0.70, 0.85, 0.95, 1.0 };
+
+    // Directions of the roads of a node.
+    private static final int RIGHT = 0, UP = 1;
+
+    // Flag set on the descriptor of a one-way road that goes from the neighbour to
+    // the node (see road).
+    private static final int REVERSED = 1 << 30;
+
+    // Salts of the random values drawn for a node or a road.
+    private static final int JITTER_X = 0, JITTER_Y = 1, REMOVAL = 2, MINOR_TYPE = 3,
+            ONE_WAY = 4, DIRECTION = 5, CURVE = 6, CURVE_POINTS = 7, DETOUR = 8;
+
+    // Number of nodes, width of the grid and seed.
+    private final int nodeCount;
+    private final int width;
+    private final long seed;
+
+    // Fractions of minor roads removed, of tertiary and minor roads that are
+    // one-way, and of roads with intermediate points.
+    private double removalRatio = 0.25;
+    private double oneWayRatio = 0.1;
+    private double curveRatio = 0.3;
+
+    // Descriptors (two-way and one-way for each type).
+    private final RoadInformation[] descriptors;
+
+    /**
+     * Create a new generator.
+     * 
+     * @param nodeCount Number of nodes of the generated networks.
+     * @param seed Seed of the generated networks.
+     */
+    public RoadNetworkGenerator(int nodeCount, long seed) {
+        if (nodeCount <= 0) {
+            throw new IllegalArgumentException("Invalid node count: " + nodeCount);
+        }
+        this.nodeCount = nodeCount;
+        this.width = (int) Math.ceil(Math.sqrt(nodeCount));
+        this.seed = seed;
+        this.descriptors = new RoadInformation[2 * TYPES.length];
+        for (int type = 0; type < TYPES.length; ++type) {
+            for (int oneWay = 0; oneWay < 2; ++oneWay) {
+                descriptors[2 * type + oneWay] = new RoadInformation(TYPES[type],
+                        getAccessRestrictions(type), oneWay == 1, SPEEDS[type], "");
+            }
+        }
+    }
+
+    /**
+     * @return Number of nodes of the generated networks.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return Seed of the generated networks.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return Fraction of minor roads that are removed from the grid.
+     */
+    public double getRemovalRatio() {
+        return removalRatio;
+    }
+
+    /**
+     * @param removalRatio Fraction of minor roads that are removed from the grid,
+     *        between 0 (full grid) and 1 (only main roads). Default is 0.25.
+     */
+    public void setRemovalRatio(double removalRatio) {
+        if (!(removalRatio >= 0 && removalRatio <= 1)) {
+            throw new IllegalArgumentException("Invalid removal ratio: " + removalRatio);
+        }
+        this.removalRatio = removalRatio;
+    }
+
+    /**
+     * @return Fraction of tertiary and minor roads that are one-way.
+     */
+    public double getOneWayRatio() {
+        return oneWayRatio;
+    }
+
+    /**
+     * @param oneWayRatio Fraction of tertiary and minor roads that are one-way,
+     *        between 0 and 1. Default is 0.1.
+     */
+    public void setOneWayRatio(double oneWayRatio) {
+        if (!(oneWayRatio >= 0 && oneWayRatio <= 1)) {
+            throw new IllegalArgumentException("Invalid one-way ratio: " + oneWayRatio);
+        }
+        this.oneWayRatio = oneWayRatio;
+    }
+
+    /**
+     * @return Fraction of roads with intermediate points.
+     */
+    public double getCurveRatio() {
+        return curveRatio;
+    }
+
+    /**
+     * @param curveRatio Fraction of roads with intermediate points, between 0 and
+     *        1. Default is 0.3.
+     */
+    public void setCurveRatio(double curveRatio) {
+        if (!(curveRatio >= 0 && curveRatio <= 1)) {
+            throw new IllegalArgumentException("Invalid curve ratio: " + curveRatio);
+        }
+        this.curveRatio = curveRatio;
+    }
+
+    /**
+     * @return ID of the generated networks.
+     */
+    public String getMapId() {
+        String id = String.format("synthetic-%d-%x", nodeCount, seed);
+        return id.length() > MAP_ID_FIELD_LENGTH ? id.substring(0, MAP_ID_FIELD_LENGTH) : id;
+    }
+
+    /**
+     * @return Name of the generated networks.
+     */
+    public String getMapName() {
+        return "Synthetic road network (" + nodeCount + " nodes)";
+    }
+
+    /**
+     * @return Access restrictions of roads of the given type.
+     */
+    private static AccessRestrictions getAccessRestrictions(int type) {
+        EnumMap<AccessMode, AccessRestriction> restrictions = new EnumMap<>(AccessMode.class);
+        for (AccessMode mode: AccessMode.values()) {
+            restrictions.put(mode, AccessRestriction.ALLOWED);
+        }
+        if (TYPES[type] == RoadType.MOTORWAY) {
+            for (AccessMode mode: new AccessMode[] { AccessMode.FOOT, AccessMode.BICYCLE,
+                    AccessMode.SMALL_MOTORCYCLE, AccessMode.AGRICULTURAL }) {
+                restrictions.put(mode, AccessRestriction.FORBIDDEN);
+            }
+        }
+        return new AccessRestrictions(restrictions);
+    }
+
+    /**
+     * @return Random value in [0, 1[ derived from the seed, the given node and the
+     *         given salt.
+     */
+    private double random(int node, int salt) {
+        long z = seed + 0x9E3779B97F4A7C15L * (((long) node << 5) + salt + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * @return Longitude of the given node, in micro-degrees.
+     */
+    private int longitude(int node) {
+        return (int) Math.round(
+                (LONGITUDE + (node % width + 0.6 * (random(node, JITTER_X) - 0.5)) * SPACING) * 1e6);
+    }
+
+    /**
+     * @return Latitude of the given node, in micro-degrees.
+     */
+    private int latitude(int node) {
+        return (int) Math.round(
+                (LATITUDE + (node / width + 0.6 * (random(node, JITTER_Y) - 0.5)) * SPACING) * 1e6);
+    }
+
+    /**
+     * @return Point of the given node, as read from a binary file.
+     */
+    private Point point(int node) {
+        return new Point(((float) longitude(node)) / 1E6f, ((float) latitude(node)) / 1E6f);
+    }
+
+    /**
+     * @return Neighbour of the given node in the given direction, or -1 if there is
+     *         none.
+     */
+    private int neighbour(int node, int direction) {
+        if (direction == RIGHT) {
+            return node % width + 1 < width && node + 1 < nodeCount ? node + 1 : -1;
+        }
+        return node + width < nodeCount ? node + width : -1;
+    }
+
+    /**
+     * @return Class of the roads of the given row or column (index in TYPES for
+     *         main roads, MINOR for minor roads).
+     */
+    private static int roadClass(int line) {
+        if (line % 256 == 0) {
+            return 0;
+        }
+        if (line % 64 == 0) {
+            return 1;
+        }
+        if (line % 16 == 0) {
+            return 2;
+        }
+        return line % 4 == 0 ? TERTIARY : MINOR;
+    }
+
+    /**
+     * @return Descriptor (index in descriptors) of the road between the given node
+     *         and its neighbour in the given direction, with the REVERSED flag if
+     *         the road is one-way from the neighbour to the node, or -1 if there is
+     *         no road.
+     */
+    private int road(int node, int direction) {
+        if (neighbour(node, direction) < 0) {
+            return -1;
+        }
+        final int salt = 16 * direction;
+        int type = roadClass(direction == RIGHT ? node / width : node % width);
+        if (type == MINOR) {
+            if (random(node, salt + REMOVAL) < removalRatio) {
+                return -1;
+            }
+            final double r = random(node, salt + MINOR_TYPE);
+            for (int i = 0; r >= MINOR_TYPE_PROBABILITIES[i]; ++i) {
+                ++type;
+            }
+        }
+        if (type < TERTIARY || random(node, salt + ONE_WAY) >= oneWayRatio) {
+            return 2 * type;
+        }
+        return (2 * type + 1) | (random(node, salt + DIRECTION) < 0.5 ? REVERSED : 0);
+    }
+
+    /**
+     * @return Intermediate points of the road between the given node and its
+     *         neighbour in the given direction (from the node to the neighbour),
+     *         in micro-degrees (longitude then latitude), or an empty array.
+     */
+    private int[] curve(int node, int direction) {
+        final int salt = 16 * direction;
+        if (random(node, salt + CURVE) >= curveRatio) {
+            return new int[0];
+        }
+        final int next = neighbour(node, direction);
+        final int nbPoints = 1 + (int) (3 * random(node, salt + CURVE_POINTS));
+        final int lon1 = longitude(node), lat1 = latitude(node);
+        final int lon2 = longitude(next), lat2 = latitude(next);
+        int[] points = new int[2 * nbPoints];
+        for (int i = 0; i < nbPoints; ++i) {
+            // Points along the road, shifted sideways by up to 10% of the spacing.
+            final double t = (i + 1.0) / (nbPoints + 1);
+            final double shift = 0.2 * (random(node, salt + DETOUR + i) - 0.5) * SPACING * 1e6;
+            points[2 * i] = (int) Math.round(lon1 + t * (lon2 - lon1)
+                    + (direction == UP ? shift : 0));
+            points[2 * i + 1] = (int) Math.round(lat1 + t * (lat2 - lat1)
+                    + (direction == RIGHT ? shift : 0));
+        }
+        return points;
+    }
+
+    /**
+     * Consumer of the roads of a node, in the order they are written.
+     */
+    private interface RoadConsumer {
+
+        /**
+         * @param origin Origin of the road.
+         * @param destination Destination of the road.
+         * @param descriptor Index of the descriptor of the road.
+         * @param deltas Intermediate points of the road from the origin, as deltas
+         *        from the previous point in units of 5 micro-degrees (longitude
+         *        then latitude).
+         * @param length Length of the road, in millimeters.
+         */
+        void accept(int origin, int destination, int descriptor, short[] deltas, int length)
+                throws IOException;
+
+    }
+
+    /**
+     * Call the given consumer for each road stored with the given node: the roads
+     * to its right and upper neighbours, unless they are one-way in the other
+     * direction, and the one-way roads from its left and lower neighbours. Two-way
+     * roads are only stored with one of their ends.
+     */
+    private void forEachRoad(int node, RoadConsumer consumer) throws IOException {
+        for (int direction = RIGHT; direction <= UP; ++direction) {
+            final int descriptor = road(node, direction);
+            if (descriptor >= 0 && (descriptor & REVERSED) == 0) {
+                acceptRoad(node, direction, false, descriptor, consumer);
+            }
+        }
+        final int[] previous = { node % width > 0 ? node - 1 : -1, node - width };
+        for (int direction = RIGHT; direction <= UP; ++direction) {
+            if (previous[direction] >= 0) {
+                final int descriptor = road(previous[direction], direction);
+                if (descriptor >= 0 && (descriptor & REVERSED) != 0) {
+                    acceptRoad(previous[direction], direction, true, descriptor & ~REVERSED,
+                            consumer);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Number of roads stored with the given node (see forEachRoad).
+     */
+    private int countRoads(int node) {
+        int count = 0;
+        final int[] previous = { node % width > 0 ? node - 1 : -1, node - width };
+        for (int direction = RIGHT; direction <= UP; ++direction) {
+            final int descriptor = road(node, direction);
+            if (descriptor >= 0 && (descriptor & REVERSED) == 0) {
+                ++count;
+            }
+            if (previous[direction] >= 0) {
+                final int reverse = road(previous[direction], direction);
+                if (reverse >= 0 && (reverse & REVERSED) != 0) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compute the geometry and length of a road and pass it to the given consumer.
+     */
+    private void acceptRoad(int node, int direction, boolean reversed, int descriptor,
+            RoadConsumer consumer) throws IOException {
+        final int next = neighbour(node, direction);
+        final int origin = reversed ? next : node, destination = reversed ? node : next;
+        final int[] curve = curve(node, direction);
+        final int nbPoints = curve.length / 2;
+
+        // Deltas between consecutive points, from the origin.
+        short[] deltas = new short[curve.length];
+        int lon = longitude(origin), lat = latitude(origin);
+        for (int i = 0; i < nbPoints; ++i) {
+            final int k = reversed ? nbPoints - 1 - i : i;
+            deltas[2 * i] = (short) Math.round((curve[2 * k] - lon) / 5.0);
+            deltas[2 * i + 1] = (short) Math.round((curve[2 * k + 1] - lat) / 5.0);
+            lon += 5 * deltas[2 * i];
+            lat += 5 * deltas[2 * i + 1];
+        }
+
+        // Length along the geometry, as read from a binary file, extended by up to
+        // 15%.
+        final List<Point> points = points(origin, destination, deltas);
+        double length = 0;
+        for (int i = 0; i + 1 < points.size(); ++i) {
+            final double distance = Point.distance(points.get(i), points.get(i + 1));
+            length += Double.isNaN(distance) ? 0 : distance;
+        }
+        length *= 1 + 0.15 * random(node, 16 * direction + DETOUR + 4);
+        consumer.accept(origin, destination, descriptor, deltas,
+                (int) Math.max(1, Math.round(length * 1000)));
+    }
+
+    /**
+     * @return Points of a road with the given intermediate points, as read from a
+     *         binary file.
+     */
+    private List<Point> points(int origin, int destination, short[] deltas) {
+        List<Point> points = new ArrayList<>(deltas.length / 2 + 2);
+        points.add(point(origin));
+        for (int i = 0; i < deltas.length; i += 2) {
+            Point last = points.get(points.size() - 1);
+            points.add(new Point(last.getLongitude() + deltas[i] / 2.0e5f,
+                    last.getLatitude() + deltas[i + 1] / 2.0e5f));
+        }
+        points.add(point(destination));
+        return points;
+    }
+
+    /**
+     * Build the network in memory.
+     * 
+     * @return The generated graph.
+     */
+    public Graph generate() {
+        final List<Node> nodes = new ArrayList<>(nodeCount);
+        float minLongitude = Float.POSITIVE_INFINITY, minLatitude = Float.POSITIVE_INFINITY,
+                maxLongitude = Float.NEGATIVE_INFINITY, maxLatitude = Float.NEGATIVE_INFINITY;
+        for (int node = 0; node < nodeCount; ++node) {
+            Point point = point(node);
+            minLongitude = Math.min(point.getLongitude(), minLongitude);
+            minLatitude = Math.min(point.getLatitude(), minLatitude);
+            maxLongitude = Math.max(point.getLongitude(), maxLongitude);
+            maxLatitude = Math.max(point.getLatitude(), maxLatitude);
+            nodes.add(new Node(node, point));
+        }
+
+        // Number of one-way roads, of roads, and maximum length.
+        final int[] counts = new int[2];
+        final float[] maxLength = new float[1];
+        try {
+            for (int node = 0; node < nodeCount; ++node) {
+                forEachRoad(node, (origin, destination, descriptor, deltas, length) -> {
+                    RoadInformation info = descriptors[descriptor];
+                    Node.linkNodes(nodes.get(origin), nodes.get(destination), length / 1000.0f,
+                            info, points(origin, destination, deltas));
+                    counts[0] += info.isOneWay() ? 1 : 0;
+                    counts[1] += 1;
+                    maxLength[0] = Math.max(maxLength[0], length / 1000.0f);
+                });
+            }
+        }
+        catch (IOException e) {
+            // The consumer above does not throw.
+            throw new IllegalStateException(e);
+        }
+
+        return new Graph(getMapId(), getMapName(), nodes,
+                new GraphStatistics(
+                        new BoundingBox(new Point(minLongitude, maxLatitude),
+                                new Point(maxLongitude, minLatitude)),
+                        counts[0], counts[1] - counts[0], SPEEDS[0], maxLength[0]));
+    }
+
+    /**
+     * Write the network in binary format (version 8) to the given stream, without
+     * building it in memory. The stream is not closed.
+     * 
+     * @param dos Stream to write to (should be buffered).
+     * 
+     * @throws IOException if the network has more than
+     *         {@link #MAX_WRITTEN_NODE_COUNT} nodes, or if an error occurs while
+     *         writing to the stream.
+     */
+    public void write(DataOutputStream dos) throws IOException {
+        if (nodeCount > MAX_WRITTEN_NODE_COUNT) {
+            throw new IOException("Networks of more than " + MAX_WRITTEN_NODE_COUNT
+                    + " nodes cannot be written in binary format.");
+        }
+
+        // Header.
+        dos.writeInt(MAGIC_NUMBER);
+        dos.writeInt(BinaryGraphWriter.VERSION);
+        dos.write(Arrays.copyOf(getMapId().getBytes(StandardCharsets.UTF_8),
+                MAP_ID_FIELD_LENGTH));
+        dos.writeUTF(getMapName());
+        dos.writeInt(descriptors.length);
+        dos.writeInt(nodeCount);
+
+        // Nodes, with their number of roads.
+        for (int node = 0; node < nodeCount; ++node) {
+            dos.writeInt(longitude(node));
+            dos.writeInt(latitude(node));
+            dos.writeByte(countRoads(node));
+        }
+        dos.writeByte(255);
+
+        // Descriptors.
+        for (int descriptor = 0; descriptor < descriptors.length; ++descriptor) {
+            final RoadInformation info = descriptors[descriptor];
+            dos.writeByte(BinaryGraphWriter.toChar(info.getType()));
+            dos.writeByte((info.isOneWay() ? 0x80 : 0) | (info.getMaximumSpeed() / 5));
+            dos.writeLong(BinaryGraphWriter.toAccessCode(info.getAccessRestrictions()));
+            dos.writeUTF(info.getName());
+        }
+        dos.writeByte(254);
+
+        // Roads.
+        for (int node = 0; node < nodeCount; ++node) {
+            forEachRoad(node, (origin, destination, descriptor, deltas, length) -> {
+                dos.writeShort(destination >> 8);
+                dos.writeByte(destination & 0xff);
+                dos.writeShort(descriptor >> 8);
+                dos.writeByte(descriptor & 0xff);
+                dos.writeInt(length);
+                dos.writeShort(deltas.length / 2);
+                for (short delta: deltas) {
+                    dos.writeShort(delta);
+                }
+            });
+        }
+        dos.writeByte(253);
+        dos.flush();
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        if (args.length != 3) {
+            System.err.println("Usage: RoadNetworkGenerator nodeCount seed output.mapgr");
+            System.exit(1);
+        }
+
+        RoadNetworkGenerator generator = new RoadNetworkGenerator(Integer.parseInt(args[0]),
+                Long.parseLong(args[1]));
+        try (DataOutputStream dos = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(args[2]), 1 << 16))) {
+            generator.write(dos);
+        }
+    }
+
+}
@@ -3,6 +3,7 @@ package org.insa.graph.io;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.List;
 
@@ -10,6 +11,7 @@ import org.insa.graph.AccessRestrictions;
 import org.insa.graph.AccessRestrictions.AccessMode;
 import org.insa.graph.AccessRestrictions.AccessRestriction;
 import org.insa.graph.Arc;
+import org.insa.graph.CompactGraph;
 import org.insa.graph.Graph;
 import org.insa.graph.GraphStatistics;
 import org.insa.graph.GraphStatistics.BoundingBox;
@@ -25,8 +27,8 @@ import org.insa.graph.RoadInformation.RoadType;
 public class BinaryGraphReader extends BinaryReader implements GraphReader {
 
     // Map version and magic number targeted for this reader.
-    private static final int VERSION = 5;
-    private static final int MAGIC_NUMBER = 0x208BC3B3;
+    protected static final int VERSION = 5;
+    protected static final int MAGIC_NUMBER = 0x208BC3B3;
 
     // Length of the map id field (in bytes)
     protected static final int MAP_ID_FIELD_LENGTH = 32;
@@ -147,8 +149,14 @@ public class BinaryGraphReader extends BinaryReader implements GraphReader {
         observers.add(observer);
     }
 
-    @Override
-    public Graph read() throws IOException {
+    /**
+     * Read the header of the file (magic number, version, map ID and map name).
+     * 
+     * @return Array containing the map ID and the map name.
+     * 
+     * @throws IOException if an error occurs while reading from the stream.
+     */
+    private String[] readHeader() throws IOException {
 
         // Read and check magic number and file version.
         checkMagicNumberOrThrow(dis.readInt());
@@ -168,6 +176,16 @@ public class BinaryGraphReader extends BinaryReader implements GraphReader {
 
         observers.forEach((observer) -> observer.notifyStartReading(mapId));
 
+        return new String[]{ mapId, mapName };
+    }
+
+    @Override
+    public Graph read() throws IOException {
+
+        // Read header.
+        String[] header = readHeader();
+        String mapId = header[0], mapName = header[1];
+
         // Number of descriptors and nodes.
         int nbDesc = dis.readInt();
         int nbNodes = dis.readInt();
@@ -295,6 +313,145 @@ public class BinaryGraphReader extends BinaryReader implements GraphReader {
                         nbOneWayRoad, nbTotalSuccessors - nbOneWayRoad, maxSpeed, maxLength));
     }
 
+    /**
+     * Read a compact graph from the stream, without creating any {@link Node} or
+     * {@link Arc} object. Segments of the arcs are skipped, and observers are only
+     * notified about the start of each section and about the descriptors read.
+     * 
+     * The arcs of the compact graph are in the same order as the successors of the
+     * nodes of the graph returned by {@link #read()} for the same file.
+     * 
+     * @return The compact graph read.
+     * 
+     * @throws IOException When an exception occurs while reading the graph.
+     */
+    public CompactGraph readCompact() throws IOException {
+
+        // Read header.
+        String[] header = readHeader();
+
+        // Number of descriptors and nodes.
+        int nbDesc = dis.readInt();
+        int nbNodes = dis.readInt();
+
+        // Number of successors for each nodes.
+        int[] nbSuccessors = new int[nbNodes];
+        int nbTotalSuccessors = 0;
+
+        // Read nodes.
+        float[] longitudes = new float[nbNodes], latitudes = new float[nbNodes];
+        float minLongitude = Float.POSITIVE_INFINITY, minLatitude = Float.POSITIVE_INFINITY,
+                maxLongitude = Float.NEGATIVE_INFINITY, maxLatitude = Float.NEGATIVE_INFINITY;
+        observers.forEach((observer) -> observer.notifyStartReadingNodes(nbNodes));
+        for (int node = 0; node < nbNodes; ++node) {
+            longitudes[node] = ((float) dis.readInt()) / 1E6f;
+            latitudes[node] = ((float) dis.readInt()) / 1E6f;
+
+            // Update minimum / maximum.
+            minLongitude = Math.min(longitudes[node], minLongitude);
+            minLatitude = Math.min(latitudes[node], minLatitude);
+            maxLongitude = Math.max(longitudes[node], maxLongitude);
+            maxLatitude = Math.max(latitudes[node], maxLatitude);
+
+            nbSuccessors[node] = dis.readUnsignedByte();
+            nbTotalSuccessors += nbSuccessors[node];
+        }
+
+        // Check format.
+        checkByteOrThrow(255);
+
+        // Read descriptors.
+        RoadInformation[] descs = new RoadInformation[nbDesc];
+        observers.forEach((observer) -> observer.notifyStartReadingDescriptors(nbDesc));
+        int maxSpeed = 0;
+        for (int descr = 0; descr < nbDesc; ++descr) {
+            final RoadInformation roadinf = readRoadInformation();
+            descs[descr] = roadinf;
+            observers.forEach((observer) -> observer.notifyNewDescriptorRead(roadinf));
+            maxSpeed = Math.max(roadinf.getMaximumSpeed(), maxSpeed);
+        }
+
+        // Check format.
+        checkByteOrThrow(254);
+
+        // Read the records of the file, counting the arcs of each node (two-ways
+        // roads also add an arc to their destination).
+        final int copyNbTotalSuccesors = nbTotalSuccessors;
+        observers.forEach((observer) -> observer.notifyStartReadingArcs(copyNbTotalSuccesors));
+        int[] recordDestinations = new int[nbTotalSuccessors];
+        int[] recordDescriptors = new int[nbTotalSuccessors];
+        float[] recordLengths = new float[nbTotalSuccessors];
+        int[] firstArcs = new int[nbNodes + 1];
+        float maxLength = 0;
+        int nbOneWayRoad = 0;
+        int record = 0;
+        for (int node = 0; node < nbNodes; ++node) {
+            for (int succ = 0; succ < nbSuccessors[node]; ++succ, ++record) {
+                recordDestinations[record] = this.read24bits();
+                recordDescriptors[record] = this.read24bits();
+                if (getCurrentVersion() < 8) {
+                    recordLengths[record] = dis.readUnsignedShort();
+                }
+                else {
+                    recordLengths[record] = dis.readInt() / 1000.0f;
+                }
+                maxLength = Math.max(recordLengths[record], maxLength);
+
+                // Skip segments.
+                int nbSegments = dis.readUnsignedShort();
+                dis.skipBytes(4 * nbSegments);
+
+                firstArcs[node + 1] += 1;
+                if (descs[recordDescriptors[record]].isOneWay()) {
+                    nbOneWayRoad++;
+                }
+                else {
+                    firstArcs[recordDestinations[record] + 1] += 1;
+                }
+            }
+        }
+
+        // Check format.
+        checkByteOrThrow(253);
+
+        // Compute offsets and fill arcs in the order of the records.
+        for (int node = 0; node < nbNodes; ++node) {
+            firstArcs[node + 1] += firstArcs[node];
+        }
+        final int nbArcs = firstArcs[nbNodes];
+        int[] nextArcs = Arrays.copyOf(firstArcs, nbNodes);
+        int[] arcDestinations = new int[nbArcs];
+        float[] arcLengths = new float[nbArcs];
+        int[] arcDescriptors = new int[nbArcs];
+        record = 0;
+        for (int node = 0; node < nbNodes; ++node) {
+            for (int succ = 0; succ < nbSuccessors[node]; ++succ, ++record) {
+                int dest = recordDestinations[record];
+                int arc = nextArcs[node]++;
+                arcDestinations[arc] = dest;
+                arcLengths[arc] = recordLengths[record];
+                arcDescriptors[arc] = recordDescriptors[record];
+                if (!descs[recordDescriptors[record]].isOneWay()) {
+                    arc = nextArcs[dest]++;
+                    arcDestinations[arc] = node;
+                    arcLengths[arc] = recordLengths[record];
+                    arcDescriptors[arc] = recordDescriptors[record];
+                }
+            }
+        }
+
+        observers.forEach((observer) -> observer.notifyEndReading());
+
+        this.dis.close();
+
+        return new CompactGraph(header[0], header[1], longitudes, latitudes, firstArcs,
+                arcDestinations, arcLengths, arcDescriptors, descs,
+                new GraphStatistics(
+                        new BoundingBox(new Point(minLongitude, maxLatitude),
+                                new Point(maxLongitude, minLatitude)),
+                        nbOneWayRoad, nbTotalSuccessors - nbOneWayRoad, maxSpeed, maxLength));
+    }
+
     /**
      * Read the next road information from the stream.
      * 
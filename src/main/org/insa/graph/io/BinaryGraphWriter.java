@@ -0,0 +1,374 @@
+package org.insa.graph.io;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.AccessRestrictions.AccessMode;
+import org.insa.graph.AccessRestrictions.AccessRestriction;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+
+/**
+ * Implementation of {@link GraphWriter} to write graphs in binary format
+ * (version {@link #VERSION}), readable by {@link BinaryGraphReader}.
+ *
+ * Each road is written once: one-way roads from their origin, and two-way roads
+ * from the end with the smallest ID. Descriptors are deduplicated by value, so
+ * equal road information shared or not by the arcs of the graph is written
+ * once. Coordinates and segment deltas are chosen so that reading the file back
+ * gives exactly the same points as in the graph (for graphs read from a binary
+ * file, the original values are written back).
+ *
+ * The graph is written while it is traversed (twice: once for the nodes and
+ * descriptors, once for the arcs), without building any intermediate copy.
+ *
+ */
+public class BinaryGraphWriter extends BinaryWriter implements GraphWriter {
+
+    /**
+     * Version of the files written.
+     */
+    public static final int VERSION = 8;
+
+    // Maximum number of nodes and of descriptors (IDs are written on 24 bits), and
+    // maximum number of roads per node.
+    private static final int MAX_ID = 1 << 24;
+    private static final int MAX_ROADS_PER_NODE = 255;
+
+    // Scale of coordinates and segment deltas.
+    private static final float COORDINATE_SCALE = 1E6f, DELTA_SCALE = 2.0e5f;
+
+    /**
+     * Convert a road type to its character in binary files (inverse of
+     * {@link BinaryGraphReader#toRoadType(char)}).
+     * 
+     * @param type Road type to convert.
+     * 
+     * @return Character corresponding to the given road type.
+     */
+    public static char toChar(RoadType type) {
+        if (type == null) {
+            return 'k';
+        }
+        switch (type) {
+        case MOTORWAY:
+            return 'a';
+        case TRUNK:
+            return 'b';
+        case PRIMARY:
+            return 'c';
+        case SECONDARY:
+            return 'd';
+        case MOTORWAY_LINK:
+            return 'e';
+        case TRUNK_LINK:
+            return 'f';
+        case PRIMARY_LINK:
+            return 'g';
+        case SECONDARY_LINK:
+            return 'h';
+        case TERTIARY:
+            return 'i';
+        case RESIDENTIAL:
+            return 'j';
+        case LIVING_STREET:
+            return 'm';
+        case SERVICE:
+            return 'n';
+        case ROUNDABOUT:
+            return 'o';
+        case PEDESTRIAN:
+            return 'p';
+        case CYCLEWAY:
+            return 'r';
+        case TRACK:
+            return 's';
+        case COASTLINE:
+            return 'z';
+        default:
+            return 'k';
+        }
+    }
+
+    /**
+     * Convert access restrictions to their value in binary files (inverse of
+     * {@link BinaryGraphReader#toAccessInformation(long)}: 4 bits per mode from
+     * the lowest bits, in the order of {@link AccessMode}).
+     * 
+     * @param access Access restrictions to convert, or null for unknown
+     *        restrictions.
+     * 
+     * @return Value corresponding to the given restrictions.
+     */
+    public static long toAccessCode(AccessRestrictions access) {
+        final List<AccessRestriction> restrictions = Arrays.asList(AccessRestriction.FORBIDDEN,
+                AccessRestriction.ALLOWED, AccessRestriction.PRIVATE,
+                AccessRestriction.DESTINATION, AccessRestriction.DELIVERY,
+                AccessRestriction.CUSTOMERS, AccessRestriction.FORESTRY);
+        long code = 0;
+        for (AccessMode mode: AccessMode.values()) {
+            int value = restrictions.indexOf(access == null ? null : access.getRestrictionFor(mode));
+            code |= (long) (value < 0 ? 0xf : value) << (4 * mode.ordinal());
+        }
+        return code;
+    }
+
+    /**
+     * Convert a coordinate to its value in binary files, such that reading the
+     * value gives back the given coordinate when possible.
+     * 
+     * @param coordinate Coordinate to convert (in degrees).
+     * 
+     * @return Value of the coordinate (in micro-degrees).
+     */
+    public static int toCoordinateCode(float coordinate) {
+        final int code = (int) Math.round(coordinate * 1e6);
+
+        // Large values are not exactly represented as floats, so the closest value
+        // may not give back the same coordinate.
+        for (int offset = 0; offset <= 32; ++offset) {
+            if (((float) (code + offset)) / COORDINATE_SCALE == coordinate) {
+                return code + offset;
+            }
+            if (((float) (code - offset)) / COORDINATE_SCALE == coordinate) {
+                return code - offset;
+            }
+        }
+        return code;
+    }
+
+    // Deltas of the segments of the current arc (longitude then latitude), and
+    // number of values in deltas.
+    private short[] deltas = new short[64];
+    private int nbDeltas;
+
+    /**
+     * Create a new BinaryGraphWriter that writes to the given output stream.
+     * 
+     * @param dos Output stream to write to (should be buffered).
+     */
+    public BinaryGraphWriter(DataOutputStream dos) {
+        super(dos);
+    }
+
+    /**
+     * @param arc An arc.
+     * @param loops Number of two-way loops before the given arc in the successors
+     *        of its origin.
+     * 
+     * @return true if the given arc should be written.
+     */
+    private static boolean isWritten(Arc arc, int loops) {
+        if (arc.getRoadInformation().isOneWay()) {
+            return true;
+        }
+        final int origin = arc.getOrigin().getId(), destination = arc.getDestination().getId();
+        if (origin != destination) {
+            return origin < destination;
+        }
+
+        // Two-way loops come in pairs (both arcs are added to the node one after the
+        // other), only the first arc of each pair is written.
+        return loops % 2 == 0;
+    }
+
+    /**
+     * @return true if the given arc is a two-way loop.
+     */
+    private static boolean isTwoWayLoop(Arc arc) {
+        return !arc.getRoadInformation().isOneWay()
+                && arc.getOrigin().getId() == arc.getDestination().getId();
+    }
+
+    /**
+     * @return Key identifying the value of the given descriptor in binary files.
+     */
+    private static List<Object> getDescriptorKey(RoadInformation info) {
+        return Arrays.asList(toChar(info.getType()), getSpeedAndDirection(info),
+                toAccessCode(info.getAccessRestrictions()),
+                info.getName() == null ? "" : info.getName());
+    }
+
+    /**
+     * @return Byte containing the one-way flag and the speed of the given road.
+     */
+    private static int getSpeedAndDirection(RoadInformation info) {
+        final int speed = Math.max(0, Math.min(0x7f, Math.round(info.getMaximumSpeed() / 5.0f)));
+        return (info.isOneWay() ? 0x80 : 0) | speed;
+    }
+
+    @Override
+    public void writeGraph(Graph graph) throws IOException {
+        if (graph.size() > MAX_ID) {
+            throw new IOException("Too many nodes for the binary format: " + graph.size());
+        }
+
+        // Write magic number, version, map id and map name.
+        dos.writeInt(BinaryGraphReader.MAGIC_NUMBER);
+        dos.writeInt(VERSION);
+        dos.write(Arrays.copyOf(graph.getMapId().getBytes("UTF-8"),
+                BinaryGraphReader.MAP_ID_FIELD_LENGTH));
+        dos.writeUTF(graph.getMapName() == null ? "" : graph.getMapName());
+
+        // Retrieve the descriptors, by value, and the index of the descriptor of each
+        // road information object.
+        Map<RoadInformation, Integer> indices = new IdentityHashMap<>();
+        Map<List<Object>, Integer> keys = new HashMap<>();
+        List<RoadInformation> descriptors = new ArrayList<>();
+        for (Node node: graph) {
+            for (Arc arc: node) {
+                RoadInformation info = arc.getRoadInformation();
+                if (!indices.containsKey(info)) {
+                    Integer index = keys.get(getDescriptorKey(info));
+                    if (index == null) {
+                        index = descriptors.size();
+                        keys.put(getDescriptorKey(info), index);
+                        descriptors.add(info);
+                    }
+                    indices.put(info, index);
+                }
+            }
+        }
+        if (descriptors.size() > MAX_ID) {
+            throw new IOException(
+                    "Too many descriptors for the binary format: " + descriptors.size());
+        }
+        dos.writeInt(descriptors.size());
+        dos.writeInt(graph.size());
+
+        // Write nodes, with their number of roads.
+        for (Node node: graph) {
+            int nbRoads = 0, loops = 0;
+            for (Arc arc: node) {
+                if (isWritten(arc, loops)) {
+                    ++nbRoads;
+                }
+                if (isTwoWayLoop(arc)) {
+                    ++loops;
+                }
+            }
+            if (nbRoads > MAX_ROADS_PER_NODE) {
+                throw new IOException("Too many roads for node " + node.getId() + ": " + nbRoads);
+            }
+            dos.writeInt(toCoordinateCode(node.getPoint().getLongitude()));
+            dos.writeInt(toCoordinateCode(node.getPoint().getLatitude()));
+            dos.writeByte(nbRoads);
+        }
+        dos.writeByte(255);
+
+        // Write descriptors.
+        for (RoadInformation info: descriptors) {
+            dos.writeByte(toChar(info.getType()));
+            dos.writeByte(getSpeedAndDirection(info));
+            dos.writeLong(toAccessCode(info.getAccessRestrictions()));
+            dos.writeUTF(info.getName() == null ? "" : info.getName());
+        }
+        dos.writeByte(254);
+
+        // Write roads.
+        for (Node node: graph) {
+            int loops = 0;
+            for (Arc arc: node) {
+                if (isWritten(arc, loops)) {
+                    writeArc(arc, indices.get(arc.getRoadInformation()));
+                }
+                if (isTwoWayLoop(arc)) {
+                    ++loops;
+                }
+            }
+        }
+        dos.writeByte(253);
+
+        dos.flush();
+        dos.close();
+    }
+
+    /**
+     * Write the given arc.
+     * 
+     * @param arc Arc to write.
+     * @param descriptor Index of the descriptor of the arc.
+     * 
+     * @throws IOException if an error occurs while writing to the stream.
+     */
+    private void writeArc(Arc arc, int descriptor) throws IOException {
+        write24bits(arc.getDestination().getId());
+        write24bits(descriptor);
+        dos.writeInt(Math.round(arc.getLength() * 1000));
+
+        // Points of the arc, without its origin and its destination (see
+        // BinaryGraphReader).
+        List<Point> points = arc.getPoints();
+        nbDeltas = 0;
+        float longitude = ((float) toCoordinateCode(arc.getOrigin().getPoint().getLongitude()))
+                / COORDINATE_SCALE;
+        float latitude = ((float) toCoordinateCode(arc.getOrigin().getPoint().getLatitude()))
+                / COORDINATE_SCALE;
+        for (int i = 1; i + 1 < points.size(); ++i) {
+            final Point point = points.get(i);
+
+            // Split segments that are too long for 16-bits deltas.
+            final double steps = Math.ceil(Math.max(
+                    Math.abs(point.getLongitude() - longitude),
+                    Math.abs(point.getLatitude() - latitude)) * DELTA_SCALE / Short.MAX_VALUE);
+            for (int step = 1; step < steps; ++step) {
+                final double remaining = steps - step + 1;
+                longitude = addDelta(longitude, (float) (longitude
+                        + (point.getLongitude() - (double) longitude) / remaining));
+                latitude = addDelta(latitude, (float) (latitude
+                        + (point.getLatitude() - (double) latitude) / remaining));
+            }
+            longitude = addDelta(longitude, point.getLongitude());
+            latitude = addDelta(latitude, point.getLatitude());
+        }
+        if (nbDeltas / 2 > 0xffff) {
+            throw new IOException("Too many points for arc " + arc.getOrigin().getId() + " -> "
+                    + arc.getDestination().getId() + ": " + nbDeltas / 2);
+        }
+        dos.writeShort(nbDeltas / 2);
+        for (int i = 0; i < nbDeltas; ++i) {
+            dos.writeShort(deltas[i]);
+        }
+    }
+
+    /**
+     * Append the delta from the given value to the given target to the deltas of
+     * the current arc, choosing (if possible) a delta that gives back exactly the
+     * target when read.
+     * 
+     * @return Value obtained when reading the delta.
+     */
+    private float addDelta(float from, float target) {
+        final long delta = Math.round((target - (double) from) * DELTA_SCALE);
+        short code = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, delta));
+        for (int offset = 0; offset <= 2; ++offset) {
+            if (delta + offset <= Short.MAX_VALUE
+                    && from + ((short) (delta + offset)) / DELTA_SCALE == target) {
+                code = (short) (delta + offset);
+                break;
+            }
+            if (delta - offset >= Short.MIN_VALUE
+                    && from + ((short) (delta - offset)) / DELTA_SCALE == target) {
+                code = (short) (delta - offset);
+                break;
+            }
+        }
+        if (nbDeltas == deltas.length) {
+            deltas = Arrays.copyOf(deltas, 2 * nbDeltas);
+        }
+        deltas[nbDeltas++] = code;
+        return from + code / DELTA_SCALE;
+    }
+
+}
@@ -31,6 +31,21 @@ public abstract class BinaryReader {
         this.dis = dis;
     }
 
+    /**
+     * Create a new BinaryReader that does not read from a stream (e.g., a reader
+     * working on a memory-mapped file) but that expects the given magic number and
+     * at least the given minimum version.
+     * 
+     * Methods of this class that read from the stream cannot be used by such
+     * readers.
+     * 
+     * @param magicNumber Magic number of files to be read.
+     * @param minVersion Minimum version of files to be read.
+     */
+    protected BinaryReader(int magicNumber, int minVersion) {
+        this(magicNumber, minVersion, null);
+    }
+
     /**
      * Check if the given version is greater than the minimum version, and update
      * the current version if it is.
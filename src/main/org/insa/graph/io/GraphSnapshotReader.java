@@ -0,0 +1,199 @@
+package org.insa.graph.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.AccessRestrictions.AccessMode;
+import org.insa.graph.AccessRestrictions.AccessRestriction;
+import org.insa.graph.CompactGraph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.GraphStatistics.BoundingBox;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+
+/**
+ * Reader for graph snapshots written by {@link GraphSnapshotWriter}.
+ *
+ * The snapshot is memory-mapped and its arrays are copied in bulk, without any
+ * per-value decoding. Layout of a snapshot (little-endian, sections aligned on
+ * 8 bytes):
+ *
+ * <ul>
+ * <li>magic number, version, map ID (32 bytes), map name;</li>
+ * <li>number of nodes, arcs and descriptors, graph statistics;</li>
+ * <li>longitudes, latitudes and first arcs of the nodes;</li>
+ * <li>destinations, lengths and descriptor indices of the arcs;</li>
+ * <li>descriptors.</li>
+ * </ul>
+ *
+ */
+public class GraphSnapshotReader extends BinaryReader {
+
+    // Snapshot version and magic number targeted for this reader.
+    protected static final int VERSION = 1;
+    protected static final int MAGIC_NUMBER = 0x5A9E0C01;
+
+    // Alignment of sections (in bytes).
+    protected static final int ALIGNMENT = 8;
+
+    // File to read.
+    private final File file;
+
+    // Buffer mapping the file being read.
+    private ByteBuffer buffer;
+
+    /**
+     * Create a new GraphSnapshotReader that reads from the given file.
+     *
+     * @param file Snapshot file to read from.
+     */
+    public GraphSnapshotReader(File file) {
+        super(MAGIC_NUMBER, VERSION);
+        this.file = file;
+    }
+
+    /**
+     * Move the buffer to the next 8-bytes boundary.
+     */
+    private void align() {
+        int position = buffer.position();
+        buffer.position((position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT);
+    }
+
+    /**
+     * @return Bytes prefixed by their length decoded as an UTF-8 string, or null.
+     */
+    private String getString() {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param length Number of values to read.
+     *
+     * @return Aligned section of integers.
+     */
+    private int[] getIntSection(int length) {
+        align();
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * length);
+        return values;
+    }
+
+    /**
+     * @param length Number of values to read.
+     *
+     * @return Aligned section of floats.
+     */
+    private float[] getFloatSection(int length) {
+        align();
+        float[] values = new float[length];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + 4 * length);
+        return values;
+    }
+
+    /**
+     * Read the snapshot.
+     *
+     * @return The graph read from the snapshot.
+     *
+     * @throws IOException if an error occurs while reading the snapshot.
+     */
+    public CompactGraph read() throws IOException {
+        return read(null);
+    }
+
+    /**
+     * Read the snapshot, checking that it has been created from the given map.
+     *
+     * @param expectedMapId ID of the map the snapshot must correspond to, or null
+     *        to accept any map.
+     *
+     * @return The graph read from the snapshot.
+     *
+     * @throws MapMismatchException if the snapshot does not correspond to the
+     *         expected map.
+     * @throws IOException if an error occurs while reading the snapshot.
+     */
+    public CompactGraph read(String expectedMapId) throws IOException {
+        this.buffer = MappedBinaryGraphReader.map(this.file);
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        // Read and check magic number and file version.
+        checkMagicNumberOrThrow(buffer.getInt());
+        checkVersionOrThrow(buffer.getInt());
+
+        // Read and check map id.
+        byte[] bytes = new byte[BinaryGraphReader.MAP_ID_FIELD_LENGTH];
+        buffer.get(bytes);
+        String mapId = new String(bytes, StandardCharsets.UTF_8).trim();
+        if (expectedMapId != null && !mapId.equals(expectedMapId)) {
+            throw new MapMismatchException(mapId, expectedMapId);
+        }
+        String mapName = getString();
+        align();
+
+        // Read sizes.
+        final int nbNodes = buffer.getInt();
+        final int nbArcs = buffer.getInt();
+        final int nbDescs = buffer.getInt();
+
+        // Read statistics.
+        GraphStatistics statistics = null;
+        if (buffer.getInt() != 0) {
+            Point topLeft = new Point(buffer.getFloat(), buffer.getFloat());
+            Point bottomRight = new Point(buffer.getFloat(), buffer.getFloat());
+            statistics = new GraphStatistics(new BoundingBox(topLeft, bottomRight),
+                    buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getFloat());
+        }
+
+        // Read nodes and arcs.
+        float[] longitudes = getFloatSection(nbNodes);
+        float[] latitudes = getFloatSection(nbNodes);
+        int[] firstArcs = getIntSection(nbNodes + 1);
+        int[] destinations = getIntSection(nbArcs);
+        float[] lengths = getFloatSection(nbArcs);
+        int[] descriptors = getIntSection(nbArcs);
+        if (firstArcs[nbNodes] != nbArcs) {
+            throw new BadFormatException();
+        }
+
+        // Read descriptors.
+        align();
+        final RoadType[] types = RoadType.values();
+        final AccessRestriction[] restrictions = AccessRestriction.values();
+        RoadInformation[] descs = new RoadInformation[nbDescs];
+        for (int i = 0; i < nbDescs; ++i) {
+            int type = buffer.getInt();
+            int maxSpeed = buffer.getInt();
+            boolean oneWay = buffer.getInt() != 0;
+            AccessRestrictions access = null;
+            if (buffer.getInt() != 0) {
+                EnumMap<AccessMode, AccessRestriction> map = new EnumMap<>(AccessMode.class);
+                for (AccessMode mode: AccessMode.values()) {
+                    map.put(mode, restrictions[buffer.getInt()]);
+                }
+                access = new AccessRestrictions(map);
+            }
+            descs[i] = new RoadInformation(type < 0 ? null : types[type], access, oneWay,
+                    maxSpeed, getString());
+        }
+
+        return new CompactGraph(mapId, mapName, longitudes, latitudes, firstArcs, destinations,
+                lengths, descriptors, descs, statistics);
+    }
+
+}
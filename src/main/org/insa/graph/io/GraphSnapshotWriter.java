@@ -0,0 +1,221 @@
+package org.insa.graph.io;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.AccessRestrictions.AccessMode;
+import org.insa.graph.CompactGraph;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.GraphStatistics.BoundingBox;
+import org.insa.graph.RoadInformation;
+
+/**
+ * Writer for graph snapshots, i.e. {@link CompactGraph} dumped in a format that
+ * can be mapped back in memory without any decoding.
+ *
+ * All values are written in little-endian order and each array section starts
+ * on a 8-bytes boundary, see {@link GraphSnapshotReader} for the layout.
+ *
+ */
+public class GraphSnapshotWriter extends BinaryWriter implements GraphWriter {
+
+    // Number of bytes written so far (used for alignment).
+    private long written = 0;
+
+    /**
+     * Create a new GraphSnapshotWriter that writes to the given output stream.
+     *
+     * @param dos Output stream to write to.
+     */
+    public GraphSnapshotWriter(DataOutputStream dos) {
+        super(dos);
+    }
+
+    /**
+     * Write a 32-bits integer in LittleEndian order.
+     *
+     * @param value Value to write.
+     *
+     * @throws IOException if an error occurs while writing to the stream.
+     */
+    private void writeInt(int value) throws IOException {
+        dos.writeInt(Integer.reverseBytes(value));
+        written += 4;
+    }
+
+    /**
+     * Write a float in LittleEndian order.
+     *
+     * @param value Value to write.
+     *
+     * @throws IOException if an error occurs while writing to the stream.
+     */
+    private void writeFloat(float value) throws IOException {
+        writeInt(Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Write the given bytes, prefixed by their length.
+     *
+     * @param bytes Bytes to write, or null.
+     *
+     * @throws IOException if an error occurs while writing to the stream.
+     */
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes == null) {
+            writeInt(-1);
+            return;
+        }
+        writeInt(bytes.length);
+        dos.write(bytes);
+        written += bytes.length;
+    }
+
+    /**
+     * Pad the output with zeros up to the next 8-bytes boundary.
+     *
+     * @throws IOException if an error occurs while writing to the stream.
+     */
+    private void align() throws IOException {
+        while (written % GraphSnapshotReader.ALIGNMENT != 0) {
+            dos.writeByte(0);
+            written += 1;
+        }
+    }
+
+    /**
+     * Write an aligned section of integers.
+     *
+     * @param values Values to write.
+     *
+     * @throws IOException if an error occurs while writing to the stream.
+     */
+    private void writeSection(int[] values) throws IOException {
+        align();
+        for (int value: values) {
+            writeInt(value);
+        }
+    }
+
+    /**
+     * Write an aligned section of floats.
+     *
+     * @param values Values to write.
+     *
+     * @throws IOException if an error occurs while writing to the stream.
+     */
+    private void writeSection(float[] values) throws IOException {
+        align();
+        for (float value: values) {
+            writeFloat(value);
+        }
+    }
+
+    /**
+     * Write a snapshot of the given graph.
+     *
+     * @param graph Graph to write.
+     *
+     * @throws IOException if an error occurs while writing the snapshot.
+     *
+     * @see #writeGraph(CompactGraph)
+     */
+    @Override
+    public void writeGraph(Graph graph) throws IOException {
+        writeGraph(CompactGraph.fromGraph(graph));
+    }
+
+    /**
+     * Write a snapshot of the given graph and close the underlying stream.
+     *
+     * @param graph Graph to write.
+     *
+     * @throws IOException if an error occurs while writing the snapshot.
+     */
+    public void writeGraph(CompactGraph graph) throws IOException {
+        final int nbNodes = graph.size();
+        final int nbArcs = graph.getArcCount();
+        final int nbDescs = graph.getRoadInformationCount();
+
+        // Write magic number and version.
+        writeInt(GraphSnapshotReader.MAGIC_NUMBER);
+        writeInt(GraphSnapshotReader.VERSION);
+
+        // Write map id and map name.
+        byte[] mapId = Arrays.copyOf(graph.getMapId().getBytes("UTF-8"),
+                BinaryGraphReader.MAP_ID_FIELD_LENGTH);
+        dos.write(mapId);
+        written += mapId.length;
+        writeBytes(graph.getMapName() == null ? null : graph.getMapName().getBytes("UTF-8"));
+        align();
+
+        // Write sizes.
+        writeInt(nbNodes);
+        writeInt(nbArcs);
+        writeInt(nbDescs);
+
+        // Write statistics.
+        GraphStatistics stats = graph.getGraphInformation();
+        writeInt(stats == null ? 0 : 1);
+        if (stats != null) {
+            BoundingBox box = stats.getBoundingBox();
+            writeFloat(box.getTopLeftPoint().getLongitude());
+            writeFloat(box.getTopLeftPoint().getLatitude());
+            writeFloat(box.getBottomRightPoint().getLongitude());
+            writeFloat(box.getBottomRightPoint().getLatitude());
+            writeInt(stats.getOneWayRoadCount());
+            writeInt(stats.getTwoWaysRoadCount());
+            writeInt(stats.getMaximumSpeed());
+            writeFloat(stats.getMaximumLength());
+        }
+
+        // Write nodes.
+        float[] longitudes = new float[nbNodes], latitudes = new float[nbNodes];
+        int[] firstArcs = new int[nbNodes + 1];
+        for (int node = 0; node < nbNodes; ++node) {
+            longitudes[node] = graph.getLongitude(node);
+            latitudes[node] = graph.getLatitude(node);
+            firstArcs[node] = graph.getFirstArc(node);
+        }
+        firstArcs[nbNodes] = nbArcs;
+        writeSection(longitudes);
+        writeSection(latitudes);
+        writeSection(firstArcs);
+
+        // Write arcs.
+        int[] destinations = new int[nbArcs], descriptors = new int[nbArcs];
+        float[] lengths = new float[nbArcs];
+        for (int arc = 0; arc < nbArcs; ++arc) {
+            destinations[arc] = graph.getArcDestination(arc);
+            lengths[arc] = graph.getArcLength(arc);
+            descriptors[arc] = graph.getArcRoadInformationIndex(arc);
+        }
+        writeSection(destinations);
+        writeSection(lengths);
+        writeSection(descriptors);
+
+        // Write descriptors.
+        align();
+        for (int i = 0; i < nbDescs; ++i) {
+            RoadInformation info = graph.getRoadInformation(i);
+            writeInt(info.getType() == null ? -1 : info.getType().ordinal());
+            writeInt(info.getMaximumSpeed());
+            writeInt(info.isOneWay() ? 1 : 0);
+            AccessRestrictions access = info.getAccessRestrictions();
+            writeInt(access == null ? 0 : 1);
+            if (access != null) {
+                for (AccessMode mode: AccessMode.values()) {
+                    writeInt(access.getRestrictionFor(mode).ordinal());
+                }
+            }
+            writeBytes(info.getName() == null ? null : info.getName().getBytes("UTF-8"));
+        }
+
+        dos.flush();
+        dos.close();
+    }
+
+}
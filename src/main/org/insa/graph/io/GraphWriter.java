@@ -0,0 +1,22 @@
+package org.insa.graph.io;
+
+import java.io.IOException;
+
+import org.insa.graph.Graph;
+
+/**
+ * Base interface that should be implemented by class used to write graphs.
+ *
+ */
+public interface GraphWriter {
+
+    /**
+     * Write the given graph.
+     * 
+     * @param graph Graph to write.
+     * 
+     * @throws IOException When an error occurs while writing the graph.
+     */
+    public void writeGraph(Graph graph) throws IOException;
+
+}
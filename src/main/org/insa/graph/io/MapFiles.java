@@ -0,0 +1,59 @@
+package org.insa.graph.io;
+
+import java.io.File;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Registry of the files graphs have been read from, used to store data
+ * computed for a graph (e.g., preprocessing results) next to its map file.
+ *
+ * Graphs are weakly referenced, so entries are released with their graph.
+ *
+ */
+public final class MapFiles {
+
+    // Map file of each registered graph.
+    private static final Map<Object, File> FILES = new WeakHashMap<>();
+
+    private MapFiles() {
+    }
+
+    /**
+     * Register the file the given graph has been read from.
+     *
+     * @param graph Graph read (a Graph or a CompactGraph).
+     * @param file File the graph has been read from.
+     */
+    public static synchronized void register(Object graph, File file) {
+        FILES.put(graph, file);
+    }
+
+    /**
+     * @param graph A graph.
+     *
+     * @return File the given graph has been read from, or null if unknown.
+     */
+    public static synchronized File get(Object graph) {
+        return FILES.get(graph);
+    }
+
+    /**
+     * Create the path of a file next to the given map file, whose name is the name
+     * of the map file with its extension replaced by the given one.
+     *
+     * @param mapFile Map file.
+     * @param extension Extension of the new file (without the leading dot).
+     *
+     * @return File next to the given map file with the given extension.
+     */
+    public static File getSibling(File mapFile, String extension) {
+        String name = mapFile.getName();
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        return new File(mapFile.getParentFile(), name + "." + extension);
+    }
+
+}
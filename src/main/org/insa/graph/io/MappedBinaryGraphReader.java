@@ -0,0 +1,457 @@
+package org.insa.graph.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.Arc;
+import org.insa.graph.CompactGraph;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.GraphStatistics.BoundingBox;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+
+/**
+ * Implementation of {@link GraphReader} to read graph in binary format from a
+ * memory-mapped file.
+ *
+ * The file is mapped using {@link FileChannel#map(MapMode, long, long)} and
+ * decoded directly from the mapped buffer, instead of pulling every value
+ * through a {@link DataInputStream}. The format is the same as the one read by
+ * {@link BinaryGraphReader}. Files larger than 2GB cannot be mapped at once
+ * and are not supported.
+ *
+ */
+public class MappedBinaryGraphReader extends BinaryReader implements GraphReader {
+
+    /**
+     * Ways of loading the geometry (segments) of the arcs.
+     *
+     */
+    public enum GeometryMode {
+
+        // Decode all the points while reading the graph.
+        EAGER,
+
+        // Only record where the segments of each arc are in the file, and decode them
+        // when the points of the arc are accessed. The file stays mapped as long as
+        // the graph is reachable.
+        LAZY,
+
+        // Do not read segments, the points of each arc are only its origin and its
+        // destination.
+        SKIP
+    }
+
+    /**
+     * Map the given file in memory (read-only).
+     *
+     * @param file File to map.
+     *
+     * @return Buffer mapping the whole file.
+     *
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    protected static ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to be mapped: " + file);
+            }
+            return channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // File to read.
+    private final File file;
+
+    // List of observers
+    protected List<GraphReaderObserver> observers = new ArrayList<>();
+
+    // Buffer mapping the file being read.
+    protected ByteBuffer buffer;
+
+    // Way of loading the geometry of the arcs.
+    private GeometryMode geometryMode = GeometryMode.EAGER;
+
+    // Maximum number of arcs whose decoded points are cached in LAZY mode.
+    private int geometryCacheSize = 0;
+
+    // Map ID and map name, read from the header.
+    private String mapId, mapName;
+
+    // Number of descriptors and nodes.
+    private int nbDesc, nbNodes;
+
+    // Position and number of successors of each node.
+    private float[] longitudes, latitudes;
+    private int[] nbSuccessors;
+    private int nbTotalSuccessors;
+
+    // Descriptors.
+    private RoadInformation[] descs;
+
+    /**
+     * Create a new MappedBinaryGraphReader that reads from the given file.
+     *
+     * @param file File to read from.
+     */
+    public MappedBinaryGraphReader(File file) {
+        super(BinaryGraphReader.MAGIC_NUMBER, BinaryGraphReader.VERSION);
+        this.file = file;
+    }
+
+    /**
+     * Set the way the geometry of the arcs is loaded by {@link #read()}.
+     *
+     * @param mode Geometry mode to use (default is {@link GeometryMode#EAGER}).
+     */
+    public void setGeometryMode(GeometryMode mode) {
+        this.geometryMode = mode;
+    }
+
+    /**
+     * Set the size of the cache of decoded points used in
+     * {@link GeometryMode#LAZY} mode.
+     *
+     * @param cacheSize Maximum number of arcs whose points are kept in cache, 0 (the
+     *        default) to decode points on each access.
+     */
+    public void setGeometryCacheSize(int cacheSize) {
+        this.geometryCacheSize = cacheSize;
+    }
+
+    @Override
+    public void addObserver(GraphReaderObserver observer) {
+        observers.add(observer);
+    }
+
+    /**
+     * Check if the next byte in the buffer correspond to the given byte.
+     *
+     * @param b Byte to check.
+     *
+     * @throws BadFormatException if the byte read is not the expected one.
+     */
+    private void checkBufferByteOrThrow(int b) throws BadFormatException {
+        if ((buffer.get() & 0xff) != b) {
+            throw new BadFormatException();
+        }
+    }
+
+    /**
+     * @return Value of the next 24 bits of the buffer (BigEndian order).
+     */
+    private int get24bits() {
+        int x = buffer.getShort() & 0xffff;
+        return (x << 8) | (buffer.get() & 0xff);
+    }
+
+    /**
+     * Read a string written with {@link java.io.DataOutputStream#writeUTF(String)}
+     * from the buffer.
+     *
+     * @return The string read.
+     *
+     * @throws IOException if the string is malformed.
+     */
+    private String getUTF() throws IOException {
+        int length = buffer.getShort(buffer.position()) & 0xffff;
+        byte[] bytes = new byte[length + 2];
+        buffer.get(bytes);
+        return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+    }
+
+    /**
+     * Map the file and read everything up to the arcs: header, nodes and
+     * descriptors.
+     *
+     * @param nodes List where the nodes read are added, or null to only read
+     *        their coordinates (without creating any {@link Node}).
+     *
+     * @throws IOException if an error occurs while reading.
+     */
+    private void readUntilArcs(List<Node> nodes) throws IOException {
+        this.buffer = map(this.file);
+
+        // Read and check magic number and file version.
+        checkMagicNumberOrThrow(buffer.getInt());
+        checkVersionOrThrow(buffer.getInt());
+
+        // Read map id.
+        if (getCurrentVersion() < 6) {
+            mapId = "0x" + Integer.toHexString(buffer.getInt());
+            mapName = "";
+        }
+        else {
+            byte[] bytes = new byte[BinaryGraphReader.MAP_ID_FIELD_LENGTH];
+            buffer.get(bytes);
+            mapId = new String(bytes, "UTF-8").trim();
+            mapName = getUTF();
+        }
+
+        observers.forEach((observer) -> observer.notifyStartReading(mapId));
+
+        // Number of descriptors and nodes.
+        nbDesc = buffer.getInt();
+        nbNodes = buffer.getInt();
+
+        // Read nodes, each node is stored on 9 bytes.
+        longitudes = new float[nbNodes];
+        latitudes = new float[nbNodes];
+        nbSuccessors = new int[nbNodes];
+        nbTotalSuccessors = 0;
+        observers.forEach((observer) -> observer.notifyStartReadingNodes(nbNodes));
+        int offset = buffer.position();
+        for (int node = 0; node < nbNodes; ++node, offset += 9) {
+            longitudes[node] = ((float) buffer.getInt(offset)) / 1E6f;
+            latitudes[node] = ((float) buffer.getInt(offset + 4)) / 1E6f;
+            nbSuccessors[node] = buffer.get(offset + 8) & 0xff;
+            nbTotalSuccessors += nbSuccessors[node];
+            if (nodes != null) {
+                final Node aNode = new Node(node, new Point(longitudes[node], latitudes[node]));
+                nodes.add(aNode);
+                observers.forEach((observer) -> observer.notifyNewNodeRead(aNode));
+            }
+        }
+        buffer.position(offset);
+
+        // Check format.
+        checkBufferByteOrThrow(255);
+
+        // Read descriptors.
+        observers.forEach((observer) -> observer.notifyStartReadingDescriptors(nbDesc));
+        descs = new RoadInformation[nbDesc];
+        for (int descr = 0; descr < nbDesc; ++descr) {
+            final RoadInformation roadinf = readRoadInformation();
+            descs[descr] = roadinf;
+            observers.forEach((observer) -> observer.notifyNewDescriptorRead(roadinf));
+        }
+
+        // Check format.
+        checkBufferByteOrThrow(254);
+    }
+
+    /**
+     * @return Statistics of the graph, computed from the nodes and descriptors
+     *         read, and the given arc statistics.
+     */
+    private GraphStatistics createStatistics(int nbOneWayRoad, float maxLength) {
+        float minLongitude = Float.POSITIVE_INFINITY, minLatitude = Float.POSITIVE_INFINITY,
+                maxLongitude = Float.NEGATIVE_INFINITY, maxLatitude = Float.NEGATIVE_INFINITY;
+        for (int node = 0; node < nbNodes; ++node) {
+            minLongitude = Math.min(longitudes[node], minLongitude);
+            minLatitude = Math.min(latitudes[node], minLatitude);
+            maxLongitude = Math.max(longitudes[node], maxLongitude);
+            maxLatitude = Math.max(latitudes[node], maxLatitude);
+        }
+        int maxSpeed = 0;
+        for (RoadInformation desc: descs) {
+            maxSpeed = Math.max(desc.getMaximumSpeed(), maxSpeed);
+        }
+        return new GraphStatistics(
+                new BoundingBox(new Point(minLongitude, maxLatitude),
+                        new Point(maxLongitude, minLatitude)),
+                nbOneWayRoad, nbTotalSuccessors - nbOneWayRoad, maxSpeed, maxLength);
+    }
+
+    /**
+     * @return Length of the next arc in the buffer.
+     */
+    private float getLength() {
+        if (getCurrentVersion() < 8) {
+            return buffer.getShort() & 0xffff;
+        }
+        return buffer.getInt() / 1000.0f;
+    }
+
+    @Override
+    public Graph read() throws IOException {
+
+        // Nodes are created by readUntilArcs(), with the other data before arcs.
+        ArrayList<Node> nodes = new ArrayList<Node>();
+        readUntilArcs(nodes);
+
+        // Geometry shared by lazy lists of points.
+        MappedPointList.Geometry geometry = geometryMode == GeometryMode.LAZY
+                ? new MappedPointList.Geometry(buffer, geometryCacheSize) : null;
+
+        // Read successors and convert to arcs.
+        float maxLength = 0;
+        int nbOneWayRoad = 0;
+        observers.forEach((observer) -> observer.notifyStartReadingArcs(nbTotalSuccessors));
+        for (int node = 0; node < nbNodes; ++node) {
+            for (int succ = 0; succ < nbSuccessors[node]; ++succ) {
+                int destNode = get24bits();
+                int descrNum = get24bits();
+                float length = getLength();
+                maxLength = Math.max(length, maxLength);
+
+                // Chain of points corresponding to the segments.
+                int nbSegments = buffer.getShort() & 0xffff;
+                Point origin = nodes.get(node).getPoint();
+                Point destination = nodes.get(destNode).getPoint();
+                List<Point> points;
+                if (geometryMode == GeometryMode.EAGER) {
+                    points = new ArrayList<Point>(nbSegments + 2);
+                    Point lastPoint = origin;
+                    points.add(lastPoint);
+                    for (int seg = 0; seg < nbSegments; ++seg) {
+                        float dlon = buffer.getShort() / 2.0e5f;
+                        float dlat = buffer.getShort() / 2.0e5f;
+                        lastPoint = new Point(lastPoint.getLongitude() + dlon,
+                                lastPoint.getLatitude() + dlat);
+                        points.add(lastPoint);
+                    }
+                    points.add(destination);
+                }
+                else {
+                    if (geometryMode == GeometryMode.LAZY) {
+                        points = new MappedPointList(geometry, buffer.position(), nbSegments,
+                                origin, destination, false);
+                    }
+                    else {
+                        points = Arrays.asList(origin, destination);
+                    }
+                    buffer.position(buffer.position() + 4 * nbSegments);
+                }
+
+                RoadInformation info = descs[descrNum];
+                Arc arc = Node.linkNodes(nodes.get(node), nodes.get(destNode), length, info,
+                        points);
+                if (info.isOneWay()) {
+                    nbOneWayRoad++;
+                }
+                observers.forEach((observer) -> observer.notifyNewArcRead(arc));
+            }
+        }
+
+        // Check format.
+        checkBufferByteOrThrow(253);
+
+        observers.forEach((observer) -> observer.notifyEndReading());
+
+        Graph graph = new Graph(mapId, mapName, nodes, createStatistics(nbOneWayRoad, maxLength));
+        MapFiles.register(graph, this.file);
+        return graph;
+    }
+
+    /**
+     * Read a compact graph from the file, without creating any {@link Node} or
+     * {@link Arc} object. The arcs are decoded twice from the mapped buffer: once
+     * to count the arcs of each node, and once to fill the arrays.
+     *
+     * @return The compact graph read.
+     *
+     * @throws IOException When an exception occurs while reading the graph.
+     *
+     * @see BinaryGraphReader#readCompact()
+     */
+    public CompactGraph readCompact() throws IOException {
+
+        readUntilArcs(null);
+
+        observers.forEach((observer) -> observer.notifyStartReadingArcs(nbTotalSuccessors));
+
+        // First pass: count arcs of each node.
+        final int arcsOffset = buffer.position();
+        final int lengthSize = getCurrentVersion() < 8 ? 2 : 4;
+        int[] firstArcs = new int[nbNodes + 1];
+        float maxLength = 0;
+        int nbOneWayRoad = 0;
+        for (int node = 0; node < nbNodes; ++node) {
+            for (int succ = 0; succ < nbSuccessors[node]; ++succ) {
+                int destNode = get24bits();
+                int descrNum = get24bits();
+                maxLength = Math.max(getLength(), maxLength);
+                int nbSegments = buffer.getShort() & 0xffff;
+                buffer.position(buffer.position() + 4 * nbSegments);
+
+                firstArcs[node + 1] += 1;
+                if (descs[descrNum].isOneWay()) {
+                    nbOneWayRoad++;
+                }
+                else {
+                    firstArcs[destNode + 1] += 1;
+                }
+            }
+        }
+
+        // Check format.
+        checkBufferByteOrThrow(253);
+
+        // Second pass: fill arcs.
+        for (int node = 0; node < nbNodes; ++node) {
+            firstArcs[node + 1] += firstArcs[node];
+        }
+        final int nbArcs = firstArcs[nbNodes];
+        int[] nextArcs = Arrays.copyOf(firstArcs, nbNodes);
+        int[] arcDestinations = new int[nbArcs];
+        float[] arcLengths = new float[nbArcs];
+        int[] arcDescriptors = new int[nbArcs];
+        int offset = arcsOffset;
+        for (int node = 0; node < nbNodes; ++node) {
+            for (int succ = 0; succ < nbSuccessors[node]; ++succ) {
+                int destNode = ((buffer.getShort(offset) & 0xffff) << 8)
+                        | (buffer.get(offset + 2) & 0xff);
+                int descrNum = ((buffer.getShort(offset + 3) & 0xffff) << 8)
+                        | (buffer.get(offset + 5) & 0xff);
+                float length = lengthSize == 2 ? buffer.getShort(offset + 6) & 0xffff
+                        : buffer.getInt(offset + 6) / 1000.0f;
+                int nbSegments = buffer.getShort(offset + 6 + lengthSize) & 0xffff;
+                offset += 8 + lengthSize + 4 * nbSegments;
+
+                int arc = nextArcs[node]++;
+                arcDestinations[arc] = destNode;
+                arcLengths[arc] = length;
+                arcDescriptors[arc] = descrNum;
+                if (!descs[descrNum].isOneWay()) {
+                    arc = nextArcs[destNode]++;
+                    arcDestinations[arc] = node;
+                    arcLengths[arc] = length;
+                    arcDescriptors[arc] = descrNum;
+                }
+            }
+        }
+
+        observers.forEach((observer) -> observer.notifyEndReading());
+
+        CompactGraph graph = new CompactGraph(mapId, mapName, longitudes, latitudes, firstArcs,
+                arcDestinations, arcLengths, arcDescriptors, descs,
+                createStatistics(nbOneWayRoad, maxLength));
+        MapFiles.register(graph, this.file);
+        return graph;
+    }
+
+    /**
+     * Read the next road information from the buffer.
+     *
+     * @return The next RoadInformation in the buffer.
+     *
+     * @throws IOException if an error occurs while reading from the buffer.
+     */
+    private RoadInformation readRoadInformation() throws IOException {
+        char type = (char) (buffer.get() & 0xff);
+        int x = buffer.get() & 0xff;
+        AccessRestrictions access = new AccessRestrictions();
+        if (getCurrentVersion() >= 7) {
+            access = BinaryGraphReader.toAccessInformation(buffer.getLong());
+        }
+        else if (getCurrentVersion() >= 6) {
+            buffer.getShort();
+        }
+        return new RoadInformation(BinaryGraphReader.toRoadType(type), access, (x & 0x80) > 0,
+                (x & 0x7F) * 5, getUTF());
+    }
+
+}
@@ -0,0 +1,170 @@
+package org.insa.graph.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.insa.graph.LazyPointList;
+import org.insa.graph.Point;
+
+/**
+ * Points of an arc whose segments are decoded on demand from a memory-mapped
+ * graph file, see {@link MappedBinaryGraphReader.GeometryMode#LAZY}.
+ *
+ */
+class MappedPointList extends LazyPointList {
+
+    /**
+     * Points decoded for a given offset.
+     *
+     */
+    private static class Decoded {
+
+        // Offset of the first segment and decoded points.
+        private final int offset;
+        private final List<Point> points;
+
+        private Decoded(int offset, List<Point> points) {
+            this.offset = offset;
+            this.points = points;
+        }
+    }
+
+    /**
+     * Geometry block of a mapped file, shared by all the lists of a graph, with an
+     * optional bounded cache of decoded points.
+     *
+     * The last decoded points are always kept, so that indexed accesses to the
+     * points of a same arc (e.g. a loop over {@link List#get(int)}) only decode
+     * them once.
+     *
+     */
+    static class Geometry {
+
+        // Buffer mapping the file.
+        private final ByteBuffer buffer;
+
+        // Cache of decoded points (least recently used first), or null.
+        private final Map<Integer, List<Point>> cache;
+
+        // Last decoded points, or null.
+        private volatile Decoded last;
+
+        /**
+         * @param buffer Buffer mapping the graph file.
+         * @param cacheSize Maximum number of arcs whose points are kept in cache, 0
+         *        to disable the cache.
+         */
+        Geometry(ByteBuffer buffer, final int cacheSize) {
+            this.buffer = buffer;
+            if (cacheSize > 0) {
+                this.cache = new LinkedHashMap<Integer, List<Point>>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Integer, List<Point>> eldest) {
+                        return size() > cacheSize;
+                    }
+                };
+            }
+            else {
+                this.cache = null;
+            }
+        }
+
+        /**
+         * Decode the points of an arc.
+         *
+         * @param offset Offset of the first segment in the buffer.
+         * @param nbSegments Number of segments.
+         * @param origin Origin of the arc.
+         * @param destination Destination of the arc.
+         *
+         * @return Points of the arc, in file order.
+         */
+        List<Point> decode(int offset, int nbSegments, Point origin, Point destination) {
+            final Decoded decoded = last;
+            if (decoded != null && decoded.offset == offset) {
+                return decoded.points;
+            }
+            if (cache != null) {
+                synchronized (cache) {
+                    List<Point> points = cache.get(offset);
+                    if (points != null) {
+                        last = new Decoded(offset, points);
+                        return points;
+                    }
+                }
+            }
+            ArrayList<Point> points = new ArrayList<>(nbSegments + 2);
+            Point lastPoint = origin;
+            points.add(lastPoint);
+            for (int seg = 0, position = offset; seg < nbSegments; ++seg, position += 4) {
+                float dlon = buffer.getShort(position) / 2.0e5f;
+                float dlat = buffer.getShort(position + 2) / 2.0e5f;
+                lastPoint = new Point(lastPoint.getLongitude() + dlon,
+                        lastPoint.getLatitude() + dlat);
+                points.add(lastPoint);
+            }
+            points.add(destination);
+            List<Point> result = Collections.unmodifiableList(points);
+            if (cache != null) {
+                synchronized (cache) {
+                    cache.put(offset, result);
+                }
+            }
+            last = new Decoded(offset, result);
+            return result;
+        }
+    }
+
+    // Geometry this list belongs to.
+    private final Geometry geometry;
+
+    // Offset of the first segment and number of segments.
+    private final int offset, nbSegments;
+
+    // Origin and destination of the arc (in file order).
+    private final Point origin, destination;
+
+    /**
+     * Create a new list for the given segments.
+     *
+     * @param geometry Geometry of the mapped file.
+     * @param offset Offset of the first segment in the file.
+     * @param nbSegments Number of segments.
+     * @param origin Origin of the arc.
+     * @param destination Destination of the arc.
+     * @param reversed true if points should be listed from destination to
+     *        origin.
+     */
+    MappedPointList(Geometry geometry, int offset, int nbSegments, Point origin,
+            Point destination, boolean reversed) {
+        super(reversed);
+        this.geometry = geometry;
+        this.offset = offset;
+        this.nbSegments = nbSegments;
+        this.origin = origin;
+        this.destination = destination;
+    }
+
+    @Override
+    protected List<Point> load() {
+        return geometry.decode(offset, nbSegments, origin, destination);
+    }
+
+    @Override
+    public LazyPointList reverse() {
+        return new MappedPointList(geometry, offset, nbSegments, origin, destination,
+                !isReversed());
+    }
+
+    @Override
+    public int size() {
+        return nbSegments + 2;
+    }
+
+}
@@ -0,0 +1,155 @@
+package org.insa.graph.spatial;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.insa.graph.Arc;
+import org.insa.graph.Point;
+
+/**
+ * Position on an arc, e.g. the projection of a point on the closest arc of a
+ * graph (see {@link ArcSegmentIndex}).
+ *
+ * The position is given by the index of the segment of the geometry of the arc
+ * it lies on, and by the fraction of the arc (by length along its geometry)
+ * between the origin of the arc and the position. The geometry of an arc is
+ * its list of points if it contains at least two points (maps include the
+ * points of the origin and the destination), or its origin point, followed by
+ * its points, followed by its destination point otherwise.
+ *
+ */
+public final class ArcPosition {
+
+    // Arc, segment and fraction of the arc before the position.
+    private final Arc arc;
+    private final int segment;
+    private final double fraction;
+
+    // Point of the position, and distance to the point it was projected from.
+    private final Point point;
+    private final double distance;
+
+    /**
+     * Create a new position.
+     * 
+     * @param arc Arc of the position.
+     * @param segment Index of the segment of the geometry of the arc.
+     * @param fraction Fraction of the arc between its origin and the position,
+     *        between 0 and 1.
+     * @param point Point of the position.
+     * @param distance Distance between the position and the point it was
+     *        projected from, in meters (0 if it was not projected).
+     */
+    public ArcPosition(Arc arc, int segment, double fraction, Point point, double distance) {
+        this.arc = arc;
+        this.segment = segment;
+        this.fraction = fraction;
+        this.point = point;
+        this.distance = distance;
+    }
+
+    /**
+     * @return Arc of this position.
+     */
+    public Arc getArc() {
+        return arc;
+    }
+
+    /**
+     * @return Index of the segment of the geometry of the arc this position lies
+     *         on.
+     */
+    public int getSegment() {
+        return segment;
+    }
+
+    /**
+     * @return Fraction of the arc between its origin and this position, between 0
+     *         and 1.
+     */
+    public double getFraction() {
+        return fraction;
+    }
+
+    /**
+     * @return Point of this position.
+     */
+    public Point getPoint() {
+        return point;
+    }
+
+    /**
+     * @return Distance between this position and the point it was projected from,
+     *         in meters.
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return The same position on the reverse arc of the arc of this position
+     *         (i.e. the arc of the same two-way road in the other direction), or
+     *         null if the road is one-way.
+     */
+    public ArcPosition reverse() {
+        Arc reverse = getReverseArc(arc);
+        if (reverse == null) {
+            return null;
+        }
+        return new ArcPosition(reverse, getSegmentCount(arc) - 1 - segment, 1 - fraction, point,
+                distance);
+    }
+
+    /**
+     * @param arc An arc.
+     * 
+     * @return The arc of the same road in the other direction, or null if the road
+     *         is one-way.
+     */
+    public static Arc getReverseArc(Arc arc) {
+        if (arc.getRoadInformation().isOneWay()) {
+            return null;
+        }
+        for (Arc candidate: arc.getDestination()) {
+            if (candidate != arc && candidate.getDestination().equals(arc.getOrigin())
+                    && candidate.getRoadInformation() == arc.getRoadInformation()
+                    && candidate.getLength() == arc.getLength()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param arc An arc.
+     * 
+     * @return Points of the geometry of the given arc.
+     */
+    static List<Point> getGeometry(Arc arc) {
+        List<Point> points = arc.getPoints();
+        if (points.size() >= 2) {
+            return points;
+        }
+        List<Point> geometry = new ArrayList<>(points.size() + 2);
+        geometry.add(arc.getOrigin().getPoint());
+        geometry.addAll(points);
+        geometry.add(arc.getDestination().getPoint());
+        return geometry;
+    }
+
+    /**
+     * @param arc An arc.
+     * 
+     * @return Number of segments of the geometry of the given arc.
+     */
+    static int getSegmentCount(Arc arc) {
+        return getGeometry(arc).size() - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ArcPosition(%d -> %d, %.3f, %s)", arc.getOrigin().getId(),
+                arc.getDestination().getId(), fraction, point);
+    }
+
+}
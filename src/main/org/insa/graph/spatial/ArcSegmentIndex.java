@@ -0,0 +1,472 @@
+package org.insa.graph.spatial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+
+import org.insa.graph.Arc;
+import org.insa.graph.ArcNumbering;
+import org.insa.graph.Graph;
+import org.insa.graph.Point;
+
+/**
+ * Spatial index of the segments of the geometry of the arcs of a graph
+ * (R-tree), used to project points on the closest arc.
+ *
+ * Each road is indexed once: for a two-way road, only one of its two arcs is
+ * indexed (see {@link ArcPosition#reverse()} to retrieve the position on the
+ * other one).
+ *
+ * The tree is packed once for all: segments are sorted along a Hilbert curve
+ * (by the center of their bounding box) and grouped by {@link #NODE_CAPACITY}
+ * consecutive segments into leaves, which are themselves grouped into parent
+ * nodes, up to a single root. Bounding boxes are stored in flat arrays, and the
+ * children of node k of a level are the nodes (or segments) [k * NODE_CAPACITY,
+ * (k + 1) * NODE_CAPACITY[ of the level below.
+ *
+ * As for {@link NodeIndex}, distances are computed on an equirectangular
+ * projection, and indexes are immutable.
+ *
+ */
+public final class ArcSegmentIndex {
+
+    /**
+     * Maximum number of children of a node of the tree.
+     */
+    public static final int NODE_CAPACITY = 16;
+
+    // Indexes already built, released with their graph.
+    private static final Map<Graph, ArcSegmentIndex> CACHE = new WeakHashMap<>();
+
+    /**
+     * Retrieve the index of the arcs of the given graph, building it on first use.
+     * 
+     * @param graph Graph whose arcs should be indexed.
+     * 
+     * @return Index of the arcs of the given graph.
+     */
+    public static ArcSegmentIndex forGraph(Graph graph) {
+        synchronized (CACHE) {
+            return CACHE.computeIfAbsent(graph, ArcSegmentIndex::new);
+        }
+    }
+
+    // Scale applied to longitudes.
+    private final double scale;
+
+    // Indexed arcs.
+    private final Arc[] arcs;
+
+    // Arc (index in arcs) and index in the geometry of the arc of each segment, and
+    // projected coordinates of its extremities, in tree order.
+    private final int[] segmentArcs, segmentIndices;
+    private final double[] x1s, y1s, x2s, y2s;
+
+    // Bounding boxes of the nodes of all levels (leaves first).
+    private final double[] minXs, minYs, maxXs, maxYs;
+
+    // Index of the first node of each level in the box arrays, and number of nodes
+    // (or segments for level 0) below each level.
+    private final int[] levelOffsets, childCounts;
+
+    /**
+     * Build an index of the arcs of the given graph.
+     * 
+     * @param graph Graph whose arcs should be indexed.
+     */
+    public ArcSegmentIndex(Graph graph) {
+        ArcNumbering numbering = ArcNumbering.forGraph(graph);
+
+        // Arcs to index (one per road) and their geometry.
+        List<Arc> indexed = new ArrayList<>();
+        List<List<Point>> geometries = new ArrayList<>();
+        int nbSegments = 0;
+        double latitudes = 0;
+        for (int id = 0; id < numbering.getArcCount(); ++id) {
+            Arc arc = numbering.getArc(id);
+            if (!arc.getRoadInformation().isOneWay()
+                    && arc.getOrigin().getId() > arc.getDestination().getId()) {
+                continue;
+            }
+            List<Point> geometry = ArcPosition.getGeometry(arc);
+            indexed.add(arc);
+            geometries.add(geometry);
+            nbSegments += geometry.size() - 1;
+            latitudes += arc.getOrigin().getPoint().getLatitude();
+        }
+        this.arcs = indexed.toArray(new Arc[indexed.size()]);
+        this.scale = arcs.length == 0 ? 1 : Math.cos(Math.toRadians(latitudes / arcs.length));
+
+        // Segments, in arc order.
+        int[] segmentArcs = new int[nbSegments], segmentIndices = new int[nbSegments];
+        double[] x1s = new double[nbSegments], y1s = new double[nbSegments];
+        double[] x2s = new double[nbSegments], y2s = new double[nbSegments];
+        for (int arc = 0, segment = 0; arc < arcs.length; ++arc) {
+            List<Point> geometry = geometries.get(arc);
+            for (int i = 0; i + 1 < geometry.size(); ++i, ++segment) {
+                segmentArcs[segment] = arc;
+                segmentIndices[segment] = i;
+                x1s[segment] = x(geometry.get(i));
+                y1s[segment] = y(geometry.get(i));
+                x2s[segment] = x(geometry.get(i + 1));
+                y2s[segment] = y(geometry.get(i + 1));
+            }
+        }
+
+        // Sort segments along a Hilbert curve.
+        int[] order = hilbertOrder(x1s, y1s, x2s, y2s);
+        this.segmentArcs = permute(segmentArcs, order);
+        this.segmentIndices = permute(segmentIndices, order);
+        this.x1s = permute(x1s, order);
+        this.y1s = permute(y1s, order);
+        this.x2s = permute(x2s, order);
+        this.y2s = permute(y2s, order);
+
+        // Number of levels and nodes.
+        List<Integer> counts = new ArrayList<>();
+        int nbNodes = 0;
+        for (int count = nbSegments; count > 1 || counts.isEmpty();) {
+            counts.add(count);
+            count = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            nbNodes += count;
+        }
+        this.childCounts = new int[counts.size()];
+        this.levelOffsets = new int[counts.size()];
+        this.minXs = new double[nbNodes];
+        this.minYs = new double[nbNodes];
+        this.maxXs = new double[nbNodes];
+        this.maxYs = new double[nbNodes];
+
+        // Bounding boxes, from the leaves to the root.
+        for (int level = 0, offset = 0; level < counts.size(); ++level) {
+            final int nbChildren = counts.get(level);
+            final int count = (nbChildren + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            childCounts[level] = nbChildren;
+            levelOffsets[level] = offset;
+            for (int node = 0; node < count; ++node) {
+                double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+                double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+                final int end = Math.min(nbChildren, (node + 1) * NODE_CAPACITY);
+                for (int child = node * NODE_CAPACITY; child < end; ++child) {
+                    if (level == 0) {
+                        minX = Math.min(minX, Math.min(this.x1s[child], this.x2s[child]));
+                        minY = Math.min(minY, Math.min(this.y1s[child], this.y2s[child]));
+                        maxX = Math.max(maxX, Math.max(this.x1s[child], this.x2s[child]));
+                        maxY = Math.max(maxY, Math.max(this.y1s[child], this.y2s[child]));
+                    }
+                    else {
+                        final int index = levelOffsets[level - 1] + child;
+                        minX = Math.min(minX, minXs[index]);
+                        minY = Math.min(minY, minYs[index]);
+                        maxX = Math.max(maxX, maxXs[index]);
+                        maxY = Math.max(maxY, maxYs[index]);
+                    }
+                }
+                minXs[offset + node] = minX;
+                minYs[offset + node] = minY;
+                maxXs[offset + node] = maxX;
+                maxYs[offset + node] = maxY;
+            }
+            offset += count;
+        }
+    }
+
+    /**
+     * @return Projected horizontal coordinate of the given point.
+     */
+    private double x(Point point) {
+        return point.getLongitude() * scale;
+    }
+
+    /**
+     * @return Projected vertical coordinate of the given point.
+     */
+    private static double y(Point point) {
+        return point.getLatitude();
+    }
+
+    /**
+     * @return Order of the given segments along a Hilbert curve covering their
+     *         bounding box.
+     */
+    private static int[] hilbertOrder(double[] x1s, double[] y1s, double[] x2s, double[] y2s) {
+        final int n = x1s.length;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; ++i) {
+            minX = Math.min(minX, Math.min(x1s[i], x2s[i]));
+            minY = Math.min(minY, Math.min(y1s[i], y2s[i]));
+            maxX = Math.max(maxX, Math.max(x1s[i], x2s[i]));
+            maxY = Math.max(maxY, Math.max(y1s[i], y2s[i]));
+        }
+        // Hilbert values are below side^2 = 2^30, so the shifted keys stay positive.
+        final int side = 1 << 15;
+        final double scaleX = maxX > minX ? (side - 1) / (maxX - minX) : 0;
+        final double scaleY = maxY > minY ? (side - 1) / (maxY - minY) : 0;
+
+        // Sort (Hilbert value, index) pairs packed in longs.
+        long[] keys = new long[n];
+        for (int i = 0; i < n; ++i) {
+            int x = (int) (((x1s[i] + x2s[i]) / 2 - minX) * scaleX);
+            int y = (int) (((y1s[i] + y2s[i]) / 2 - minY) * scaleY);
+            keys[i] = (hilbert(side, x, y) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        for (int i = 0; i < n; ++i) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * @return Distance along the Hilbert curve of the given side of the cell (x,
+     *         y).
+     */
+    private static long hilbert(int side, int x, int y) {
+        long d = 0;
+        for (int s = side / 2; s > 0; s /= 2) {
+            final int rx = (x & s) > 0 ? 1 : 0;
+            final int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    private static int[] permute(int[] values, int[] order) {
+        int[] result = new int[values.length];
+        for (int i = 0; i < order.length; ++i) {
+            result[i] = values[order[i]];
+        }
+        return result;
+    }
+
+    private static double[] permute(double[] values, int[] order) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < order.length; ++i) {
+            result[i] = values[order[i]];
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of indexed arcs (one per road).
+     */
+    public int getArcCount() {
+        return arcs.length;
+    }
+
+    /**
+     * @return Number of indexed segments.
+     */
+    public int getSegmentCount() {
+        return x1s.length;
+    }
+
+    /**
+     * @param point Point to project.
+     * 
+     * @return Projection of the given point on the closest arc, or null if the
+     *         graph has no arc.
+     */
+    public ArcPosition findNearest(Point point) {
+        return findNearest(point, null);
+    }
+
+    /**
+     * @param point Point to project.
+     * @param filter Filter of the arcs to consider (called with indexed arcs, see
+     *        {@link ArcPosition#getReverseArc(Arc)} to check the reverse arc of a
+     *        two-way road), or null to consider all arcs.
+     * 
+     * @return Projection of the given point on the closest arc accepted by the
+     *         given filter, or null if there is none.
+     */
+    public ArcPosition findNearest(Point point, Predicate<Arc> filter) {
+        if (x1s.length == 0) {
+            return null;
+        }
+        final double x = x(point), y = y(point);
+
+        // Best-first search: nodes and segments (encoded as -1 - segment) by
+        // increasing distance. The first segment popped is the closest one.
+        Queue queue = new Queue();
+        final int root = childCounts.length - 1;
+        queue.push(boxDistance(levelOffsets[root], x, y), levelOffsets[root]);
+
+        // Last arc tested by the filter and its result (consecutive segments often
+        // belong to the same arc).
+        int lastArc = -1;
+        boolean lastAccepted = false;
+        while (!queue.isEmpty()) {
+            final int item = queue.pop();
+            if (item < 0) {
+                return project(-1 - item, point);
+            }
+
+            // Retrieve the level and index of the node.
+            int level = root;
+            while (levelOffsets[level] > item) {
+                --level;
+            }
+            final int node = item - levelOffsets[level];
+            final int end = Math.min(childCounts[level], (node + 1) * NODE_CAPACITY);
+            for (int child = node * NODE_CAPACITY; child < end; ++child) {
+                if (level > 0) {
+                    final int index = levelOffsets[level - 1] + child;
+                    queue.push(boxDistance(index, x, y), index);
+                }
+                else {
+                    final int arc = segmentArcs[child];
+                    if (filter != null) {
+                        if (arc != lastArc) {
+                            lastArc = arc;
+                            lastAccepted = filter.test(arcs[arc]);
+                        }
+                        if (!lastAccepted) {
+                            continue;
+                        }
+                    }
+                    queue.push(segmentDistance(child, x, y), -1 - child);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Squared distance between (x, y) and the box of the given node.
+     */
+    private double boxDistance(int node, double x, double y) {
+        final double dx = Math.max(0, Math.max(minXs[node] - x, x - maxXs[node]));
+        final double dy = Math.max(0, Math.max(minYs[node] - y, y - maxYs[node]));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return Position of the projection of (x, y) on the given segment, between 0
+     *         (first point) and 1 (second point).
+     */
+    private double segmentParameter(int segment, double x, double y) {
+        final double dx = x2s[segment] - x1s[segment], dy = y2s[segment] - y1s[segment];
+        final double length = dx * dx + dy * dy;
+        if (length == 0) {
+            return 0;
+        }
+        final double t = ((x - x1s[segment]) * dx + (y - y1s[segment]) * dy) / length;
+        return Math.max(0, Math.min(1, t));
+    }
+
+    /**
+     * @return Squared distance between (x, y) and the given segment.
+     */
+    private double segmentDistance(int segment, double x, double y) {
+        final double t = segmentParameter(segment, x, y);
+        final double dx = x1s[segment] + t * (x2s[segment] - x1s[segment]) - x;
+        final double dy = y1s[segment] + t * (y2s[segment] - y1s[segment]) - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return Projection of the given point on the given segment.
+     */
+    private ArcPosition project(int segment, Point point) {
+        final double t = segmentParameter(segment, x(point), y(point));
+        final Arc arc = arcs[segmentArcs[segment]];
+        final int index = segmentIndices[segment];
+        final List<Point> geometry = ArcPosition.getGeometry(arc);
+        final Point from = geometry.get(index), to = geometry.get(index + 1);
+        final Point projected = new Point(
+                (float) (from.getLongitude() + t * (to.getLongitude() - from.getLongitude())),
+                (float) (from.getLatitude() + t * (to.getLatitude() - from.getLatitude())));
+
+        // Fraction of the length of the geometry before the projection.
+        double before = 0, total = 0;
+        for (int i = 0; i + 1 < geometry.size(); ++i) {
+            final double length = distance(geometry.get(i), geometry.get(i + 1));
+            if (i < index) {
+                before += length;
+            }
+            else if (i == index) {
+                before += t * length;
+            }
+            total += length;
+        }
+        return new ArcPosition(arc, index, total > 0 ? before / total : 0, projected,
+                distance(point, projected));
+    }
+
+    /**
+     * @return Distance between the given points, 0 if it is undefined because of
+     *         rounding errors.
+     */
+    private static double distance(Point p1, Point p2) {
+        final double distance = Point.distance(p1, p2);
+        return Double.isNaN(distance) ? 0 : distance;
+    }
+
+    /**
+     * Binary min-heap of items (ints) by key (doubles).
+     */
+    private static final class Queue {
+
+        private double[] keys = new double[64];
+        private int[] items = new int[64];
+        private int size = 0;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(double key, int item) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * size);
+                items = Arrays.copyOf(items, 2 * size);
+            }
+            int i = size++;
+            while (i > 0 && keys[(i - 1) / 2] > key) {
+                keys[i] = keys[(i - 1) / 2];
+                items[i] = items[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            keys[i] = key;
+            items[i] = item;
+        }
+
+        int pop() {
+            final int result = items[0];
+            final double key = keys[--size];
+            final int item = items[size];
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    ++child;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                items[i] = items[child];
+                i = child;
+            }
+            keys[i] = key;
+            items[i] = item;
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,374 @@
+package org.insa.graph.spatial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+
+/**
+ * Spatial index of the nodes of a graph (2-d tree), supporting nearest,
+ * k-nearest and bounding box queries.
+ *
+ * Distances are computed on an equirectangular projection of the points,
+ * where longitudes are scaled by the cosine of the mean latitude of the nodes.
+ * This is close enough to the great-circle distance at the scale of a map to
+ * rank nodes around a point, and much cheaper to compute.
+ *
+ * The tree is implicit and balanced: node indices are stored in a flat array
+ * where the median of each range [lo, hi[ is at (lo + hi) / 2, with smaller
+ * coordinates before it and larger ones after it, alternating between
+ * longitude and latitude at each level. Coordinates are copied in the same
+ * order so that queries only read two contiguous arrays.
+ *
+ * Indexes are immutable, and thus thread-safe.
+ *
+ */
+public final class NodeIndex {
+
+    // Indexes already built, released with their graph.
+    private static final Map<Graph, NodeIndex> CACHE = new WeakHashMap<>();
+
+    /**
+     * Retrieve the index of the nodes of the given graph, building it on first
+     * use.
+     * 
+     * @param graph Graph whose nodes should be indexed.
+     * 
+     * @return Index of the nodes of the given graph.
+     */
+    public static NodeIndex forGraph(Graph graph) {
+        synchronized (CACHE) {
+            return CACHE.computeIfAbsent(graph, NodeIndex::new);
+        }
+    }
+
+    // Nodes of the graph, by ID (the graph itself is not referenced, so that the
+    // index does not keep it out of the cache).
+    private final Node[] graphNodes;
+
+    // Scale applied to longitudes.
+    private final double scale;
+
+    // Node IDs and projected coordinates, in tree order.
+    private final int[] nodes;
+    private final double[] xs, ys;
+
+    /**
+     * Build an index of the nodes of the given graph.
+     * 
+     * @param graph Graph whose nodes should be indexed.
+     */
+    public NodeIndex(Graph graph) {
+        final int nbNodes = graph.size();
+        this.graphNodes = new Node[nbNodes];
+
+        double latitudes = 0;
+        for (Node node: graph) {
+            latitudes += node.getPoint().getLatitude();
+        }
+        this.scale = nbNodes == 0 ? 1 : Math.cos(Math.toRadians(latitudes / nbNodes));
+
+        this.nodes = new int[nbNodes];
+        this.xs = new double[nbNodes];
+        this.ys = new double[nbNodes];
+        for (Node node: graph) {
+            final int id = node.getId();
+            this.graphNodes[id] = node;
+            this.nodes[id] = id;
+            this.xs[id] = x(node.getPoint());
+            this.ys[id] = y(node.getPoint());
+        }
+        build(0, nbNodes, true);
+    }
+
+    /**
+     * @return Projected horizontal coordinate of the given point.
+     */
+    private double x(Point point) {
+        return point.getLongitude() * scale;
+    }
+
+    /**
+     * @return Projected vertical coordinate of the given point.
+     */
+    private static double y(Point point) {
+        return point.getLatitude();
+    }
+
+    /**
+     * Arrange the given range as a subtree split on the given axis.
+     */
+    private void build(int lo, int hi, boolean onX) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        final int median = (lo + hi) >>> 1;
+        select(lo, hi, median, onX ? xs : ys);
+        build(lo, median, !onX);
+        build(median + 1, hi, !onX);
+    }
+
+    /**
+     * Partially sort the given range so that the element at index k is the one
+     * that would be there if the range was sorted by the given coordinates
+     * (quickselect).
+     */
+    private void select(int lo, int hi, int k, double[] keys) {
+        int left = lo, right = hi - 1;
+        while (left < right) {
+            final double pivot = keys[(left + right) >>> 1];
+            int i = left, j = right;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    ++i;
+                }
+                while (keys[j] > pivot) {
+                    --j;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            }
+            else if (k >= i) {
+                left = i;
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Swap the elements at the given indices.
+     */
+    private void swap(int i, int j) {
+        int node = nodes[i];
+        nodes[i] = nodes[j];
+        nodes[j] = node;
+        double x = xs[i];
+        xs[i] = xs[j];
+        xs[j] = x;
+        double y = ys[i];
+        ys[i] = ys[j];
+        ys[j] = y;
+    }
+
+    /**
+     * @return Number of indexed nodes.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * @param point Point to search around.
+     * 
+     * @return The node closest to the given point, or null if the graph has no
+     *         node.
+     */
+    public Node findNearest(Point point) {
+        if (nodes.length == 0) {
+            return null;
+        }
+        final double[] best = { Double.POSITIVE_INFINITY };
+        final int[] bestIndex = { -1 };
+        nearest(0, nodes.length, true, x(point), y(point), best, bestIndex);
+        return graphNodes[nodes[bestIndex[0]]];
+    }
+
+    /**
+     * Search the closest node to (x, y) in the given subtree, updating the best
+     * squared distance and index found so far.
+     */
+    private void nearest(int lo, int hi, boolean onX, double x, double y, double[] best,
+            int[] bestIndex) {
+        if (lo >= hi) {
+            return;
+        }
+        final int median = (lo + hi) >>> 1;
+        final double dx = xs[median] - x, dy = ys[median] - y;
+        final double distance = dx * dx + dy * dy;
+        if (distance < best[0]) {
+            best[0] = distance;
+            bestIndex[0] = median;
+        }
+        final double delta = onX ? dx : dy;
+        if (delta > 0) {
+            nearest(lo, median, !onX, x, y, best, bestIndex);
+            if (delta * delta < best[0]) {
+                nearest(median + 1, hi, !onX, x, y, best, bestIndex);
+            }
+        }
+        else {
+            nearest(median + 1, hi, !onX, x, y, best, bestIndex);
+            if (delta * delta < best[0]) {
+                nearest(lo, median, !onX, x, y, best, bestIndex);
+            }
+        }
+    }
+
+    /**
+     * @param point Point to search around.
+     * @param k Number of nodes to find.
+     * 
+     * @return The k nodes closest to the given point (or all the nodes if there
+     *         are less than k nodes), by increasing distance.
+     */
+    public List<Node> findNearest(Point point, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Invalid number of nodes: " + k);
+        }
+        Neighbors neighbors = new Neighbors(Math.min(k, nodes.length));
+        if (neighbors.capacity > 0) {
+            nearest(0, nodes.length, true, x(point), y(point), neighbors);
+        }
+        return neighbors.toList();
+    }
+
+    /**
+     * Search the closest nodes to (x, y) in the given subtree.
+     */
+    private void nearest(int lo, int hi, boolean onX, double x, double y, Neighbors neighbors) {
+        if (lo >= hi) {
+            return;
+        }
+        final int median = (lo + hi) >>> 1;
+        final double dx = xs[median] - x, dy = ys[median] - y;
+        neighbors.offer(median, dx * dx + dy * dy);
+        final double delta = onX ? dx : dy;
+        if (delta > 0) {
+            nearest(lo, median, !onX, x, y, neighbors);
+            if (delta * delta < neighbors.getBound()) {
+                nearest(median + 1, hi, !onX, x, y, neighbors);
+            }
+        }
+        else {
+            nearest(median + 1, hi, !onX, x, y, neighbors);
+            if (delta * delta < neighbors.getBound()) {
+                nearest(lo, median, !onX, x, y, neighbors);
+            }
+        }
+    }
+
+    /**
+     * Bounded set of the closest elements found so far, stored in a binary
+     * max-heap of squared distances.
+     */
+    private class Neighbors {
+
+        private final int capacity;
+        private final int[] indices;
+        private final double[] distances;
+        private int size;
+
+        Neighbors(int capacity) {
+            this.capacity = capacity;
+            this.indices = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        /**
+         * @return Squared distance a new element must beat to be added.
+         */
+        double getBound() {
+            return size < capacity ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        /**
+         * Add the given element if it is closer than the farthest one.
+         */
+        void offer(int index, double distance) {
+            if (size < capacity) {
+                // Sift up.
+                int i = size++;
+                while (i > 0 && distances[(i - 1) / 2] < distance) {
+                    indices[i] = indices[(i - 1) / 2];
+                    distances[i] = distances[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                indices[i] = index;
+                distances[i] = distance;
+            }
+            else if (distance < distances[0]) {
+                // Replace the farthest element and sift down.
+                int i = 0;
+                while (2 * i + 1 < size) {
+                    int child = 2 * i + 1;
+                    if (child + 1 < size && distances[child + 1] > distances[child]) {
+                        ++child;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    indices[i] = indices[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                indices[i] = index;
+                distances[i] = distance;
+            }
+        }
+
+        /**
+         * @return Nodes of this set, by increasing distance.
+         */
+        List<Node> toList() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; ++i) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (i, j) -> Double.compare(distances[i], distances[j]));
+            List<Node> result = new ArrayList<>(size);
+            for (int i: order) {
+                result.add(graphNodes[nodes[indices[i]]]);
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * @param min Corner of the box with the smallest longitude and latitude.
+     * @param max Corner of the box with the largest longitude and latitude.
+     * 
+     * @return Nodes inside the given box (bounds included), in no particular
+     *         order.
+     */
+    public List<Node> findInBox(Point min, Point max) {
+        List<Node> result = new ArrayList<>();
+        inBox(0, nodes.length, true, x(min), y(min), x(max), y(max), result);
+        return result;
+    }
+
+    /**
+     * Add the nodes of the given subtree that are inside the given box to the
+     * given list.
+     */
+    private void inBox(int lo, int hi, boolean onX, double minX, double minY, double maxX,
+            double maxY, List<Node> result) {
+        if (lo >= hi) {
+            return;
+        }
+        final int median = (lo + hi) >>> 1;
+        final double x = xs[median], y = ys[median];
+        if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+            result.add(graphNodes[nodes[median]]);
+        }
+        final double value = onX ? x : y;
+        if (value >= (onX ? minX : minY)) {
+            inBox(lo, median, !onX, minX, minY, maxX, maxY, result);
+        }
+        if (value <= (onX ? maxX : maxY)) {
+            inBox(median + 1, hi, !onX, minX, minY, maxX, maxY, result);
+        }
+    }
+
+}
@@ -61,6 +61,7 @@ import org.insa.graph.Path;
 import org.insa.graph.io.BinaryGraphReader;
 import org.insa.graph.io.BinaryPathReader;
 import org.insa.graph.io.GraphReader;
+import org.insa.graph.io.MapFiles;
 import org.insa.graph.io.MapMismatchException;
 import org.insa.graphics.AlgorithmPanel.StartActionEvent;
 import org.insa.graphics.drawing.BasicGraphPalette;
@@ -579,6 +580,7 @@ public class MainWindow extends JFrame {
                 reader.addObserver(progressBar);
                 try {
                     graph = reader.read();
+                    MapFiles.register(graph, new File(graphFilePath));
                 }
                 catch (Exception exception) {
                     progressBar.setVisible(false);
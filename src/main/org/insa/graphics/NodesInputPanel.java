@@ -24,6 +24,7 @@ import javax.swing.event.DocumentListener;
 import org.insa.graph.Graph;
 import org.insa.graph.Node;
 import org.insa.graph.Point;
+import org.insa.graph.spatial.NodeIndex;
 import org.insa.graphics.drawing.Drawing;
 import org.insa.graphics.drawing.Drawing.AlphaMode;
 import org.insa.graphics.drawing.DrawingClickListener;
@@ -63,18 +64,7 @@ public class NodesInputPanel extends JPanel
          *         enough".
          */
         public Node findClosestNode(Point point) {
-            Node minNode = null;
-            double minDis = Double.POSITIVE_INFINITY;
-            for (Node node: graph) {
-                double dlon = point.getLongitude() - node.getPoint().getLongitude();
-                double dlat = point.getLatitude() - node.getPoint().getLatitude();
-                double dis = dlon * dlon + dlat * dlat; // No need to square
-                if (dis < minDis) {
-                    minNode = node;
-                    minDis = dis;
-                }
-            }
-            return minNode;
+            return NodeIndex.forGraph(graph).findNearest(point);
         }
 
     }
@@ -0,0 +1,139 @@
+package org.insa.algo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.AccessRestrictions.AccessMode;
+import org.insa.graph.AccessRestrictions.AccessRestriction;
+import org.insa.graph.Arc;
+import org.insa.graph.ArcNumbering;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CompiledProfileTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // List of nodes
+    private static Node[] nodes;
+
+    @BeforeClass
+    public static void initAll() {
+
+        // Create nodes
+        nodes = new Node[5];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = new Node(i, new Point(i, -i));
+        }
+
+        EnumMap<AccessMode, AccessRestriction> restrictions = new EnumMap<>(AccessMode.class);
+        for (AccessMode mode: AccessMode.values()) {
+            restrictions.put(mode, AccessRestriction.ALLOWED);
+        }
+        restrictions.put(AccessMode.MOTORCAR, AccessRestriction.PRIVATE);
+        RoadInformation pedestrian = new RoadInformation(RoadType.PEDESTRIAN,
+                new AccessRestrictions(restrictions), false, 20, null);
+        RoadInformation twoWays = new RoadInformation(RoadType.UNCLASSIFIED,
+                new AccessRestrictions(), false, 36, null);
+        RoadInformation oneWay = new RoadInformation(RoadType.MOTORWAY,
+                new AccessRestrictions(), true, 130, null);
+
+        Node.linkNodes(nodes[0], nodes[1], 10, twoWays, new ArrayList<>());
+        Node.linkNodes(nodes[0], nodes[4], 20, oneWay, new ArrayList<>());
+        Node.linkNodes(nodes[2], nodes[1], 30, pedestrian, new ArrayList<>());
+        Node.linkNodes(nodes[2], nodes[3], 40, oneWay, new ArrayList<>());
+        Node.linkNodes(nodes[4], nodes[0], 50, pedestrian, new ArrayList<>());
+        Node.linkNodes(nodes[3], nodes[3], 60, twoWays, new ArrayList<>());
+
+        graph = new Graph("ID", "", Arrays.asList(nodes), null);
+    }
+
+    @Test
+    public void testArcNumbering() {
+        ArcNumbering numbering = ArcNumbering.forGraph(graph);
+        assertSame(numbering, ArcNumbering.forGraph(graph));
+        assertEquals(10, numbering.getArcCount());
+
+        int[] nbIncoming = new int[nodes.length];
+        for (Node node: nodes) {
+            int id = numbering.getFirstArc(node.getId());
+            for (Arc arc: node) {
+                assertSame(arc, numbering.getArc(id));
+                assertEquals(node.getId(), numbering.getOrigin(id));
+                assertEquals(arc.getDestination().getId(), numbering.getDestination(id));
+                nbIncoming[arc.getDestination().getId()] += 1;
+                ++id;
+            }
+            assertEquals(numbering.getEndArc(node.getId()), id);
+        }
+        for (Node node: nodes) {
+            assertEquals(nbIncoming[node.getId()], numbering.getEndIncomingArc(node.getId())
+                    - numbering.getFirstIncomingArc(node.getId()));
+            for (int i = numbering.getFirstIncomingArc(node.getId()); i < numbering
+                    .getEndIncomingArc(node.getId()); ++i) {
+                assertEquals(node.getId(), numbering.getDestination(numbering.getIncomingArc(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsInspector() {
+        ArcNumbering numbering = ArcNumbering.forGraph(graph);
+        for (ArcInspector inspector: ArcInspectorFactory.getAllFilters()) {
+            CompiledProfile profile = CompiledProfile.forGraph(graph, inspector);
+            assertSame(profile, CompiledProfile.forGraph(graph, inspector));
+            assertSame(inspector, profile.getArcInspector());
+            for (int id = 0; id < numbering.getArcCount(); ++id) {
+                Arc arc = numbering.getArc(id);
+                assertEquals(inspector.isAllowed(arc), profile.isAllowed(id));
+                if (inspector.isAllowed(arc)) {
+                    assertEquals(inspector.getCost(arc), profile.getCost(id), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testForbiddenArcs() {
+        ArcInspector cars = ArcInspectorFactory.getAllFilters().get(1);
+        CompiledProfile profile = CompiledProfile.forGraph(graph, cars);
+        ArcNumbering numbering = profile.getArcNumbering();
+        int nbForbidden = 0;
+        for (int id = 0; id < numbering.getArcCount(); ++id) {
+            if (!profile.isAllowed(id)) {
+                assertEquals(Double.POSITIVE_INFINITY, profile.getCost(id), 0);
+                ++nbForbidden;
+            }
+        }
+        assertEquals(4, nbForbidden);
+        assertFalse(profile.isAllowed(numbering.getFirstArc(4)));
+    }
+
+    @Test
+    public void testReleasedWithInspector() {
+        ArcInspector kept = ArcInspectorFactory.getAllFilters().get(0);
+        WeakReference<CompiledProfile> released = new WeakReference<>(CompiledProfile
+                .forGraph(graph, ArcInspectorFactory.getAllFilters().get(0)));
+        for (int i = 0; i < 100 && released.get() != null; ++i) {
+            System.gc();
+            // Accessing the cache removes the entries of released inspectors.
+            assertSame(kept, CompiledProfile.forGraph(graph, kept).getArcInspector());
+        }
+        assertNull(released.get());
+    }
+
+}
@@ -0,0 +1,154 @@
+package org.insa.algo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.List;
+
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.algo.shortestpath.DijkstraAlgorithm;
+import org.insa.algo.shortestpath.ShortestPathData;
+import org.insa.algo.shortestpath.ShortestPathObserver;
+import org.insa.algo.shortestpath.ShortestPathSolution;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.generator.RoadNetworkGenerator;
+import org.junit.Test;
+
+public class ComponentIndexTest {
+
+    /**
+     * @return Nodes reachable from the given origin using allowed arcs.
+     */
+    private static boolean[] reachable(Graph graph, ArcInspector inspector, Node origin) {
+        boolean[] reached = new boolean[graph.size()];
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        reached[origin.getId()] = true;
+        queue.add(origin);
+        while (!queue.isEmpty()) {
+            for (Arc arc: queue.poll()) {
+                if (inspector.isAllowed(arc) && !reached[arc.getDestination().getId()]) {
+                    reached[arc.getDestination().getId()] = true;
+                    queue.add(arc.getDestination());
+                }
+            }
+        }
+        return reached;
+    }
+
+    @Test
+    public void testUnreachable() {
+        RoadNetworkGenerator generator = new RoadNetworkGenerator(2000, 17);
+        generator.setRemovalRatio(0.3);
+        generator.setOneWayRatio(0.3);
+        Graph graph = generator.generate();
+        List<ArcInspector> inspectors = ArcInspectorFactory.getAllFilters();
+        for (ArcInspector inspector: inspectors) {
+            ComponentIndex index = ComponentIndex.forGraph(graph, inspector);
+            assertSame(index, ComponentIndex.forGraph(graph, inspector));
+
+            // Pairs detected as unreachable are unreachable, and most of the
+            // unreachable pairs are detected.
+            int nbUnreachable = 0, nbDetected = 0;
+            for (Node origin: graph) {
+                if (origin.getId() % 7 != 0) {
+                    continue;
+                }
+                boolean[] reached = reachable(graph, inspector, origin);
+                for (Node destination: graph) {
+                    boolean unreachable = index.isUnreachable(origin.getId(),
+                            destination.getId());
+                    if (reached[destination.getId()]) {
+                        assertFalse(unreachable);
+                    }
+                    else {
+                        ++nbUnreachable;
+                        nbDetected += unreachable ? 1 : 0;
+                    }
+                    if (index.getComponent(origin.getId()) == index
+                            .getComponent(destination.getId())) {
+                        assertTrue(reached[destination.getId()]);
+                    }
+                }
+            }
+            assertTrue(nbUnreachable > 0);
+            assertTrue(nbDetected >= nbUnreachable * 0.9);
+        }
+    }
+
+    @Test
+    public void testShortestPathPruning() {
+        RoadNetworkGenerator generator = new RoadNetworkGenerator(2000, 17);
+        generator.setRemovalRatio(0.3);
+        generator.setOneWayRatio(0.3);
+        Graph graph = generator.generate();
+        ArcInspector inspector = ArcInspectorFactory.getAllFilters().get(0);
+        ComponentIndex index = ComponentIndex.forGraph(graph, inspector);
+
+        // Find a pair detected as unreachable.
+        Node origin = null, destination = null;
+        for (int i = 0; origin == null; ++i) {
+            for (int j = 0; j < graph.size() && origin == null; ++j) {
+                if (index.isUnreachable(i, j)) {
+                    origin = graph.get(i);
+                    destination = graph.get(j);
+                }
+            }
+        }
+
+        // The algorithm is not run when pruning is enabled.
+        final int[] nbMarked = new int[1];
+        ShortestPathObserver observer = new ShortestPathObserver() {
+            @Override
+            public void notifyOriginProcessed(Node node) {
+            }
+
+            @Override
+            public void notifyNodeReached(Node node) {
+            }
+
+            @Override
+            public void notifyNodeMarked(Node node) {
+                ++nbMarked[0];
+            }
+
+            @Override
+            public void notifyDestinationReached(Node node) {
+            }
+        };
+        ShortestPathData data = new ShortestPathData(graph, origin, destination, inspector);
+        DijkstraAlgorithm algorithm = new DijkstraAlgorithm(data);
+        algorithm.addObserver(observer);
+        assertTrue(algorithm.isUnreachablePruning());
+        ShortestPathSolution solution = algorithm.run();
+        assertEquals(Status.INFEASIBLE, solution.getStatus());
+        assertEquals(0, nbMarked[0]);
+        assertTrue(solution.getSolvingTime() != null);
+
+        // Same answer without pruning, after exploring the graph.
+        algorithm = new DijkstraAlgorithm(data);
+        algorithm.addObserver(observer);
+        algorithm.setUnreachablePruning(false);
+        assertEquals(Status.INFEASIBLE, algorithm.run().getStatus());
+        assertTrue(nbMarked[0] > 0);
+    }
+
+    @Test
+    public void testReleasedWithGraph() {
+        Graph graph = new RoadNetworkGenerator(200, 17).generate();
+        ComponentIndex.forGraph(graph, ArcInspectorFactory.getAllFilters().get(0));
+        WeakReference<Graph> reference = new WeakReference<>(graph);
+        graph = null;
+        for (int i = 0; i < 100 && reference.get() != null; ++i) {
+            System.gc();
+        }
+        assertNull(reference.get());
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.insa.algo.distancematrix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.algo.shortestpath.BellmanFordAlgorithm;
+import org.insa.algo.shortestpath.ShortestPathData;
+import org.insa.algo.shortestpath.ShortestPathSolution;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphFixtures;
+import org.insa.graph.Node;
+import org.insa.graph.Path;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DistanceMatrixAlgorithmTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // Arc inspectors to test
+    private static List<ArcInspector> inspectors;
+
+    @BeforeClass
+    public static void initAll() {
+
+        // Create nodes on a 5x5 grid, linked to their right and top neighbours.
+        graph = GraphFixtures.createGrid(5, new Random(11), 6);
+        inspectors = ArcInspectorFactory.getAllFilters();
+    }
+
+    /**
+     * @return Nodes of the graph with the given IDs.
+     */
+    private static List<Node> getNodes(int... ids) {
+        List<Node> nodes = new ArrayList<>();
+        for (int id: ids) {
+            nodes.add(graph.get(id));
+        }
+        return nodes;
+    }
+
+    /**
+     * Check the matrix between the given sources and targets against Bellman-Ford,
+     * for all inspectors.
+     */
+    private void checkSameAsBellmanFord(List<Node> sources, List<Node> targets,
+            int threadCount) {
+        for (ArcInspector inspector: inspectors) {
+            DistanceMatrixAlgorithm algorithm = new DistanceMatrixAlgorithm(
+                    new DistanceMatrixData(graph, sources, targets, inspector, true));
+            algorithm.setThreadCount(threadCount);
+            DistanceMatrixSolution solution = algorithm.run();
+            assertEquals(Status.OPTIMAL, solution.getStatus());
+            assertEquals(sources.size(), solution.getCosts().length);
+            for (int i = 0; i < sources.size(); ++i) {
+                assertEquals(targets.size(), solution.getCosts()[i].length);
+                for (int j = 0; j < targets.size(); ++j) {
+                    Node source = sources.get(i), target = targets.get(j);
+                    Path path = solution.getPath(i, j);
+                    if (source.equals(target)) {
+                        assertEquals(0, solution.getCost(i, j), 1e-6);
+                        continue;
+                    }
+                    ShortestPathSolution expected = new BellmanFordAlgorithm(
+                            new ShortestPathData(graph, source, target, inspector)).run();
+                    if (!expected.isFeasible()) {
+                        assertTrue(Double.isInfinite(solution.getCost(i, j)));
+                        assertNull(path);
+                    }
+                    else {
+                        double cost = GraphFixtures.getCost(expected.getPath(), inspector);
+                        assertEquals(cost, solution.getCost(i, j), 1e-6);
+                        assertEquals(source, path.getOrigin());
+                        assertEquals(target, path.getDestination());
+                        assertEquals(cost, GraphFixtures.getCost(path, inspector), 1e-6);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAllPairs() {
+        List<Node> nodes = new ArrayList<>();
+        graph.forEach(nodes::add);
+        checkSameAsBellmanFord(nodes, nodes, 4);
+    }
+
+    @Test
+    public void testOneToMany() {
+        checkSameAsBellmanFord(getNodes(0, 12), getNodes(3, 24, 12, 20, 3, 7), 1);
+    }
+
+    @Test
+    public void testManyToOne() {
+        // More sources than targets, searches are run backward from the targets.
+        checkSameAsBellmanFord(getNodes(3, 24, 12, 20, 3, 7), getNodes(0, 12), 2);
+    }
+
+    @Test
+    public void testWithoutPaths() {
+        DistanceMatrixSolution solution = new DistanceMatrixAlgorithm(new DistanceMatrixData(
+                graph, getNodes(0, 1), getNodes(24), inspectors.get(0))).run();
+        assertEquals(Status.OPTIMAL, solution.getStatus());
+        assertNull(solution.getPath(0, 0));
+        assertNull(solution.getPath(1, 0));
+    }
+
+    @Test
+    public void testEmpty() {
+        DistanceMatrixSolution solution = new DistanceMatrixAlgorithm(new DistanceMatrixData(
+                graph, getNodes(0, 1), getNodes(), inspectors.get(0))).run();
+        assertEquals(Status.OPTIMAL, solution.getStatus());
+        assertEquals(2, solution.getCosts().length);
+        assertEquals(0, solution.getCosts()[0].length);
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.insa.algo.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.algo.shortestpath.LandmarkIndex.Selection;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphFixtures;
+import org.insa.graph.Node;
+import org.insa.graph.io.MapMismatchException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ALTAlgorithmTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // Arc inspectors to test
+    private static List<ArcInspector> inspectors;
+
+    @BeforeClass
+    public static void initAll() throws IOException {
+
+        // Create nodes on a 6x6 grid, linked to their right and top neighbours.
+        graph = GraphFixtures.createGrid(6, new Random(7), 8);
+        inspectors = ArcInspectorFactory.getAllFilters();
+    }
+
+    /**
+     * Check that ALT finds the same costs as Bellman-Ford for all pairs of nodes.
+     */
+    private void checkSameAsBellmanFord(ArcInspector inspector) {
+        for (Node origin: graph) {
+            for (Node destination: graph) {
+                ShortestPathData data = new ShortestPathData(graph, origin, destination,
+                        inspector);
+                ShortestPathSolution expected = new BellmanFordAlgorithm(data).run();
+                ShortestPathSolution actual = new ALTAlgorithm(data).run();
+                assertEquals(expected.getStatus(), actual.getStatus());
+                if (expected.isFeasible()) {
+                    assertEquals(origin, actual.getPath().getOrigin());
+                    assertEquals(destination, actual.getPath().getDestination());
+                    assertEquals(GraphFixtures.getCost(expected.getPath(), inspector),
+                            GraphFixtures.getCost(actual.getPath(), inspector), 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFarthestLandmarks() {
+        for (ArcInspector inspector: inspectors) {
+            LandmarkIndex.register(graph, inspector,
+                    LandmarkIndex.compute(graph, inspector, 4, Selection.FARTHEST));
+            checkSameAsBellmanFord(inspector);
+        }
+    }
+
+    @Test
+    public void testAvoidLandmarks() {
+        for (ArcInspector inspector: inspectors) {
+            LandmarkIndex.register(graph, inspector,
+                    LandmarkIndex.compute(graph, inspector, 4, Selection.AVOID));
+            checkSameAsBellmanFord(inspector);
+        }
+    }
+
+    @Test
+    public void testReadWrite() throws IOException {
+        ArcInspector inspector = inspectors.get(0);
+        LandmarkIndex index = LandmarkIndex.compute(graph, inspector, 3, Selection.AVOID);
+        File file = File.createTempFile("graph", ".landmarks");
+        file.deleteOnExit();
+        index.write(new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))));
+
+        LandmarkIndex read = LandmarkIndex.read(file, graph, inspector);
+        assertEquals(index.getLandmarkCount(), read.getLandmarkCount());
+        for (int k = 0; k < index.getLandmarkCount(); ++k) {
+            assertEquals(index.getLandmark(k), read.getLandmark(k));
+        }
+        for (Node node: graph) {
+            assertEquals(index.getLowerBound(node.getId(), 0), read.getLowerBound(node.getId(), 0),
+                    0);
+        }
+    }
+
+    @Test(expected = MapMismatchException.class)
+    public void testReadMapMismatch() throws IOException {
+        ArcInspector inspector = inspectors.get(0);
+        File file = File.createTempFile("graph", ".landmarks");
+        file.deleteOnExit();
+        LandmarkIndex.compute(graph, inspector, 2, Selection.FARTHEST).write(
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))));
+        Graph other = new Graph("OTHER", "", new ArrayList<>(), null);
+        LandmarkIndex.read(file, other, inspector);
+    }
+
+    @Test
+    public void testLoadOrCompute() throws IOException {
+        ArcInspector inspector = inspectors.get(0);
+        File file = File.createTempFile("graph", ".landmarks");
+        file.deleteOnExit();
+
+        // The empty file cannot be read, and is replaced by a valid one.
+        LandmarkIndex index = LandmarkIndex.loadOrCompute(file, graph, inspector, 3, Selection.FARTHEST);
+        assertNotNull(index.getFileException());
+        index = LandmarkIndex.loadOrCompute(file, graph, inspector, 3, Selection.FARTHEST);
+        assertNull(index.getFileException());
+
+        // The file cannot be written in a missing directory.
+        File missing = new File(new File(file.getParentFile(), file.getName() + ".missing"),
+                file.getName());
+        assertNotNull(LandmarkIndex.loadOrCompute(missing, graph, inspector, 3, Selection.FARTHEST).getFileException());
+    }
+
+}
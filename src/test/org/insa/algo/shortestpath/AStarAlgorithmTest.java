@@ -0,0 +1,90 @@
+package org.insa.algo.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphFixtures;
+import org.insa.graph.Node;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AStarAlgorithmTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // Queries between random pairs of nodes, for all inspectors.
+    private static List<ShortestPathData> queries;
+
+    @BeforeClass
+    public static void initAll() {
+
+        // Create nodes on a 10x10 grid, linked to their right and top neighbours,
+        // with roads of different speeds.
+        Random random = new Random(3);
+        RoadInformation fast = new RoadInformation(RoadType.PRIMARY, new AccessRestrictions(),
+                false, 110, "");
+        RoadInformation slow = new RoadInformation(RoadType.RESIDENTIAL, new AccessRestrictions(),
+                false, 30, "");
+        graph = GraphFixtures.createGrid(10, random, 0, (node, neighbour, r) -> {
+            if (r.nextInt(8) != 0) {
+                float length = (float) node.getPoint().distanceTo(neighbour.getPoint())
+                        * (1 + r.nextFloat());
+                Node.linkNodes(node, neighbour, length, r.nextInt(3) == 0 ? fast : slow,
+                        new ArrayList<>());
+            }
+        });
+
+        queries = new ArrayList<>();
+        for (ArcInspector inspector: ArcInspectorFactory.getAllFilters()) {
+            for (int i = 0; i < 40; ++i) {
+                queries.add(new ShortestPathData(graph,
+                        graph.get(random.nextInt(graph.size())),
+                        graph.get(random.nextInt(graph.size())), inspector));
+            }
+        }
+    }
+
+    /**
+     * @return Cost of the path of the given solution, or -1 if it is infeasible.
+     */
+    private static double getCost(ShortestPathSolution solution) {
+        if (!solution.isFeasible()) {
+            return -1;
+        }
+        return GraphFixtures.getCost(solution.getPath(),
+                solution.getInputData().getArcInspector());
+    }
+
+    @Test
+    public void testSameAsBellmanFord() {
+        for (ShortestPathData data: queries) {
+            assertEquals(getCost(new BellmanFordAlgorithm(data).run()),
+                    getCost(new AStarAlgorithm(data).run()), 1e-6);
+        }
+    }
+
+    @Test
+    public void testConcurrentQueries() {
+        // Queries of different modes and destinations are run concurrently.
+        try (BatchQueryRunner runner = new BatchQueryRunner(AStarAlgorithm::new, 4)) {
+            List<ShortestPathSolution> solutions = runner.run(queries.stream())
+                    .collect(Collectors.toList());
+            for (int i = 0; i < queries.size(); ++i) {
+                assertEquals(getCost(new BellmanFordAlgorithm(queries.get(i)).run()),
+                        getCost(solutions.get(i)), 1e-6);
+            }
+        }
+    }
+
+}
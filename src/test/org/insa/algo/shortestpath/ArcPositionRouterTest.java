@@ -0,0 +1,205 @@
+package org.insa.algo.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphFixtures;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.insa.graph.spatial.ArcPosition;
+import org.insa.graph.spatial.ArcSegmentIndex;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ArcPositionRouterTest {
+
+    // Small grid graph with one-way and two-way roads.
+    private static Graph graph;
+
+    // Arc inspectors to test
+    private static List<ArcInspector> inspectors;
+
+    @BeforeClass
+    public static void initAll() {
+        RoadInformation oneWay = new RoadInformation(RoadType.RESIDENTIAL,
+                new AccessRestrictions(), true, 30, "");
+        RoadInformation twoWays = new RoadInformation(RoadType.RESIDENTIAL,
+                new AccessRestrictions(), false, 50, "");
+        graph = GraphFixtures.createGrid(6, new Random(23), 0, (node, neighbour, random) -> {
+            boolean reverse = random.nextInt(3) == 0;
+            Node.linkNodes(reverse ? neighbour : node, reverse ? node : neighbour,
+                    500 + random.nextInt(1000), random.nextInt(3) == 0 ? oneWay : twoWays,
+                    new ArrayList<>());
+        });
+        inspectors = ArcInspectorFactory.getAllFilters();
+    }
+
+    /**
+     * @return Costs of the shortest paths between all pairs of nodes (Floyd-Warshall).
+     */
+    private static double[][] allPairs(ArcInspector inspector) {
+        final int n = graph.size();
+        double[][] costs = new double[n][n];
+        for (int i = 0; i < n; ++i) {
+            Arrays.fill(costs[i], Double.POSITIVE_INFINITY);
+            costs[i][i] = 0;
+        }
+        for (Node node: graph) {
+            for (Arc arc: node) {
+                if (inspector.isAllowed(arc)) {
+                    int o = arc.getOrigin().getId(), d = arc.getDestination().getId();
+                    costs[o][d] = Math.min(costs[o][d], inspector.getCost(arc));
+                }
+            }
+        }
+        for (int k = 0; k < n; ++k) {
+            for (int i = 0; i < n; ++i) {
+                for (int j = 0; j < n; ++j) {
+                    costs[i][j] = Math.min(costs[i][j], costs[i][k] + costs[k][j]);
+                }
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * @return The given position and its reverse position, restricted to allowed
+     *         arcs.
+     */
+    private static List<ArcPosition> directions(ArcPosition position, ArcInspector inspector) {
+        List<ArcPosition> positions = new ArrayList<>();
+        for (ArcPosition p: new ArcPosition[] { position, position.reverse() }) {
+            if (p != null && inspector.isAllowed(p.getArc())) {
+                positions.add(p);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * @return Cost of the shortest route between the given positions, computed
+     *         from all pairs shortest paths.
+     */
+    private static double expectedCost(ArcPosition origin, ArcPosition destination,
+            ArcInspector inspector, double[][] costs) {
+        double best = Double.POSITIVE_INFINITY;
+        for (ArcPosition o: directions(origin, inspector)) {
+            for (ArcPosition d: directions(destination, inspector)) {
+                double co = inspector.getCost(o.getArc()), cd = inspector.getCost(d.getArc());
+                best = Math.min(best, (1 - o.getFraction()) * co
+                        + costs[o.getArc().getDestination().getId()][d.getArc().getOrigin()
+                                .getId()]
+                        + d.getFraction() * cd);
+                if (o.getArc() == d.getArc() && d.getFraction() >= o.getFraction()) {
+                    best = Math.min(best, (d.getFraction() - o.getFraction()) * co);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return Cost of the given route, computed from its arcs.
+     */
+    private static double routeCost(ArcPositionRouter.Route route, ArcInspector inspector) {
+        List<Arc> arcs = route.getArcs();
+        if (arcs.size() == 1) {
+            return (route.getDestination().getFraction() - route.getOrigin().getFraction())
+                    * inspector.getCost(arcs.get(0));
+        }
+        double cost = (1 - route.getOrigin().getFraction()) * inspector.getCost(arcs.get(0))
+                + route.getDestination().getFraction()
+                        * inspector.getCost(arcs.get(arcs.size() - 1));
+        for (Arc arc: arcs.subList(1, arcs.size() - 1)) {
+            cost += inspector.getCost(arc);
+        }
+        return cost;
+    }
+
+    /**
+     * @return Random positions on the arcs of the graph.
+     */
+    private static List<ArcPosition> positions() {
+        Random random = new Random(7);
+        ArcSegmentIndex index = ArcSegmentIndex.forGraph(graph);
+        List<ArcPosition> positions = new ArrayList<>();
+        for (int i = 0; i < 40; ++i) {
+            positions.add(index.findNearest(
+                    new Point(0.995f + 0.06f * random.nextFloat(),
+                            42.995f + 0.06f * random.nextFloat())));
+        }
+        return positions;
+    }
+
+    @Test
+    public void testRouteBetweenPositions() {
+        List<ArcPosition> positions = positions();
+        for (ArcInspector inspector: inspectors) {
+            double[][] costs = allPairs(inspector);
+            ArcPositionRouter router = new ArcPositionRouter(graph, inspector);
+            for (ArcPosition origin: positions) {
+                for (ArcPosition destination: positions) {
+                    double expected = expectedCost(origin, destination, inspector, costs);
+                    ArcPositionRouter.Route route = router.route(origin, destination);
+                    if (expected == Double.POSITIVE_INFINITY) {
+                        assertNull(route);
+                        continue;
+                    }
+                    assertNotNull(route);
+                    assertEquals(expected, route.getCost(), 1e-6);
+                    assertEquals(route.getCost(), routeCost(route, inspector), 1e-6);
+                    assertSame(route.getOrigin().getArc(), route.getArcs().get(0));
+                    assertSame(route.getDestination().getArc(),
+                            route.getArcs().get(route.getArcs().size() - 1));
+                    for (int i = 0; i + 1 < route.getArcs().size(); ++i) {
+                        assertEquals(route.getArcs().get(i).getDestination(),
+                                route.getArcs().get(i + 1).getOrigin());
+                    }
+                    assertEquals(route.getArcs(), route.getPath(graph).getArcs());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRouteAlongArc() {
+        ArcInspector inspector = inspectors.get(0);
+        ArcPositionRouter router = new ArcPositionRouter(graph, inspector);
+        for (Node node: graph) {
+            for (Arc arc: node) {
+                ArcPosition from = new ArcPosition(arc, 0, 0.25, node.getPoint(), 0);
+                ArcPosition to = new ArcPosition(arc, 0, 0.75, node.getPoint(), 0);
+                ArcPositionRouter.Route route = router.route(from, to);
+                assertEquals(0.5 * inspector.getCost(arc), route.getCost(), 1e-6);
+                assertEquals(Arrays.asList(arc), route.getArcs());
+            }
+        }
+    }
+
+    @Test
+    public void testRouteBetweenPoints() {
+        ArcInspector inspector = inspectors.get(0);
+        ArcPositionRouter router = new ArcPositionRouter(graph, inspector);
+        ArcSegmentIndex index = ArcSegmentIndex.forGraph(graph);
+        Point from = new Point(1.003f, 43.012f), to = new Point(1.047f, 43.038f);
+        ArcPositionRouter.Route route = router.route(from, to);
+        double expected = expectedCost(index.findNearest(from), index.findNearest(to),
+                inspector, allPairs(inspector));
+        assertEquals(expected, route.getCost(), 1e-6);
+    }
+
+}
@@ -0,0 +1,118 @@
+package org.insa.algo.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphFixtures;
+import org.insa.graph.Node;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BatchQueryRunnerTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // Queries between random pairs of nodes.
+    private static List<ShortestPathData> queries;
+
+    @BeforeClass
+    public static void initAll() {
+
+        // Create nodes on a 8x8 grid, linked to their right and top neighbours.
+        Random random = new Random(5);
+        RoadInformation twoWays = new RoadInformation(RoadType.RESIDENTIAL,
+                new AccessRestrictions(), false, 30, "");
+        graph = GraphFixtures.createGrid(8, random, 0, (node, neighbour, r) -> {
+            if (r.nextInt(6) != 0) {
+                Node.linkNodes(node, neighbour, 500 + r.nextInt(1000), twoWays,
+                        new ArrayList<>());
+            }
+        });
+
+        ArcInspector inspector = ArcInspectorFactory.getAllFilters().get(0);
+        queries = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            queries.add(new ShortestPathData(graph, graph.get(random.nextInt(graph.size())),
+                    graph.get(random.nextInt(graph.size())), inspector));
+        }
+    }
+
+    @Test
+    public void testSameAsSequential() {
+        try (BatchQueryRunner runner = new BatchQueryRunner(DijkstraAlgorithm::new, 3)) {
+            List<ShortestPathSolution> solutions = runner.run(queries.stream())
+                    .collect(Collectors.toList());
+            assertEquals(queries.size(), solutions.size());
+            for (int i = 0; i < queries.size(); ++i) {
+                ShortestPathSolution expected = new DijkstraAlgorithm(queries.get(i)).run();
+                ShortestPathSolution actual = solutions.get(i);
+                assertSame(queries.get(i), actual.getInputData());
+                assertEquals(expected.getStatus(), actual.getStatus());
+                if (expected.isFeasible()) {
+                    assertEquals(expected.getPath().getLength(), actual.getPath().getLength(),
+                            1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStatistics() {
+        try (BatchQueryRunner runner = new BatchQueryRunner(DijkstraAlgorithm::new, 2)) {
+            assertEquals(0, runner.getStatistics().getQueryCount());
+            assertEquals(queries.size(), runner.run(queries.stream()).count());
+
+            BatchQueryStatistics statistics = runner.getStatistics();
+            assertEquals(queries.size(), statistics.getQueryCount());
+            assertTrue(statistics.getThroughput() > 0);
+            assertTrue(statistics.getLatency(50).compareTo(statistics.getLatency(95)) <= 0);
+            assertTrue(statistics.getLatency(95).compareTo(statistics.getLatency(99)) <= 0);
+            assertTrue(statistics.getLatency(99).compareTo(statistics.getElapsedTime()) <= 0);
+
+            long settled = 0;
+            for (ShortestPathData data: queries) {
+                ShortestPathAlgorithm algorithm = new DijkstraAlgorithm(data);
+                ShortestPathCountingObserver counter = new ShortestPathCountingObserver();
+                algorithm.addObserver(counter);
+                algorithm.run();
+                settled += counter.getMarkedCount();
+            }
+            assertEquals(settled, statistics.getTotalSettledCount());
+
+            runner.resetStatistics();
+            assertEquals(0, runner.getStatistics().getQueryCount());
+        }
+    }
+
+    @Test
+    public void testException() {
+        try (BatchQueryRunner runner = new BatchQueryRunner((data) -> {
+            if (data == queries.get(10)) {
+                throw new IllegalArgumentException();
+            }
+            return new DijkstraAlgorithm(data);
+        }, 2)) {
+            try {
+                runner.run(queries.stream()).count();
+                fail("Expected exception from query 10.");
+            }
+            catch (IllegalArgumentException e) {
+            }
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package org.insa.algo.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.algo.AbstractInputData.Mode;
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphFixtures;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BidirectionalAlgorithmTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // Arc inspectors to test (all filters, and one that forbids motorways)
+    private static List<ArcInspector> inspectors;
+
+    @BeforeClass
+    public static void initAll() throws IOException {
+
+        RoadInformation[] infos = new RoadInformation[] {
+                new RoadInformation(RoadType.MOTORWAY, new AccessRestrictions(), true, 130, ""),
+                new RoadInformation(RoadType.PRIMARY, new AccessRestrictions(), false, 80, ""),
+                new RoadInformation(RoadType.RESIDENTIAL, new AccessRestrictions(), true, 30,
+                        ""),
+                new RoadInformation(RoadType.RESIDENTIAL, new AccessRestrictions(), false, 50,
+                        "") };
+
+        // Create nodes on a 5x5 grid, and link each node to its right and top
+        // neighbours, in a random direction.
+        graph = GraphFixtures.createGrid(5, new Random(42), 0.003f, (node, neighbour, random) -> {
+            Node a = node, b = neighbour;
+            if (random.nextBoolean()) {
+                a = neighbour;
+                b = node;
+            }
+            float length = (float) (Point.distance(a.getPoint(), b.getPoint())
+                    * (1 + random.nextFloat()));
+            Node.linkNodes(a, b, length, infos[random.nextInt(infos.length)],
+                    new ArrayList<>(Arrays.asList(a.getPoint(), b.getPoint())));
+        });
+
+        inspectors = new ArrayList<>(ArcInspectorFactory.getAllFilters());
+        inspectors.add(new ArcInspector() {
+            @Override
+            public boolean isAllowed(Arc arc) {
+                return arc.getRoadInformation().getType() != RoadType.MOTORWAY;
+            }
+
+            @Override
+            public double getCost(Arc arc) {
+                return arc.getMinimumTravelTime();
+            }
+
+            @Override
+            public int getMaximumSpeed() {
+                return GraphStatistics.NO_MAXIMUM_SPEED;
+            }
+
+            @Override
+            public Mode getMode() {
+                return Mode.TIME;
+            }
+        });
+    }
+
+    /**
+     * Check that the given algorithm finds the same costs as Bellman-Ford for all
+     * pairs of nodes and all inspectors.
+     */
+    private void checkSameAsBellmanFord(Class<? extends ShortestPathAlgorithm> algorithm)
+            throws Exception {
+        for (ArcInspector inspector: inspectors) {
+            for (Node origin: graph) {
+                for (Node destination: graph) {
+                    ShortestPathData data = new ShortestPathData(graph, origin, destination,
+                            inspector);
+                    ShortestPathSolution expected = new BellmanFordAlgorithm(data).run();
+                    ShortestPathSolution actual = algorithm
+                            .getConstructor(ShortestPathData.class).newInstance(data).run();
+                    assertEquals(expected.getStatus(), actual.getStatus());
+                    if (expected.isFeasible()) {
+                        assertEquals(origin, actual.getPath().getOrigin());
+                        assertEquals(destination, actual.getPath().getDestination());
+                        double expectedCost = 0, actualCost = 0;
+                        for (Arc arc: expected.getPath().getArcs()) {
+                            expectedCost += inspector.getCost(arc);
+                        }
+                        Node current = origin;
+                        for (Arc arc: actual.getPath().getArcs()) {
+                            assertEquals(current, arc.getOrigin());
+                            assertTrue(inspector.isAllowed(arc));
+                            actualCost += inspector.getCost(arc);
+                            current = arc.getDestination();
+                        }
+                        assertEquals(expectedCost, actualCost, 1e-6);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBidirectionalDijkstra() throws Exception {
+        checkSameAsBellmanFord(BidirectionalDijkstraAlgorithm.class);
+    }
+
+    @Test
+    public void testBidirectionalAStar() throws Exception {
+        checkSameAsBellmanFord(BidirectionalAStarAlgorithm.class);
+    }
+
+}
@@ -0,0 +1,159 @@
+package org.insa.algo.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphFixtures;
+import org.insa.graph.Node;
+import org.insa.graph.io.MapMismatchException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ContractionHierarchyAlgorithmTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // Arc inspectors to test
+    private static List<ArcInspector> inspectors;
+
+    @BeforeClass
+    public static void initAll() throws IOException {
+
+        // Create nodes on a 6x6 grid, linked to their right and top neighbours.
+        graph = GraphFixtures.createGrid(6, new Random(7), 8);
+        inspectors = ArcInspectorFactory.getAllFilters();
+    }
+
+    /**
+     * Check that contraction hierarchies find the same costs as Bellman-Ford for all pairs of nodes.
+     */
+    private void checkSameAsBellmanFord(ArcInspector inspector) {
+        for (Node origin: graph) {
+            for (Node destination: graph) {
+                ShortestPathData data = new ShortestPathData(graph, origin, destination,
+                        inspector);
+                ShortestPathSolution expected = new BellmanFordAlgorithm(data).run();
+                ShortestPathSolution actual = new ContractionHierarchyAlgorithm(data).run();
+                assertEquals(expected.getStatus(), actual.getStatus());
+                if (expected.isFeasible()) {
+                    assertEquals(origin, actual.getPath().getOrigin());
+                    assertEquals(destination, actual.getPath().getDestination());
+                    assertEquals(GraphFixtures.getCost(expected.getPath(), inspector),
+                            GraphFixtures.getCost(actual.getPath(), inspector), 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsBellmanFord() {
+        for (ArcInspector inspector: inspectors) {
+            ContractionHierarchy hierarchy = new ContractionHierarchyBuilder(graph, inspector)
+                    .build();
+            ContractionHierarchy.register(graph, inspector, hierarchy);
+            checkSameAsBellmanFord(inspector);
+        }
+    }
+
+    @Test
+    public void testSmallWitnessSettledLimit() {
+        for (ArcInspector inspector: inspectors) {
+            ContractionHierarchy hierarchy = new ContractionHierarchyBuilder(graph, inspector)
+                    .setWitnessSettledLimit(1).build();
+            ContractionHierarchy.register(graph, inspector, hierarchy);
+            checkSameAsBellmanFord(inspector);
+        }
+    }
+
+    @Test
+    public void testRanks() {
+        ContractionHierarchy hierarchy = new ContractionHierarchyBuilder(graph,
+                inspectors.get(0)).build();
+        boolean[] used = new boolean[graph.size()];
+        for (Node node: graph) {
+            int rank = hierarchy.getRank(node.getId());
+            assertTrue(rank >= 0 && rank < graph.size() && !used[rank]);
+            used[rank] = true;
+        }
+        for (Node node: graph) {
+            for (int i = hierarchy.getFirstUpEdge(node.getId()); i < hierarchy
+                    .getEndUpEdge(node.getId()); ++i) {
+                int edge = hierarchy.getUpEdge(i);
+                assertTrue(hierarchy.getRank(hierarchy.getEdgeDestination(edge)) > hierarchy
+                        .getRank(node.getId()));
+            }
+        }
+    }
+
+    @Test
+    public void testReadWrite() throws IOException {
+        ArcInspector inspector = inspectors.get(0);
+        ContractionHierarchy hierarchy = new ContractionHierarchyBuilder(graph, inspector)
+                .build();
+        File file = File.createTempFile("graph", ".ch");
+        file.deleteOnExit();
+        hierarchy.write(
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))));
+
+        ContractionHierarchy read = ContractionHierarchy.read(file, graph, inspector);
+        assertEquals(hierarchy.size(), read.size());
+        assertEquals(hierarchy.getEdgeCount(), read.getEdgeCount());
+        for (Node node: graph) {
+            assertEquals(hierarchy.getRank(node.getId()), read.getRank(node.getId()));
+        }
+        for (int edge = 0; edge < hierarchy.getEdgeCount(); ++edge) {
+            assertEquals(hierarchy.getEdgeOrigin(edge), read.getEdgeOrigin(edge));
+            assertEquals(hierarchy.getEdgeDestination(edge), read.getEdgeDestination(edge));
+            assertEquals(hierarchy.getEdgeCost(edge), read.getEdgeCost(edge), 0);
+            assertEquals(hierarchy.isShortcut(edge), read.isShortcut(edge));
+        }
+
+        ContractionHierarchy.register(graph, inspector, read);
+        checkSameAsBellmanFord(inspector);
+    }
+
+    @Test(expected = MapMismatchException.class)
+    public void testReadMapMismatch() throws IOException {
+        ArcInspector inspector = inspectors.get(0);
+        File file = File.createTempFile("graph", ".ch");
+        file.deleteOnExit();
+        new ContractionHierarchyBuilder(graph, inspector).build().write(
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))));
+        Graph other = new Graph("OTHER", "", new ArrayList<>(), null);
+        ContractionHierarchy.read(file, other, inspector);
+    }
+
+    @Test
+    public void testLoadOrBuild() throws IOException {
+        ArcInspector inspector = inspectors.get(0);
+        File file = File.createTempFile("graph", ".ch");
+        file.deleteOnExit();
+
+        // The empty file cannot be read, and is replaced by a valid one.
+        ContractionHierarchy hierarchy = ContractionHierarchy.loadOrBuild(file, graph, inspector);
+        assertNotNull(hierarchy.getFileException());
+        hierarchy = ContractionHierarchy.loadOrBuild(file, graph, inspector);
+        assertNull(hierarchy.getFileException());
+
+        // The file cannot be written in a missing directory.
+        File missing = new File(new File(file.getParentFile(), file.getName() + ".missing"),
+                file.getName());
+        assertNotNull(ContractionHierarchy.loadOrBuild(missing, graph, inspector).getFileException());
+    }
+
+}
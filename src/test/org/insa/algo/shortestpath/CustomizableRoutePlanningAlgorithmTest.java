@@ -0,0 +1,124 @@
+package org.insa.algo.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphFixtures;
+import org.insa.graph.MultiLevelPartition;
+import org.insa.graph.Node;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CustomizableRoutePlanningAlgorithmTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // Arc inspectors to test
+    private static List<ArcInspector> inspectors;
+
+    @BeforeClass
+    public static void initAll() {
+
+        // Create nodes on a 6x6 grid, linked to their right and top neighbours.
+        graph = GraphFixtures.createGrid(6, new Random(7), 8);
+        inspectors = ArcInspectorFactory.getAllFilters();
+    }
+
+    /**
+     * Check that customizable route planning finds the same costs as Bellman-Ford for all pairs of nodes.
+     */
+    private void checkSameAsBellmanFord(ArcInspector inspector) {
+        for (Node origin: graph) {
+            for (Node destination: graph) {
+                ShortestPathData data = new ShortestPathData(graph, origin, destination,
+                        inspector);
+                ShortestPathSolution expected = new BellmanFordAlgorithm(data).run();
+                ShortestPathSolution actual = new CustomizableRoutePlanningAlgorithm(data).run();
+                assertEquals(expected.getStatus(), actual.getStatus());
+                if (expected.isFeasible()) {
+                    assertEquals(origin, actual.getPath().getOrigin());
+                    assertEquals(destination, actual.getPath().getDestination());
+                    assertEquals(GraphFixtures.getCost(expected.getPath(), inspector),
+                            GraphFixtures.getCost(actual.getPath(), inspector), 1e-6);
+                }
+            }
+        }
+    }
+
+    /**
+     * Customize the overlay of the given partition for all inspectors and check
+     * the results of the algorithm.
+     */
+    private void checkPartition(MultiLevelPartition partition) {
+        OverlayGraph overlay = new OverlayGraph(graph, partition);
+        for (ArcInspector inspector: inspectors) {
+            OverlayCustomization.register(graph, inspector,
+                    new OverlayCustomization(graph, overlay, inspector));
+            checkSameAsBellmanFord(inspector);
+        }
+    }
+
+    @Test
+    public void testPartition() {
+        MultiLevelPartition partition = new MultiLevelPartition(graph, 2, 2);
+        assertEquals(3, partition.getLevelCount());
+        assertEquals(graph.size(), partition.size());
+        for (int level = 1; level <= partition.getLevelCount(); ++level) {
+            boolean[] seen = new boolean[graph.size()];
+            for (int cell = 0; cell < partition.getCellCount(level); ++cell) {
+                assertTrue(level > 1 || partition.getEndNode(level, cell)
+                        - partition.getFirstNode(level, cell) <= 2);
+                for (int i = partition.getFirstNode(level, cell); i < partition
+                        .getEndNode(level, cell); ++i) {
+                    int node = partition.getNode(i);
+                    assertEquals(cell, partition.getCell(level, node));
+                    if (level > 1) {
+                        assertEquals(cell, partition.getCell(level - 1, node) >> 2);
+                    }
+                    seen[node] = true;
+                }
+            }
+            for (boolean s: seen) {
+                assertTrue(s);
+            }
+        }
+    }
+
+    @Test
+    public void testSingleLevel() {
+        checkPartition(new MultiLevelPartition(graph, 8, 4));
+    }
+
+    @Test
+    public void testMultipleLevels() {
+        checkPartition(new MultiLevelPartition(graph, 2, 1));
+    }
+
+    @Test
+    public void testSingleCell() {
+        checkPartition(new MultiLevelPartition(graph, graph.size(), 1));
+    }
+
+    @Test
+    public void testReleasedWithGraph() {
+        Graph released = GraphFixtures.createGrid(6, new Random(7), 8);
+        OverlayCustomization.forData(new ShortestPathData(released, released.get(0),
+                released.get(released.size() - 1), inspectors.get(0)));
+        WeakReference<Graph> reference = new WeakReference<>(released);
+        released = null;
+        for (int i = 0; i < 100 && reference.get() != null; ++i) {
+            System.gc();
+        }
+        assertNull(reference.get());
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.insa.algo.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.insa.algo.AbstractInputData.Mode;
+import org.insa.algo.ArcInspector;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.Node;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PrimitiveDijkstraAlgorithmTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // List of nodes
+    private static Node[] nodes;
+
+    // Arc inspector (all arcs allowed, cost = length)
+    private static ArcInspector inspector;
+
+    @BeforeClass
+    public static void initAll() throws IOException {
+
+        RoadInformation speed = new RoadInformation(RoadType.MOTORWAY, null, true, 36, "");
+
+        inspector = new ArcInspector() {
+            @Override
+            public boolean isAllowed(Arc arc) {
+                return true;
+            }
+
+            @Override
+            public double getCost(Arc arc) {
+                return arc.getLength();
+            }
+
+            @Override
+            public int getMaximumSpeed() {
+                return GraphStatistics.NO_MAXIMUM_SPEED;
+            }
+
+            @Override
+            public Mode getMode() {
+                return Mode.LENGTH;
+            }
+        };
+
+        // Create nodes
+        nodes = new Node[6];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = new Node(i, null);
+        }
+
+        // Add arcs...
+        Node.linkNodes(nodes[0], nodes[1], 7, speed, null);
+        Node.linkNodes(nodes[0], nodes[2], 8, speed, null);
+        Node.linkNodes(nodes[1], nodes[3], 4, speed, null);
+        Node.linkNodes(nodes[1], nodes[4], 1, speed, null);
+        Node.linkNodes(nodes[1], nodes[5], 5, speed, null);
+        Node.linkNodes(nodes[2], nodes[0], 7, speed, null);
+        Node.linkNodes(nodes[2], nodes[1], 2, speed, null);
+        Node.linkNodes(nodes[2], nodes[5], 2, speed, null);
+        Node.linkNodes(nodes[4], nodes[2], 2, speed, null);
+        Node.linkNodes(nodes[4], nodes[3], 2, speed, null);
+        Node.linkNodes(nodes[4], nodes[5], 3, speed, null);
+        Node.linkNodes(nodes[5], nodes[4], 3, speed, null);
+
+        graph = new Graph("ID", "", Arrays.asList(nodes), null);
+    }
+
+    @Test
+    public void testSameAsBellmanFord() {
+        // Run all queries twice to check that the search state is correctly reused.
+        for (int k = 0; k < 2; ++k) {
+            for (int i = 0; i < nodes.length; ++i) {
+                for (int j = 0; j < nodes.length; ++j) {
+                    ShortestPathData data = new ShortestPathData(graph, nodes[i], nodes[j],
+                            inspector);
+                    ShortestPathSolution expected = new BellmanFordAlgorithm(data).run();
+                    ShortestPathSolution actual = new PrimitiveDijkstraAlgorithm(data).run();
+                    assertEquals(expected.getStatus(), actual.getStatus());
+                    if (expected.isFeasible()) {
+                        assertEquals(nodes[i], actual.getPath().getOrigin());
+                        assertEquals(nodes[j], actual.getPath().getDestination());
+                        assertEquals(expected.getPath().getLength(),
+                                actual.getPath().getLength(), 1e-6);
+                    }
+                }
+            }
+        }
+    }
+
+}
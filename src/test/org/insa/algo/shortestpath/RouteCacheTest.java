@@ -0,0 +1,152 @@
+package org.insa.algo.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphFixtures;
+import org.insa.graph.Node;
+import org.insa.graph.Path;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RouteCacheTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // Arc inspectors to test
+    private static List<ArcInspector> inspectors;
+
+    @BeforeClass
+    public static void initAll() {
+
+        // Create nodes on a 6x6 grid, linked to their right and top neighbours.
+        RoadInformation twoWays = new RoadInformation(RoadType.RESIDENTIAL,
+                new AccessRestrictions(), false, 30, "");
+        graph = GraphFixtures.createGrid(6, new Random(13), 0,
+                (node, neighbour, random) -> Node.linkNodes(node, neighbour,
+                        500 + random.nextInt(1000), twoWays, new ArrayList<>()));
+        inspectors = ArcInspectorFactory.getAllFilters();
+    }
+
+    /**
+     * @return Cost of the path of the given solution.
+     */
+    private static double getCost(ShortestPathSolution solution) {
+        return GraphFixtures.getCost(solution.getPath(),
+                solution.getInputData().getArcInspector());
+    }
+
+    private static ShortestPathData query(int origin, int destination, ArcInspector inspector) {
+        return new ShortestPathData(graph, graph.get(origin), graph.get(destination), inspector);
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        RouteCache cache = new RouteCache(graph, 10);
+        ShortestPathData data = query(0, 35, inspectors.get(0));
+        assertNull(cache.get(data));
+        ShortestPathSolution solution = cache.solve(data, DijkstraAlgorithm::new);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.size());
+
+        ShortestPathSolution cached = cache.solve(data, DijkstraAlgorithm::new);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(solution.getPath().getArcs(), cached.getPath().getArcs());
+
+        // Same nodes with another inspector.
+        assertNull(cache.get(query(0, 35, inspectors.get(1))));
+        assertEquals(3, cache.getMissCount());
+
+        // Infeasible queries are not cached.
+        cache.solve(query(4, 4, inspectors.get(0)), DijkstraAlgorithm::new);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSuffix() {
+        RouteCache cache = new RouteCache(graph, 10);
+        ShortestPathSolution solution = cache.solve(query(0, 35, inspectors.get(0)),
+                DijkstraAlgorithm::new);
+        List<Arc> arcs = solution.getPath().getArcs();
+        for (int i = 1; i < arcs.size(); ++i) {
+            ShortestPathData data = query(arcs.get(i).getOrigin().getId(), 35, inspectors.get(0));
+            ShortestPathSolution cached = cache.get(data);
+            assertNotNull(cached);
+            Path path = cached.getPath();
+            assertEquals(data.getOrigin(), path.getOrigin());
+            assertEquals(data.getDestination(), path.getDestination());
+            assertEquals(arcs.subList(i, arcs.size()), path.getArcs());
+            assertEquals(getCost(new DijkstraAlgorithm(data).run()), getCost(cached), 1e-6);
+        }
+        assertEquals(arcs.size() - 1, cache.getSuffixHitCount());
+    }
+
+    @Test
+    public void testSizeEviction() {
+        RouteCache cache = new RouteCache(graph, 2);
+        cache.solve(query(0, 35, inspectors.get(0)), DijkstraAlgorithm::new);
+        cache.solve(query(5, 30, inspectors.get(0)), DijkstraAlgorithm::new);
+
+        // Use the first path, so that the second one is evicted.
+        assertNotNull(cache.get(query(0, 35, inspectors.get(0))));
+        cache.solve(query(30, 5, inspectors.get(0)), DijkstraAlgorithm::new);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNotNull(cache.get(query(0, 35, inspectors.get(0))));
+        assertNull(cache.get(query(5, 30, inspectors.get(0))));
+    }
+
+    @Test
+    public void testMemoryEviction() {
+        ShortestPathSolution solution = new DijkstraAlgorithm(query(0, 35, inspectors.get(0)))
+                .run();
+        final long memory = RouteCache.PATH_MEMORY
+                + RouteCache.ARC_MEMORY * solution.getPath().getArcs().size();
+        RouteCache cache = new RouteCache(graph, 100, memory);
+        cache.put(solution);
+        assertEquals(memory, cache.getMemoryUsage());
+
+        // Adding any other path exceeds the memory bound.
+        cache.solve(query(5, 30, inspectors.get(0)), DijkstraAlgorithm::new);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get(query(0, 35, inspectors.get(0))));
+
+        // Paths larger than the bound are never cached.
+        RouteCache small = new RouteCache(graph, 100, RouteCache.PATH_MEMORY);
+        small.put(solution);
+        assertEquals(0, small.size());
+        assertEquals(0, small.getMemoryUsage());
+    }
+
+    @Test
+    public void testRandomQueries() {
+        RouteCache cache = new RouteCache(graph, 20);
+        Random random = new Random(1);
+        for (int i = 0; i < 500; ++i) {
+            ShortestPathData data = query(random.nextInt(graph.size()),
+                    random.nextInt(6) * 7, inspectors.get(random.nextInt(2)));
+            ShortestPathSolution expected = new DijkstraAlgorithm(data).run();
+            ShortestPathSolution actual = cache.solve(data, DijkstraAlgorithm::new);
+            assertEquals(expected.getStatus(), actual.getStatus());
+            if (expected.isFeasible()) {
+                assertEquals(getCost(expected), getCost(actual), 1e-6);
+            }
+        }
+        assertEquals(20, cache.size());
+    }
+
+}
@@ -0,0 +1,147 @@
+package org.insa.algo.singlesource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.insa.algo.AbstractSolution.Status;
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.algo.CompiledProfile;
+import org.insa.algo.shortestpath.DijkstraAlgorithm;
+import org.insa.algo.shortestpath.DijkstraSearch;
+import org.insa.algo.shortestpath.ShortestPathData;
+import org.insa.algo.shortestpath.ShortestPathSolution;
+import org.insa.graph.ArcNumbering;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.Path;
+import org.insa.graph.generator.RoadNetworkGenerator;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DeltaSteppingAlgorithmTest {
+
+    // Graph used for tests, with unreachable parts.
+    private static Graph graph;
+
+    @BeforeClass
+    public static void initAll() {
+        RoadNetworkGenerator generator = new RoadNetworkGenerator(5000, 23);
+        generator.setRemovalRatio(0.3);
+        generator.setOneWayRatio(0.3);
+        graph = generator.generate();
+    }
+
+    /**
+     * Run delta-stepping from the given source, with the given width and number of
+     * threads, and check the result against a full Dijkstra search.
+     */
+    private static SingleSourceSolution assertSameAsDijkstra(Node source,
+            ArcInspector inspector, double width, int nbThreads) {
+        SingleSourceData data = new SingleSourceData(graph, source, inspector);
+        DeltaSteppingAlgorithm algorithm = new DeltaSteppingAlgorithm(data);
+        algorithm.setBucketWidth(width);
+        algorithm.setThreadCount(nbThreads);
+        SingleSourceSolution solution = algorithm.run();
+        assertEquals(Status.OPTIMAL, solution.getStatus());
+
+        DijkstraSearch search = new DijkstraSearch(graph);
+        search.start(data);
+        search.addSource(source.getId(), 0);
+        while (!search.isFinished()) {
+            search.settleNext();
+        }
+
+        CompiledProfile profile = CompiledProfile.forData(data);
+        ArcNumbering numbering = profile.getArcNumbering();
+        double[] costs = solution.getCosts();
+        int[] predecessors = solution.getPredecessorArcs();
+        for (Node node: graph) {
+            final int id = node.getId();
+            final double expected = search.getCost(id);
+            if (Double.isInfinite(expected)) {
+                assertTrue(Double.isInfinite(costs[id]));
+                assertEquals(-1, predecessors[id]);
+                continue;
+            }
+            assertEquals(expected, costs[id], 1e-9 * expected);
+            if (id == source.getId()) {
+                assertEquals(0, costs[id], 0);
+                assertEquals(-1, predecessors[id]);
+            }
+            else {
+                // The predecessor arc gives the cost of the node.
+                final int arc = predecessors[id];
+                assertEquals(id, numbering.getDestination(arc));
+                assertTrue(profile.isAllowed(arc));
+                assertEquals(costs[numbering.getOrigin(arc)] + profile.getCost(arc), costs[id],
+                        0);
+            }
+        }
+        return solution;
+    }
+
+    @Test
+    public void testDefaultWidth() {
+        List<ArcInspector> inspectors = ArcInspectorFactory.getAllFilters();
+        for (ArcInspector inspector: inspectors) {
+            for (int source = 0; source < graph.size(); source += 997) {
+                assertSameAsDijkstra(graph.get(source), inspector, 0, 1);
+                assertSameAsDijkstra(graph.get(source), inspector, 0, 4);
+            }
+        }
+    }
+
+    @Test
+    public void testWidths() {
+        ArcInspector inspector = ArcInspectorFactory.getAllFilters().get(0);
+        for (double width: new double[] { 1e-3, 10, 1000, 1e6, Double.POSITIVE_INFINITY }) {
+            assertSameAsDijkstra(graph.get(42), inspector, width, 1);
+            assertSameAsDijkstra(graph.get(42), inspector, width, 3);
+        }
+    }
+
+    @Test
+    public void testTinyWidths() {
+        // Widths far below the arc costs, down to widths for which the buckets of
+        // most nodes overflow.
+        ArcInspector inspector = ArcInspectorFactory.getAllFilters().get(0);
+        for (double width: new double[] { 1e-6, 1e-9, 1e-17, Double.MIN_VALUE }) {
+            assertSameAsDijkstra(graph.get(42), inspector, width, 1);
+            assertSameAsDijkstra(graph.get(42), inspector, width, 3);
+        }
+    }
+
+    @Test
+    public void testPaths() {
+        ArcInspector inspector = ArcInspectorFactory.getAllFilters().get(0);
+        Node source = graph.get(1234);
+        SingleSourceSolution solution = assertSameAsDijkstra(source, inspector, 0, 4);
+        assertEquals(source, solution.getPath(source).getOrigin());
+        assertEquals(0, solution.getPath(source).getArcs().size());
+        for (int target = 0; target < graph.size(); target += 251) {
+            Node node = graph.get(target);
+            ShortestPathSolution dijkstra = new DijkstraAlgorithm(
+                    new ShortestPathData(graph, source, node, inspector)).run();
+            Path path = solution.getPath(node);
+            if (node.equals(source)) {
+                continue;
+            }
+            if (dijkstra.getStatus() == Status.INFEASIBLE) {
+                assertNull(path);
+                assertNull(solution.getPredecessorArc(node));
+            }
+            else {
+                assertEquals(source, path.getOrigin());
+                assertEquals(node, path.getDestination());
+                assertEquals(dijkstra.getPath().getLength(), path.getLength(), 1e-2);
+                assertEquals(solution.getPredecessorArc(node),
+                        path.getArcs().get(path.getArcs().size() - 1));
+            }
+        }
+    }
+
+}
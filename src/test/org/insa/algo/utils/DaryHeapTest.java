@@ -0,0 +1,49 @@
+package org.insa.algo.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class DaryHeapTest extends PriorityQueueTest {
+
+    @Override
+    public PriorityQueue<MutableInteger> createQueue() {
+        return new DaryHeap<>();
+    }
+
+    @Override
+    public PriorityQueue<MutableInteger> createQueue(PriorityQueue<MutableInteger> queue) {
+        return new DaryHeap<>((DaryHeap<MutableInteger>) queue);
+    }
+
+    @Test
+    public void testDecreaseKey() {
+        Assume.assumeFalse(parameters.data.length == 0);
+        for (int arity: new int[]{ 2, 4, 8 }) {
+            DaryHeap<MutableInteger> heap = new DaryHeap<>(arity);
+            for (MutableInteger mi: parameters.data) {
+                heap.insert(mi);
+            }
+            int min = Collections.min(Arrays.asList(parameters.data)).get();
+            for (MutableInteger mi: parameters.data) {
+                mi.set(--min);
+                heap.decreaseKey(mi);
+                assertEquals(parameters.data.length, heap.size());
+                assertEquals(min, heap.findMin().get());
+            }
+            for (int i = parameters.data.length - 1; i >= 0; --i) {
+                assertEquals(parameters.data[i], heap.deleteMin());
+            }
+        }
+    }
+
+    @Test(expected = ElementNotFoundException.class)
+    public void testDecreaseKeyNotFound() {
+        new DaryHeap<MutableInteger>().decreaseKey(new MutableInteger(0));
+    }
+
+}
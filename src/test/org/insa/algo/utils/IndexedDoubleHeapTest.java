@@ -0,0 +1,165 @@
+package org.insa.algo.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IndexedDoubleHeapTest {
+
+    // Arities to test.
+    private static final int[] ARITIES = { 2, 3, 4, 8 };
+
+    /**
+     * Remove all the items of the given heap and check that they come out in
+     * increasing order of the given keys.
+     */
+    private static void assertDeleteMinOrder(IndexedDoubleHeap heap, double[] keys) {
+        double last = Double.NEGATIVE_INFINITY;
+        while (!heap.isEmpty()) {
+            int size = heap.size();
+            double key = heap.findMinKey();
+            int item = heap.findMin();
+            assertEquals(item, heap.deleteMin());
+            assertEquals(keys[item], key, 0);
+            assertTrue(key >= last);
+            assertFalse(heap.contains(item));
+            assertEquals(size - 1, heap.size());
+            last = key;
+        }
+    }
+
+    @Test
+    public void testInsertDeleteMin() {
+        Random random = new Random(42);
+        for (int arity: ARITIES) {
+            IndexedDoubleHeap heap = new IndexedDoubleHeap(200, arity);
+            double[] keys = new double[heap.capacity()];
+            for (int item = 0; item < keys.length; ++item) {
+                keys[item] = random.nextInt(50);
+                heap.insert(item, keys[item]);
+                assertTrue(heap.contains(item));
+                assertEquals(keys[item], heap.getKey(item), 0);
+            }
+            assertEquals(keys.length, heap.size());
+            assertDeleteMinOrder(heap, keys);
+        }
+    }
+
+    @Test
+    public void testDecreaseKey() {
+        Random random = new Random(7);
+        for (int arity: ARITIES) {
+            IndexedDoubleHeap heap = new IndexedDoubleHeap(100, arity);
+            double[] keys = new double[heap.capacity()];
+            for (int item = 0; item < keys.length; ++item) {
+                keys[item] = 1000 + random.nextDouble();
+                heap.insert(item, keys[item]);
+            }
+            for (int i = 0; i < 300; ++i) {
+                int item = random.nextInt(keys.length);
+                keys[item] -= random.nextDouble() * 10;
+                heap.decreaseKey(item, keys[item]);
+                assertEquals(keys[item], heap.getKey(item), 0);
+                assertEquals(Arrays.stream(keys).min().getAsDouble(), heap.findMinKey(), 0);
+            }
+            assertEquals(keys.length, heap.size());
+            assertDeleteMinOrder(heap, keys);
+        }
+    }
+
+    @Test
+    public void testUpdateKey() {
+        Random random = new Random(3);
+        for (int arity: ARITIES) {
+            IndexedDoubleHeap heap = new IndexedDoubleHeap(100, arity);
+            double[] keys = new double[heap.capacity()];
+            for (int item = 0; item < keys.length; ++item) {
+                keys[item] = random.nextDouble();
+                heap.insertOrDecreaseKey(item, keys[item]);
+            }
+            for (int i = 0; i < 300; ++i) {
+                int item = random.nextInt(keys.length);
+                keys[item] = random.nextDouble();
+                heap.updateKey(item, keys[item]);
+            }
+            assertDeleteMinOrder(heap, keys);
+        }
+    }
+
+    @Test
+    public void testReuseAfterClear() {
+        Random random = new Random(11);
+        for (int arity: ARITIES) {
+            IndexedDoubleHeap heap = new IndexedDoubleHeap(100, arity);
+            double[] keys = new double[heap.capacity()];
+            for (int round = 0; round < 5; ++round) {
+                // Insert a random subset of items, remove some of them, then
+                // clear the heap.
+                boolean[] inserted = new boolean[keys.length];
+                for (int item = 0; item < keys.length; ++item) {
+                    if (random.nextBoolean()) {
+                        keys[item] = random.nextInt(20);
+                        heap.insertOrDecreaseKey(item, keys[item]);
+                        inserted[item] = true;
+                    }
+                }
+                for (int item = 0; item < keys.length; ++item) {
+                    assertEquals(inserted[item], heap.contains(item));
+                }
+                for (int i = 0; i < heap.size() / 2; ++i) {
+                    heap.deleteMin();
+                }
+                heap.clear();
+                assertTrue(heap.isEmpty());
+                assertEquals(0, heap.size());
+                for (int item = 0; item < keys.length; ++item) {
+                    assertFalse(heap.contains(item));
+                }
+            }
+
+            // Items of previous rounds are not seen in a new one.
+            for (int item = 0; item < keys.length; item += 3) {
+                keys[item] = random.nextInt(20);
+                heap.insertOrDecreaseKey(item, keys[item]);
+            }
+            for (int item = 0; item < keys.length; ++item) {
+                assertEquals(item % 3 == 0, heap.contains(item));
+            }
+            assertDeleteMinOrder(heap, keys);
+        }
+    }
+
+    @Test(expected = ElementNotFoundException.class)
+    public void testDecreaseKeyNotFound() {
+        IndexedDoubleHeap heap = new IndexedDoubleHeap(10);
+        heap.insert(1, 1);
+        heap.decreaseKey(0, 0);
+    }
+
+    @Test(expected = ElementNotFoundException.class)
+    public void testDecreaseKeyAfterClear() {
+        IndexedDoubleHeap heap = new IndexedDoubleHeap(10);
+        heap.insert(0, 1);
+        heap.clear();
+        heap.decreaseKey(0, 0);
+    }
+
+    @Test(expected = EmptyPriorityQueueException.class)
+    public void testDeleteMinEmpty() {
+        IndexedDoubleHeap heap = new IndexedDoubleHeap(10);
+        heap.insert(0, 1);
+        heap.deleteMin();
+        heap.deleteMin();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidArity() {
+        new IndexedDoubleHeap(10, 1);
+    }
+
+}
@@ -0,0 +1,108 @@
+package org.insa.algo.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.insa.algo.ArcInspector;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.junit.Test;
+
+public class ProfileCacheTest {
+
+    private static Graph createGraph() {
+        return new Graph("ID", "", Arrays.asList(new Node(0, new Point(0, 0))), null);
+    }
+
+    @Test
+    public void testComputeOtherProfileWhileComputing()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        ProfileCache<String> cache = new ProfileCache<>();
+        Graph graph = createGraph();
+        List<ArcInspector> inspectors = ArcInspectorFactory.getAllFilters();
+        CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Slow computation, waiting until the other value has been computed.
+            Future<String> slow = executor.submit(() -> cache.computeIfAbsent(graph,
+                    inspectors.get(0), (g, inspector) -> {
+                        started.countDown();
+                        try {
+                            release.await();
+                        }
+                        catch (InterruptedException exception) {
+                            throw new IllegalStateException(exception);
+                        }
+                        return "slow";
+                    }));
+            started.await();
+            Future<String> fast = executor.submit(() -> cache.computeIfAbsent(graph,
+                    inspectors.get(1), (g, inspector) -> "fast"));
+            assertEquals("fast", fast.get(10, TimeUnit.SECONDS));
+            release.countDown();
+            assertEquals("slow", slow.get(10, TimeUnit.SECONDS));
+        }
+        finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testComputedOnce() throws InterruptedException, ExecutionException {
+        ProfileCache<Object> cache = new ProfileCache<>();
+        Graph graph = createGraph();
+        ArcInspector inspector = ArcInspectorFactory.getAllFilters().get(0);
+        AtomicInteger nbComputations = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Object>> values = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                values.add(executor.submit(() -> cache.computeIfAbsent(graph, inspector,
+                        (g, ins) -> {
+                            nbComputations.incrementAndGet();
+                            return new Object();
+                        })));
+            }
+            for (Future<Object> value: values) {
+                Object computed = value.get();
+                assertSame(cache.get(graph, inspector), computed);
+            }
+            assertEquals(1, nbComputations.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedComputation() {
+        ProfileCache<String> cache = new ProfileCache<>();
+        Graph graph = createGraph();
+        ArcInspector inspector = ArcInspectorFactory.getAllFilters().get(0);
+        try {
+            cache.computeIfAbsent(graph, inspector, (g, ins) -> {
+                throw new IllegalStateException();
+            });
+        }
+        catch (IllegalStateException exception) {
+            // Expected, the value can then be computed again.
+        }
+        assertEquals("value", cache.computeIfAbsent(graph, inspector, (g, ins) -> "value"));
+    }
+
+}
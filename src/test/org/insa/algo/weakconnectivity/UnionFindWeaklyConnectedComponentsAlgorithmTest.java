@@ -0,0 +1,86 @@
+package org.insa.algo.weakconnectivity;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.insa.graph.generator.RoadNetworkGenerator;
+import org.junit.Test;
+
+public class UnionFindWeaklyConnectedComponentsAlgorithmTest {
+
+    /**
+     * @return Components of the given solution, as sets of node IDs (in the order
+     *         of the solution).
+     */
+    private static List<Set<Integer>> components(WeaklyConnectedComponentsSolution solution) {
+        List<Set<Integer>> components = new ArrayList<>();
+        for (List<Node> component: solution.getComponents()) {
+            Set<Integer> ids = new HashSet<>();
+            for (Node node: component) {
+                ids.add(node.getId());
+            }
+            assertEquals(component.size(), ids.size());
+            components.add(ids);
+        }
+        return components;
+    }
+
+    /**
+     * Check that both algorithms find the same components on the given graph.
+     */
+    private static void assertSameComponents(Graph graph) {
+        WeaklyConnectedComponentsData data = new WeaklyConnectedComponentsData(graph);
+        WeaklyConnectedComponentsSolution expected = new WeaklyConnectedComponentsAlgorithm(
+                data).run();
+        WeaklyConnectedComponentsSolution actual = new UnionFindWeaklyConnectedComponentsAlgorithm(
+                data).run();
+        assertEquals(components(expected), components(actual));
+
+        // Nodes of a component are sorted by ID.
+        for (List<Node> component: actual.getComponents()) {
+            for (int i = 1; i < component.size(); ++i) {
+                assertEquals(true, component.get(i - 1).getId() < component.get(i).getId());
+            }
+        }
+    }
+
+    @Test
+    public void testRandomGraphs() {
+        RoadInformation oneWay = new RoadInformation(RoadType.UNCLASSIFIED, null, true, 50, "");
+        RoadInformation twoWays = new RoadInformation(RoadType.UNCLASSIFIED, null, false, 50, "");
+        for (int seed = 0; seed < 20; ++seed) {
+            Random random = new Random(seed);
+            List<Node> nodes = new ArrayList<>();
+            for (int i = 0; i < 200; ++i) {
+                nodes.add(new Node(i, new Point(0, 0)));
+            }
+            for (int i = 0; i < 10 * seed; ++i) {
+                Node.linkNodes(nodes.get(random.nextInt(nodes.size())),
+                        nodes.get(random.nextInt(nodes.size())), 1,
+                        random.nextBoolean() ? oneWay : twoWays, new ArrayList<>());
+            }
+            assertSameComponents(new Graph("0x0", "", nodes,
+                    new GraphStatistics(null, 0, 0, 50, 1)));
+        }
+    }
+
+    @Test
+    public void testGeneratedGraph() {
+        // Large enough to be processed by several parallel tasks.
+        RoadNetworkGenerator generator = new RoadNetworkGenerator(40000, 3);
+        generator.setRemovalRatio(0.6);
+        assertSameComponents(generator.generate());
+    }
+
+}
@@ -0,0 +1,176 @@
+package org.insa.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.insa.algo.AlgorithmFactory;
+import org.insa.algo.ArcInspectorFactory;
+import org.insa.algo.shortestpath.BatchQueryStatistics;
+import org.insa.algo.shortestpath.DijkstraAlgorithm;
+import org.insa.algo.shortestpath.ShortestPathAlgorithm;
+import org.insa.algo.shortestpath.ShortestPathData;
+import org.insa.algo.shortestpath.ShortestPathSolution;
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.Node;
+import org.insa.graph.Path;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RoutingServerTest {
+
+    /**
+     * Algorithm that always fails.
+     */
+    public static class FailingAlgorithm extends ShortestPathAlgorithm {
+
+        public FailingAlgorithm(ShortestPathData data) {
+            super(data);
+        }
+
+        @Override
+        protected ShortestPathSolution doRun() {
+            throw new IllegalStateException("Failure");
+        }
+
+    }
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // Server for the graph.
+    private static RoutingServer server;
+
+    @BeforeClass
+    public static void initAll() throws IOException {
+
+        // Create a path 0 -> 1 -> 2 -> 3 with an isolated node 4.
+        Node[] nodes = new Node[5];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = new Node(i, new Point(1 + i * 0.01f, 43));
+        }
+        RoadInformation oneWay = new RoadInformation(RoadType.PRIMARY, new AccessRestrictions(),
+                true, 90, "");
+        for (int i = 0; i < 3; ++i) {
+            Node.linkNodes(nodes[i], nodes[i + 1], 1000, oneWay, new ArrayList<>(
+                    Arrays.asList(nodes[i].getPoint(), new Point(1.005f + i * 0.01f, 43.001f),
+                            nodes[i + 1].getPoint())));
+        }
+        graph = new Graph("ID", "", Arrays.asList(nodes), new GraphStatistics(null, 0, 0, 90, 0));
+
+        AlgorithmFactory.registerAlgorithm(ShortestPathAlgorithm.class, "Failing",
+                FailingAlgorithm.class);
+
+        server = new RoutingServer(graph, 0);
+        server.start();
+    }
+
+    @AfterClass
+    public static void closeAll() {
+        server.stop(0);
+        AlgorithmFactory.unregisterAlgorithm(ShortestPathAlgorithm.class, "Failing");
+    }
+
+    /**
+     * @return Code and body of the response to a GET request on the given path.
+     */
+    private static String[] get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http://localhost:" + server.getPort() + path).openConnection();
+        try {
+            int code = connection.getResponseCode();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (InputStream stream = code == 200 ? connection.getInputStream()
+                    : connection.getErrorStream()) {
+                byte[] buffer = new byte[1024];
+                for (int read; (read = stream.read(buffer)) >= 0;) {
+                    body.write(buffer, 0, read);
+                }
+            }
+            return new String[] { Integer.toString(code),
+                    new String(body.toByteArray(), StandardCharsets.UTF_8) };
+        }
+        finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void testRoute() throws IOException {
+        String[] response = get("/route?from=0&to=3&profile=0");
+        assertEquals("200", response[0]);
+        Path expected = new DijkstraAlgorithm(new ShortestPathData(graph, graph.get(0),
+                graph.get(3), ArcInspectorFactory.getAllFilters().get(0))).run().getPath();
+        assertTrue(response[1].contains("\"status\":\"OPTIMAL\""));
+        assertTrue(response[1].contains("\"cost\":" + (double) expected.getLength()));
+        assertTrue(response[1].contains("\"nodes\":[0,1,2,3]"));
+        assertTrue(response[1].contains(
+                "\"geometry\":[[1.0,43.0],[1.005,43.001],[1.01,43.0],[1.015,43.001],"));
+    }
+
+    @Test
+    public void testRouteAlgorithm() throws IOException {
+        String[] response = get("/route?from=0&to=2&algorithm=Bidirectional+Dijkstra");
+        assertEquals("200", response[0]);
+        assertTrue(response[1].contains("\"nodes\":[0,1,2]"));
+    }
+
+    @Test
+    public void testNoRoute() throws IOException {
+        String[] response = get("/route?from=3&to=0");
+        assertEquals("200", response[0]);
+        assertTrue(response[1].contains("\"status\":\"INFEASIBLE\""));
+        assertTrue(!response[1].contains("\"nodes\""));
+    }
+
+    @Test
+    public void testInvalidRequests() throws IOException {
+        assertEquals("400", get("/route?from=0")[0]);
+        assertEquals("400", get("/route?from=0&to=5")[0]);
+        assertEquals("400", get("/route?from=0&to=x")[0]);
+        assertEquals("400", get("/route?from=0&to=1&profile=100")[0]);
+        assertEquals("400", get("/route?from=0&to=1&algorithm=Unknown")[0]);
+    }
+
+    @Test
+    public void testAlgorithmFailure() throws IOException {
+        String[] response = get("/route?from=0&to=3&algorithm=Failing");
+        assertEquals("500", response[0]);
+        assertTrue(response[1].startsWith("{\"error\":"));
+        assertTrue(response[1].contains("Failing"));
+    }
+
+    @Test
+    public void testProfilesAndAlgorithms() throws IOException {
+        String[] profiles = get("/profiles");
+        assertEquals("200", profiles[0]);
+        assertTrue(profiles[1].startsWith("[{\"profile\":0,"));
+        String[] algorithms = get("/algorithms");
+        assertEquals("200", algorithms[0]);
+        assertTrue(algorithms[1].contains("\"" + RoutingServer.DEFAULT_ALGORITHM + "\""));
+    }
+
+    @Test
+    public void testLoadGenerator() throws IOException, InterruptedException {
+        BatchQueryStatistics statistics = new RoutingLoadGenerator(
+                "http://localhost:" + server.getPort(), graph.size()).run(3, 30, 0,
+                        RoutingServer.DEFAULT_ALGORITHM, 0);
+        assertEquals(30, statistics.getQueryCount());
+        assertTrue(statistics.getThroughput() > 0);
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.insa.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CompactGraphTest {
+
+    // Small graph use for tests
+    private static Graph graph;
+
+    // Compact version of the graph
+    private static CompactGraph compact;
+
+    // List of nodes
+    private static Node[] nodes;
+
+    @BeforeClass
+    public static void initAll() throws IOException {
+
+        // Create nodes
+        nodes = new Node[5];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = new Node(i, new Point(i, -i));
+        }
+
+        RoadInformation twoWays = new RoadInformation(RoadType.UNCLASSIFIED, null, false, 36,
+                null);
+        RoadInformation oneWay = new RoadInformation(RoadType.UNCLASSIFIED, null, true, 72, null);
+
+        Node.linkNodes(nodes[0], nodes[1], 10, twoWays, new ArrayList<>());
+        Node.linkNodes(nodes[0], nodes[4], 20, oneWay, new ArrayList<>());
+        Node.linkNodes(nodes[2], nodes[1], 30, twoWays, new ArrayList<>());
+        Node.linkNodes(nodes[2], nodes[3], 40, oneWay, new ArrayList<>());
+        Node.linkNodes(nodes[4], nodes[0], 50, oneWay, new ArrayList<>());
+
+        graph = new Graph("ID", "", Arrays.asList(nodes), null);
+        compact = CompactGraph.fromGraph(graph);
+    }
+
+    @Test
+    public void testSize() {
+        assertEquals(graph.size(), compact.size());
+        assertEquals(7, compact.getArcCount());
+        assertEquals(2, compact.getRoadInformationCount());
+    }
+
+    @Test
+    public void testSameArcsAsGraph() {
+        for (Node node: nodes) {
+            assertEquals(node.getNumberOfSuccessors(),
+                    compact.getNumberOfSuccessors(node.getId()));
+            assertEquals(node.getPoint().getLongitude(), compact.getLongitude(node.getId()), 0);
+            assertEquals(node.getPoint().getLatitude(), compact.getLatitude(node.getId()), 0);
+            int arc = compact.getFirstArc(node.getId());
+            for (Arc a: node) {
+                assertEquals(node.getId(), compact.getArcOrigin(arc));
+                assertEquals(a.getDestination().getId(), compact.getArcDestination(arc));
+                assertEquals(a.getLength(), compact.getArcLength(arc), 0);
+                assertSame(a.getRoadInformation(), compact.getArcRoadInformation(arc));
+                assertEquals(a.getMinimumTravelTime(), compact.getArcMinimumTravelTime(arc),
+                        1e-9);
+                assertSame(a, compact.getArc(graph, arc));
+                ++arc;
+            }
+            assertEquals(compact.getEndArc(node.getId()), arc);
+        }
+    }
+
+}
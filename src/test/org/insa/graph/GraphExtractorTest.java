@@ -0,0 +1,197 @@
+package org.insa.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.insa.graph.GraphStatistics.BoundingBox;
+import org.insa.graph.generator.RoadNetworkGenerator;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class GraphExtractorTest {
+
+    // Graph to extract from, and box around its central part.
+    private static Graph graph;
+    private static BoundingBox box;
+
+    @BeforeClass
+    public static void initAll() {
+        RoadNetworkGenerator generator = new RoadNetworkGenerator(3000, 5);
+        generator.setOneWayRatio(0.3);
+        graph = generator.generate();
+        float minLongitude = Float.POSITIVE_INFINITY, minLatitude = Float.POSITIVE_INFINITY,
+                maxLongitude = Float.NEGATIVE_INFINITY, maxLatitude = Float.NEGATIVE_INFINITY;
+        for (Node node: graph) {
+            minLongitude = Math.min(minLongitude, node.getPoint().getLongitude());
+            minLatitude = Math.min(minLatitude, node.getPoint().getLatitude());
+            maxLongitude = Math.max(maxLongitude, node.getPoint().getLongitude());
+            maxLatitude = Math.max(maxLatitude, node.getPoint().getLatitude());
+        }
+        final float dx = (maxLongitude - minLongitude) / 4,
+                dy = (maxLatitude - minLatitude) / 4;
+        box = new BoundingBox(new Point(minLongitude + dx, maxLatitude - dy),
+                new Point(maxLongitude - dx, minLatitude + dy));
+    }
+
+    /**
+     * Check that the given subgraph contains exactly the nodes of its parent
+     * accepted by the given filter, and the arcs between them.
+     */
+    private static void assertSubgraph(Subgraph subgraph, boolean[] expected) {
+        Graph parent = subgraph.getParent(), extracted = subgraph.getGraph();
+        int nbExpected = 0, previous = -1;
+        for (Node node: parent) {
+            if (expected[node.getId()]) {
+                ++nbExpected;
+                assertEquals(node.getId(), subgraph.getParentId(subgraph.getId(node.getId())));
+            }
+            else {
+                assertEquals(-1, subgraph.getId(node.getId()));
+                assertNull(subgraph.getNode(node));
+            }
+        }
+        assertEquals(nbExpected, extracted.size());
+        assertEquals(nbExpected, subgraph.size());
+
+        for (Node node: extracted) {
+            Node parentNode = subgraph.getParentNode(node);
+            assertTrue(parentNode.getId() > previous);
+            previous = parentNode.getId();
+            assertSame(node, subgraph.getNode(parentNode));
+            assertSame(parentNode.getPoint(), node.getPoint());
+
+            // Same successors, in the same order.
+            List<Arc> arcs = new ArrayList<>();
+            for (Arc arc: parentNode) {
+                if (expected[arc.getDestination().getId()]) {
+                    arcs.add(arc);
+                }
+            }
+            assertEquals(arcs.size(), node.getNumberOfSuccessors());
+            int i = 0;
+            for (Arc arc: node) {
+                Arc parentArc = arcs.get(i++);
+                assertEquals(parentArc.getDestination().getId(),
+                        subgraph.getParentId(arc.getDestination().getId()));
+                assertEquals(parentArc.getLength(), arc.getLength(), 0);
+                assertSame(parentArc.getRoadInformation(), arc.getRoadInformation());
+                assertEquals(parentArc.getPoints(), arc.getPoints());
+            }
+        }
+    }
+
+    @Test
+    public void testBoundingBox() {
+        Subgraph subgraph = new GraphExtractor(graph).extract(box);
+        boolean[] expected = new boolean[graph.size()];
+        for (Node node: graph) {
+            expected[node.getId()] = box.contains(node.getPoint());
+        }
+        assertSubgraph(subgraph, expected);
+        assertTrue(subgraph.size() > 0 && subgraph.size() < graph.size());
+
+        // Statistics of the extracted graph.
+        int nbOneWay = 0, nbTwoWays = 0;
+        for (Node node: subgraph.getGraph()) {
+            assertTrue(subgraph.getGraph().getGraphInformation().getBoundingBox()
+                    .contains(node.getPoint()));
+            for (Arc arc: node) {
+                if (arc.getRoadInformation().isOneWay()) {
+                    ++nbOneWay;
+                }
+                else {
+                    ++nbTwoWays;
+                }
+            }
+        }
+        GraphStatistics stats = subgraph.getGraph().getGraphInformation();
+        assertEquals(nbOneWay, stats.getOneWayRoadCount());
+        assertEquals(nbTwoWays, 2 * stats.getTwoWaysRoadCount());
+    }
+
+    @Test
+    public void testPolygon() {
+        // Triangle made of the top left, top right and bottom left corners of the
+        // box.
+        Point topLeft = box.getTopLeftPoint(), bottomRight = box.getBottomRightPoint();
+        List<Point> polygon = Arrays.asList(topLeft,
+                new Point(bottomRight.getLongitude(), topLeft.getLatitude()),
+                new Point(topLeft.getLongitude(), bottomRight.getLatitude()));
+        Subgraph subgraph = new GraphExtractor(graph).extract(polygon);
+
+        final float width = bottomRight.getLongitude() - topLeft.getLongitude(),
+                height = topLeft.getLatitude() - bottomRight.getLatitude();
+        boolean[] expected = new boolean[graph.size()];
+        for (Node node: graph) {
+            float x = (node.getPoint().getLongitude() - topLeft.getLongitude()) / width,
+                    y = (topLeft.getLatitude() - node.getPoint().getLatitude()) / height;
+            expected[node.getId()] = x > 0 && y > 0 && x + y < 1;
+        }
+        // Ignore nodes too close to the edges of the triangle.
+        for (Node node: graph) {
+            float x = (node.getPoint().getLongitude() - topLeft.getLongitude()) / width,
+                    y = (topLeft.getLatitude() - node.getPoint().getLatitude()) / height;
+            if (Math.abs(x) < 1e-4 || Math.abs(y) < 1e-4 || Math.abs(x + y - 1) < 1e-4) {
+                expected[node.getId()] = subgraph.getId(node.getId()) >= 0;
+            }
+        }
+        assertSubgraph(subgraph, expected);
+        assertTrue(subgraph.size() > 0);
+    }
+
+    @Test
+    public void testLargestComponentOnly() {
+        GraphExtractor extractor = new GraphExtractor(graph);
+        extractor.setLargestComponentOnly(true);
+        assertTrue(extractor.isLargestComponentOnly());
+        Subgraph subgraph = extractor.extract(box);
+
+        // The extracted graph is strongly connected, and as large as the largest
+        // component of the extracted box.
+        StronglyConnectedComponents components = new StronglyConnectedComponents(
+                subgraph.getGraph());
+        assertEquals(1, components.getComponentCount());
+        Graph boxGraph = new GraphExtractor(graph).extract(box).getGraph();
+        StronglyConnectedComponents boxComponents = new StronglyConnectedComponents(boxGraph);
+        assertTrue(boxComponents.getComponentCount() > 1);
+        assertEquals(boxComponents.getComponentSize(boxComponents.getLargestComponent()),
+                subgraph.size());
+
+        boolean[] expected = new boolean[graph.size()];
+        for (int id = 0; id < subgraph.size(); ++id) {
+            expected[subgraph.getParentId(id)] = true;
+        }
+        assertSubgraph(subgraph, expected);
+    }
+
+    @Test
+    public void testMapId() {
+        GraphExtractor extractor = new GraphExtractor(graph);
+        String boxId = extractor.extract(box).getGraph().getMapId();
+        assertTrue(!boxId.equals(graph.getMapId()));
+        assertTrue(boxId.startsWith(graph.getMapId()));
+        assertTrue(boxId.length() <= 32);
+        assertEquals(boxId, extractor.extract(box).getGraph().getMapId());
+        extractor.setLargestComponentOnly(true);
+        assertTrue(!boxId.equals(extractor.extract(box).getGraph().getMapId()));
+
+        // Long parent IDs are shortened.
+        String longId = GraphExtractor.getExtractMapId("0123456789012345678901234567890123",
+                new int[] { 1, 2 });
+        assertTrue(longId.length() <= 32);
+    }
+
+    @Test
+    public void testEmpty() {
+        Subgraph subgraph = new GraphExtractor(graph).extract((node) -> false);
+        assertEquals(0, subgraph.getGraph().size());
+        assertEquals(-1, subgraph.getId(0));
+    }
+
+}
@@ -0,0 +1,116 @@
+package org.insa.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.insa.algo.ArcInspector;
+import org.insa.graph.RoadInformation.RoadType;
+
+/**
+ * Graphs and helpers shared by tests.
+ *
+ * Test graphs are square grids of nodes, 0.01 degree apart from (1, 43), each
+ * node being linked to its right and top neighbours by a random road.
+ *
+ */
+public final class GraphFixtures {
+
+    /**
+     * Way of linking two neighbours of a grid.
+     */
+    public interface RoadLinker {
+
+        /**
+         * Link the given neighbours (or not).
+         *
+         * @param node Node of the grid.
+         * @param neighbour Right or top neighbour of the node.
+         * @param random Random generator of the grid.
+         */
+        public void link(Node node, Node neighbour, Random random);
+
+    }
+
+    // One-way and two-way roads of grids created by createGrid(int, Random, int).
+    private static final RoadInformation ONE_WAY = new RoadInformation(RoadType.PRIMARY,
+            new AccessRestrictions(), true, 90, "");
+    private static final RoadInformation TWO_WAYS = new RoadInformation(RoadType.RESIDENTIAL,
+            new AccessRestrictions(), false, 30, "");
+
+    private GraphFixtures() {
+    }
+
+    /**
+     * Create a grid whose roads are linked by the given linker.
+     *
+     * @param width Number of nodes on each side of the grid.
+     * @param random Random generator, used for the jitter of nodes and by the
+     *        linker.
+     * @param jitter Maximum random offset added to the coordinates of each node
+     *        (in degrees), 0 to keep nodes exactly on the grid.
+     * @param linker Linker of the roads between neighbours.
+     *
+     * @return The grid, whose maximum speed is the maximum speed of its roads.
+     */
+    public static Graph createGrid(int width, Random random, float jitter, RoadLinker linker) {
+        Node[] nodes = new Node[width * width];
+        for (int i = 0; i < nodes.length; ++i) {
+            float longitude = 1 + (i % width) * 0.01f, latitude = 43 + (i / width) * 0.01f;
+            if (jitter > 0) {
+                longitude += random.nextFloat() * jitter;
+                latitude += random.nextFloat() * jitter;
+            }
+            nodes[i] = new Node(i, new Point(longitude, latitude));
+        }
+        for (int i = 0; i < nodes.length; ++i) {
+            for (int j: new int[] { i % width + 1 < width ? i + 1 : -1, i + width }) {
+                if (j >= 0 && j < nodes.length) {
+                    linker.link(nodes[i], nodes[j], random);
+                }
+            }
+        }
+        int maxSpeed = 0;
+        for (Node node: nodes) {
+            for (Arc arc: node) {
+                maxSpeed = Math.max(maxSpeed, arc.getRoadInformation().getMaximumSpeed());
+            }
+        }
+        return new Graph("ID", "", Arrays.asList(nodes),
+                new GraphStatistics(null, 0, 0, maxSpeed, 0));
+    }
+
+    /**
+     * Create a grid with one-way primary roads (90 km/h) and two-way residential
+     * roads (30 km/h), of 500 to 1500 meters and without intermediate points.
+     *
+     * @param width Number of nodes on each side of the grid.
+     * @param random Random generator.
+     * @param missingRoads One road out of missingRoads is missing.
+     *
+     * @return The grid.
+     */
+    public static Graph createGrid(int width, Random random, int missingRoads) {
+        return createGrid(width, random, 0, (node, neighbour, r) -> {
+            if (r.nextInt(missingRoads) != 0) {
+                Node.linkNodes(node, neighbour, 500 + r.nextInt(1000),
+                        r.nextBoolean() ? ONE_WAY : TWO_WAYS, new ArrayList<>());
+            }
+        });
+    }
+
+    /**
+     * @param path A path.
+     * @param inspector An arc inspector.
+     *
+     * @return Cost of the given path for the given inspector.
+     */
+    public static double getCost(Path path, ArcInspector inspector) {
+        double cost = 0;
+        for (Arc arc: path.getArcs()) {
+            cost += inspector.getCost(arc);
+        }
+        return cost;
+    }
+
+}
@@ -1,9 +1,12 @@
 package org.insa.graph;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.insa.graph.RoadInformation.RoadType;
 import org.junit.Before;
@@ -86,4 +89,50 @@ public class NodeTest {
                 getFirstArcBetween(nodes[1], nodes[0]).getRoadInformation());
     }
 
+    @Test
+    public void testLinkNodesLazyPoints() {
+        final Point[] points = { new Point(0, 0), new Point(1, 1), new Point(2, 2) };
+        LazyPointList lazy = new LazyPointList(false) {
+            @Override
+            protected List<Point> load() {
+                return Arrays.asList(points);
+            }
+
+            @Override
+            public LazyPointList reverse() {
+                LazyPointList self = this;
+                return new LazyPointList(!isReversed()) {
+                    @Override
+                    protected List<Point> load() {
+                        return Arrays.asList(points);
+                    }
+
+                    @Override
+                    public LazyPointList reverse() {
+                        return self;
+                    }
+
+                    @Override
+                    public int size() {
+                        return points.length;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return points.length;
+            }
+        };
+
+        // Two-ways road from a node to a node with a lower ID, points are reversed.
+        Arc arc = Node.linkNodes(nodes[5], nodes[1], 0,
+                new RoadInformation(RoadType.UNCLASSIFIED, null, false, 1, null), lazy);
+        assertEquals(Arrays.asList(points), arc.getPoints());
+        List<Point> reversed = getFirstArcBetween(nodes[1], nodes[5]).getPoints();
+        for (int i = 0; i < points.length; ++i) {
+            assertSame(points[points.length - 1 - i], reversed.get(i));
+        }
+    }
+
 }
@@ -0,0 +1,121 @@
+package org.insa.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.Test;
+
+public class StronglyConnectedComponentsTest {
+
+    /**
+     * @return Random graph with the given number of nodes and (one-way) arcs.
+     */
+    private static Graph randomGraph(int nbNodes, int nbArcs, long seed) {
+        Random random = new Random(seed);
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < nbNodes; ++i) {
+            nodes.add(new Node(i, new Point(random.nextFloat(), random.nextFloat())));
+        }
+        RoadInformation info = new RoadInformation(RoadType.UNCLASSIFIED, null, true, 50, "");
+        for (int i = 0; i < nbArcs; ++i) {
+            Node.linkNodes(nodes.get(random.nextInt(nbNodes)), nodes.get(random.nextInt(nbNodes)),
+                    1 + random.nextInt(100), info, new ArrayList<>());
+        }
+        return new Graph("0x0", "", nodes, new GraphStatistics(null, nbArcs, 0, 50, 100));
+    }
+
+    /**
+     * @return Reachability matrix of the given graph, only following arcs with an
+     *         even length if even is true.
+     */
+    private static boolean[][] reachability(Graph graph, boolean even) {
+        final int n = graph.size();
+        boolean[][] reach = new boolean[n][n];
+        for (Node node: graph) {
+            reach[node.getId()][node.getId()] = true;
+            for (Arc arc: node) {
+                if (!even || ((int) arc.getLength()) % 2 == 0) {
+                    reach[node.getId()][arc.getDestination().getId()] = true;
+                }
+            }
+        }
+        for (int k = 0; k < n; ++k) {
+            for (int i = 0; i < n; ++i) {
+                if (reach[i][k]) {
+                    for (int j = 0; j < n; ++j) {
+                        reach[i][j] |= reach[k][j];
+                    }
+                }
+            }
+        }
+        return reach;
+    }
+
+    /**
+     * Check the given components against the given reachability matrix.
+     */
+    private static void assertComponents(boolean[][] reach,
+            StronglyConnectedComponents components) {
+        final int n = reach.length;
+        int[] sizes = new int[components.getComponentCount()];
+        for (int i = 0; i < n; ++i) {
+            ++sizes[components.getComponent(i)];
+            for (int j = 0; j < n; ++j) {
+                assertEquals(reach[i][j] && reach[j][i],
+                        components.getComponent(i) == components.getComponent(j));
+                // Components are numbered in reverse topological order.
+                if (reach[i][j]) {
+                    assertTrue(components.getComponent(i) >= components.getComponent(j));
+                }
+            }
+        }
+        int largest = 0;
+        for (int c = 0; c < sizes.length; ++c) {
+            assertEquals(sizes[c], components.getComponentSize(c));
+            largest = Math.max(largest, sizes[c]);
+        }
+        assertEquals(largest, components.getComponentSize(components.getLargestComponent()));
+    }
+
+    @Test
+    public void testRandomGraphs() {
+        for (int seed = 0; seed < 20; ++seed) {
+            Graph graph = randomGraph(60, 30 + 5 * seed, seed);
+            assertComponents(reachability(graph, false), new StronglyConnectedComponents(graph));
+        }
+    }
+
+    @Test
+    public void testArcFilter() {
+        for (int seed = 0; seed < 10; ++seed) {
+            Graph graph = randomGraph(60, 150, seed);
+            ArcNumbering numbering = ArcNumbering.forGraph(graph);
+            assertComponents(reachability(graph, true), new StronglyConnectedComponents(graph,
+                    (arc) -> ((int) numbering.getArc(arc).getLength()) % 2 == 0));
+        }
+    }
+
+    @Test
+    public void testLongPath() {
+        // Deep enough to overflow the stack of a recursive implementation.
+        final int n = 200000;
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            nodes.add(new Node(i, new Point(0, 0)));
+        }
+        RoadInformation info = new RoadInformation(RoadType.UNCLASSIFIED, null, true, 50, "");
+        for (int i = 0; i < n; ++i) {
+            Node.linkNodes(nodes.get(i), nodes.get((i + 1) % n), 1, info, new ArrayList<>());
+        }
+        Graph graph = new Graph("0x0", "", nodes, new GraphStatistics(null, n, 0, 50, 1));
+        StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
+        assertEquals(1, components.getComponentCount());
+        assertEquals(n, components.getComponentSize(components.getLargestComponent()));
+    }
+
+}
@@ -0,0 +1,167 @@
+package org.insa.graph.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.insa.graph.AccessRestrictions.AccessMode;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.insa.graph.io.BinaryGraphReader;
+import org.junit.Test;
+
+public class RoadNetworkGeneratorTest {
+
+    /**
+     * @return Graph read from the binary output of the given generator.
+     */
+    private static Graph writeAndRead(RoadNetworkGenerator generator) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        generator.write(new DataOutputStream(bytes));
+        return new BinaryGraphReader(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))).read();
+    }
+
+    private static void assertPointEquals(Point expected, Point actual) {
+        assertEquals(expected.getLongitude(), actual.getLongitude(), 0);
+        assertEquals(expected.getLatitude(), actual.getLatitude(), 0);
+    }
+
+    private static void assertRoadInformationEquals(RoadInformation expected,
+            RoadInformation actual) {
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.isOneWay(), actual.isOneWay());
+        assertEquals(expected.getMaximumSpeed(), actual.getMaximumSpeed());
+        assertEquals(expected.getName(), actual.getName());
+        for (AccessMode mode: AccessMode.values()) {
+            assertEquals(expected.getAccessRestrictions().getRestrictionFor(mode),
+                    actual.getAccessRestrictions().getRestrictionFor(mode));
+        }
+    }
+
+    @Test
+    public void testWrittenGraphEqualsGeneratedGraph() throws IOException {
+        RoadNetworkGenerator generator = new RoadNetworkGenerator(10000, 42);
+        Graph expected = generator.generate();
+        Graph actual = writeAndRead(generator);
+
+        assertEquals(expected.getMapId(), actual.getMapId());
+        assertEquals(expected.getMapName(), actual.getMapName());
+        assertEquals(expected.size(), actual.size());
+        for (Node node: expected) {
+            Node other = actual.get(node.getId());
+            assertPointEquals(node.getPoint(), other.getPoint());
+            assertEquals(node.getNumberOfSuccessors(), other.getNumberOfSuccessors());
+            Iterator<Arc> arcs = other.iterator();
+            for (Arc arc: node) {
+                Arc otherArc = arcs.next();
+                assertEquals(arc.getDestination().getId(), otherArc.getDestination().getId());
+                assertEquals(arc.getLength(), otherArc.getLength(), 0);
+                assertRoadInformationEquals(arc.getRoadInformation(),
+                        otherArc.getRoadInformation());
+                List<Point> points = arc.getPoints(), otherPoints = otherArc.getPoints();
+                assertEquals(points.size(), otherPoints.size());
+                for (int i = 0; i < points.size(); ++i) {
+                    assertPointEquals(points.get(i), otherPoints.get(i));
+                }
+            }
+        }
+
+        GraphStatistics stats = expected.getGraphInformation(),
+                otherStats = actual.getGraphInformation();
+        assertEquals(stats.getOneWayRoadCount(), otherStats.getOneWayRoadCount());
+        assertEquals(stats.getTwoWaysRoadCount(), otherStats.getTwoWaysRoadCount());
+        assertEquals(stats.getMaximumSpeed(), otherStats.getMaximumSpeed());
+        assertEquals(stats.getMaximumLength(), otherStats.getMaximumLength(), 0);
+        assertPointEquals(stats.getBoundingBox().getTopLeftPoint(),
+                otherStats.getBoundingBox().getTopLeftPoint());
+        assertPointEquals(stats.getBoundingBox().getBottomRightPoint(),
+                otherStats.getBoundingBox().getBottomRightPoint());
+    }
+
+    @Test
+    public void testDeterministic() {
+        Graph g1 = new RoadNetworkGenerator(2000, 7).generate();
+        Graph g2 = new RoadNetworkGenerator(2000, 7).generate();
+        Graph g3 = new RoadNetworkGenerator(2000, 8).generate();
+        int differences = 0;
+        for (Node node: g1) {
+            assertPointEquals(node.getPoint(), g2.get(node.getId()).getPoint());
+            assertEquals(node.getNumberOfSuccessors(), g2.get(node.getId()).getNumberOfSuccessors());
+            if (node.getNumberOfSuccessors() != g3.get(node.getId()).getNumberOfSuccessors()) {
+                ++differences;
+            }
+        }
+        assertTrue(differences > 0);
+    }
+
+    @Test
+    public void testNetworkShape() {
+        RoadNetworkGenerator generator = new RoadNetworkGenerator(40000, 3);
+        generator.setOneWayRatio(0.2);
+        Graph graph = generator.generate();
+        assertEquals(40000, graph.size());
+
+        // Degrees (number of distinct neighbours) and one-way arcs.
+        int[] degrees = new int[5];
+        int nbArcs = 0, nbOneWay = 0, nbMotorway = 0, nbResidential = 0;
+        for (Node node: graph) {
+            for (Arc arc: node) {
+                ++nbArcs;
+                nbOneWay += arc.getRoadInformation().isOneWay() ? 1 : 0;
+                nbMotorway += arc.getRoadInformation().getType() == RoadType.MOTORWAY ? 1 : 0;
+                nbResidential += arc.getRoadInformation().getType() == RoadType.RESIDENTIAL ? 1
+                        : 0;
+                assertTrue(arc.getLength() > 0);
+            }
+        }
+        for (Node node: graph) {
+            Set<Integer> neighbours = new HashSet<>();
+            for (Arc arc: node) {
+                neighbours.add(arc.getDestination().getId());
+            }
+            degrees[Math.min(4, neighbours.size())] += 1;
+        }
+
+        // Mostly nodes of degree 3 and 4, some dead ends and nodes of degree 2.
+        assertTrue(degrees[1] > 0 && degrees[2] > 0 && degrees[3] > 0 && degrees[4] > 0);
+        assertTrue(degrees[3] + degrees[4] > graph.size() / 2);
+        assertTrue(nbOneWay > 0 && nbOneWay < nbArcs / 5);
+        assertTrue(nbMotorway > 0 && nbMotorway < nbResidential);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNodeCount() {
+        new RoadNetworkGenerator(0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRemovalRatio() {
+        new RoadNetworkGenerator(100, 0).setRemovalRatio(-0.1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOneWayRatio() {
+        new RoadNetworkGenerator(100, 0).setOneWayRatio(1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCurveRatio() {
+        new RoadNetworkGenerator(100, 0).setCurveRatio(Double.NaN);
+    }
+
+}
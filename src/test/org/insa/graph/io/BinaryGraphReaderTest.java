@@ -0,0 +1,76 @@
+package org.insa.graph.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.insa.graph.AccessRestrictions.AccessMode;
+import org.insa.graph.CompactGraph;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.generator.RoadNetworkGenerator;
+import org.junit.Test;
+
+public class BinaryGraphReaderTest {
+
+    private static BinaryGraphReader reader(byte[] bytes) {
+        return new BinaryGraphReader(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Check that the given descriptors have the same values (descriptors are not
+     * numbered in the same way by readCompact() and CompactGraph.fromGraph()).
+     */
+    private static void assertRoadInformationEquals(RoadInformation expected,
+            RoadInformation actual) {
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.isOneWay(), actual.isOneWay());
+        assertEquals(expected.getMaximumSpeed(), actual.getMaximumSpeed());
+        assertEquals(expected.getName(), actual.getName());
+        for (AccessMode mode: AccessMode.values()) {
+            assertEquals(expected.getAccessRestrictions().getRestrictionFor(mode),
+                    actual.getAccessRestrictions().getRestrictionFor(mode));
+        }
+    }
+
+    @Test
+    public void testReadCompact() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new RoadNetworkGenerator(5000, 7).write(new DataOutputStream(bytes));
+        CompactGraph expected = CompactGraph.fromGraph(reader(bytes.toByteArray()).read());
+        CompactGraph actual = reader(bytes.toByteArray()).readCompact();
+
+        assertEquals(expected.getMapId(), actual.getMapId());
+        assertEquals(expected.getMapName(), actual.getMapName());
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getArcCount(), actual.getArcCount());
+        for (int node = 0; node < expected.size(); ++node) {
+            assertEquals(expected.getLongitude(node), actual.getLongitude(node), 0);
+            assertEquals(expected.getLatitude(node), actual.getLatitude(node), 0);
+            assertEquals(expected.getFirstArc(node), actual.getFirstArc(node));
+            assertEquals(expected.getEndArc(node), actual.getEndArc(node));
+        }
+        for (int arc = 0; arc < expected.getArcCount(); ++arc) {
+            assertEquals(expected.getArcOrigin(arc), actual.getArcOrigin(arc));
+            assertEquals(expected.getArcDestination(arc), actual.getArcDestination(arc));
+            assertEquals(expected.getArcLength(arc), actual.getArcLength(arc), 0);
+            assertRoadInformationEquals(expected.getArcRoadInformation(arc),
+                    actual.getArcRoadInformation(arc));
+            assertEquals(expected.getArcMinimumTravelTime(arc),
+                    actual.getArcMinimumTravelTime(arc), 0);
+        }
+
+        GraphStatistics stats = expected.getGraphInformation(),
+                otherStats = actual.getGraphInformation();
+        assertEquals(stats.getOneWayRoadCount(), otherStats.getOneWayRoadCount());
+        assertEquals(stats.getTwoWaysRoadCount(), otherStats.getTwoWaysRoadCount());
+        assertEquals(stats.getMaximumSpeed(), otherStats.getMaximumSpeed());
+        assertEquals(stats.getMaximumLength(), otherStats.getMaximumLength(), 0);
+    }
+
+}
@@ -0,0 +1,192 @@
+package org.insa.graph.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.AccessRestrictions.AccessMode;
+import org.insa.graph.AccessRestrictions.AccessRestriction;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.insa.graph.generator.RoadNetworkGenerator;
+import org.junit.Test;
+
+public class BinaryGraphWriterTest {
+
+    private static byte[] write(Graph graph) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new BinaryGraphWriter(new DataOutputStream(bytes)).writeGraph(graph);
+        return bytes.toByteArray();
+    }
+
+    private static Graph read(byte[] bytes) throws IOException {
+        return new BinaryGraphReader(new DataInputStream(new ByteArrayInputStream(bytes)))
+                .read();
+    }
+
+    private static void assertPointEquals(Point expected, Point actual) {
+        assertEquals(expected.getLongitude(), actual.getLongitude(), 0);
+        assertEquals(expected.getLatitude(), actual.getLatitude(), 0);
+    }
+
+    /**
+     * Check that the given graphs are the same, including the order of successors
+     * and the points of arcs.
+     */
+    static void assertGraphEquals(Graph expected, Graph actual) {
+        assertEquals(expected.getMapId(), actual.getMapId());
+        assertEquals(expected.getMapName(), actual.getMapName());
+        assertEquals(expected.size(), actual.size());
+        for (Node node: expected) {
+            Node other = actual.get(node.getId());
+            assertPointEquals(node.getPoint(), other.getPoint());
+            assertEquals(node.getNumberOfSuccessors(), other.getNumberOfSuccessors());
+            Iterator<Arc> otherArcs = other.iterator();
+            for (Arc arc: node) {
+                Arc otherArc = otherArcs.next();
+                assertEquals(arc.getDestination().getId(), otherArc.getDestination().getId());
+                assertEquals(arc.getLength(), otherArc.getLength(), 0);
+                RoadInformation info = arc.getRoadInformation(),
+                        otherInfo = otherArc.getRoadInformation();
+                assertEquals(info.getType(), otherInfo.getType());
+                assertEquals(info.isOneWay(), otherInfo.isOneWay());
+                assertEquals(info.getMaximumSpeed(), otherInfo.getMaximumSpeed());
+                assertEquals(info.getName(), otherInfo.getName());
+                for (AccessMode mode: AccessMode.values()) {
+                    assertEquals(info.getAccessRestrictions().getRestrictionFor(mode),
+                            otherInfo.getAccessRestrictions().getRestrictionFor(mode));
+                }
+                List<Point> points = arc.getPoints(), otherPoints = otherArc.getPoints();
+                assertEquals(points.size(), otherPoints.size());
+                for (int i = 0; i < points.size(); ++i) {
+                    assertPointEquals(points.get(i), otherPoints.get(i));
+                }
+            }
+        }
+        GraphStatistics stats = expected.getGraphInformation(),
+                otherStats = actual.getGraphInformation();
+        assertEquals(stats.getOneWayRoadCount(), otherStats.getOneWayRoadCount());
+        assertEquals(stats.getTwoWaysRoadCount(), otherStats.getTwoWaysRoadCount());
+        assertEquals(stats.getMaximumSpeed(), otherStats.getMaximumSpeed());
+        assertEquals(stats.getMaximumLength(), otherStats.getMaximumLength(), 0);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        // Read a graph written by the generator, then write it and read it back.
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new RoadNetworkGenerator(5000, 11).write(new DataOutputStream(bytes));
+        Graph graph = read(bytes.toByteArray());
+        byte[] written = write(graph);
+        assertGraphEquals(graph, read(written));
+
+        // Writing the graph read back gives the same file.
+        assertArrayEquals(written, write(read(written)));
+    }
+
+    @Test
+    public void testHeader() throws IOException {
+        Graph graph = new RoadNetworkGenerator(100, 1).generate();
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(write(graph)));
+        assertEquals(BinaryGraphReader.MAGIC_NUMBER, dis.readInt());
+        assertEquals(BinaryGraphWriter.VERSION, dis.readInt());
+    }
+
+    @Test
+    public void testGraphBuiltInCode() throws IOException {
+        // Nodes with coordinates that are not exactly represented as floats.
+        Node[] nodes = new Node[4];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = new Node(i, new Point(179.123456f - i * 33.3f, -45.678912f + i * 0.001f));
+        }
+
+        // Equal but distinct descriptors, and descriptors without name or
+        // restrictions.
+        EnumMap<AccessMode, AccessRestriction> restrictions = new EnumMap<>(AccessMode.class);
+        for (AccessMode mode: AccessMode.values()) {
+            restrictions.put(mode, AccessRestriction.values()[mode.ordinal()]);
+        }
+        RoadInformation info1 = new RoadInformation(RoadType.SECONDARY,
+                new AccessRestrictions(restrictions), false, 70, "Route");
+        RoadInformation info2 = new RoadInformation(RoadType.SECONDARY,
+                new AccessRestrictions(restrictions), false, 70, "Route");
+        RoadInformation oneWay = new RoadInformation(RoadType.ROUNDABOUT,
+                new AccessRestrictions(), true, 30, "");
+
+        // Arcs from higher to lower IDs, with intermediate points (some of them far
+        // away), and a two-way loop.
+        Node.linkNodes(nodes[1], nodes[0], 1234.567f, info1, new ArrayList<>(Arrays.asList(
+                nodes[1].getPoint(), new Point(140.0f, -45.6f), nodes[0].getPoint())));
+        Node.linkNodes(nodes[2], nodes[1], 10, info2, new ArrayList<>());
+        Node.linkNodes(nodes[3], nodes[2], 0.001f, oneWay, new ArrayList<>(Arrays.asList(
+                nodes[3].getPoint(), new Point(80.00001f, -45.675f), nodes[2].getPoint())));
+        Node.linkNodes(nodes[3], nodes[3], 25, info1, new ArrayList<>(Arrays.asList(
+                nodes[3].getPoint(), new Point(79.224f, -45.674f), nodes[3].getPoint())));
+        Graph graph = new Graph("0x42", "Test map", Arrays.asList(nodes),
+                new GraphStatistics(null, 1, 3, 70, 1234.567f));
+
+        Graph actual = read(write(graph));
+        assertEquals(graph.size(), actual.size());
+        for (Node node: graph) {
+            assertPointEquals(node.getPoint(), actual.get(node.getId()).getPoint());
+            assertEquals(node.getNumberOfSuccessors(),
+                    actual.get(node.getId()).getNumberOfSuccessors());
+        }
+
+        // Long segments are split, but the original points are kept.
+        Arc arc = actual.get(1).iterator().next();
+        assertEquals(0, arc.getDestination().getId());
+        assertEquals(1234.567f, arc.getLength(), 0);
+        List<Point> points = arc.getPoints();
+        assertPointEquals(nodes[0].getPoint(), points.get(points.size() - 1));
+        boolean found = false;
+        for (Point point: points) {
+            found |= point.getLongitude() == 140.0f && point.getLatitude() == -45.6f;
+        }
+        assertEquals(true, found);
+
+        // Equal descriptors are written once.
+        RoadInformation read1 = actual.get(0).iterator().next().getRoadInformation();
+        RoadInformation read2 = actual.get(2).iterator().next().getRoadInformation();
+        assertSame(read1, read2);
+        assertEquals("Route", read1.getName());
+        for (AccessMode mode: AccessMode.values()) {
+            assertEquals(restrictions.get(mode),
+                    read1.getAccessRestrictions().getRestrictionFor(mode));
+        }
+        RoadInformation readOneWay = actual.get(3).iterator().next().getRoadInformation();
+        assertNotSame(read1, readOneWay);
+        assertEquals(RoadType.ROUNDABOUT, readOneWay.getType());
+        assertEquals(0.001f, actual.get(3).iterator().next().getLength(), 0);
+
+        // The loop is written once.
+        int loops = 0;
+        for (Arc successor: actual.get(3)) {
+            if (successor.getDestination() == successor.getOrigin()) {
+                ++loops;
+                assertEquals(3, successor.getPoints().size());
+                assertPointEquals(new Point(79.224f, -45.674f), successor.getPoints().get(1));
+            }
+        }
+        assertEquals(2, loops);
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.insa.graph.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.AccessRestrictions.AccessMode;
+import org.insa.graph.AccessRestrictions.AccessRestriction;
+import org.insa.graph.CompactGraph;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.GraphStatistics.BoundingBox;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class GraphSnapshotTest {
+
+    // Compact graph written to the snapshot
+    private static CompactGraph compact;
+
+    // Snapshot file
+    private static File file;
+
+    @BeforeClass
+    public static void initAll() throws IOException {
+
+        // Create nodes
+        Node[] nodes = new Node[4];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = new Node(i, new Point(i * 0.5f, 43 + i));
+        }
+
+        AccessRestrictions access = new AccessRestrictions();
+        RoadInformation twoWays = new RoadInformation(RoadType.RESIDENTIAL, access, false, 30,
+                "Rue du Test");
+        RoadInformation oneWay = new RoadInformation(RoadType.MOTORWAY, null, true, 130, null);
+
+        Node.linkNodes(nodes[0], nodes[1], 10, twoWays, new ArrayList<>());
+        Node.linkNodes(nodes[1], nodes[2], 20.5f, oneWay, new ArrayList<>());
+        Node.linkNodes(nodes[3], nodes[0], 30, twoWays, new ArrayList<>());
+
+        GraphStatistics stats = new GraphStatistics(
+                new BoundingBox(new Point(0, 46), new Point(1.5f, 43)), 1, 2, 130, 30);
+        Graph graph = new Graph("0x42", "Test map", Arrays.asList(nodes), stats);
+        compact = CompactGraph.fromGraph(graph);
+
+        file = File.createTempFile("graph", ".snapshot");
+        file.deleteOnExit();
+        new GraphSnapshotWriter(new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))).writeGraph(graph);
+    }
+
+    @Test
+    public void testReadSnapshot() throws IOException {
+        CompactGraph read = new GraphSnapshotReader(file).read(compact.getMapId());
+        assertEquals(compact.getMapId(), read.getMapId());
+        assertEquals(compact.getMapName(), read.getMapName());
+        assertEquals(compact.size(), read.size());
+        assertEquals(compact.getArcCount(), read.getArcCount());
+        for (int node = 0; node < compact.size(); ++node) {
+            assertEquals(compact.getLongitude(node), read.getLongitude(node), 0);
+            assertEquals(compact.getLatitude(node), read.getLatitude(node), 0);
+            assertEquals(compact.getFirstArc(node), read.getFirstArc(node));
+        }
+        for (int arc = 0; arc < compact.getArcCount(); ++arc) {
+            assertEquals(compact.getArcDestination(arc), read.getArcDestination(arc));
+            assertEquals(compact.getArcLength(arc), read.getArcLength(arc), 0);
+            assertEquals(compact.getArcRoadInformationIndex(arc),
+                    read.getArcRoadInformationIndex(arc));
+        }
+        for (int i = 0; i < compact.getRoadInformationCount(); ++i) {
+            RoadInformation expected = compact.getRoadInformation(i);
+            RoadInformation actual = read.getRoadInformation(i);
+            assertSame(expected.getType(), actual.getType());
+            assertEquals(expected.isOneWay(), actual.isOneWay());
+            assertEquals(expected.getMaximumSpeed(), actual.getMaximumSpeed());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getAccessRestrictions() == null,
+                    actual.getAccessRestrictions() == null);
+            if (expected.getAccessRestrictions() != null) {
+                for (AccessMode mode: AccessMode.values()) {
+                    assertSame(AccessRestriction.UNKNOWN,
+                            actual.getAccessRestrictions().getRestrictionFor(mode));
+                }
+            }
+        }
+        GraphStatistics stats = read.getGraphInformation();
+        assertEquals(1, stats.getOneWayRoadCount());
+        assertEquals(2, stats.getTwoWaysRoadCount());
+        assertEquals(130, stats.getMaximumSpeed());
+        assertEquals(46, stats.getBoundingBox().getTopLeftPoint().getLatitude(), 0);
+    }
+
+    @Test(expected = MapMismatchException.class)
+    public void testMapMismatch() throws IOException {
+        new GraphSnapshotReader(file).read("0x43");
+    }
+
+}
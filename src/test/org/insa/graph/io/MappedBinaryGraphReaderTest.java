@@ -0,0 +1,200 @@
+package org.insa.graph.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.generator.RoadNetworkGenerator;
+import org.insa.graph.io.MappedBinaryGraphReader.GeometryMode;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MappedBinaryGraphReaderTest {
+
+    // File written by the generator, and graph read from it by BinaryGraphReader.
+    private static File file;
+    private static Graph expected;
+
+    @BeforeClass
+    public static void initAll() throws IOException {
+        file = File.createTempFile("mapped", ".mapgr");
+        try (DataOutputStream dos = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            new RoadNetworkGenerator(3000, 5).write(dos);
+        }
+        try (DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            expected = new BinaryGraphReader(dis).read();
+        }
+    }
+
+    @AfterClass
+    public static void closeAll() {
+        file.delete();
+    }
+
+    /**
+     * Observer recording the events it receives, each kind of event for nodes,
+     * descriptors and arcs being recorded once in a row.
+     */
+    private static class EventRecorder implements GraphReaderObserver {
+
+        // Events received.
+        final List<String> events = new ArrayList<>();
+
+        private void record(String event) {
+            if (events.isEmpty() || !events.get(events.size() - 1).equals(event)) {
+                events.add(event);
+            }
+        }
+
+        @Override
+        public void notifyStartReading(String mapId) {
+            record("start " + mapId);
+        }
+
+        @Override
+        public void notifyEndReading() {
+            record("end");
+        }
+
+        @Override
+        public void notifyStartReadingNodes(int nNodes) {
+            record("nodes " + nNodes);
+        }
+
+        @Override
+        public void notifyNewNodeRead(Node node) {
+            record("node");
+        }
+
+        @Override
+        public void notifyStartReadingDescriptors(int nDesc) {
+            record("descriptors " + nDesc);
+        }
+
+        @Override
+        public void notifyNewDescriptorRead(RoadInformation desc) {
+            record("descriptor");
+        }
+
+        @Override
+        public void notifyStartReadingArcs(int nArcs) {
+            record("arcs " + nArcs);
+        }
+
+        @Override
+        public void notifyNewArcRead(Arc arc) {
+            record("arc");
+        }
+
+    }
+
+    private static Graph read(GeometryMode mode) throws IOException {
+        MappedBinaryGraphReader reader = new MappedBinaryGraphReader(file);
+        reader.setGeometryMode(mode);
+        return reader.read();
+    }
+
+    private static void assertPointEquals(Point expected, Point actual) {
+        assertEquals(expected.getLongitude(), actual.getLongitude(), 0);
+        assertEquals(expected.getLatitude(), actual.getLatitude(), 0);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (GeometryMode mode: new GeometryMode[] { GeometryMode.EAGER, GeometryMode.LAZY }) {
+            BinaryGraphWriterTest.assertGraphEquals(expected, read(mode));
+        }
+    }
+
+    @Test
+    public void testObserverOrder() throws IOException {
+        EventRecorder expectedEvents = new EventRecorder();
+        try (DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            BinaryGraphReader reader = new BinaryGraphReader(dis);
+            reader.addObserver(expectedEvents);
+            reader.read();
+        }
+        EventRecorder actualEvents = new EventRecorder();
+        MappedBinaryGraphReader reader = new MappedBinaryGraphReader(file);
+        reader.addObserver(actualEvents);
+        reader.read();
+        assertEquals(expectedEvents.events, actualEvents.events);
+    }
+
+    @Test
+    public void testLazyPoints() throws IOException {
+        Graph actual = read(GeometryMode.LAZY);
+        for (Node node: expected) {
+            Iterator<Arc> otherArcs = actual.get(node.getId()).iterator();
+            for (Arc arc: node) {
+                List<Point> points = arc.getPoints(),
+                        otherPoints = otherArcs.next().getPoints();
+                assertEquals(points.size(), otherPoints.size());
+                // Access by index and by iteration.
+                for (int i = 0; i < points.size(); ++i) {
+                    assertPointEquals(points.get(i), otherPoints.get(i));
+                }
+                Iterator<Point> it = otherPoints.iterator();
+                for (Point point: points) {
+                    assertPointEquals(point, it.next());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLazyPointsNotRetained() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putShort(0, (short) 1000).putShort(2, (short) 2000);
+        buffer.putShort(4, (short) -1000).putShort(6, (short) 3000);
+        MappedPointList.Geometry geometry = new MappedPointList.Geometry(buffer, 0);
+        Point origin = new Point(1, 43), destination = new Point(1.1f, 43.1f);
+        List<Point> first = new MappedPointList(geometry, 0, 1, origin, destination, false);
+        List<Point> second = new MappedPointList(geometry, 4, 1, origin, destination, true);
+
+        // Consecutive accesses to the same list share the decoded points, but
+        // lists do not keep them once another list is accessed (no cache).
+        Point point = first.get(1);
+        assertPointEquals(new Point(1.005f, 43.01f), point);
+        assertSame(point, first.get(1));
+        assertPointEquals(new Point(0.995f, 43.015f), second.get(1));
+        assertNotSame(point, first.get(1));
+        assertPointEquals(point, first.get(1));
+    }
+
+    @Test
+    public void testSkipPoints() throws IOException {
+        Graph actual = read(GeometryMode.SKIP);
+        for (Node node: actual) {
+            for (Arc arc: node) {
+                List<Point> points = arc.getPoints();
+                assertEquals(2, points.size());
+                assertPointEquals(arc.getOrigin().getPoint(), points.get(0));
+                assertPointEquals(arc.getDestination().getPoint(), points.get(1));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package org.insa.graph.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.graph.AccessRestrictions;
+import org.insa.graph.Arc;
+import org.insa.graph.Graph;
+import org.insa.graph.GraphFixtures;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.insa.graph.RoadInformation;
+import org.insa.graph.RoadInformation.RoadType;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ArcSegmentIndexTest {
+
+    // Grid graph with one-way and two-way roads, some of them with intermediate
+    // points, its arcs and its index.
+    private static Graph graph;
+    private static List<Arc> allArcs;
+    private static ArcSegmentIndex index;
+
+    // Scale applied to longitudes by the index.
+    private static double scale;
+
+    @BeforeClass
+    public static void initAll() {
+        RoadInformation oneWay = new RoadInformation(RoadType.RESIDENTIAL,
+                new AccessRestrictions(), true, 30, "");
+        RoadInformation twoWays = new RoadInformation(RoadType.RESIDENTIAL,
+                new AccessRestrictions(), false, 30, "");
+        graph = GraphFixtures.createGrid(20, new Random(5), 0.004f, (node, neighbour, random) -> {
+            List<Point> points = new ArrayList<>();
+            if (random.nextBoolean()) {
+                Point from = node.getPoint(), to = neighbour.getPoint();
+                points.add(from);
+                for (int k = 1; k <= 2; ++k) {
+                    points.add(new Point(
+                            from.getLongitude() + k * (to.getLongitude() - from.getLongitude()) / 3
+                                    + (random.nextFloat() - 0.5f) * 0.004f,
+                            from.getLatitude() + k * (to.getLatitude() - from.getLatitude()) / 3
+                                    + (random.nextFloat() - 0.5f) * 0.004f));
+                }
+                points.add(to);
+            }
+            Node.linkNodes(node, neighbour, 1000, random.nextInt(4) == 0 ? oneWay : twoWays,
+                    points);
+        });
+        index = new ArcSegmentIndex(graph);
+
+        allArcs = new ArrayList<>();
+        double latitudes = 0;
+        for (Node node: graph) {
+            for (Arc arc: node) {
+                allArcs.add(arc);
+                if (arc.getRoadInformation().isOneWay()
+                        || arc.getOrigin().getId() < arc.getDestination().getId()) {
+                    latitudes += arc.getOrigin().getPoint().getLatitude();
+                }
+            }
+        }
+        scale = Math.cos(Math.toRadians(latitudes / index.getArcCount()));
+    }
+
+    /**
+     * @return Squared projected distance between the given point and the given
+     *         segment.
+     */
+    private static double distance(Point point, Point from, Point to) {
+        double x = point.getLongitude() * scale, y = point.getLatitude();
+        double x1 = from.getLongitude() * scale, y1 = from.getLatitude();
+        double x2 = to.getLongitude() * scale, y2 = to.getLatitude();
+        double dx = x2 - x1, dy = y2 - y1, length = dx * dx + dy * dy;
+        double t = length == 0 ? 0
+                : Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / length));
+        double ex = x1 + t * dx - x, ey = y1 + t * dy - y;
+        return ex * ex + ey * ey;
+    }
+
+    /**
+     * @return Squared projected distance between the given point and the closest
+     *         segment of the given arc.
+     */
+    private static double distance(Point point, Arc arc) {
+        List<Point> geometry = ArcPosition.getGeometry(arc);
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i + 1 < geometry.size(); ++i) {
+            best = Math.min(best, distance(point, geometry.get(i), geometry.get(i + 1)));
+        }
+        return best;
+    }
+
+    /**
+     * @return Random points around and inside the area of the graph.
+     */
+    private static List<Point> queries() {
+        Random random = new Random(11);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 300; ++i) {
+            points.add(new Point(0.95f + 0.3f * random.nextFloat(),
+                    42.95f + 0.3f * random.nextFloat()));
+        }
+        return points;
+    }
+
+    @Test
+    public void testSize() {
+        int nbSegments = 0, nbArcs = 0;
+        for (Arc arc: allArcs) {
+            if (arc.getRoadInformation().isOneWay()
+                    || arc.getOrigin().getId() < arc.getDestination().getId()) {
+                nbArcs += 1;
+                nbSegments += ArcPosition.getSegmentCount(arc);
+            }
+        }
+        assertEquals(nbArcs, index.getArcCount());
+        assertEquals(nbSegments, index.getSegmentCount());
+    }
+
+    @Test
+    public void testFindNearest() {
+        for (Point point: queries()) {
+            double expected = Double.POSITIVE_INFINITY;
+            for (Arc arc: allArcs) {
+                expected = Math.min(expected, distance(point, arc));
+            }
+            ArcPosition position = index.findNearest(point);
+            assertNotNull(position);
+            assertEquals(expected, distance(point, position.getArc()), 1e-12);
+            assertEquals(Math.sqrt(expected),
+                    Math.sqrt(distance(point, position.getPoint(), position.getPoint())), 5e-6);
+            assertEquals(Point.distance(point, position.getPoint()), position.getDistance(),
+                    1e-3);
+            assertTrue(position.getFraction() >= 0 && position.getFraction() <= 1);
+            assertTrue(position.getSegment() >= 0
+                    && position.getSegment() < ArcPosition.getSegmentCount(position.getArc()));
+        }
+    }
+
+    @Test
+    public void testFindNearestWithFilter() {
+        for (Point point: queries()) {
+            double expected = Double.POSITIVE_INFINITY;
+            for (Arc arc: allArcs) {
+                if (arc.getRoadInformation().isOneWay()) {
+                    expected = Math.min(expected, distance(point, arc));
+                }
+            }
+            ArcPosition position = index.findNearest(point,
+                    (arc) -> arc.getRoadInformation().isOneWay());
+            assertTrue(position.getArc().getRoadInformation().isOneWay());
+            assertEquals(expected, distance(point, position.getArc()), 1e-12);
+        }
+        assertNull(index.findNearest(queries().get(0), (arc) -> false));
+    }
+
+    @Test
+    public void testFraction() {
+        for (Arc arc: allArcs) {
+            ArcPosition atOrigin = index.findNearest(arc.getOrigin().getPoint(),
+                    (candidate) -> candidate == arc || candidate == ArcPosition.getReverseArc(arc));
+            ArcPosition origin = atOrigin.getArc() == arc ? atOrigin : atOrigin.reverse();
+            assertSame(arc, origin.getArc());
+            assertEquals(0, origin.getFraction(), 1e-6);
+            assertEquals(0, origin.getSegment());
+            if (!arc.getRoadInformation().isOneWay()) {
+                assertEquals(1, origin.reverse().getFraction(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testReverse() {
+        for (Arc arc: allArcs) {
+            Arc reverse = ArcPosition.getReverseArc(arc);
+            if (arc.getRoadInformation().isOneWay()) {
+                assertNull(reverse);
+            }
+            else {
+                assertEquals(arc.getOrigin(), reverse.getDestination());
+                assertEquals(arc.getDestination(), reverse.getOrigin());
+                assertSame(arc, ArcPosition.getReverseArc(reverse));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        Graph empty = new Graph("ID", "", Collections.emptyList(),
+                new GraphStatistics(null, 0, 0, 90, 0));
+        assertNull(new ArcSegmentIndex(empty).findNearest(new Point(1, 43)));
+    }
+
+}
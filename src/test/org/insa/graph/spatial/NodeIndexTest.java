@@ -0,0 +1,153 @@
+package org.insa.graph.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.insa.graph.Graph;
+import org.insa.graph.GraphStatistics;
+import org.insa.graph.Node;
+import org.insa.graph.Point;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class NodeIndexTest {
+
+    // Graph with random nodes (and some duplicate points), its nodes and its
+    // index.
+    private static Graph graph;
+    private static List<Node> allNodes;
+    private static NodeIndex index;
+
+    // Scale applied to longitudes by the index.
+    private static double scale;
+
+    @BeforeClass
+    public static void initAll() {
+        Random random = new Random(17);
+        List<Node> nodes = new ArrayList<>();
+        double latitudes = 0;
+        for (int i = 0; i < 2000; ++i) {
+            Point point = i % 10 == 9 ? nodes.get(random.nextInt(i)).getPoint()
+                    : new Point(1 + random.nextFloat(), 43 + random.nextFloat());
+            nodes.add(new Node(i, point));
+            latitudes += point.getLatitude();
+        }
+        allNodes = nodes;
+        graph = new Graph("ID", "", nodes, new GraphStatistics(null, 0, 0, 90, 0));
+        index = new NodeIndex(graph);
+        scale = Math.cos(Math.toRadians(latitudes / nodes.size()));
+    }
+
+    /**
+     * @return Squared projected distance between the given points.
+     */
+    private static double distance(Point p1, Point p2) {
+        double dx = (p1.getLongitude() - p2.getLongitude()) * scale;
+        double dy = p1.getLatitude() - p2.getLatitude();
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return Nodes of the graph sorted by distance to the given point.
+     */
+    private static List<Node> sortedNodes(Point point) {
+        List<Node> nodes = new ArrayList<>(allNodes);
+        Collections.sort(nodes,
+                Comparator.comparingDouble((Node node) -> distance(node.getPoint(), point)));
+        return nodes;
+    }
+
+    /**
+     * @return Random points around and inside the area of the nodes.
+     */
+    private static List<Point> queries() {
+        Random random = new Random(3);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            points.add(new Point(0.8f + 1.4f * random.nextFloat(),
+                    42.8f + 1.4f * random.nextFloat()));
+        }
+        return points;
+    }
+
+    @Test
+    public void testFindNearest() {
+        for (Point point: queries()) {
+            Node expected = sortedNodes(point).get(0);
+            assertEquals(distance(expected.getPoint(), point),
+                    distance(index.findNearest(point).getPoint(), point), 0);
+        }
+    }
+
+    @Test
+    public void testFindNearestK() {
+        for (Point point: queries()) {
+            List<Node> expected = sortedNodes(point);
+            List<Node> actual = index.findNearest(point, 7);
+            assertEquals(7, actual.size());
+            assertEquals(7, new HashSet<>(actual).size());
+            for (int i = 0; i < actual.size(); ++i) {
+                assertEquals(distance(expected.get(i).getPoint(), point),
+                        distance(actual.get(i).getPoint(), point), 0);
+            }
+        }
+        assertEquals(0, index.findNearest(new Point(1, 43), 0).size());
+        assertEquals(graph.size(), index.findNearest(new Point(1, 43), 5000).size());
+    }
+
+    @Test
+    public void testFindInBox() {
+        Random random = new Random(5);
+        for (int i = 0; i < 100; ++i) {
+            float lon1 = 1 + random.nextFloat(), lon2 = lon1 + 0.3f * random.nextFloat();
+            float lat1 = 43 + random.nextFloat(), lat2 = lat1 + 0.3f * random.nextFloat();
+            HashSet<Node> expected = new HashSet<>();
+            for (Node node: allNodes) {
+                Point point = node.getPoint();
+                if (point.getLongitude() >= lon1 && point.getLongitude() <= lon2
+                        && point.getLatitude() >= lat1 && point.getLatitude() <= lat2) {
+                    expected.add(node);
+                }
+            }
+            List<Node> actual = index.findInBox(new Point(lon1, lat1), new Point(lon2, lat2));
+            assertEquals(expected.size(), actual.size());
+            assertTrue(expected.containsAll(actual));
+        }
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        NodeIndex empty = new NodeIndex(
+                new Graph("ID", "", new ArrayList<>(), new GraphStatistics(null, 0, 0, 90, 0)));
+        assertNull(empty.findNearest(new Point(1, 43)));
+        assertEquals(0, empty.findNearest(new Point(1, 43), 3).size());
+        assertEquals(0, empty.findInBox(new Point(0, 0), new Point(2, 44)).size());
+    }
+
+    @Test
+    public void testReleasedWithGraph() {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            nodes.add(new Node(i, new Point(1 + i * 0.01f, 43)));
+        }
+        Graph released = new Graph("ID", "", nodes, new GraphStatistics(null, 0, 0, 90, 0));
+        Node nearest = NodeIndex.forGraph(released).findNearest(new Point(1.021f, 43));
+        assertEquals(2, nearest.getId());
+        WeakReference<Graph> reference = new WeakReference<>(released);
+        released = null;
+        for (int i = 0; i < 100 && reference.get() != null; ++i) {
+            System.gc();
+        }
+        assertNull(reference.get());
+    }
+
+}